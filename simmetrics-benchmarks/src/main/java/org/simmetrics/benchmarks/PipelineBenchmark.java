@@ -0,0 +1,204 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.simplifiers.Simplifiers.removeDiacritics;
+import static org.simmetrics.simplifiers.Simplifiers.removeNonWord;
+import static org.simmetrics.simplifiers.Simplifiers.toLowerCase;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+import static org.simmetrics.tokenizers.Tokenizers.qGramWithPadding;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simmetrics.PreparedStringMetric;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.BlockDistance;
+import org.simmetrics.metrics.CosineSimilarity;
+import org.simmetrics.metrics.Jaccard;
+import org.simmetrics.metrics.JaroWinkler;
+import org.simmetrics.metrics.Levenshtein;
+import org.simmetrics.metrics.MongeElkan;
+import org.simmetrics.metrics.SimonWhite;
+import org.simmetrics.metrics.StringMetrics;
+
+import com.google.common.base.Predicate;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Multiset;
+
+/**
+ * Measures metrics composed by the
+ * {@link org.simmetrics.builders.StringMetricBuilder}. Each pipeline is
+ * measured comparing a single pair, comparing one string against all strings
+ * and comparing a prepared string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+	/**
+	 * The pipelines to measure.
+	 */
+	public enum Pipeline {
+		levenshteinLowerCase {
+			@Override
+			StringMetric create() {
+				return with(new Levenshtein())
+						.simplify(toLowerCase())
+						.build();
+			}
+		},
+		jaroWinklerNormalized {
+			@Override
+			StringMetric create() {
+				return with(new JaroWinkler())
+						.simplify(toLowerCase())
+						.simplify(removeDiacritics())
+						.build();
+			}
+		},
+		jaccardQGram {
+			@Override
+			StringMetric create() {
+				return with(new Jaccard<String>())
+						.simplify(toLowerCase())
+						.tokenize(qGram(3))
+						.build();
+			}
+		},
+		jaccardWhitespaceHashed {
+			@Override
+			StringMetric create() {
+				return with(new Jaccard<String>())
+						.tokenize(whitespace())
+						.hashTokens()
+						.build();
+			}
+		},
+		cosineSimilarityWhitespace {
+			@Override
+			StringMetric create() {
+				return with(new CosineSimilarity<String>())
+						.simplify(toLowerCase())
+						.simplify(removeNonWord())
+						.tokenize(whitespace())
+						.build();
+			}
+		},
+		simonWhiteChained {
+			@Override
+			StringMetric create() {
+				return with(new SimonWhite<String>())
+						.tokenize(whitespace())
+						.tokenize(qGram(2))
+						.build();
+			}
+		},
+		blockDistanceCached {
+			@Override
+			StringMetric create() {
+				return with(new BlockDistance<String>())
+						.simplify(toLowerCase())
+						.cacheStrings(CacheBuilder.newBuilder()
+								.maximumSize(2 * Strings.SIZE)
+								.<String, String> build())
+						.tokenize(qGramWithPadding(3))
+						.cacheTokens(CacheBuilder.newBuilder()
+								.maximumSize(2 * Strings.SIZE)
+								.<String, Multiset<String>> build())
+						.build();
+			}
+		},
+		mongeElkanFiltered {
+			@Override
+			StringMetric create() {
+				return with(new MongeElkan(new JaroWinkler()))
+						.tokenize(whitespace())
+						.filter(new Predicate<String>() {
+							@Override
+							public boolean apply(String input) {
+								return input.length() > 2;
+							}
+						})
+						.build();
+			}
+		};
+
+		abstract StringMetric create();
+	}
+
+	@Param
+	public Pipeline pipeline;
+
+	private StringMetric metric;
+
+	private List<String> candidates;
+
+	private float[] similarities;
+
+	private PreparedStringMetric prepared;
+
+	@Setup
+	public void setUp(Strings strings) {
+		metric = pipeline.create();
+		candidates = Arrays.asList(strings.b);
+		similarities = new float[candidates.size()];
+		prepared = StringMetrics.prepare(metric, strings.a[0]);
+	}
+
+	@Benchmark
+	public float compare(Strings strings) {
+		final int i = strings.next();
+		return metric.compare(strings.a[i], strings.b[i]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(Strings.SIZE)
+	public float[] compareAll(Strings strings) {
+		StringMetrics.compare(metric, strings.a[strings.next()], candidates,
+				similarities);
+		return similarities;
+	}
+
+	@Benchmark
+	public float comparePrepared(Strings strings) {
+		return prepared.compare(strings.b[strings.next()]);
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simmetrics.MultisetMetric;
+import org.simmetrics.SetMetric;
+import org.simmetrics.metrics.BlockDistance;
+import org.simmetrics.metrics.CosineSimilarity;
+import org.simmetrics.metrics.Dice;
+import org.simmetrics.metrics.GeneralizedJaccard;
+import org.simmetrics.metrics.Jaccard;
+import org.simmetrics.metrics.OverlapCoefficient;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+/**
+ * Measures the set and multiset metrics on large token collections. These
+ * metrics are dominated by the union and intersection of their arguments.
+ * <p>
+ * The metrics order the arguments of these operations by size, so swapping
+ * the sizes measures the same work. See {@link SetOperationBenchmark} for the
+ * effect of argument order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetMetricBenchmark {
+
+	/**
+	 * The metrics to measure.
+	 */
+	public enum Metric {
+		blockDistance {
+			private final MultisetMetric<String> metric = new BlockDistance<>();
+
+			@Override
+			float compare(SetMetricBenchmark b) {
+				return metric.compare(b.multisetA, b.multisetB);
+			}
+		},
+		cosineSimilarity {
+			private final MultisetMetric<String> metric = new CosineSimilarity<>();
+
+			@Override
+			float compare(SetMetricBenchmark b) {
+				return metric.compare(b.multisetA, b.multisetB);
+			}
+		},
+		dice {
+			private final SetMetric<String> metric = new Dice<>();
+
+			@Override
+			float compare(SetMetricBenchmark b) {
+				return metric.compare(b.setA, b.setB);
+			}
+		},
+		generalizedJaccard {
+			private final MultisetMetric<String> metric = new GeneralizedJaccard<>();
+
+			@Override
+			float compare(SetMetricBenchmark b) {
+				return metric.compare(b.multisetA, b.multisetB);
+			}
+		},
+		jaccard {
+			private final SetMetric<String> metric = new Jaccard<>();
+
+			@Override
+			float compare(SetMetricBenchmark b) {
+				return metric.compare(b.setA, b.setB);
+			}
+		},
+		overlapCoefficient {
+			private final SetMetric<String> metric = new OverlapCoefficient<>();
+
+			@Override
+			float compare(SetMetricBenchmark b) {
+				return metric.compare(b.setA, b.setB);
+			}
+		};
+
+		abstract float compare(SetMetricBenchmark benchmark);
+	}
+
+	@Param({ "1000", "2000", "5000" })
+	public int sizeA;
+
+	@Param({ "1000", "2000", "5000" })
+	public int sizeB;
+
+	@Param
+	public Metric metric;
+
+	Multiset<String> multisetA;
+	Multiset<String> multisetB;
+	Set<String> setA;
+	Set<String> setB;
+
+	@Setup
+	public void setUp() {
+		multisetA = multiset(sizeA);
+		multisetB = multiset(sizeB);
+		setA = multisetA.elementSet();
+		setB = multisetB.elementSet();
+	}
+
+	private static Multiset<String> multiset(int n) {
+		final Multiset<String> multiset = HashMultiset.create(n);
+		for (int i = 0; i < n; i++) {
+			multiset.add("sheep" + i);
+		}
+		return multiset;
+	}
+
+	@Benchmark
+	public float compare() {
+		return metric.compare(this);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import com.google.common.collect.Sets;
+
+/**
+ * Measures the effect of argument order on the set operations of Guava. The
+ * set and multiset metrics put the larger multiset first in a union and the
+ * smaller set or multiset first in an intersection.
+ * <p>
+ * The operations are called with the arguments in the given order. Comparing
+ * a pair of sizes with its swapped pair shows the effect of the order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetOperationBenchmark {
+
+	@Param({ "1000", "2000", "5000" })
+	public int sizeA;
+
+	@Param({ "1000", "2000", "5000" })
+	public int sizeB;
+
+	private Multiset<String> multisetA;
+	private Multiset<String> multisetB;
+	private Set<String> setA;
+	private Set<String> setB;
+
+	@Setup
+	public void setUp() {
+		multisetA = multiset(sizeA);
+		multisetB = multiset(sizeB);
+		setA = multisetA.elementSet();
+		setB = multisetB.elementSet();
+	}
+
+	private static Multiset<String> multiset(int n) {
+		final Multiset<String> multiset = HashMultiset.create(n);
+		for (int i = 0; i < n; i++) {
+			multiset.add("sheep" + i);
+		}
+		return multiset;
+	}
+
+	@Benchmark
+	public int unionOfMultisetsEntrySetSize() {
+		return Multisets.union(multisetA, multisetB).entrySet().size();
+	}
+
+	@Benchmark
+	public int unionOfMultisetsElementSetSize() {
+		return Multisets.union(multisetA, multisetB).elementSet().size();
+	}
+
+	@Benchmark
+	public int intersectionOfMultisetsEntrySetSize() {
+		return Multisets.intersection(multisetA, multisetB).entrySet().size();
+	}
+
+	@Benchmark
+	public int intersectionOfMultisetsElementSetSize() {
+		return Multisets.intersection(multisetA, multisetB).elementSet()
+				.size();
+	}
+
+	@Benchmark
+	public int intersectionOfSetsSize() {
+		return Sets.intersection(setA, setB).size();
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.text.Normalizer.Form;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simmetrics.simplifiers.Simplifiers;
+
+/**
+ * Measures the simplifiers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimplifierBenchmark {
+
+	/**
+	 * The simplifiers to measure.
+	 */
+	public enum Simplifier {
+		chain {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.chain(Simplifiers.toLowerCase(),
+						Simplifiers.removeDiacritics(),
+						Simplifiers.removeNonWord());
+			}
+		},
+		normalizeNFC {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.normalize(Form.NFC);
+			}
+		},
+		normalizeNFD {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.normalize(Form.NFD);
+			}
+		},
+		removeAll {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.removeAll("[aeiou]");
+			}
+		},
+		removeDiacritics {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.removeDiacritics();
+			}
+		},
+		removeNonWord {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.removeNonWord();
+			}
+		},
+		replaceAll {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.replaceAll("[aeiou]", "_");
+			}
+		},
+		replaceNonWord {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.replaceNonWord();
+			}
+		},
+		toLowerCase {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.toLowerCase();
+			}
+		},
+		toUpperCase {
+			@Override
+			org.simmetrics.simplifiers.Simplifier create() {
+				return Simplifiers.toUpperCase();
+			}
+		};
+
+		abstract org.simmetrics.simplifiers.Simplifier create();
+	}
+
+	@Param
+	public Simplifier simplifier;
+
+	private org.simmetrics.simplifiers.Simplifier stringSimplifier;
+
+	@Setup
+	public void setUp() {
+		stringSimplifier = simplifier.create();
+	}
+
+	@Benchmark
+	public String simplify(Strings strings) {
+		return stringSimplifier.simplify(strings.a[strings.next()]);
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simmetrics.StringDistance;
+import org.simmetrics.metrics.DamerauLevenshtein;
+import org.simmetrics.metrics.StringDistances;
+
+/**
+ * Measures the string distance metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringDistanceBenchmark {
+
+	/**
+	 * The distances to measure.
+	 */
+	public enum Distance {
+		blockDistance {
+			@Override
+			StringDistance create() {
+				return StringDistances.blockDistance();
+			}
+		},
+		cosineSimilarity {
+			@Override
+			StringDistance create() {
+				return StringDistances.cosineSimilarity();
+			}
+		},
+		damerauLevenshtein {
+			@Override
+			StringDistance create() {
+				return StringDistances.damerauLevenshtein();
+			}
+		},
+		dice {
+			@Override
+			StringDistance create() {
+				return StringDistances.dice();
+			}
+		},
+		euclideanDistance {
+			@Override
+			StringDistance create() {
+				return StringDistances.euclideanDistance();
+			}
+		},
+		generalizedJaccard {
+			@Override
+			StringDistance create() {
+				return StringDistances.generalizedJaccard();
+			}
+		},
+		hammingDistance {
+			@Override
+			StringDistance create() {
+				return StringDistances.hammingDistance();
+			}
+		},
+		identity {
+			@Override
+			StringDistance create() {
+				return StringDistances.identity();
+			}
+		},
+		jaccard {
+			@Override
+			StringDistance create() {
+				return StringDistances.jaccard();
+			}
+		},
+		jaro {
+			@Override
+			StringDistance create() {
+				return StringDistances.jaro();
+			}
+		},
+		jaroWinkler {
+			@Override
+			StringDistance create() {
+				return StringDistances.jaroWinkler();
+			}
+		},
+		levenshtein {
+			@Override
+			StringDistance create() {
+				return StringDistances.levenshtein();
+			}
+		},
+		longestCommonSubsequence {
+			@Override
+			StringDistance create() {
+				return StringDistances.longestCommonSubsequence();
+			}
+		},
+		longestCommonSubstring {
+			@Override
+			StringDistance create() {
+				return StringDistances.longestCommonSubstring();
+			}
+		},
+		overlapCoefficient {
+			@Override
+			StringDistance create() {
+				return StringDistances.overlapCoefficient();
+			}
+		},
+		qGramsDistance {
+			@Override
+			StringDistance create() {
+				return StringDistances.qGramsDistance();
+			}
+		},
+		simonWhite {
+			@Override
+			StringDistance create() {
+				return StringDistances.simonWhite();
+			}
+		},
+		// Computed by dynamic programming rather then bit-parallel
+		weightedDamerauLevenshtein {
+			@Override
+			StringDistance create() {
+				return new DamerauLevenshtein(1.0f, 1.0f, 0.999f);
+			}
+		};
+
+		abstract StringDistance create();
+	}
+
+	@Param
+	public Distance distance;
+
+	private StringDistance stringDistance;
+
+	@Setup
+	public void setUp() {
+		stringDistance = distance.create();
+	}
+
+	@Benchmark
+	public float distance(Strings strings) {
+		final int i = strings.next();
+		return stringDistance.distance(strings.a[i], strings.b[i]);
+	}
+
+}
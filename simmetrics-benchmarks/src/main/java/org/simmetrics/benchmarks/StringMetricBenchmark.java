@@ -0,0 +1,212 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.GeneralizedOverlapCoefficient;
+import org.simmetrics.metrics.StringMetrics;
+import org.simmetrics.metrics.TanimotoCoefficient;
+
+/**
+ * Measures the string similarity metrics. Metrics over tokens split the strings
+ * on whitespace unless noted otherwise by {@link StringMetrics}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringMetricBenchmark {
+
+	/**
+	 * The metrics to measure.
+	 */
+	public enum Metric {
+		blockDistance {
+			@Override
+			StringMetric create() {
+				return StringMetrics.blockDistance();
+			}
+		},
+		cosineSimilarity {
+			@Override
+			StringMetric create() {
+				return StringMetrics.cosineSimilarity();
+			}
+		},
+		damerauLevenshtein {
+			@Override
+			StringMetric create() {
+				return StringMetrics.damerauLevenshtein();
+			}
+		},
+		dice {
+			@Override
+			StringMetric create() {
+				return StringMetrics.dice();
+			}
+		},
+		euclideanDistance {
+			@Override
+			StringMetric create() {
+				return StringMetrics.euclideanDistance();
+			}
+		},
+		generalizedJaccard {
+			@Override
+			StringMetric create() {
+				return StringMetrics.generalizedJaccard();
+			}
+		},
+		generalizedOverlapCoefficient {
+			@Override
+			StringMetric create() {
+				return with(new GeneralizedOverlapCoefficient<String>()).tokenize(
+						whitespace()).build();
+			}
+		},
+		identity {
+			@Override
+			StringMetric create() {
+				return StringMetrics.identity();
+			}
+		},
+		jaccard {
+			@Override
+			StringMetric create() {
+				return StringMetrics.jaccard();
+			}
+		},
+		jaro {
+			@Override
+			StringMetric create() {
+				return StringMetrics.jaro();
+			}
+		},
+		jaroWinkler {
+			@Override
+			StringMetric create() {
+				return StringMetrics.jaroWinkler();
+			}
+		},
+		levenshtein {
+			@Override
+			StringMetric create() {
+				return StringMetrics.levenshtein();
+			}
+		},
+		longestCommonSubsequence {
+			@Override
+			StringMetric create() {
+				return StringMetrics.longestCommonSubsequence();
+			}
+		},
+		longestCommonSubstring {
+			@Override
+			StringMetric create() {
+				return StringMetrics.longestCommonSubstring();
+			}
+		},
+		mongeElkan {
+			@Override
+			StringMetric create() {
+				return StringMetrics.mongeElkan();
+			}
+		},
+		needlemanWunch {
+			@Override
+			StringMetric create() {
+				return StringMetrics.needlemanWunch();
+			}
+		},
+		overlapCoefficient {
+			@Override
+			StringMetric create() {
+				return StringMetrics.overlapCoefficient();
+			}
+		},
+		qGramsDistance {
+			@Override
+			StringMetric create() {
+				return StringMetrics.qGramsDistance();
+			}
+		},
+		simonWhite {
+			@Override
+			StringMetric create() {
+				return StringMetrics.simonWhite();
+			}
+		},
+		smithWaterman {
+			@Override
+			StringMetric create() {
+				return StringMetrics.smithWaterman();
+			}
+		},
+		smithWatermanGotoh {
+			@Override
+			StringMetric create() {
+				return StringMetrics.smithWatermanGotoh();
+			}
+		},
+		tanimotoCoefficient {
+			@Override
+			StringMetric create() {
+				return with(new TanimotoCoefficient<String>()).tokenize(
+						whitespace()).build();
+			}
+		};
+
+		abstract StringMetric create();
+	}
+
+	@Param
+	public Metric metric;
+
+	private StringMetric stringMetric;
+
+	@Setup
+	public void setUp() {
+		stringMetric = metric.create();
+	}
+
+	@Benchmark
+	public float compare(Strings strings) {
+		final int i = strings.next();
+		return stringMetric.compare(strings.a[i], strings.b[i]);
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pairs of similar strings used as input for the benchmarks. The second string
+ * of each pair is a copy of the first with about one in ten characters
+ * substituted. Both strings of a pair have the same length.
+ * <p>
+ * The strings are generated from a fixed seed so runs are comparable.
+ */
+@State(Scope.Thread)
+public class Strings {
+
+	/**
+	 * Alphabets to draw characters from.
+	 */
+	public enum Alphabet {
+		/**
+		 * Two characters. Many repeated tokens.
+		 */
+		BINARY("ab"),
+		/**
+		 * Four characters, as in DNA sequences.
+		 */
+		DNA("ACGT"),
+		/**
+		 * Lower case latin characters and spaces.
+		 */
+		LATIN("abcdefghijklmnopqrstuvwxyz    "),
+		/**
+		 * Latin characters, diacritics, punctuation and characters outside the
+		 * basic multilingual plane.
+		 */
+		UNICODE("aAbBcCdDeEéÉèüñøß.,!? 😀😁𝐀");
+
+		private final int[] codePoints;
+
+		Alphabet(String characters) {
+			codePoints = new int[characters.codePointCount(0,
+					characters.length())];
+			for (int i = 0, offset = 0; i < codePoints.length; i++) {
+				codePoints[i] = characters.codePointAt(offset);
+				offset += Character.charCount(codePoints[i]);
+			}
+		}
+
+		int random(Random random) {
+			return codePoints[random.nextInt(codePoints.length)];
+		}
+	}
+
+	/**
+	 * Number of pairs. A power of two.
+	 */
+	static final int SIZE = 64;
+
+	/**
+	 * Length of the strings in code points.
+	 */
+	@Param({ "8", "64", "512" })
+	public int length;
+
+	@Param
+	public Alphabet alphabet;
+
+	final String[] a = new String[SIZE];
+	final String[] b = new String[SIZE];
+
+	private int index;
+
+	@Setup
+	public void setUp() {
+		final Random random = new Random(1234);
+		for (int i = 0; i < SIZE; i++) {
+			final int[] codePoints = new int[length];
+			for (int j = 0; j < length; j++) {
+				codePoints[j] = alphabet.random(random);
+			}
+			a[i] = new String(codePoints, 0, length);
+
+			for (int j = 0; j < length; j++) {
+				if (random.nextInt(10) == 0) {
+					codePoints[j] = substitute(codePoints[j], random);
+				}
+			}
+			b[i] = new String(codePoints, 0, length);
+		}
+	}
+
+	/*
+	 * Substitutes a code point with one of equal char count. This keeps the
+	 * strings of a pair of equal length for HammingDistance.
+	 */
+	private int substitute(int codePoint, Random random) {
+		int substitute;
+		do {
+			substitute = alphabet.random(random);
+		} while (Character.charCount(substitute) != Character
+				.charCount(codePoint));
+		return substitute;
+	}
+
+	/**
+	 * Returns the index of the next pair.
+	 *
+	 * @return the index of the next pair
+	 */
+	int next() {
+		return index = (index + 1) & (SIZE - 1);
+	}
+
+}
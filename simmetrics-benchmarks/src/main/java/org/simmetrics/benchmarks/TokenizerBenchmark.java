@@ -0,0 +1,169 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.List;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simmetrics.tokenizers.HashingTokenizer;
+import org.simmetrics.tokenizers.Tokenizers;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Multiset;
+
+/**
+ * Measures the tokenizers. Tokenizers that don't hash their tokens are wrapped
+ * by {@link Tokenizers#hashing(org.simmetrics.tokenizers.Tokenizer)} to
+ * measure {@link HashingTokenizer#tokenizeToHashes(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+	/**
+	 * The tokenizers to measure.
+	 */
+	public enum Tokenizer {
+		pattern {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.pattern("\\s+");
+			}
+		},
+		qGram2 {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.qGram(2);
+			}
+		},
+		qGram3 {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.qGram(3);
+			}
+		},
+		qGramWithFilter3 {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.qGramWithFilter(3);
+			}
+		},
+		qGramWithPadding3 {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.qGramWithPadding(3);
+			}
+		},
+		whitespace {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.whitespace();
+			}
+		},
+		chain {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.chain(Tokenizers.whitespace(),
+						Tokenizers.qGram(2));
+			}
+		},
+		filter {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.filter(Tokenizers.whitespace(),
+						new Predicate<String>() {
+							@Override
+							public boolean apply(String input) {
+								return input.length() > 2;
+							}
+						});
+			}
+		},
+		transform {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.transform(Tokenizers.whitespace(),
+						new Function<String, String>() {
+							@Override
+							public String apply(String input) {
+								return input.toLowerCase();
+							}
+						});
+			}
+		},
+		hashing {
+			@Override
+			org.simmetrics.tokenizers.Tokenizer create() {
+				return Tokenizers.hashing(Tokenizers.whitespace());
+			}
+		};
+
+		abstract org.simmetrics.tokenizers.Tokenizer create();
+	}
+
+	@Param
+	public Tokenizer tokenizer;
+
+	private HashingTokenizer hashingTokenizer;
+
+	@Setup
+	public void setUp() {
+		hashingTokenizer = Tokenizers.hashing(tokenizer.create());
+	}
+
+	@Benchmark
+	public List<String> tokenizeToList(Strings strings) {
+		return hashingTokenizer.tokenizeToList(strings.a[strings.next()]);
+	}
+
+	@Benchmark
+	public Set<String> tokenizeToSet(Strings strings) {
+		return hashingTokenizer.tokenizeToSet(strings.a[strings.next()]);
+	}
+
+	@Benchmark
+	public Multiset<String> tokenizeToMultiset(Strings strings) {
+		return hashingTokenizer.tokenizeToMultiset(strings.a[strings.next()]);
+	}
+
+	@Benchmark
+	public long[] tokenizeToHashes(Strings strings) {
+		return hashingTokenizer.tokenizeToHashes(strings.a[strings.next()]);
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * #%L
+ * Simmetrics Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.benchmarks;
+
+import org.junit.Test;
+import org.simmetrics.benchmarks.Strings.Alphabet;
+
+@SuppressWarnings("javadoc")
+public class BenchmarksTest {
+
+	private static Strings[] strings() {
+		final Alphabet[] alphabets = Alphabet.values();
+		final Strings[] strings = new Strings[alphabets.length];
+		for (int i = 0; i < alphabets.length; i++) {
+			strings[i] = new Strings();
+			strings[i].length = 8;
+			strings[i].alphabet = alphabets[i];
+			strings[i].setUp();
+		}
+		return strings;
+	}
+
+	@Test
+	public void stringMetricBenchmark() {
+		for (StringMetricBenchmark.Metric metric : StringMetricBenchmark.Metric
+				.values()) {
+			final StringMetricBenchmark benchmark = new StringMetricBenchmark();
+			benchmark.metric = metric;
+			benchmark.setUp();
+			for (Strings s : strings()) {
+				benchmark.compare(s);
+			}
+		}
+	}
+
+	@Test
+	public void stringDistanceBenchmark() {
+		for (StringDistanceBenchmark.Distance distance : StringDistanceBenchmark.Distance
+				.values()) {
+			final StringDistanceBenchmark benchmark = new StringDistanceBenchmark();
+			benchmark.distance = distance;
+			benchmark.setUp();
+			for (Strings s : strings()) {
+				benchmark.distance(s);
+			}
+		}
+	}
+
+	@Test
+	public void tokenizerBenchmark() {
+		for (TokenizerBenchmark.Tokenizer tokenizer : TokenizerBenchmark.Tokenizer
+				.values()) {
+			final TokenizerBenchmark benchmark = new TokenizerBenchmark();
+			benchmark.tokenizer = tokenizer;
+			benchmark.setUp();
+			for (Strings s : strings()) {
+				benchmark.tokenizeToList(s);
+				benchmark.tokenizeToSet(s);
+				benchmark.tokenizeToMultiset(s);
+				benchmark.tokenizeToHashes(s);
+			}
+		}
+	}
+
+	@Test
+	public void simplifierBenchmark() {
+		for (SimplifierBenchmark.Simplifier simplifier : SimplifierBenchmark.Simplifier
+				.values()) {
+			final SimplifierBenchmark benchmark = new SimplifierBenchmark();
+			benchmark.simplifier = simplifier;
+			benchmark.setUp();
+			for (Strings s : strings()) {
+				benchmark.simplify(s);
+			}
+		}
+	}
+
+	@Test
+	public void pipelineBenchmark() {
+		for (PipelineBenchmark.Pipeline pipeline : PipelineBenchmark.Pipeline
+				.values()) {
+			for (Strings s : strings()) {
+				final PipelineBenchmark benchmark = new PipelineBenchmark();
+				benchmark.pipeline = pipeline;
+				benchmark.setUp(s);
+				benchmark.compare(s);
+				benchmark.compareAll(s);
+				benchmark.comparePrepared(s);
+			}
+		}
+	}
+
+	@Test
+	public void setMetricBenchmark() {
+		for (SetMetricBenchmark.Metric metric : SetMetricBenchmark.Metric
+				.values()) {
+			final SetMetricBenchmark benchmark = new SetMetricBenchmark();
+			benchmark.sizeA = 10;
+			benchmark.sizeB = 20;
+			benchmark.metric = metric;
+			benchmark.setUp();
+			benchmark.compare();
+		}
+	}
+
+	@Test
+	public void setOperationBenchmark() {
+		final SetOperationBenchmark benchmark = new SetOperationBenchmark();
+		benchmark.sizeA = 10;
+		benchmark.sizeB = 20;
+		benchmark.setUp();
+		benchmark.unionOfMultisetsEntrySetSize();
+		benchmark.unionOfMultisetsElementSetSize();
+		benchmark.intersectionOfMultisetsEntrySetSize();
+		benchmark.intersectionOfMultisetsElementSetSize();
+		benchmark.intersectionOfSetsSize();
+	}
+
+}
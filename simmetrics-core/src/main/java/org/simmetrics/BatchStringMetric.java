@@ -0,0 +1,58 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics;
+
+import java.util.List;
+
+/**
+ * A string metric that compares one string against many. Work that depends
+ * only on the query, such as simplification, tokenization or building lookup
+ * tables, is done once per batch rather than once per comparison.
+ * <p>
+ * The batch similarity should be consistent with the similarity such that
+ * {@code similarities[i] == compare(query, candidates.get(i))}.
+ * 
+ * @see StringMetric
+ * @see org.simmetrics.metrics.StringMetrics#compare(StringMetric, String, List,
+ *      float[])
+ */
+public interface BatchStringMetric extends StringMetric {
+
+	/**
+	 * Measures the similarity between the query and each candidate. The
+	 * similarity between the query and the candidate at index {@code i} is
+	 * stored in {@code similarities[i]}.
+	 * 
+	 * @param query
+	 *            string to compare against each candidate
+	 * @param candidates
+	 *            strings to compare
+	 * @param similarities
+	 *            array to store the similarities in, at least as long as the
+	 *            list of candidates
+	 * @throws NullPointerException
+	 *             when the query, candidates, any candidate or similarities
+	 *             is null
+	 * @throws IllegalArgumentException
+	 *             when similarities is shorter then the list of candidates
+	 */
+	void compare(String query, List<String> candidates, float[] similarities);
+}
@@ -0,0 +1,61 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics;
+
+/**
+ * A string distance that can stop measuring once the distance between two
+ * strings is known to exceed a bound. Useful when only the strings within a
+ * certain distance of each other are of interest.
+ * <p>
+ * The bounded distance should be consistent with the unbounded distance such
+ * that
+ * {@code distance(a, b) <= maxDistance => distance(a, b, maxDistance) == distance(a, b)}
+ * and
+ * {@code distance(a, b) > maxDistance => distance(a, b, maxDistance) == Float.POSITIVE_INFINITY}
+ * .
+ * 
+ * @see StringDistance
+ * @see BoundedStringMetric
+ */
+public interface BoundedStringDistance extends StringDistance {
+
+	/**
+	 * Measures the distance between string a and b provided it does not exceed
+	 * {@code maxDistance}. The measurement results in a non-negative value. A
+	 * value of {@code 0.0} indicates that {@code a} and {@code b} are similar.
+	 * When the distance exceeds {@code maxDistance}
+	 * {@link Float#POSITIVE_INFINITY} is returned.
+	 * 
+	 * @param a
+	 *            string a to compare
+	 * @param b
+	 *            string b to compare
+	 * @param maxDistance
+	 *            a non-negative upper bound for the distance
+	 * @return a non-negative value no larger then {@code maxDistance} or
+	 *         {@link Float#POSITIVE_INFINITY}
+	 * @throws NullPointerException
+	 *             when either a or b is null
+	 * @throws IllegalArgumentException
+	 *             when maxDistance is negative
+	 */
+	float distance(String a, String b, float maxDistance);
+}
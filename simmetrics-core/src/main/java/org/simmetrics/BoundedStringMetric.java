@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics;
+
+/**
+ * A string metric that can stop measuring once the similarity between two
+ * strings is known to fall below a bound. Useful when only the strings with a
+ * certain minimum similarity are of interest.
+ * <p>
+ * The bounded similarity should be consistent with the unbounded similarity
+ * such that
+ * {@code compare(a, b) >= minSimilarity => compare(a, b, minSimilarity) == compare(a, b)}
+ * and
+ * {@code compare(a, b) < minSimilarity => compare(a, b, minSimilarity) == 0.0}
+ * .
+ * 
+ * @see StringMetric
+ * @see BoundedStringDistance
+ */
+public interface BoundedStringMetric extends StringMetric {
+
+	/**
+	 * Measures the similarity between strings a and b provided it is at least
+	 * {@code minSimilarity}. The measurement results in a value between 0 and 1
+	 * (inclusive). When the similarity is less then {@code minSimilarity}
+	 * {@code 0.0} is returned.
+	 * 
+	 * @param a
+	 *            string a to compare
+	 * @param b
+	 *            string b to compare
+	 * @param minSimilarity
+	 *            a lower bound for the similarity between 0 and 1 inclusive
+	 * @return a value between {@code minSimilarity} and 1 inclusive indicating
+	 *         similarity or {@code 0.0}
+	 * @throws NullPointerException
+	 *             when either a or b is null
+	 * @throws IllegalArgumentException
+	 *             when minSimilarity is not between 0 and 1 inclusive
+	 */
+	float compare(String a, String b, float minSimilarity);
+}
@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics;
+
+/**
+ * A string metric that can prepare a query for repeated comparisons. The
+ * work that depends only on the query, such as simplification, tokenization
+ * or building lookup tables, is done once when the query is prepared.
+ * 
+ * @see PreparedStringMetric
+ * @see org.simmetrics.metrics.StringMetrics#prepare(StringMetric, String)
+ */
+public interface PreparableStringMetric extends StringMetric {
+
+	/**
+	 * Prepares a query for repeated comparisons.
+	 * 
+	 * @param query
+	 *            the query to prepare
+	 * @return a prepared query
+	 * @throws NullPointerException
+	 *             when the query is null
+	 */
+	PreparedStringMetric prepare(String query);
+}
@@ -0,0 +1,50 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics;
+
+/**
+ * Measures the similarity between a prepared query and other strings. Holds
+ * the state derived from the query, such as its tokens or lookup tables, so
+ * it is computed only once.
+ * <p>
+ * The prepared similarity should be consistent with the similarity of the
+ * metric it was prepared by such that
+ * {@code metric.prepare(query).compare(b) == metric.compare(query, b)}.
+ * <p>
+ * A prepared query is immutable and thread-safe provided the metric that
+ * prepared it is also immutable and thread-safe.
+ * 
+ * @see PreparableStringMetric
+ */
+public interface PreparedStringMetric {
+
+	/**
+	 * Measures the similarity between the prepared query and string b. The
+	 * measurement results in a value between 0 and 1 (inclusive).
+	 * 
+	 * @param b
+	 *            string to compare with the query
+	 * @return a value between 0 and 1 inclusive indicating similarity
+	 * @throws NullPointerException
+	 *             when b is null
+	 */
+	float compare(String b);
+}
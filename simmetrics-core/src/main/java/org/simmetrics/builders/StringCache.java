@@ -0,0 +1,607 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.builders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.base.Function;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A bounded cache for simplified strings and tokens. Can be used with
+ * {@code cacheStrings} and {@code cacheTokens} of the
+ * {@link StringMetricBuilder} and {@link StringDistanceBuilder}.
+ * <p>
+ * Lookups do not lock and a hit does not allocate. Misses are computed
+ * without holding a lock and added under a lock. Concurrent misses for the
+ * same string may compute its value more then once.
+ * <p>
+ * Once the total weight of the entries exceeds the maximum, entries are
+ * evicted with a policy similar to W-TinyLFU. New entries enter a small
+ * window. Entries that leave the window are only admitted to the main region
+ * when they have been looked up more often then the entry they would
+ * replace. Lookup frequencies are estimated with a count-min sketch that is
+ * halved periodically so old lookups fade. Both regions evict in clock order,
+ * giving entries that were looked up since the last pass a second chance.
+ * <p>
+ * By default collections weigh as much as their number of elements, at least
+ * 1. Other values weigh 1.
+ * <p>
+ * Hits, misses and evictions are recorded in {@link #stats()}. The
+ * {@link #asMap()} view is not supported.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <V>
+ *            type of the cached values
+ *
+ * @see <a href="https://arxiv.org/abs/1512.00727">Einziger, G., Friedman, R.,
+ *      Manes, B. (2015). TinyLFU: A Highly Efficient Cache Admission
+ *      Policy</a>
+ */
+public final class StringCache<V> extends AbstractCache<String, V> {
+
+	/**
+	 * Creates a cache that holds entries with a total weight of at most
+	 * {@code maximumWeight}. Collections weigh as much as their number of
+	 * elements, at least 1. Other values weigh 1.
+	 *
+	 * @param maximumWeight
+	 *            the maximum total weight of the entries, at least 0
+	 * @param <V>
+	 *            type of the cached values
+	 * @return a new cache
+	 */
+	public static <V> StringCache<V> create(long maximumWeight) {
+		return new StringCache<>(maximumWeight, DefaultWeigher.INSTANCE);
+	}
+
+	/**
+	 * Creates a cache that holds entries with a total weight of at most
+	 * {@code maximumWeight}.
+	 *
+	 * @param maximumWeight
+	 *            the maximum total weight of the entries, at least 0
+	 * @param weigher
+	 *            weighs the entries, weights may not be negative
+	 * @param <V>
+	 *            type of the cached values
+	 * @return a new cache
+	 */
+	public static <V> StringCache<V> create(long maximumWeight,
+			Weigher<? super String, ? super V> weigher) {
+		return new StringCache<>(maximumWeight, weigher);
+	}
+
+	/**
+	 * Returns the cached value of a key or loads it. Uses the allocation free
+	 * lookup of a {@link StringCache} when possible.
+	 */
+	static <V> V getOrLoad(Cache<String, V> cache, final String key,
+			final Function<String, V> loader) {
+		if (cache instanceof StringCache) {
+			return ((StringCache<V>) cache).getOrLoad(key, loader);
+		}
+
+		try {
+			return cache.get(key, new Callable<V>() {
+				@Override
+				public V call() {
+					return loader.apply(key);
+				}
+			});
+		} catch (ExecutionException e) {
+			// Can't happen. Loaders may not throw checked exceptions
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Fraction of the maximum weight that is used for the window, at least 1
+	private static final int WINDOW_DIVISOR = 100;
+
+	private final ConcurrentHashMap<String, Node<V>> map = new ConcurrentHashMap<>();
+	private final Weigher<? super String, ? super V> weigher;
+	private final FrequencySketch sketch;
+
+	private final StripedCounter hits = new StripedCounter();
+	private final StripedCounter misses = new StripedCounter();
+	private final StripedCounter loads = new StripedCounter();
+	private final StripedCounter loadExceptions = new StripedCounter();
+	private final StripedCounter loadTime = new StripedCounter();
+
+	// Guarded by lock
+	private final ReentrantLock lock = new ReentrantLock();
+	private final ArrayDeque<Node<V>> window = new ArrayDeque<>();
+	private final ArrayDeque<Node<V>> main = new ArrayDeque<>();
+	private final long windowMaximum;
+	private final long mainMaximum;
+	private long windowWeight;
+	private long mainWeight;
+	private long removed;
+	private long evictions;
+
+	private StringCache(long maximumWeight,
+			Weigher<? super String, ? super V> weigher) {
+		checkArgument(maximumWeight >= 0, "maximumWeight may not be negative");
+		this.weigher = checkNotNull(weigher);
+		this.windowMaximum = min(maximumWeight,
+				max(1, maximumWeight / WINDOW_DIVISOR));
+		this.mainMaximum = maximumWeight - windowMaximum;
+		this.sketch = new FrequencySketch(maximumWeight);
+	}
+
+	/**
+	 * Returns the value associated with the key, loading it when it is not
+	 * cached. A hit does not lock or allocate. When the key is loaded
+	 * concurrently by several threads the first value added is kept.
+	 *
+	 * @param key
+	 *            the key to look up
+	 * @param loader
+	 *            loads the value of the key, may not return null
+	 * @return the value of the key
+	 */
+	public V getOrLoad(String key,
+			Function<? super String, ? extends V> loader) {
+		final Node<V> node = map.get(key);
+		sketch.increment(key.hashCode());
+		if (node != null) {
+			node.referenced = true;
+			hits.increment();
+			return node.value;
+		}
+
+		misses.increment();
+		final long start = System.nanoTime();
+		final V value;
+		try {
+			value = checkNotNull(loader.apply(key), "loader returned null");
+		} catch (RuntimeException | Error e) {
+			loadExceptions.increment();
+			throw e;
+		} finally {
+			loadTime.add(System.nanoTime() - start);
+		}
+		loads.increment();
+		add(key, value, false);
+		return value;
+	}
+
+	@Override
+	public V get(final String key, final Callable<? extends V> loader)
+			throws ExecutionException {
+		checkNotNull(loader);
+		try {
+			return getOrLoad(key, new Function<String, V>() {
+				@Override
+				public V apply(String input) {
+					try {
+						return loader.call();
+					} catch (RuntimeException | Error e) {
+						throw e;
+					} catch (Exception e) {
+						throw new CheckedLoadException(e);
+					}
+				}
+			});
+		} catch (CheckedLoadException e) {
+			throw new ExecutionException(e.getCause());
+		} catch (Error e) {
+			throw new ExecutionError(e);
+		} catch (RuntimeException e) {
+			throw new UncheckedExecutionException(e);
+		}
+	}
+
+	@Override
+	public V getIfPresent(Object key) {
+		final Node<V> node = map.get(key);
+		if (node == null) {
+			misses.increment();
+			return null;
+		}
+		sketch.increment(key.hashCode());
+		node.referenced = true;
+		hits.increment();
+		return node.value;
+	}
+
+	@Override
+	public void put(String key, V value) {
+		checkNotNull(key);
+		checkNotNull(value);
+		add(key, value, true);
+	}
+
+	@Override
+	public void invalidate(Object key) {
+		checkNotNull(key);
+		lock.lock();
+		try {
+			final Node<V> node = map.remove(key);
+			if (node != null) {
+				remove(node);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		lock.lock();
+		try {
+			map.clear();
+			window.clear();
+			main.clear();
+			windowWeight = 0;
+			mainWeight = 0;
+			removed = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public long size() {
+		return map.size();
+	}
+
+	@Override
+	public CacheStats stats() {
+		final long evictionCount;
+		lock.lock();
+		try {
+			evictionCount = evictions;
+		} finally {
+			lock.unlock();
+		}
+		return new CacheStats(hits.sum(), misses.sum(), loads.sum(),
+				loadExceptions.sum(), loadTime.sum(), evictionCount);
+	}
+
+	@Override
+	public String toString() {
+		return "StringCache [size=" + size() + "]";
+	}
+
+	private void add(String key, V value, boolean replace) {
+		final int weight = weigher.weigh(key, value);
+		checkArgument(weight >= 0, "weight may not be negative");
+
+		lock.lock();
+		try {
+			final Node<V> existing = map.get(key);
+			if (existing != null) {
+				if (!replace) {
+					// Loaded concurrently by another thread
+					return;
+				}
+				remove(existing);
+			}
+
+			if (weight > windowMaximum && weight > mainMaximum) {
+				// Fits neither region, would be evicted from the window and
+				// rejected by the main region straight away
+				if (existing != null) {
+					map.remove(key);
+				}
+				return;
+			}
+
+			final Node<V> node = new Node<>(key, value, weight);
+			map.put(key, node);
+			window.addLast(node);
+			windowWeight += weight;
+			evict();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void remove(Node<V> node) {
+		// Removed nodes are skipped when they reach the front of their queue
+		node.removed = true;
+		if (node.inMain) {
+			mainWeight -= node.weight;
+		} else {
+			windowWeight -= node.weight;
+		}
+
+		// Unless they outnumber the entries
+		if (++removed > map.size() + 16) {
+			compact(window);
+			compact(main);
+			removed = 0;
+		}
+	}
+
+	private static <V> void compact(ArrayDeque<Node<V>> queue) {
+		for (int i = queue.size(); i > 0; i--) {
+			final Node<V> node = queue.pollFirst();
+			if (!node.removed) {
+				queue.addLast(node);
+			}
+		}
+	}
+
+	private void evict() {
+		sketch.age();
+		while (windowWeight > windowMaximum) {
+			final Node<V> candidate = window.pollFirst();
+			if (candidate.removed) {
+				continue;
+			}
+			windowWeight -= candidate.weight;
+			admit(candidate);
+		}
+	}
+
+	/*
+	 * Moves a candidate from the window to the main region. When the main
+	 * region is full the candidate has to be looked up more frequently then
+	 * the victims it replaces.
+	 */
+	private void admit(Node<V> candidate) {
+		if (candidate.weight > mainMaximum) {
+			reject(candidate);
+			return;
+		}
+
+		final int candidateFrequency = sketch.frequency(candidate.key
+				.hashCode());
+		while (mainWeight + candidate.weight > mainMaximum) {
+			final Node<V> victim = victim();
+			if (victim == null) {
+				// Only removed entries were left
+				break;
+			}
+			if (candidateFrequency <= sketch.frequency(victim.key.hashCode())) {
+				reject(candidate);
+				return;
+			}
+
+			main.pollFirst();
+			map.remove(victim.key, victim);
+			victim.removed = true;
+			mainWeight -= victim.weight;
+			evictions++;
+		}
+
+		candidate.inMain = true;
+		main.addLast(candidate);
+		mainWeight += candidate.weight;
+	}
+
+	private void reject(Node<V> candidate) {
+		map.remove(candidate.key, candidate);
+		candidate.removed = true;
+		evictions++;
+	}
+
+	/*
+	 * Returns the first entry in clock order that was not looked up since the
+	 * hand last passed it, leaving it at the front of the queue. Referenced
+	 * entries are moved to the back. Concurrent lookups may keep setting the
+	 * referenced flag so the hand stops after two rounds. Returns null when
+	 * the main region holds no entries.
+	 */
+	private Node<V> victim() {
+		for (int i = 2 * main.size(); i > 0 && !main.isEmpty(); i--) {
+			final Node<V> node = main.peekFirst();
+			if (node.removed) {
+				main.pollFirst();
+			} else if (node.referenced) {
+				node.referenced = false;
+				main.addLast(main.pollFirst());
+			} else {
+				return node;
+			}
+		}
+
+		while (!main.isEmpty() && main.peekFirst().removed) {
+			main.pollFirst();
+		}
+		return main.peekFirst();
+	}
+
+	private static final class Node<V> {
+
+		final String key;
+		final V value;
+		final int weight;
+
+		// Set by lookups without synchronization. A lost update only costs
+		// the entry its second chance.
+		boolean referenced;
+
+		// Guarded by lock
+		boolean inMain;
+		boolean removed;
+
+		Node(String key, V value, int weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	/*
+	 * Count-min sketch of 4-bit counters. Each long holds 16 counters and
+	 * each key is counted in four of them. Counters are incremented without
+	 * synchronization. Lost increments only make the estimate less accurate.
+	 */
+	private static final class FrequencySketch {
+
+		private static final long[] SEEDS = { 0xc3a5c85c97cb3127L,
+				0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private static final int MAX_FREQUENCY = 15;
+
+		private final long[] table;
+		private final int mask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(long maximumWeight) {
+			final int length = highestOneBit((int) max(16,
+					min(maximumWeight, 1 << 18)) * 2 - 1);
+			this.table = new long[length];
+			this.mask = length - 1;
+			this.sampleSize = 10 * length;
+		}
+
+		int frequency(int hashCode) {
+			final int hash = spread(hashCode);
+			int frequency = MAX_FREQUENCY;
+			for (int i = 0; i < SEEDS.length; i++) {
+				final int index = index(hash, i);
+				final int shift = shift(hash, i);
+				frequency = min(frequency,
+						(int) (table[index] >>> shift) & MAX_FREQUENCY);
+			}
+			return frequency;
+		}
+
+		void increment(int hashCode) {
+			final int hash = spread(hashCode);
+			for (int i = 0; i < SEEDS.length; i++) {
+				final int index = index(hash, i);
+				final int shift = shift(hash, i);
+				if (((table[index] >>> shift) & MAX_FREQUENCY) != MAX_FREQUENCY) {
+					table[index] += 1L << shift;
+				}
+			}
+			additions++;
+		}
+
+		/*
+		 * Halves all counters once enough lookups have been counted.
+		 */
+		void age() {
+			if (additions < sampleSize) {
+				return;
+			}
+			for (int i = 0; i < table.length; i++) {
+				table[i] = (table[i] >>> 1) & RESET_MASK;
+			}
+			additions = 0;
+		}
+
+		private int index(int hash, int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			h += h >>> 32;
+			return (int) h & mask;
+		}
+
+		private static int shift(int hash, int i) {
+			// Each seed uses its own quarter of the counters in a long
+			return ((i << 2) + ((hash >>> (i << 3)) & 3)) << 2;
+		}
+
+		private static int spread(int x) {
+			x = ((x >>> 16) ^ x) * 0x45d9f3b;
+			x = ((x >>> 16) ^ x) * 0x45d9f3b;
+			return (x >>> 16) ^ x;
+		}
+	}
+
+	/*
+	 * Counter that spreads increments over padded cells so threads rarely
+	 * write to the same cache line.
+	 */
+	private static final class StripedCounter {
+
+		// Longs per cell, fills a 64 byte cache line
+		private static final int PADDING = 8;
+
+		private final AtomicLongArray cells;
+		private final int mask;
+
+		StripedCounter() {
+			final int stripes = min(64, highestOneBit(Runtime.getRuntime()
+					.availableProcessors() * 2 - 1) * 2);
+			this.cells = new AtomicLongArray(stripes * PADDING);
+			this.mask = stripes - 1;
+		}
+
+		void increment() {
+			add(1);
+		}
+
+		void add(long value) {
+			final long id = Thread.currentThread().getId();
+			final int stripe = (int) (id ^ (id >>> 32)) * 0x9E3779B9 >>> 16
+					& mask;
+			cells.getAndAdd(stripe * PADDING, value);
+		}
+
+		long sum() {
+			long sum = 0;
+			for (int i = 0; i < cells.length(); i += PADDING) {
+				sum += cells.get(i);
+			}
+			return sum;
+		}
+	}
+
+	private static final class DefaultWeigher implements
+			Weigher<Object, Object> {
+
+		static final DefaultWeigher INSTANCE = new DefaultWeigher();
+
+		@Override
+		public int weigh(Object key, Object value) {
+			if (value instanceof Collection) {
+				return max(1, ((Collection<?>) value).size());
+			}
+			return 1;
+		}
+	}
+
+	private static final class CheckedLoadException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		CheckedLoadException(Exception cause) {
+			super(cause);
+		}
+	}
+}
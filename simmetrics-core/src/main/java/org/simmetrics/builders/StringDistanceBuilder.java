@@ -30,8 +30,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 
 import org.simmetrics.ListDistance;
 import org.simmetrics.Distance;
@@ -516,27 +514,23 @@ public final class StringDistanceBuilder {
 
 		private final Cache<String, String> cache;
 		final Simplifier simplifier;
+		private final Function<String, String> loader;
 
-		CachingSimplifier(Cache<String, String> cache, Simplifier simplifier) {
+		CachingSimplifier(Cache<String, String> cache, final Simplifier simplifier) {
 			this.cache = cache;
 			this.simplifier = simplifier;
+			this.loader = new Function<String, String>() {
+
+				@Override
+				public String apply(String input) {
+					return simplifier.simplify(input);
+				}
+			};
 		}
 
 		@Override
 		public String simplify(final String input) {
-			try {
-				return cache.get(input, new Callable<String>() {
-
-					@Override
-					public String call() throws Exception {
-						return simplifier.simplify(input);
-					}
-
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Simplifier may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -550,10 +544,18 @@ public final class StringDistanceBuilder {
 
 		private final Cache<String, Multiset<String>> cache;
 		final Tokenizer tokenizer;
+		private final Function<String, Multiset<String>> loader;
 
-		CachingMultisetTokenizer(Cache<String, Multiset<String>> cache, Tokenizer tokenizer) {
+		CachingMultisetTokenizer(Cache<String, Multiset<String>> cache, final Tokenizer tokenizer) {
 			this.cache = cache;
 			this.tokenizer = tokenizer;
+			this.loader = new Function<String, Multiset<String>>() {
+
+				@Override
+				public Multiset<String> apply(String input) {
+					return tokenizer.tokenizeToMultiset(input);
+				}
+			};
 		}
 
 		@Override
@@ -568,18 +570,7 @@ public final class StringDistanceBuilder {
 
 		@Override
 		public Multiset<String> tokenizeToMultiset(final String input) {
-			try {
-				return cache.get(input, new Callable<Multiset<String>>() {
-
-					@Override
-					public Multiset<String> call() {
-						return tokenizer.tokenizeToMultiset(input);
-					}
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Tokenizer may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -592,10 +583,18 @@ public final class StringDistanceBuilder {
 
 		private final Cache<String, Set<String>> cache;
 		final Tokenizer tokenizer;
+		private final Function<String, Set<String>> loader;
 
-		CachingSetTokenizer(Cache<String, Set<String>> cache, Tokenizer tokenizer) {
+		CachingSetTokenizer(Cache<String, Set<String>> cache, final Tokenizer tokenizer) {
 			this.cache = cache;
 			this.tokenizer = tokenizer;
+			this.loader = new Function<String, Set<String>>() {
+
+				@Override
+				public Set<String> apply(String input) {
+					return tokenizer.tokenizeToSet(input);
+				}
+			};
 		}
 
 		@Override
@@ -605,18 +604,7 @@ public final class StringDistanceBuilder {
 
 		@Override
 		public Set<String> tokenizeToSet(final String input) {
-			try {
-				return cache.get(input, new Callable<Set<String>>() {
-
-					@Override
-					public Set<String> call() {
-						return tokenizer.tokenizeToSet(input);
-					}
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Tokenizer may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -634,26 +622,23 @@ public final class StringDistanceBuilder {
 
 		private final Cache<String, List<String>> cache;
 		final Tokenizer tokenizer;
+		private final Function<String, List<String>> loader;
 
-		CachingListTokenizer(Cache<String, List<String>> cache, Tokenizer tokenizer) {
+		CachingListTokenizer(Cache<String, List<String>> cache, final Tokenizer tokenizer) {
 			this.cache = cache;
 			this.tokenizer = tokenizer;
+			this.loader = new Function<String, List<String>>() {
+
+				@Override
+				public List<String> apply(String input) {
+					return tokenizer.tokenizeToList(input);
+				}
+			};
 		}
 
 		@Override
 		public List<String> tokenizeToList(final String input) {
-			try {
-				return cache.get(input, new Callable<List<String>>() {
-
-					@Override
-					public List<String> call() {
-						return tokenizer.tokenizeToList(input);
-					}
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Tokenizer may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -30,8 +30,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 
 import org.simmetrics.ListMetric;
 import org.simmetrics.Metric;
@@ -40,6 +38,7 @@ import org.simmetrics.SetMetric;
 import org.simmetrics.StringMetric;
 import org.simmetrics.simplifiers.Simplifier;
 import org.simmetrics.simplifiers.Simplifiers;
+import org.simmetrics.tokenizers.TokenDictionary;
 import org.simmetrics.tokenizers.Tokenizer;
 import org.simmetrics.tokenizers.Tokenizers;
 
@@ -297,6 +296,38 @@ public final class StringMetricBuilder {
 		 */
 		BuildStep cacheTokens(Cache<String, T> cache);
 
+		/**
+		 * Compares the hashes of the tokens rather then the tokens. Set and
+		 * multiset metrics merge sorted arrays of hashes rather then creating
+		 * a collection of tokens for each string. Tokens of up to three
+		 * characters never collide. Longer tokens that collide are treated as
+		 * equal.
+		 * <p>
+		 * Q-gram tokenizers are always compared by their hashes.
+		 * 
+		 * @return this for fluent chaining
+		 * 
+		 * @see Tokenizers#hashing(Tokenizer)
+		 */
+		BuildStep hashTokens();
+
+		/**
+		 * Stores the tokens as the ids of a token dictionary. Lists and sets
+		 * of tokens hold only an array of ids and share their tokens through
+		 * the dictionary. Set and multiset metrics compare the ids rather
+		 * then the tokens.
+		 * <p>
+		 * When followed by a cache, the cache stores the compact collections
+		 * and the metric compares those instead.
+		 * 
+		 * @param dictionary
+		 *            dictionary to store tokens in
+		 * @return this for fluent chaining
+		 * 
+		 * @see Tokenizers#interning(Tokenizer, TokenDictionary)
+		 */
+		CollectionMetricInterningStep<T> internTokens(TokenDictionary dictionary);
+
 		/**
 		 * Builds a similarity metric that will use the given simplification,
 		 * tokenization and filtering steps.
@@ -308,6 +339,23 @@ public final class StringMetricBuilder {
 
 	}
 
+	@SuppressWarnings("javadoc")
+	public interface CollectionMetricInterningStep<T extends Collection<String>>
+			extends BuildStep {
+
+		/**
+		 * Sets a cache for tokenization chain. The cache will store the
+		 * interned tokens of all previous tokenization steps.
+		 * 
+		 * @param cache
+		 *            a cache to add
+		 * @return this for fluent chaining
+		 * 
+		 */
+		BuildStep cacheTokens(Cache<String, T> cache);
+
+	}
+
 	private static final class CompositeStringMetricBuilder implements
 			StringMetricSimplifierStep {
 
@@ -356,7 +404,7 @@ public final class StringMetricBuilder {
 
 	private static abstract class CompositeCollectionMetricBuilder<T extends Collection<String>>
 			implements CollectionMetricSimplifierStep<T>,
-			CollectionMetricTokenizerStep<T> {
+			CollectionMetricTokenizerStep<T>, CollectionMetricInterningStep<T> {
 
 		private final Metric<T> metric;
 
@@ -395,6 +443,20 @@ public final class StringMetricBuilder {
 		protected abstract Tokenizer createCachingTokenizer(
 				Cache<String, T> cache, Tokenizer tokenizer);
 
+		@Override
+		public final BuildStep hashTokens() {
+			tokenizers.add(Tokenizers.hashing(chainTokenizers()));
+			return this;
+		}
+
+		@Override
+		public final CollectionMetricInterningStep<T> internTokens(
+				TokenDictionary dictionary) {
+			checkNotNull(dictionary);
+			tokenizers.add(Tokenizers.interning(chainTokenizers(), dictionary));
+			return this;
+		}
+
 		@Override
 		public final CollectionMetricInitialTokenizerStep<T> cacheStrings(
 				Cache<String, String> cache) {
@@ -543,27 +605,23 @@ public final class StringMetricBuilder {
 
 		private final Cache<String, String> cache;
 		final Simplifier simplifier;
+		private final Function<String, String> loader;
 
-		CachingSimplifier(Cache<String, String> cache, Simplifier simplifier) {
+		CachingSimplifier(Cache<String, String> cache, final Simplifier simplifier) {
 			this.cache = cache;
 			this.simplifier = simplifier;
+			this.loader = new Function<String, String>() {
+
+				@Override
+				public String apply(String input) {
+					return simplifier.simplify(input);
+				}
+			};
 		}
 
 		@Override
 		public String simplify(final String input) {
-			try {
-				return cache.get(input, new Callable<String>() {
-
-					@Override
-					public String call() throws Exception {
-						return simplifier.simplify(input);
-					}
-
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Simplifier may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -577,11 +635,19 @@ public final class StringMetricBuilder {
 
 		private final Cache<String, Multiset<String>> cache;
 		final Tokenizer tokenizer;
+		private final Function<String, Multiset<String>> loader;
 
 		CachingMultisetTokenizer(Cache<String, Multiset<String>> cache,
-				Tokenizer tokenizer) {
+				final Tokenizer tokenizer) {
 			this.cache = cache;
 			this.tokenizer = tokenizer;
+			this.loader = new Function<String, Multiset<String>>() {
+
+				@Override
+				public Multiset<String> apply(String input) {
+					return tokenizer.tokenizeToMultiset(input);
+				}
+			};
 		}
 
 		@Override
@@ -596,18 +662,7 @@ public final class StringMetricBuilder {
 
 		@Override
 		public Multiset<String> tokenizeToMultiset(final String input) {
-			try {
-				return cache.get(input, new Callable<Multiset<String>>() {
-
-					@Override
-					public Multiset<String> call() {
-						return tokenizer.tokenizeToMultiset(input);
-					}
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Tokenizer may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -621,11 +676,19 @@ public final class StringMetricBuilder {
 
 		private final Cache<String, Set<String>> cache;
 		final Tokenizer tokenizer;
+		private final Function<String, Set<String>> loader;
 
 		CachingSetTokenizer(Cache<String, Set<String>> cache,
-				Tokenizer tokenizer) {
+				final Tokenizer tokenizer) {
 			this.cache = cache;
 			this.tokenizer = tokenizer;
+			this.loader = new Function<String, Set<String>>() {
+
+				@Override
+				public Set<String> apply(String input) {
+					return tokenizer.tokenizeToSet(input);
+				}
+			};
 		}
 
 		@Override
@@ -635,18 +698,7 @@ public final class StringMetricBuilder {
 
 		@Override
 		public Set<String> tokenizeToSet(final String input) {
-			try {
-				return cache.get(input, new Callable<Set<String>>() {
-
-					@Override
-					public Set<String> call() {
-						return tokenizer.tokenizeToSet(input);
-					}
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Tokenizer may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -664,27 +716,24 @@ public final class StringMetricBuilder {
 
 		private final Cache<String, List<String>> cache;
 		final Tokenizer tokenizer;
+		private final Function<String, List<String>> loader;
 
 		CachingListTokenizer(Cache<String, List<String>> cache,
-				Tokenizer tokenizer) {
+				final Tokenizer tokenizer) {
 			this.cache = cache;
 			this.tokenizer = tokenizer;
+			this.loader = new Function<String, List<String>>() {
+
+				@Override
+				public List<String> apply(String input) {
+					return tokenizer.tokenizeToList(input);
+				}
+			};
 		}
 
 		@Override
 		public List<String> tokenizeToList(final String input) {
-			try {
-				return cache.get(input, new Callable<List<String>>() {
-
-					@Override
-					public List<String> call() {
-						return tokenizer.tokenizeToList(input);
-					}
-				});
-			} catch (ExecutionException e) {
-				// Can't happen. Tokenizer may not throw checked exceptions
-				throw new IllegalStateException(e);
-			}
+			return StringCache.getOrLoad(cache, input, loader);
 		}
 
 		@Override
@@ -0,0 +1,275 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.binarySearch;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.simmetrics.StringDistance;
+import org.simmetrics.StringMetric;
+
+/**
+ * Scores many pairs of strings in parallel. The pair at index {@code i} is
+ * {@code (a.get(i), b.get(i))} and its score is stored at index {@code i} of
+ * a preallocated array.
+ * <p>
+ * Pairs are divided into tasks of roughly equal cost and executed in a fork
+ * join pool. The cost of a pair is estimated as the product of the lengths of
+ * its strings, so a few long strings are split into tasks of their own rather
+ * then delaying a task of many short strings.
+ * <p>
+ * The metric or distance is called concurrently by multiple threads and must
+ * be thread-safe. All metrics and distances in this library are.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class BatchScorer {
+
+	// Aim for several tasks per thread so idle threads have work to steal
+	private static final int TASKS_PER_THREAD = 16;
+
+	// Smallest cost worth a task of its own
+	private static final long MIN_GRAIN = 1 << 14;
+
+	/**
+	 * Measures the similarity between each pair of strings. Uses a new fork
+	 * join pool with a parallelism equal to the number of available
+	 * processors.
+	 *
+	 * @param metric
+	 *            metric to compare strings with
+	 * @param a
+	 *            the first string of each pair
+	 * @param b
+	 *            the second string of each pair, as many as {@code a}
+	 * @param similarities
+	 *            array to store the similarities in, at least as long as
+	 *            {@code a}
+	 *
+	 * @throws NullPointerException
+	 *             when the metric, either list, any string or similarities is
+	 *             null
+	 * @throws IllegalArgumentException
+	 *             when the lists differ in size or similarities is shorter
+	 *             then the lists
+	 */
+	public static void compare(StringMetric metric, List<String> a,
+			List<String> b, float[] similarities) {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			compare(metric, a, b, similarities, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Measures the similarity between each pair of strings.
+	 *
+	 * @param metric
+	 *            metric to compare strings with
+	 * @param a
+	 *            the first string of each pair
+	 * @param b
+	 *            the second string of each pair, as many as {@code a}
+	 * @param similarities
+	 *            array to store the similarities in, at least as long as
+	 *            {@code a}
+	 * @param pool
+	 *            pool to score the pairs in
+	 *
+	 * @throws NullPointerException
+	 *             when the metric, either list, any string, similarities or
+	 *             the pool is null
+	 * @throws IllegalArgumentException
+	 *             when the lists differ in size or similarities is shorter
+	 *             then the lists
+	 */
+	public static void compare(final StringMetric metric, List<String> a,
+			List<String> b, float[] similarities, ForkJoinPool pool) {
+		checkNotNull(metric);
+		new Scores(a, b, similarities, pool) {
+			@Override
+			float score(String a, String b) {
+				return metric.compare(a, b);
+			}
+		}.invoke(pool);
+	}
+
+	/**
+	 * Measures the distance between each pair of strings. Uses a new fork
+	 * join pool with a parallelism equal to the number of available
+	 * processors.
+	 *
+	 * @param distance
+	 *            distance to measure strings with
+	 * @param a
+	 *            the first string of each pair
+	 * @param b
+	 *            the second string of each pair, as many as {@code a}
+	 * @param distances
+	 *            array to store the distances in, at least as long as
+	 *            {@code a}
+	 *
+	 * @throws NullPointerException
+	 *             when the distance, either list, any string or distances is
+	 *             null
+	 * @throws IllegalArgumentException
+	 *             when the lists differ in size or distances is shorter then
+	 *             the lists
+	 */
+	public static void distance(StringDistance distance, List<String> a,
+			List<String> b, float[] distances) {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			distance(distance, a, b, distances, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Measures the distance between each pair of strings.
+	 *
+	 * @param distance
+	 *            distance to measure strings with
+	 * @param a
+	 *            the first string of each pair
+	 * @param b
+	 *            the second string of each pair, as many as {@code a}
+	 * @param distances
+	 *            array to store the distances in, at least as long as
+	 *            {@code a}
+	 * @param pool
+	 *            pool to score the pairs in
+	 *
+	 * @throws NullPointerException
+	 *             when the distance, either list, any string, distances or
+	 *             the pool is null
+	 * @throws IllegalArgumentException
+	 *             when the lists differ in size or distances is shorter then
+	 *             the lists
+	 */
+	public static void distance(final StringDistance distance,
+			List<String> a, List<String> b, float[] distances,
+			ForkJoinPool pool) {
+		checkNotNull(distance);
+		new Scores(a, b, distances, pool) {
+			@Override
+			float score(String a, String b) {
+				return distance.distance(a, b);
+			}
+		}.invoke(pool);
+	}
+
+	private BatchScorer() {
+		// Utility class
+	}
+
+	private static abstract class Scores {
+
+		private final String[] a;
+		private final String[] b;
+		private final float[] scores;
+
+		// costs[i] is the estimated cost of the pairs before i
+		private final long[] costs;
+		private final long grain;
+
+		Scores(List<String> a, List<String> b, float[] scores,
+				ForkJoinPool pool) {
+			checkNotNull(a);
+			checkNotNull(b);
+			checkNotNull(scores);
+			checkNotNull(pool);
+			checkArgument(a.size() == b.size(), "a and b must be the same size");
+			checkArgument(scores.length >= a.size(),
+					"scores must be at least as long as a and b");
+
+			this.a = a.toArray(new String[a.size()]);
+			this.b = b.toArray(new String[b.size()]);
+			this.scores = scores;
+			this.costs = new long[this.a.length + 1];
+			for (int i = 0; i < this.a.length; i++) {
+				costs[i + 1] = costs[i] + cost(this.a[i], this.b[i]);
+			}
+			this.grain = max(MIN_GRAIN, costs[this.a.length]
+					/ (pool.getParallelism() * TASKS_PER_THREAD));
+		}
+
+		private static long cost(String a, String b) {
+			return (a.length() + 1L) * (b.length() + 1L);
+		}
+
+		abstract float score(String a, String b);
+
+		final void invoke(ForkJoinPool pool) {
+			pool.invoke(new Task(0, a.length));
+		}
+
+		private final class Task extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			private final int from;
+			private final int to;
+
+			Task(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from <= 1 || costs[to] - costs[from] <= grain) {
+					for (int i = from; i < to; i++) {
+						scores[i] = score(a[i], b[i]);
+					}
+					return;
+				}
+
+				final int middle = split();
+				invokeAll(new Task(from, middle), new Task(middle, to));
+			}
+
+			/*
+			 * Returns the index that divides the cost of the pairs in half.
+			 * Both halves contain at least one pair.
+			 */
+			private int split() {
+				final long half = (costs[from] + costs[to]) >>> 1;
+				int middle = binarySearch(costs, from, to + 1, half);
+				if (middle < 0) {
+					middle = -middle - 1;
+				}
+				return min(max(middle, from + 1), to - 1);
+			}
+		}
+	}
+
+}
@@ -57,7 +57,11 @@ public final class BlockDistance<T> implements MultisetMetric<T>, MultisetDistan
 			return 0.0f;
 		}
 
-		return 1.0f - distance(a, b) / (a.size() + b.size());
+		return compare(a.size(), b.size(), distance(a, b));
+	}
+
+	static float compare(int a, int b, float distance) {
+		return 1.0f - distance / (a + b);
 	}
 
 	@Override
@@ -0,0 +1,188 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.fill;
+
+/**
+ * Maps the characters of a pattern to bitmasks of the positions at which they
+ * occur in that pattern. Bit {@code i % 64} of word {@code i / 64} is set when
+ * the pattern contains the character at index {@code i}.
+ * <p>
+ * Used by the bit-parallel engines that process 64 cells of a dynamic
+ * programming matrix per machine word. Lookups use an open addressing table
+ * keyed by character, absent characters map to an empty bitmask.
+ * <p>
+ * Instances can be reused for another pattern through {@link #set(CharSequence)}.
+ * Instances that are not reused are effectively immutable and thread-safe.
+ */
+final class CharBitmasks {
+
+	// Marks empty slots. The null character itself is stored in the extra
+	// slot at the end of the table.
+	private static final char EMPTY = 0;
+
+	/**
+	 * Offset of the empty bitmask of characters not in the pattern.
+	 */
+	static final int ABSENT = -1;
+
+	private int length;
+	private int words;
+	private int mask;
+	private char[] keys = new char[0];
+	private long[] bitmasks = new long[0];
+
+	CharBitmasks() {
+		// Empty, use set to add a pattern
+	}
+
+	CharBitmasks(CharSequence pattern) {
+		set(pattern);
+	}
+
+	/**
+	 * Replaces the pattern of these bitmasks. Reuses the existing tables when
+	 * they are large enough.
+	 * 
+	 * @param pattern
+	 *            the new pattern
+	 * @return these bitmasks
+	 */
+	CharBitmasks set(CharSequence pattern) {
+		this.length = pattern.length();
+		this.words = words(length);
+
+		// Twice the number of characters rounded up to a power of two keeps
+		// the load factor at or below 0.5.
+		final int capacity = Integer.highestOneBit(
+				java.lang.Math.max(1, length) * 2 - 1) << 1;
+		this.mask = capacity - 1;
+
+		if (keys.length == capacity) {
+			fill(keys, EMPTY);
+		} else {
+			keys = new char[capacity];
+		}
+
+		final int size = (capacity + 1) * words;
+		if (bitmasks.length >= size) {
+			fill(bitmasks, 0, size, 0L);
+		} else {
+			bitmasks = new long[size];
+		}
+
+		for (int i = 0; i < length; i++) {
+			final char c = pattern.charAt(i);
+			final int slot = c == EMPTY ? capacity : insert(c);
+			bitmasks[slot * words + (i >>> 6)] |= 1L << i;
+		}
+		return this;
+	}
+
+	private int insert(char c) {
+		int slot = hash(c) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != c) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = c;
+		return slot;
+	}
+
+	private static int hash(char c) {
+		// Spread the bits so consecutive characters don't cluster
+		return (c * 0x9E3779B9) >>> 16;
+	}
+
+	static int words(int length) {
+		return (length + 63) >>> 6;
+	}
+
+	/**
+	 * Returns the length of the pattern.
+	 * 
+	 * @return the length of the pattern
+	 */
+	int length() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of 64 bit words in a bitmask.
+	 * 
+	 * @return the number of words in a bitmask
+	 */
+	int words() {
+		return words;
+	}
+
+	/**
+	 * Returns the first word of the bitmask of character {@code c}. Intended
+	 * for patterns of at most 64 characters.
+	 * 
+	 * @param c
+	 *            the character to look up
+	 * @return the first word of the bitmask
+	 */
+	long get(char c) {
+		final int offset = offset(c);
+		return offset == ABSENT ? 0L : bitmasks[offset];
+	}
+
+	/**
+	 * Returns the offset of the bitmask of character {@code c} for use with
+	 * {@link #get(int, int)}. Looking up the offset once per character avoids
+	 * repeated probing when iterating over all words of a bitmask.
+	 * 
+	 * @param c
+	 *            the character to look up
+	 * @return the offset of the bitmask
+	 */
+	int offset(char c) {
+		if (c == EMPTY) {
+			return keys.length * words;
+		}
+
+		int slot = hash(c) & mask;
+		char key;
+		while ((key = keys[slot]) != EMPTY) {
+			if (key == c) {
+				return slot * words;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ABSENT;
+	}
+
+	/**
+	 * Returns a word of the bitmask at {@code offset}.
+	 * 
+	 * @param offset
+	 *            the offset as returned by {@link #offset(char)}
+	 * @param word
+	 *            the index of the word
+	 * @return a word of the bitmask
+	 */
+	long get(int offset, int word) {
+		return offset == ABSENT ? 0L : bitmasks[offset + word];
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Character.MIN_SUPPLEMENTARY_CODE_POINT;
+import static java.lang.Character.charCount;
+import static java.lang.Character.isHighSurrogate;
+import static java.lang.Character.isLowSurrogate;
+import static java.lang.Character.isSurrogate;
+import static java.lang.Math.max;
+import static java.util.Arrays.sort;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility functions for metrics that compare strings by code point rather
+ * then by character.
+ * <p>
+ * Most metrics only test characters for equality. When neither string
+ * contains a surrogate pair each character is a code point and the strings can
+ * be compared as is. Otherwise {@link #encode(String, String)} replaces each
+ * supplementary code point with a character that occurs in neither string.
+ * The encoded strings contain the same code points in the same order and
+ * their characters are equal only when the code points are.
+ * <p>
+ * Unpaired surrogates are code points by themselves and are left as is.
+ * Encoding fails when the strings together contain more distinct code points
+ * then there are non-surrogate characters.
+ */
+final class CodePoints {
+
+	// Private use area, unlikely to occur in either string
+	private static final char FIRST_REPLACEMENT = '\uE000';
+
+	private CodePoints() {
+		// Utility class
+	}
+
+	/**
+	 * Returns true when the string contains a surrogate pair.
+	 *
+	 * @param string
+	 *            the string to check
+	 * @return true when the string contains a surrogate pair
+	 */
+	static boolean hasSurrogatePairs(String string) {
+		for (int i = 0, last = string.length() - 1; i < last; i++) {
+			if (isHighSurrogate(string.charAt(i))
+					&& isLowSurrogate(string.charAt(i + 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true when either string contains a surrogate pair.
+	 *
+	 * @param a
+	 *            a string to check
+	 * @param b
+	 *            another string to check
+	 * @return true when either string contains a surrogate pair
+	 */
+	static boolean hasSurrogatePairs(String a, String b) {
+		return hasSurrogatePairs(a) || hasSurrogatePairs(b);
+	}
+
+	/**
+	 * Returns the number of code points in a string.
+	 *
+	 * @param string
+	 *            the string to count
+	 * @return the number of code points
+	 */
+	static int length(String string) {
+		return string.codePointCount(0, string.length());
+	}
+
+	/**
+	 * Returns the code points of a string.
+	 *
+	 * @param string
+	 *            the string to decode
+	 * @return the code points of the string
+	 */
+	static int[] decode(String string) {
+		final int[] codePoints = new int[length(string)];
+		for (int i = 0, offset = 0; i < codePoints.length; i++) {
+			codePoints[i] = string.codePointAt(offset);
+			offset += charCount(codePoints[i]);
+		}
+		return codePoints;
+	}
+
+	/**
+	 * Returns the sorted bigrams of the code points in a string. A bigram is
+	 * two code points packed into a long.
+	 *
+	 * @param string
+	 *            the string to split into bigrams
+	 * @return the sorted bigrams of the string
+	 */
+	static long[] bigrams(String string) {
+		final int[] codePoints = decode(string);
+		final long[] bigrams = new long[max(0, codePoints.length - 1)];
+		for (int k = 0; k < bigrams.length; k++) {
+			bigrams[k] = ((long) codePoints[k] << 21) | codePoints[k + 1];
+		}
+		sort(bigrams);
+		return bigrams;
+	}
+
+	/**
+	 * Encodes two strings such that each code point is a single character.
+	 * Supplementary code points are replaced by characters that occur in
+	 * neither string. The same code point is replaced by the same character in
+	 * both strings.
+	 *
+	 * @param a
+	 *            a string to encode
+	 * @param b
+	 *            another string to encode
+	 * @return an array with the encoded strings
+	 */
+	static String[] encode(String a, String b) {
+		final Encoder encoder = new Encoder();
+		encoder.markUsed(a);
+		encoder.markUsed(b);
+		return new String[] { encoder.encode(a), encoder.encode(b) };
+	}
+
+	private static final class Encoder {
+
+		// Characters that may not be used as a replacement
+		private final long[] used = new long[1 << 10];
+		private final Map<Integer, Character> replacements = new HashMap<>();
+		private char next = FIRST_REPLACEMENT;
+		private int remaining = 1 << 16;
+
+		void markUsed(String string) {
+			for (int i = 0; i < string.length(); i++) {
+				final char c = string.charAt(i);
+				used[c >>> 6] |= 1L << c;
+			}
+		}
+
+		String encode(String string) {
+			final StringBuilder builder = new StringBuilder(string.length());
+			for (int i = 0; i < string.length();) {
+				final int codePoint = string.codePointAt(i);
+				i += charCount(codePoint);
+
+				if (codePoint < MIN_SUPPLEMENTARY_CODE_POINT) {
+					builder.append((char) codePoint);
+					continue;
+				}
+
+				Character replacement = replacements.get(codePoint);
+				if (replacement == null) {
+					replacement = nextReplacement();
+					replacements.put(codePoint, replacement);
+				}
+				builder.append(replacement.charValue());
+			}
+			return builder.toString();
+		}
+
+		/*
+		 * Returns the next unused character. Starts in the private use area
+		 * and wraps around. Surrogates are skipped so no new pairs are formed.
+		 */
+		private char nextReplacement() {
+			while (isSurrogate(next) || (used[next >>> 6] & (1L << next)) != 0) {
+				next++;
+				checkArgument(--remaining > 0,
+						"strings contain too many distinct code points");
+			}
+			final char replacement = next;
+			used[replacement >>> 6] |= 1L << replacement;
+			return replacement;
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.simmetrics.tokenizers.Tokenizer;
+
+/**
+ * Document frequencies of the tokens in a corpus. The document frequency of a
+ * token is the number of documents it occurs in. Tokens that occur in many
+ * documents, such as "Inc" or "Ltd" in a corpus of company names, carry little
+ * information and receive a low inverse document frequency.
+ * <p>
+ * <code>
+ * idf(token) = ln((1 + documents) / (1 + frequency(token))) + 1
+ * </code>
+ * <p>
+ * Tokens that do not occur in the corpus have the highest inverse document
+ * frequency. No token has an inverse document frequency of zero.
+ * <p>
+ * The frequencies are stored in an open addressing table. The table is
+ * serializable so statistics can be collected once and loaded at startup.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @see TfIdfCosine
+ * @see SoftTfIdf
+ */
+public final class CorpusStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Collects the document frequencies of a corpus. Each document is
+	 * tokenized once and each distinct token in a document is counted once.
+	 *
+	 * @param tokenizer
+	 *            tokenizer to split documents with
+	 * @param corpus
+	 *            the documents, iterated once
+	 * @return the statistics of the corpus
+	 *
+	 * @throws NullPointerException
+	 *             when the tokenizer, corpus or any document is null
+	 */
+	public static CorpusStatistics collect(Tokenizer tokenizer,
+			Iterable<String> corpus) {
+		checkNotNull(tokenizer);
+		checkNotNull(corpus);
+
+		final Map<String, int[]> frequencies = new HashMap<>();
+		int documents = 0;
+		for (String document : corpus) {
+			for (String token : tokenizer.tokenizeToSet(checkNotNull(document))) {
+				final int[] frequency = frequencies.get(token);
+				if (frequency == null) {
+					frequencies.put(token, new int[] { 1 });
+				} else {
+					frequency[0]++;
+				}
+			}
+			documents++;
+		}
+
+		return new CorpusStatistics(documents, frequencies);
+	}
+
+	private final int documents;
+	private final int size;
+	private final String[] tokens;
+	private final int[] frequencies;
+
+	private CorpusStatistics(int documents, Map<String, int[]> frequencies) {
+		this.documents = documents;
+		this.size = frequencies.size();
+
+		// At most half full
+		final int capacity = max(2, highestOneBit(max(1, size)) << 2);
+		this.tokens = new String[capacity];
+		this.frequencies = new int[capacity];
+		for (Entry<String, int[]> entry : frequencies.entrySet()) {
+			int slot = slot(entry.getKey());
+			while (tokens[slot] != null) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			tokens[slot] = entry.getKey();
+			this.frequencies[slot] = entry.getValue()[0];
+		}
+	}
+
+	private int slot(String token) {
+		// Spread the bits of the hash code over the table
+		final int hash = token.hashCode() * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & (tokens.length - 1);
+	}
+
+	/**
+	 * Returns the number of documents in the corpus.
+	 *
+	 * @return the number of documents
+	 */
+	public int documents() {
+		return documents;
+	}
+
+	/**
+	 * Returns the number of distinct tokens in the corpus.
+	 *
+	 * @return the number of distinct tokens
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of documents a token occurs in.
+	 *
+	 * @param token
+	 *            a token
+	 * @return the document frequency of the token
+	 */
+	public int frequency(String token) {
+		checkNotNull(token);
+		for (int slot = slot(token);; slot = (slot + 1) & (tokens.length - 1)) {
+			final String candidate = tokens[slot];
+			if (candidate == null) {
+				return 0;
+			}
+			if (candidate.equals(token)) {
+				return frequencies[slot];
+			}
+		}
+	}
+
+	/**
+	 * Returns the inverse document frequency of a token.
+	 *
+	 * @param token
+	 *            a token
+	 * @return the inverse document frequency of the token
+	 */
+	public float idf(String token) {
+		return (float) (log((1.0 + documents) / (1.0 + frequency(token))) + 1.0);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		try {
+			checkArgument(documents >= 0);
+			checkArgument(tokens.length == frequencies.length);
+			checkArgument(Integer.bitCount(tokens.length) == 1);
+			checkArgument(size < tokens.length);
+		} catch (IllegalArgumentException | NullPointerException e) {
+			throw new InvalidObjectException("corrupt corpus statistics");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CorpusStatistics [documents=" + documents + ", tokens=" + size
+				+ "]";
+	}
+
+}
@@ -80,6 +80,10 @@ public final class CosineSimilarity<T> implements MultisetMetric<T>, MultisetDis
 			magnitudeB += bCount * bCount;
 		}
 
+		return compare(dotProduct, magnitudeA, magnitudeB);
+	}
+
+	static float compare(float dotProduct, float magnitudeA, float magnitudeB) {
 		//  a·b / (||a|| * ||b||)
 		return (float) (dotProduct / (sqrt(magnitudeA) * sqrt(magnitudeB)));
 	}
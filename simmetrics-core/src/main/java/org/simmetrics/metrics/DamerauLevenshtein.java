@@ -21,12 +21,19 @@
 package org.simmetrics.metrics;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Float.POSITIVE_INFINITY;
+import static java.lang.Math.abs;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.fill;
+import static org.simmetrics.metrics.CodePoints.encode;
+import static org.simmetrics.metrics.CodePoints.hasSurrogatePairs;
+import static org.simmetrics.metrics.Levenshtein.BOUND_TOLERANCE;
 import static org.simmetrics.metrics.Math.max;
 import static org.simmetrics.metrics.Math.min;
 
-import org.simmetrics.StringDistance;
-import org.simmetrics.StringMetric;
+import org.simmetrics.BoundedStringDistance;
+import org.simmetrics.BoundedStringMetric;
 
 /**
  * Calculates the Damerau-Levenshtein similarity and distance measure between
@@ -36,20 +43,33 @@ import org.simmetrics.StringMetric;
  * cost for substitution and/or transposition are zero Damerau-Levenshtein does
  * not satisfy the coincidence property.
  * <p>
+ * When all weights are 1.0 the distance is computed with the bit-parallel
+ * optimal string alignment algorithm by Hyyrö. This extends the algorithm
+ * used by {@link Levenshtein} with transpositions of adjacent characters and
+ * produces the same results as the dynamic programming algorithm.
+ * <p>
+ * Strings are compared by code point. Transposing two characters outside the
+ * basic multilingual plane is a single operation.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  * @see <a
  *      href="https://en.wikipedia.org/wiki/Damerau%E2%80%93Levenshtein_distance">Wikipedia
  *      - Damerau-Levenshtein distance</a>
  * @see Levenshtein
+ * @see <a href="http://www.sciencedirect.com/science/article/pii/S0304397503001749">
+ *      Hyyrö, H. (2003). A bit-vector algorithm for computing
+ *      Levenshtein and Damerau edit distances</a>
  * 
  */
-public final class DamerauLevenshtein implements StringMetric, StringDistance {
+public final class DamerauLevenshtein implements BoundedStringMetric,
+		BoundedStringDistance {
 
 	private final float maxCost;
 	private final float insertDelete;
 	private final float substitute;
 	private final float transpose;
+	private final boolean unitCost;
 
 	/**
 	 * Constructs a new Damerau-Levenshtein metric.
@@ -80,20 +100,70 @@ public final class DamerauLevenshtein implements StringMetric, StringDistance {
 		this.insertDelete = insertDelete;
 		this.substitute = substitute;
 		this.transpose = transpose;
+		this.unitCost = insertDelete == 1.0f && substitute == 1.0f
+				&& transpose == 1.0f;
+	}
+
+	@Override
+	public float compare(final String a, final String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return similarity(encoded[0], encoded[1]);
+		}
+		return similarity(a, b);
+	}
+
+	private float similarity(final String a, final String b) {
+		if (a.isEmpty() && b.isEmpty()) {
+			return 1.0f;
+		}
+
+		return 1.0f - (editDistance(a, b) / (maxCost * max(a.length(),
+				b.length())));
 	}
 
 	@Override
-	public float compare(final String a, final String b) {	
+	public float compare(final String a, final String b,
+			final float minSimilarity) {
+		checkArgument(0.0f <= minSimilarity && minSimilarity <= 1.0f);
+
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return similarity(encoded[0], encoded[1], minSimilarity);
+		}
+		return similarity(a, b, minSimilarity);
+	}
+
+	private float similarity(final String a, final String b,
+			final float minSimilarity) {
 		if (a.isEmpty() && b.isEmpty()) {
 			return 1.0f;
 		}
 
-		return 1.0f - (distance(a, b) / (maxCost * max(a.length(), b.length())));
+		final float maxDistance = maxCost * max(a.length(), b.length());
+
+		// The bound is widened slightly to absorb rounding errors. The
+		// similarity is checked against minSimilarity afterwards.
+		final float distance = editDistance(a, b, (1.0f - minSimilarity)
+				* maxDistance * BOUND_TOLERANCE);
+		if (distance == POSITIVE_INFINITY) {
+			return 0.0f;
+		}
+
+		final float similarity = 1.0f - (distance / maxDistance);
+		return similarity < minSimilarity ? 0.0f : similarity;
 	}
 
 	@Override
 	public float distance(final String s, final String t) {
+		if (hasSurrogatePairs(s, t)) {
+			final String[] encoded = encode(s, t);
+			return editDistance(encoded[0], encoded[1]);
+		}
+		return editDistance(s, t);
+	}
 
+	private float editDistance(final String s, final String t) {
 		if (s.isEmpty())
 			return t.length() * insertDelete;
 		if (t.isEmpty())
@@ -101,18 +171,36 @@ public final class DamerauLevenshtein implements StringMetric, StringDistance {
 		if (s.equals(t))
 			return 0;
 
+		if (unitCost) {
+			// Use the shorter string as the pattern to minimize the number of
+			// words in a bit vector.
+			return s.length() <= t.length() ? hyyro(s, t, Integer.MAX_VALUE)
+					: hyyro(t, s, Integer.MAX_VALUE);
+		}
+
+		final int tLength = t.length();
+
+		final Workspace workspace = Workspace.acquire();
+		try {
+			return distance(s, t, workspace.floats(0, tLength + 1),
+					workspace.floats(1, tLength + 1),
+					workspace.floats(2, tLength + 1));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private float distance(final String s, final String t, float[] v0,
+			float[] v1, float[] v2) {
 		final int tLength = t.length();
 		final int sLength = s.length();
 
 		float[] swap;
-		float[] v0 = new float[tLength + 1];
-		float[] v1 = new float[tLength + 1];
-		float[] v2 = new float[tLength + 1];
 
 		// initialize v1 (the previous row of distances)
 		// this row is A[0][i]: edit distance for an empty s
 		// the distance is just the number of characters to delete from t
-		for (int i = 0; i < v1.length; i++) {
+		for (int i = 0; i <= tLength; i++) {
 			v1[i] = i * insertDelete;
 		}
 
@@ -146,6 +234,258 @@ public final class DamerauLevenshtein implements StringMetric, StringDistance {
 		return v1[tLength];
 	}
 
+	@Override
+	public float distance(final String s, final String t,
+			final float maxDistance) {
+		checkArgument(maxDistance >= 0);
+
+		if (hasSurrogatePairs(s, t)) {
+			final String[] encoded = encode(s, t);
+			return editDistance(encoded[0], encoded[1], maxDistance);
+		}
+		return editDistance(s, t, maxDistance);
+	}
+
+	private float editDistance(final String s, final String t,
+			final float maxDistance) {
+		if (s.isEmpty() || t.isEmpty() || s.equals(t)) {
+			return bound(editDistance(s, t), maxDistance);
+		}
+
+		// The difference in length must be inserted or deleted at least
+		if (abs(s.length() - t.length()) * insertDelete > maxDistance) {
+			return POSITIVE_INFINITY;
+		}
+
+		if (unitCost) {
+			final int k = (int) min(maxDistance, Integer.MAX_VALUE);
+			final int distance = s.length() <= t.length() ? hyyro(s, t, k)
+					: hyyro(t, s, k);
+			return bound(distance, maxDistance);
+		}
+
+		final int tLength = t.length();
+		final int sLength = s.length();
+
+		// Any cell further then band cells from the diagonal costs more then
+		// maxDistance to reach. One extra diagonal guards against rounding.
+		final int band = (int) min(max(sLength, tLength), maxDistance
+				/ insertDelete) + 1;
+
+		final Workspace workspace = Workspace.acquire();
+		try {
+			return distance(s, t, maxDistance, band,
+					workspace.floats(0, tLength + 1),
+					workspace.floats(1, tLength + 1),
+					workspace.floats(2, tLength + 1));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private float distance(final String s, final String t,
+			final float maxDistance, final int band, float[] v0, float[] v1,
+			float[] v2) {
+		final int tLength = t.length();
+		final int sLength = s.length();
+
+		float[] swap;
+
+		for (int i = 0; i <= tLength; i++) {
+			v1[i] = i * insertDelete;
+		}
+
+		float previousRowMin = 0.0f;
+		for (int i = 0; i < sLength; i++) {
+			// Compute cells from + 1 through to of row i + 1
+			final int from = max(0, i - band);
+			final int to = min(tLength, i + 1 + band);
+
+			// The cell left of the band is either in the first column or
+			// unreachable.
+			v2[from] = from == 0 ? (i + 1) * insertDelete : POSITIVE_INFINITY;
+			float rowMin = v2[from];
+
+			for (int j = from; j < to; j++) {
+				if (j > 0 && i > 0 && s.charAt(i - 1) == t.charAt(j)
+						&& s.charAt(i) == t.charAt(j - 1)) {
+					v2[j + 1] = min(v2[j] + insertDelete, v1[j + 1]
+							+ insertDelete, v1[j]
+							+ (s.charAt(i) == t.charAt(j) ? 0.0f : substitute),
+							v0[j - 1] + transpose);
+				} else {
+					v2[j + 1] = min(v2[j] + insertDelete, v1[j + 1]
+							+ insertDelete, v1[j]
+							+ (s.charAt(i) == t.charAt(j) ? 0.0f : substitute));
+				}
+				rowMin = min(rowMin, v2[j + 1]);
+			}
+
+			// The cell right of the band is unreachable from the next row
+			if (to < tLength) {
+				v2[to + 1] = POSITIVE_INFINITY;
+			}
+
+			// Costs are non-negative so all paths through these rows cost
+			// more. A transposition skips a row so every path visits at least
+			// one of two consecutive rows.
+			if (rowMin > maxDistance && previousRowMin > maxDistance) {
+				return POSITIVE_INFINITY;
+			}
+			previousRowMin = rowMin;
+
+			swap = v0;
+			v0 = v1;
+			v1 = v2;
+			v2 = swap;
+		}
+
+		return bound(v1[tLength], maxDistance);
+	}
+
+	private static float bound(float distance, float maxDistance) {
+		return distance > maxDistance ? POSITIVE_INFINITY : distance;
+	}
+
+	private static int hyyro(String pattern, String text, int maxDistance) {
+		final Workspace workspace = Workspace.acquire();
+		try {
+			final CharBitmasks peq = workspace.bitmasks(0, pattern);
+			final int words = peq.words();
+			if (words == 1) {
+				return hyyro(peq, text, maxDistance);
+			}
+			return hyyroBlock(peq, text, maxDistance,
+					workspace.longs(0, words), workspace.longs(1, words),
+					workspace.longs(2, words));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/*
+	 * Single word variant for patterns of at most 64 characters. Follows
+	 * Levenshtein.myers except that a cell can also be reached diagonally
+	 * from two rows and columns back. This is possible when the characters
+	 * at the current and previous position are transposed and the diagonal
+	 * delta of the previous column was not zero. The diagonal deltas d0 and
+	 * the bitmask of the previous character are kept for the next column.
+	 */
+	static int hyyro(CharBitmasks peq, String text, int maxDistance) {
+		final int m = peq.length();
+		final long last = 1L << (m - 1);
+
+		long vp = ~0L;
+		long vn = 0L;
+		long d0 = 0L;
+		long previous = 0L;
+		int distance = m;
+
+		for (int j = 0, n = text.length(); j < n; j++) {
+			final long eq = peq.get(text.charAt(j));
+			final long tr = ((~d0 & eq) << 1) & previous;
+			d0 = (((eq & vp) + vp) ^ vp) | eq | vn | tr;
+			long hp = vn | ~(d0 | vp);
+			long hn = d0 & vp;
+
+			if ((hp & last) != 0) {
+				distance++;
+			} else if ((hn & last) != 0) {
+				distance--;
+			}
+
+			if (distance - (n - j - 1) > maxDistance) {
+				return distance - (n - j - 1);
+			}
+
+			// The first row of the matrix increases by one per column
+			hp = (hp << 1) | 1L;
+			hn = hn << 1;
+
+			vp = hn | ~(d0 | hp);
+			vn = hp & d0;
+			previous = eq;
+		}
+
+		return distance;
+	}
+
+	/*
+	 * Multi word variant for patterns of any length. Follows
+	 * Levenshtein.myersBlock. The transposition mask is shifted up by one, so
+	 * the top bit of each word is carried into the bottom of the next.
+	 */
+	static int hyyroBlock(CharBitmasks peq, String text, int maxDistance,
+			long[] vp, long[] vn, long[] d0) {
+		final int m = peq.length();
+		final int words = peq.words();
+		final long last = 1L << ((m - 1) & 63);
+
+		fill(vp, 0, words, ~0L);
+		fill(vn, 0, words, 0L);
+		fill(d0, 0, words, 0L);
+		int previous = CharBitmasks.ABSENT;
+		int distance = m;
+
+		for (int j = 0, n = text.length(); j < n; j++) {
+			final int offset = peq.offset(text.charAt(j));
+
+			// The first row of the matrix increases by one per column
+			long hpCarry = 1L;
+			long hnCarry = 0L;
+			long trCarry = 0L;
+
+			for (int w = 0; w < words; w++) {
+				final long eq = peq.get(offset, w);
+				final long tr = (((~d0[w] & eq) << 1) | trCarry)
+						& peq.get(previous, w);
+				trCarry = (~d0[w] & eq) >>> 63;
+
+				final long x = eq | hnCarry;
+				d0[w] = (((x & vp[w]) + vp[w]) ^ vp[w]) | x | vn[w] | tr;
+				long hp = vn[w] | ~(d0[w] | vp[w]);
+				long hn = d0[w] & vp[w];
+
+				final long hpIn = hpCarry;
+				final long hnIn = hnCarry;
+				if (w < words - 1) {
+					hpCarry = hp >>> 63;
+					hnCarry = hn >>> 63;
+				} else {
+					hpCarry = (hp & last) != 0 ? 1L : 0L;
+					hnCarry = (hn & last) != 0 ? 1L : 0L;
+				}
+
+				hp = (hp << 1) | hpIn;
+				hn = (hn << 1) | hnIn;
+
+				vp[w] = hn | ~(d0[w] | hp);
+				vn[w] = hp & d0[w];
+			}
+
+			distance += hpCarry - hnCarry;
+			previous = offset;
+
+			if (distance - (n - j - 1) > maxDistance) {
+				return distance - (n - j - 1);
+			}
+		}
+
+		return distance;
+	}
+
+	float getInsertDelete() {
+		return insertDelete;
+	}
+
+	float getMinCost() {
+		return min(insertDelete, substitute, transpose);
+	}
+
+	float getMaxCost() {
+		return maxCost;
+	}
+
 	@Override
 	public String toString() {
 		return "DamerauLevenshtein [insertDelete=" + insertDelete
@@ -76,8 +76,12 @@ public final class Dice<T> implements SetMetric<T>, SetDistance<T> {
 			return 0.0f;
 		}
 
+		return compare(a.size(), b.size(), intersection(a, b).size());
+	}
+
+	static float compare(int a, int b, int intersection) {
 		// 2 * ∣a ∩ b∣ / (∣a∣ + ∣b∣)
-		return (2.0f * intersection(a, b).size()) / (a.size() + b.size());
+		return (2.0f * intersection) / (a + b);
 	}
 
 	@Override
@@ -53,8 +53,12 @@ public final class EuclideanDistance<T> implements MultisetMetric<T>, MultisetDi
 			return 1.0f;
 		}
 
-		float maxDistance = (float) sqrt((a.size() * a.size()) + (b.size() * b.size()));
-		return 1.0f - distance(a, b) / maxDistance;
+		return compare(a.size(), b.size(), distance(a, b));
+	}
+
+	static float compare(int a, int b, float distance) {
+		float maxDistance = (float) sqrt((a * a) + (b * b));
+		return 1.0f - distance / maxDistance;
 	}
 
 	@Override
@@ -78,12 +78,14 @@ public final class Jaccard<T> implements SetMetric<T>, SetDistance<T> {
 			return 0.0f;
 		}
 		
-		final int intersection = intersection(a, b).size();
+		return compare(a.size(), b.size(), intersection(a, b).size());
+	}
 
+	static float compare(int a, int b, int intersection) {
 		// ∣a ∩ b∣ / ∣a ∪ b∣
 		// Implementation note: The size of the union of two sets is equal to
 		// the size of both sets minus the duplicate elements.
-		return intersection / (float) (a.size() + b.size() - intersection);
+		return intersection / (float) (a + b - intersection);
 	}
 
 	@Override
@@ -20,11 +20,19 @@
 
 package org.simmetrics.metrics;
 
+import static java.lang.Long.bitCount;
+import static java.lang.Long.numberOfTrailingZeros;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
+import static org.simmetrics.metrics.CodePoints.encode;
+import static org.simmetrics.metrics.CodePoints.hasSurrogatePairs;
 
+import java.util.List;
+
+import org.simmetrics.BatchStringMetric;
+import org.simmetrics.PreparableStringMetric;
+import org.simmetrics.PreparedStringMetric;
 import org.simmetrics.StringDistance;
-import org.simmetrics.StringMetric;
 
 /**
  * Calculates the Jaro distance (similarity) over two strings.
@@ -35,6 +43,14 @@ import org.simmetrics.StringMetric;
  * distance(a,b) = 1 - similarity(a,b)
  * </code>
  * <p>
+ * Strings of at most 64 characters are compared with bitmasks. The matched
+ * characters of each string are kept in a single word and candidate matches
+ * are found by masking the positions of a character with the match window.
+ * Shorter strings are compared directly as building the bitmasks costs more
+ * than it saves.
+ * <p>
+ * Lengths, match windows and transpositions are counted in code points.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  * @see <a
@@ -45,51 +61,189 @@ import org.simmetrics.StringMetric;
  *
  *
  */
-public final class Jaro implements StringMetric, StringDistance {
+public final class Jaro implements BatchStringMetric, PreparableStringMetric,
+		StringDistance {
 	
 	@Override
 	public float distance(String a, String b) {
 		return 1.0f - compare(a, b);
 	}
 	
+	/**
+	 * Maximum length of strings compared with bitmasks.
+	 */
+	static final int MAX_BITMASK_LENGTH = 64;
+
+	/**
+	 * Minimum length of the longest string compared with bitmasks.
+	 */
+	static final int MIN_BITMASK_LENGTH = 32;
+
+	private static boolean useBitmasks(int lengthA, int lengthB) {
+		final int longest = max(lengthA, lengthB);
+		return MIN_BITMASK_LENGTH <= longest && longest <= MAX_BITMASK_LENGTH;
+	}
+
 	@Override
 	public float compare(final String a, final String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return compare(encoded[0], encoded[1]);
+		}
+
+		final Workspace workspace = Workspace.acquire();
+		try {
+			if (useBitmasks(a.length(), b.length())) {
+				return compare(a, workspace.bitmasks(0, a), b,
+						workspace.bitmasks(1, b));
+			}
 
-		if (a.isEmpty() && b.isEmpty()) {
+			final int lengthA = a.length();
+			final char[] charsA = workspace.chars(0, lengthA);
+			a.getChars(0, lengthA, charsA, 0);
+			return compare(charsA, lengthA, b, workspace);
+		} finally {
+			workspace.release();
+		}
+	}
+
+	@Override
+	public void compare(final String query, final List<String> candidates,
+			final float[] similarities) {
+		StringMetrics.compareAll(prepare(query), candidates, similarities);
+	}
+
+	@Override
+	public PreparedStringMetric prepare(final String query) {
+		if (hasSurrogatePairs(query)) {
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return Jaro.this.compare(query, b);
+				}
+			};
+		}
+
+		// The query is copied once for all strings
+		final char[] charsA = query.toCharArray();
+		final CharBitmasks peqA = charsA.length <= MAX_BITMASK_LENGTH ? new CharBitmasks(
+				query) : null;
+		return new PreparedStringMetric() {
+
+			@Override
+			public float compare(String b) {
+				if (hasSurrogatePairs(b)) {
+					return Jaro.this.compare(query, b);
+				}
+
+				final Workspace workspace = Workspace.acquire();
+				try {
+					if (peqA != null && useBitmasks(charsA.length, b.length())) {
+						return Jaro.compare(query, peqA, b,
+								workspace.bitmasks(0, b));
+					}
+					return Jaro.compare(charsA, charsA.length, b, workspace);
+				} finally {
+					workspace.release();
+				}
+			}
+		};
+	}
+
+	private static float compare(final char[] charsA, final int lengthA,
+			final String b, final Workspace workspace) {
+		final int lengthB = b.length();
+
+		if (lengthA == 0 && lengthB == 0) {
 			return 1.0f;
 		}
 
-		if (a.isEmpty() || b.isEmpty()) {
+		if (lengthA == 0 || lengthB == 0) {
 			return 0.0f;
 		}
 
 		// Intentional integer division to round down.
-		final int halfLength = max(0, max(a.length(), b.length()) / 2 - 1);
+		final int halfLength = max(0, max(lengthA, lengthB) / 2 - 1);
+		final int commonLength = min(lengthA, lengthB);
 
-		final char[] charsA = a.toCharArray();
-		final char[] charsB = b.toCharArray();
-		final int[] commonA = getCommonCharacters(charsA, charsB, halfLength);
-		final int[] commonB = getCommonCharacters(charsB, charsA, halfLength);
+		final char[] charsB = workspace.chars(1, lengthB);
+		b.getChars(0, lengthB, charsB, 0);
+
+		final int[] commonA = workspace.ints(0, commonLength);
+		final int[] commonB = workspace.ints(1, commonLength);
+		final int commonCharacters = getCommonCharacters(charsA, lengthA,
+				charsB, lengthB, halfLength, commonA,
+				workspace.booleans(0, lengthB));
+		getCommonCharacters(charsB, lengthB, charsA, lengthA, halfLength,
+				commonB, workspace.booleans(0, lengthA));
+
+		if (commonCharacters == 0) {
+			return 0.0f;
+		}
 
 		// commonA and commonB will always contain the same multi-set of
-		// characters. Because getCommonCharacters has been optimized, commonA
-		// and commonB are -1-padded. So in this loop we count transposition
-		// and use commonCharacters to determine the length of the multi-set.
+		// characters. So in this loop we count transpositions.
 		float transpositions = 0;
-		int commonCharacters = 0;
-		for (int length = commonA.length; commonCharacters < length
-				&& commonA[commonCharacters] > -1; commonCharacters++) {
-			if (commonA[commonCharacters] != commonB[commonCharacters]) {
+		for (int i = 0; i < commonCharacters; i++) {
+			if (commonA[i] != commonB[i]) {
 				transpositions++;
 			}
 		}
 
+		return compare(lengthA, lengthB, commonCharacters, transpositions);
+	}
+
+	/*
+	 * Bit-parallel equivalent of compare for strings of at most 64
+	 * characters. Both strings are matched against each other in the same
+	 * order as getCommonCharacters so the result is identical.
+	 */
+	private static float compare(final String a, final CharBitmasks peqA,
+			final String b, final CharBitmasks peqB) {
+		final int lengthA = a.length();
+		final int lengthB = b.length();
+
+		if (lengthA == 0 && lengthB == 0) {
+			return 1.0f;
+		}
+
+		if (lengthA == 0 || lengthB == 0) {
+			return 0.0f;
+		}
+
+		// Intentional integer division to round down.
+		final int halfLength = max(0, max(lengthA, lengthB) / 2 - 1);
+
+		final long commonA = getCommonCharacters(a, peqB, lengthB, halfLength);
+		final long commonB = getCommonCharacters(b, peqA, lengthA, halfLength);
+
+		final int commonCharacters = bitCount(commonA);
 		if (commonCharacters == 0) {
 			return 0.0f;
 		}
 
-		float aCommonRatio = commonCharacters / (float) a.length();
-		float bCommonRatio = commonCharacters / (float) b.length();
+		// Walk the common characters of both strings in order to count
+		// transpositions.
+		float transpositions = 0;
+		long restA = commonA;
+		long restB = commonB;
+		while (restA != 0) {
+			if (a.charAt(numberOfTrailingZeros(restA)) != b
+					.charAt(numberOfTrailingZeros(restB))) {
+				transpositions++;
+			}
+			restA &= restA - 1;
+			restB &= restB - 1;
+		}
+
+		return compare(lengthA, lengthB, commonCharacters, transpositions);
+	}
+
+	private static float compare(final int lengthA, final int lengthB,
+			final int commonCharacters, final float transpositions) {
+		float aCommonRatio = commonCharacters / (float) lengthA;
+		float bCommonRatio = commonCharacters / (float) lengthB;
 		float transpositionRatio = (commonCharacters - transpositions / 2.0f)
 				/ commonCharacters;
 
@@ -97,35 +251,56 @@ public final class Jaro implements StringMetric, StringDistance {
 	}
 
 	/*
-	 * Returns an array of characters from a within b. A character in b is
-	 * counted as common when it is within separation distance from the position
-	 * in a.
+	 * Collects the characters from a within b in common and returns the number
+	 * of common characters. A character in b is counted as common when it is
+	 * within separation distance from the position in a.
 	 */
-	private static int[] getCommonCharacters(final char[] charsA,
-			final char[] charsB, final int separation) {
-		final int[] common = new int[min(charsA.length, charsB.length)];
-		final boolean[] matched = new boolean[charsB.length];
+	private static int getCommonCharacters(final char[] charsA,
+			final int lengthA, final char[] charsB, final int lengthB,
+			final int separation, final int[] common, final boolean[] matched) {
 
 		// Iterate of string a and find all characters that occur in b within
 		// the separation distance. Mark any matches found to avoid
 		// duplicate matchings.
 		int commonIndex = 0;
-		for (int i = 0, length = charsA.length; i < length; i++) {
+		for (int i = 0; i < lengthA; i++) {
 			final char character = charsA[i];
-			final int index = indexOf(character, charsB, i - separation, i
-					+ separation + 1, matched);
+			final int index = indexOf(character, charsB, i - separation, min(
+					i + separation + 1, lengthB), matched);
 			if (index > -1) {
 				common[commonIndex++] = character;
 				matched[index] = true;
 			}
 		}
 
-		if (commonIndex < common.length) {
-			common[commonIndex] = -1;
-		}
+		// Both invocations will yield the same multi-set, so they can be
+		// compared for transposition without making a copy.
+		return commonIndex;
+	}
 
-		// Both invocations will yield the same multi-set terminated by -1, so
-		// they can be compared for transposition without making a copy.
+	/*
+	 * Bit-parallel equivalent of getCommonCharacters. Returns the positions of
+	 * the characters from a within b in common. The first unmatched position
+	 * in the window is the lowest bit of the candidates, as found by indexOf.
+	 */
+	private static long getCommonCharacters(final String a,
+			final CharBitmasks peqB, final int lengthB, final int separation) {
+		long common = 0;
+		long matched = 0;
+		for (int i = 0, lengthA = a.length(); i < lengthA; i++) {
+			final int from = max(0, i - separation);
+			final int to = min(i + separation + 1, lengthB);
+			if (from >= to) {
+				continue;
+			}
+
+			final long window = (-1L >>> (64 - (to - from))) << from;
+			final long candidates = peqB.get(a.charAt(i)) & window & ~matched;
+			if (candidates != 0) {
+				matched |= candidates & -candidates;
+				common |= 1L << i;
+			}
+		}
 		return common;
 	}
 
@@ -138,7 +313,7 @@ public final class Jaro implements StringMetric, StringDistance {
 			int toIndex, boolean[] matched) {
 
 		// compare char with range of characters to either side
-		for (int j = max(0, fromIndex), length = min(toIndex, buffer.length); j < length; j++) {
+		for (int j = max(0, fromIndex); j < toIndex; j++) {
 			// check if found
 			if (buffer[j] == character && !matched[j]) {
 				return j;
@@ -21,11 +21,15 @@
 package org.simmetrics.metrics;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Strings.commonPrefix;
+import static java.lang.Character.charCount;
 import static java.lang.Math.min;
 
+import java.util.List;
+
+import org.simmetrics.BatchStringMetric;
+import org.simmetrics.PreparableStringMetric;
+import org.simmetrics.PreparedStringMetric;
 import org.simmetrics.StringDistance;
-import org.simmetrics.StringMetric;
 
 /**
  * Calculates the Jaro-Winkler distance (similarity) over two strings.
@@ -39,6 +43,8 @@ import org.simmetrics.StringMetric;
  * Can be configured with a prefix adjustment scale, max prefix length and boost
  * threshold.
  * <p>
+ * The common prefix is counted in code points.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  * @see <a
@@ -49,7 +55,8 @@ import org.simmetrics.StringMetric;
  * 
  * 
  */
-public final class JaroWinkler implements StringMetric, StringDistance {
+public final class JaroWinkler implements BatchStringMetric,
+		PreparableStringMetric, StringDistance {
 
 	private final Jaro jaro = new Jaro();
 
@@ -116,11 +123,68 @@ public final class JaroWinkler implements StringMetric, StringDistance {
 			return jaroScore;
 		}
 
-		int prefixLength = min(commonPrefix(a, b).length(), maxPrefixLength);
+		int prefixLength = commonPrefixLength(a, b, maxPrefixLength);
 
 		return jaroScore + (prefixLength * prefixScale * (1.0f - jaroScore));
 	}
 
+	@Override
+	public void compare(final String query, final List<String> candidates,
+			final float[] similarities) {
+		StringMetrics.compareAll(prepare(query), candidates, similarities);
+	}
+
+	@Override
+	public PreparedStringMetric prepare(final String query) {
+		final PreparedStringMetric preparedJaro = jaro.prepare(query);
+		return new PreparedStringMetric() {
+
+			@Override
+			public float compare(String b) {
+				final float jaroScore = preparedJaro.compare(b);
+
+				if (jaroScore < boostThreshold) {
+					return jaroScore;
+				}
+
+				int prefixLength = commonPrefixLength(query, b,
+						maxPrefixLength);
+
+				return jaroScore
+						+ (prefixLength * prefixScale * (1.0f - jaroScore));
+			}
+		};
+	}
+
+	/*
+	 * Returns the number of code points in the common prefix of a and b up to
+	 * maxLength.
+	 */
+	private static int commonPrefixLength(String a, String b, int maxLength) {
+		final int shortest = min(a.length(), b.length());
+		int prefix = 0;
+		for (int i = 0; prefix < maxLength && i < shortest; prefix++) {
+			final int codePoint = a.codePointAt(i);
+			if (codePoint != b.codePointAt(i)) {
+				break;
+			}
+			i += charCount(codePoint);
+		}
+		return prefix;
+	}
+
+	float getBoostThreshold() {
+		return boostThreshold;
+	}
+
+	float getPrefixScale() {
+		return prefixScale;
+	}
+
+	int getMaxPrefixLength() {
+		return maxPrefixLength;
+	}
+
 	@Override
 	public String toString() {
 		return "JaroWinkler [boostThreshold=" + boostThreshold
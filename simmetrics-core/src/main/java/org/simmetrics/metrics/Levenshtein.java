@@ -21,11 +21,23 @@
 package org.simmetrics.metrics;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Float.POSITIVE_INFINITY;
+import static java.lang.Math.abs;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.fill;
+import static org.simmetrics.metrics.CodePoints.encode;
+import static org.simmetrics.metrics.CodePoints.hasSurrogatePairs;
 import static org.simmetrics.metrics.Math.min;
 
-import org.simmetrics.StringDistance;
-import org.simmetrics.StringMetric;
+import java.util.List;
+
+import org.simmetrics.BatchStringMetric;
+import org.simmetrics.BoundedStringDistance;
+import org.simmetrics.BoundedStringMetric;
+import org.simmetrics.PreparableStringMetric;
+import org.simmetrics.PreparedStringMetric;
 
 /**
  * Calculates the Levenshtein distance and similarity over two strings.
@@ -33,18 +45,44 @@ import org.simmetrics.StringMetric;
  * Insert/delete and substitute operations can be weighted. When the cost for
  * substitution is zero Levenshtein does not satisfy the coincidence property.
  * <p>
+ * When both weights are 1.0 the distance is computed with the bit-parallel
+ * algorithm by Myers as formulated by Hyyrö. This processes 64 cells of the
+ * dynamic programming matrix per machine word and produces the same results.
+ * <p>
+ * The bounded distance and similarity avoid work for strings that are too far
+ * apart. Strings that differ too much in length are rejected before any
+ * computation. Otherwise only the cells of the dynamic programming matrix
+ * within the bound from the diagonal are computed (Ukkonen's band) and
+ * computation stops as soon as the bound is exceeded.
+ * <p>
+ * A prepared query holds the bitmasks of the query so they are computed only
+ * once when the query is compared against many strings.
+ * <p>
+ * Strings are compared by code point. Inserting, deleting or substituting a
+ * character outside the basic multilingual plane is a single operation.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  * @see <a href=" http://en.wikipedia.org/wiki/Levenshtein_distance">Wikipedia -
  *      Levenshtein distance</a>
  * @see DamerauLevenshtein
+ * @see <a href="http://dx.doi.org/10.1145/316542.316550">Myers, G. (1999). A
+ *      fast bit-vector algorithm for approximate string matching based on
+ *      dynamic programming</a>
+ * @see <a href="http://www.sciencedirect.com/science/article/pii/S0304397503001749">
+ *      Hyyrö, H. (2003). A bit-vector algorithm for computing
+ *      Levenshtein and Damerau edit distances</a>
  * 
  */
-public final class Levenshtein implements StringMetric, StringDistance {
+public final class Levenshtein implements BoundedStringMetric,
+		BoundedStringDistance, BatchStringMetric, PreparableStringMetric {
 
 	private final float maxCost;
 	private final float insertDelete;
 	private final float substitute;
+	private final boolean unitCost;
+
+	static final float BOUND_TOLERANCE = 1.0001f;
 
 	/**
 	 * Constructs a new weighted Levenshtein metric. When the cost for
@@ -62,6 +100,7 @@ public final class Levenshtein implements StringMetric, StringDistance {
 		this.maxCost = max(insertDelete, substitute);
 		this.insertDelete = insertDelete;
 		this.substitute = substitute;
+		this.unitCost = insertDelete == 1.0f && substitute == 1.0f;
 	}
 
 	/**
@@ -73,16 +112,109 @@ public final class Levenshtein implements StringMetric, StringDistance {
 
 	@Override
 	public float compare(final String a, final String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return similarity(encoded[0], encoded[1]);
+		}
+		return similarity(a, b);
+	}
+
+	private float similarity(final String a, final String b) {
+		if (a.isEmpty() && b.isEmpty()) {
+			return 1.0f;
+		}
+
+		return 1.0f - (editDistance(a, b) / (maxCost * max(a.length(),
+				b.length())));
+	}
+
+	@Override
+	public float compare(final String a, final String b,
+			final float minSimilarity) {
+		checkArgument(0.0f <= minSimilarity && minSimilarity <= 1.0f);
+
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return similarity(encoded[0], encoded[1], minSimilarity);
+		}
+		return similarity(a, b, minSimilarity);
+	}
+
+	private float similarity(final String a, final String b,
+			final float minSimilarity) {
 		if (a.isEmpty() && b.isEmpty()) {
 			return 1.0f;
 		}
 
-		return 1.0f - (distance(a, b) / (maxCost * max(a.length(), b.length())));
+		final float maxDistance = maxCost * max(a.length(), b.length());
+
+		// The bound is widened slightly to absorb rounding errors. The
+		// similarity is checked against minSimilarity afterwards.
+		final float distance = editDistance(a, b, (1.0f - minSimilarity)
+				* maxDistance * BOUND_TOLERANCE);
+		if (distance == POSITIVE_INFINITY) {
+			return 0.0f;
+		}
+
+		final float similarity = 1.0f - (distance / maxDistance);
+		return similarity < minSimilarity ? 0.0f : similarity;
+	}
+
+	@Override
+	public void compare(final String query, final List<String> candidates,
+			final float[] similarities) {
+		StringMetrics.compareAll(prepare(query), candidates, similarities);
+	}
+
+	@Override
+	public PreparedStringMetric prepare(final String query) {
+		checkNotNull(query);
+		if (!unitCost || query.isEmpty() || hasSurrogatePairs(query)) {
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return Levenshtein.this.compare(query, b);
+				}
+			};
+		}
+
+		// The query is used as the pattern for all strings
+		final CharBitmasks peq = new CharBitmasks(query);
+		return new PreparedStringMetric() {
+
+			@Override
+			public float compare(String b) {
+				if (hasSurrogatePairs(b)) {
+					return Levenshtein.this.compare(query, b);
+				}
+
+				final float distance;
+				if (b.isEmpty()) {
+					distance = query.length();
+				} else if (query.equals(b)) {
+					distance = 0;
+				} else if (peq.words() == 1) {
+					distance = myers(peq, b, Integer.MAX_VALUE);
+				} else {
+					distance = myersBlock(peq, b, Integer.MAX_VALUE);
+				}
+				return 1.0f - (distance / (maxCost * max(query.length(),
+						b.length())));
+			}
+		};
 	}
 
 	@Override
 	public float distance(final String s, final String t) {
+		if (hasSurrogatePairs(s, t)) {
+			final String[] encoded = encode(s, t);
+			return editDistance(encoded[0], encoded[1]);
+		}
+		return editDistance(s, t);
+	}
 
+	private float editDistance(final String s, final String t) {
 		if (s.isEmpty())
 			return t.length();
 		if (t.isEmpty())
@@ -90,17 +222,34 @@ public final class Levenshtein implements StringMetric, StringDistance {
 		if (s.equals(t))
 			return 0;
 
+		if (unitCost) {
+			// Use the shorter string as the pattern to minimize the number of
+			// words in a bit vector.
+			return s.length() <= t.length() ? myers(s, t) : myers(t, s);
+		}
+
+		final int tLength = t.length();
+
+		final Workspace workspace = Workspace.acquire();
+		try {
+			return distance(s, t, workspace.floats(0, tLength + 1),
+					workspace.floats(1, tLength + 1));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private float distance(final String s, final String t, float[] v0,
+			float[] v1) {
 		final int tLength = t.length();
 		final int sLength = s.length();
 
 		float[] swap;
-		float[] v0 = new float[tLength + 1];
-		float[] v1 = new float[tLength + 1];
 
 		// initialize v0 (the previous row of distances)
 		// this row is A[0][i]: edit distance for an empty s
 		// the distance is just the number of characters to delete from t
-		for (int i = 0; i < v0.length; i++) {
+		for (int i = 0; i <= tLength; i++) {
 			v0[i] = i * insertDelete;
 		}
 
@@ -127,6 +276,246 @@ public final class Levenshtein implements StringMetric, StringDistance {
 		return v0[tLength];
 	}
 
+	@Override
+	public float distance(final String s, final String t,
+			final float maxDistance) {
+		checkArgument(maxDistance >= 0);
+
+		if (hasSurrogatePairs(s, t)) {
+			final String[] encoded = encode(s, t);
+			return editDistance(encoded[0], encoded[1], maxDistance);
+		}
+		return editDistance(s, t, maxDistance);
+	}
+
+	private float editDistance(final String s, final String t,
+			final float maxDistance) {
+		if (s.isEmpty() || t.isEmpty() || s.equals(t)) {
+			return bound(editDistance(s, t), maxDistance);
+		}
+
+		// The difference in length must be inserted or deleted at least
+		if (abs(s.length() - t.length()) * insertDelete > maxDistance) {
+			return POSITIVE_INFINITY;
+		}
+
+		if (unitCost) {
+			final int k = (int) min(maxDistance, Integer.MAX_VALUE);
+			final int distance = s.length() <= t.length() ? myers(s, t, k)
+					: myers(t, s, k);
+			return bound(distance, maxDistance);
+		}
+
+		final int tLength = t.length();
+		final int sLength = s.length();
+
+		// Any cell further then band cells from the diagonal costs more then
+		// maxDistance to reach. One extra diagonal guards against rounding.
+		final int band = (int) min(max(sLength, tLength), maxDistance
+				/ insertDelete) + 1;
+
+		final Workspace workspace = Workspace.acquire();
+		try {
+			return distance(s, t, maxDistance, band,
+					workspace.floats(0, tLength + 1),
+					workspace.floats(1, tLength + 1));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private float distance(final String s, final String t,
+			final float maxDistance, final int band, float[] v0, float[] v1) {
+		final int tLength = t.length();
+		final int sLength = s.length();
+
+		float[] swap;
+
+		for (int i = 0; i <= tLength; i++) {
+			v0[i] = i * insertDelete;
+		}
+
+		for (int i = 0; i < sLength; i++) {
+			// Compute cells from + 1 through to of row i + 1
+			final int from = max(0, i - band);
+			final int to = min(tLength, i + 1 + band);
+
+			// The cell left of the band is either in the first column or
+			// unreachable.
+			v1[from] = from == 0 ? (i + 1) * insertDelete : POSITIVE_INFINITY;
+			float rowMin = v1[from];
+
+			for (int j = from; j < to; j++) {
+				v1[j + 1] = min(v1[j] + insertDelete,
+						v0[j + 1] + insertDelete,
+						v0[j]
+								+ (s.charAt(i) == t.charAt(j) ? 0.0f
+										: substitute));
+				rowMin = min(rowMin, v1[j + 1]);
+			}
+
+			// The cell right of the band is unreachable from the next row
+			if (to < tLength) {
+				v1[to + 1] = POSITIVE_INFINITY;
+			}
+
+			// Costs are non-negative so all paths through this row cost more
+			if (rowMin > maxDistance) {
+				return POSITIVE_INFINITY;
+			}
+
+			swap = v0;
+			v0 = v1;
+			v1 = swap;
+		}
+
+		return bound(v0[tLength], maxDistance);
+	}
+
+	private static float bound(float distance, float maxDistance) {
+		return distance > maxDistance ? POSITIVE_INFINITY : distance;
+	}
+
+	private static int myers(String pattern, String text) {
+		return myers(pattern, text, Integer.MAX_VALUE);
+	}
+
+	private static int myers(String pattern, String text, int maxDistance) {
+		final Workspace workspace = Workspace.acquire();
+		try {
+			final CharBitmasks peq = workspace.bitmasks(0, pattern);
+			final int words = peq.words();
+			if (words == 1) {
+				return myers(peq, text, maxDistance);
+			}
+			return myersBlock(peq, text, maxDistance,
+					workspace.longs(0, words), workspace.longs(1, words));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private static int myersBlock(CharBitmasks peq, String text,
+			int maxDistance) {
+		final Workspace workspace = Workspace.acquire();
+		try {
+			final int words = peq.words();
+			return myersBlock(peq, text, maxDistance,
+					workspace.longs(0, words), workspace.longs(1, words));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/*
+	 * Single word variant for patterns of at most 64 characters. The vertical
+	 * deltas of the current column are kept as two bit vectors. A set bit in
+	 * vp (vn) indicates the cell below is one larger (smaller). The distance is
+	 * tracked in the last row of the matrix.
+	 * 
+	 * The distance in the last row changes by at most one per column. Once it
+	 * can no longer drop to maxDistance the search is abandoned and a value
+	 * larger then maxDistance is returned.
+	 */
+	static int myers(CharBitmasks peq, String text, int maxDistance) {
+		final int m = peq.length();
+		final long last = 1L << (m - 1);
+
+		long vp = ~0L;
+		long vn = 0L;
+		int distance = m;
+
+		for (int j = 0, n = text.length(); j < n; j++) {
+			final long eq = peq.get(text.charAt(j));
+			final long d0 = (((eq & vp) + vp) ^ vp) | eq | vn;
+			long hp = vn | ~(d0 | vp);
+			long hn = d0 & vp;
+
+			if ((hp & last) != 0) {
+				distance++;
+			} else if ((hn & last) != 0) {
+				distance--;
+			}
+
+			if (distance - (n - j - 1) > maxDistance) {
+				return distance - (n - j - 1);
+			}
+
+			// The first row of the matrix increases by one per column
+			hp = (hp << 1) | 1L;
+			hn = hn << 1;
+
+			vp = hn | ~(d0 | hp);
+			vn = hp & d0;
+		}
+
+		return distance;
+	}
+
+	/*
+	 * Multi word variant for patterns of any length. The pattern is divided
+	 * into blocks of 64 characters. The horizontal delta at the bottom of each
+	 * block is carried into the top of the next block.
+	 */
+	static int myersBlock(CharBitmasks peq, String text, int maxDistance,
+			long[] vp, long[] vn) {
+		final int m = peq.length();
+		final int words = peq.words();
+		final long last = 1L << ((m - 1) & 63);
+
+		fill(vp, 0, words, ~0L);
+		fill(vn, 0, words, 0L);
+		int distance = m;
+
+		for (int j = 0, n = text.length(); j < n; j++) {
+			final int offset = peq.offset(text.charAt(j));
+
+			// The first row of the matrix increases by one per column
+			long hpCarry = 1L;
+			long hnCarry = 0L;
+
+			for (int w = 0; w < words; w++) {
+				final long eq = peq.get(offset, w);
+				final long x = eq | hnCarry;
+				final long d0 = (((x & vp[w]) + vp[w]) ^ vp[w]) | x | vn[w];
+				long hp = vn[w] | ~(d0 | vp[w]);
+				long hn = d0 & vp[w];
+
+				final long hpIn = hpCarry;
+				final long hnIn = hnCarry;
+				if (w < words - 1) {
+					hpCarry = hp >>> 63;
+					hnCarry = hn >>> 63;
+				} else {
+					hpCarry = (hp & last) != 0 ? 1L : 0L;
+					hnCarry = (hn & last) != 0 ? 1L : 0L;
+				}
+
+				hp = (hp << 1) | hpIn;
+				hn = (hn << 1) | hnIn;
+
+				vp[w] = hn | ~(d0 | hp);
+				vn[w] = hp & d0;
+			}
+
+			distance += hpCarry - hnCarry;
+
+			if (distance - (n - j - 1) > maxDistance) {
+				return distance - (n - j - 1);
+			}
+		}
+
+		return distance;
+	}
+
+	float getInsertDelete() {
+		return insertDelete;
+	}
+
+	float getSubstitute() {
+		return substitute;
+	}
+
 	@Override
 	public String toString() {
 		return "Levenshtein [insertDelete=" + insertDelete + ", substitute="
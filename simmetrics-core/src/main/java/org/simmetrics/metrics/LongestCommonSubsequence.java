@@ -20,6 +20,9 @@
 package org.simmetrics.metrics;
 
 import static java.lang.Math.max;
+import static java.util.Arrays.fill;
+import static org.simmetrics.metrics.CodePoints.encode;
+import static org.simmetrics.metrics.CodePoints.hasSurrogatePairs;
 import org.simmetrics.StringDistance;
 import org.simmetrics.StringMetric;
 
@@ -33,6 +36,8 @@ import org.simmetrics.StringMetric;
  * distance(a,b) = ∣a∣ + ∣b∣ - 2 * ∣lcs(a,b)∣  
  * </code>
  * <p>
+ * The subsequence and the lengths of the strings are measured in code points.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  * @see <a
@@ -44,6 +49,10 @@ public final class LongestCommonSubsequence implements StringMetric,
 
 	@Override
 	public float compare(String a, String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return compare(encoded[0], encoded[1]);
+		}
 
 		if (a.isEmpty() && b.isEmpty()) {
 			return 1.0f;
@@ -58,6 +67,10 @@ public final class LongestCommonSubsequence implements StringMetric,
 
 	@Override
 	public float distance(String a, String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return distance(encoded[0], encoded[1]);
+		}
 
 		if (a.isEmpty() && b.isEmpty()) {
 			return 0.0f;
@@ -72,29 +85,82 @@ public final class LongestCommonSubsequence implements StringMetric,
 	}
 
 	private static int lcs(String a, String b) {
+		// The shorter string is the pattern, it needs fewer words
+		final String pattern = a.length() <= b.length() ? a : b;
+		final String text = pattern == a ? b : a;
 
-		final int n = a.length();
-		final int m = b.length();
-
-		// We're only interested in the actual longest common subsequence This
-		// means we don't have to backtrack through the n-by-m matrix and can
-		// safe some space by reusing v0 for row i-1.
-		int[] v0 = new int[m + 1];
-		int[] v1 = new int[m + 1];
-
-		for (int i = 1; i <= n; i++) {
-			for (int j = 1; j <= m; j++) {
-				if (a.charAt(i - 1) == b.charAt(j - 1)) {
-					v1[j] = v0[j - 1] + 1;
-				} else {
-					v1[j] = max(v1[j - 1], v0[j]);
-				}
+		final Workspace workspace = Workspace.acquire();
+		try {
+			final CharBitmasks peq = workspace.bitmasks(0, pattern);
+			final int words = peq.words();
+			if (words == 1) {
+				return allisonDix(peq, text);
 			}
-			int[] swap = v0; v0 = v1; v1 = swap; 
+			return allisonDixBlock(peq, text, workspace.longs(0, words));
+		} finally {
+			workspace.release();
 		}
+	}
+
+	/*
+	 * Single word variant for patterns of at most 64 characters. A column of
+	 * the dynamic programming matrix is kept as a bit vector. A cleared bit in
+	 * v indicates the length of the subsequence increases by one at that row.
+	 * The length of the longest common subsequence is the number of cleared
+	 * bits.
+	 * 
+	 * See: Hyyrö, H. (2004). Bit-parallel LCS-length computation revisited.
+	 */
+	static int allisonDix(CharBitmasks peq, String text) {
+		final int m = peq.length();
+
+		long v = ~0L;
+		for (int j = 0, n = text.length(); j < n; j++) {
+			final long u = v & peq.get(text.charAt(j));
+			v = (v + u) | (v - u);
+		}
+
+		return m - Long.bitCount(v & mask(m));
+	}
+
+	/*
+	 * Multi word variant for patterns of any length. The pattern is divided
+	 * into blocks of 64 characters. The carry of the addition in each block is
+	 * added to the next block. Because u is a subset of v the subtraction
+	 * never borrows.
+	 */
+	static int allisonDixBlock(CharBitmasks peq, String text, long[] v) {
+		final int m = peq.length();
+		final int words = peq.words();
+
+		fill(v, 0, words, ~0L);
+		for (int j = 0, n = text.length(); j < n; j++) {
+			final int offset = peq.offset(text.charAt(j));
+
+			long carry = 0L;
+			for (int w = 0; w < words; w++) {
+				final long vw = v[w];
+				final long u = vw & peq.get(offset, w);
+				final long sum = vw + u + carry;
+				// Carry out of the highest bit of vw + u + carry
+				carry = ((vw & u) | ((vw | u) & ~sum)) >>> 63;
+				v[w] = sum | (vw - u);
+			}
+		}
+
+		int ones = 0;
+		for (int w = 0; w < words - 1; w++) {
+			ones += Long.bitCount(v[w]);
+		}
+		ones += Long.bitCount(v[words - 1] & mask(m - 64 * (words - 1)));
+		return m - ones;
+	}
 
-		// Because we swapped the results are in v0.
-		return v0[m];
+	/*
+	 * Returns a mask of the lowest length bits, 1 <= length <= 64.
+	 */
+	private static long mask(int length) {
+		return ~0L >>> (64 - length);
 	}
 
 	@Override
@@ -20,9 +20,16 @@
 package org.simmetrics.metrics;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.simmetrics.metrics.CodePoints.encode;
+import static org.simmetrics.metrics.CodePoints.hasSurrogatePairs;
 
+import java.util.List;
+
+import org.simmetrics.BatchStringMetric;
+import org.simmetrics.PreparableStringMetric;
+import org.simmetrics.PreparedStringMetric;
 import org.simmetrics.StringDistance;
-import org.simmetrics.StringMetric;
 
 /**
  * Applies the longest common substring algorithm to calculate the similarity
@@ -34,17 +41,37 @@ import org.simmetrics.StringMetric;
  * distance(a,b) = ∣a∣ + ∣b∣ - 2 * ∣lcs(a,b)∣  
  * </code>
  * <p>
+ * The substring and the lengths of the strings are measured in code points.
+ * <p>
+ * Short strings are compared by dynamic programming in quadratic time. When
+ * both strings are long the shorter string is built into a suffix automaton
+ * and the longer string is walked through it in linear time. A prepared query
+ * is built into an automaton once and each candidate is walked through it.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  * @see <a
  *      href="https://en.wikipedia.org/wiki/Longest_common_substring_problem">Wikipedia
  *      - Longest common substring problem</a>
  */
-public final class LongestCommonSubstring implements StringMetric,
-		StringDistance {
+public final class LongestCommonSubstring implements BatchStringMetric,
+		PreparableStringMetric, StringDistance {
+
+	/**
+	 * Minimum length of the shortest string compared with a suffix automaton.
+	 */
+	static final int MIN_AUTOMATON_LENGTH = 64;
+
+	private static boolean useAutomaton(int lengthA, int lengthB) {
+		return min(lengthA, lengthB) >= MIN_AUTOMATON_LENGTH;
+	}
 
 	@Override
 	public float compare(String a, String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return compare(encoded[0], encoded[1]);
+		}
 
 		if (a.isEmpty() && b.isEmpty()) {
 			return 1.0f;
@@ -59,6 +86,10 @@ public final class LongestCommonSubstring implements StringMetric,
 
 	@Override
 	public float distance(String a, String b) {
+		if (hasSurrogatePairs(a, b)) {
+			final String[] encoded = encode(a, b);
+			return distance(encoded[0], encoded[1]);
+		}
 
 		if (a.isEmpty() && b.isEmpty()) {
 			return 0.0f;
@@ -72,14 +103,52 @@ public final class LongestCommonSubstring implements StringMetric,
 		return a.length() + b.length() - 2 * lcs(a, b);
 	}
 
+	@Override
+	public void compare(final String query, final List<String> candidates,
+			final float[] similarities) {
+		StringMetrics.compareAll(prepare(query), candidates, similarities);
+	}
+
+	@Override
+	public PreparedStringMetric prepare(final String query) {
+		// The automaton walks code points, no need to encode the candidates
+		final SuffixAutomaton automaton = new SuffixAutomaton(query);
+		final int lengthA = CodePoints.length(query);
+		return new PreparedStringMetric() {
+
+			@Override
+			public float compare(String b) {
+				final int lengthB = CodePoints.length(b);
+				if (lengthA == 0 && lengthB == 0) {
+					return 1.0f;
+				}
+				return automaton.longestCommonSubstring(b)
+						/ (float) max(lengthA, lengthB);
+			}
+		};
+	}
+
 	private static int lcs(String a, String b) {
+		if (useAutomaton(a.length(), b.length())) {
+			return a.length() <= b.length() ? new SuffixAutomaton(a)
+					.longestCommonSubstring(b) : new SuffixAutomaton(b)
+					.longestCommonSubstring(a);
+		}
+
+		final Workspace workspace = Workspace.acquire();
+		try {
+			final int n = b.length();
+			return lcs(a, b, workspace.ints(0, n), workspace.ints(1, n));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private static int lcs(String a, String b, int[] v0, int[] v1) {
 
 		final int m = a.length();
 		final int n = b.length();
 
-		int[] v0 = new int[n];
-		int[] v1 = new int[n];
-
 		int z = 0;
 		for (int i = 0; i < m; i++) {
 			for (int j = 0; j < n; j++) {
@@ -72,7 +72,7 @@ final class Math {
 
 	static <T> Multiset<T> union(Multiset<T> a, Multiset<T> b) {
 		// Lager set first for performance improvement.
-		// See: MathCaliper
+		// See: SetOperationBenchmark
 		if (a.size() < b.size()) {
 			return Multisets.union(b, a);
 		}
@@ -82,7 +82,7 @@ final class Math {
 
 	static <T> Multiset<T> intersection(Multiset<T> a, Multiset<T> b) {
 		// Smaller set first for performance improvement.
-		// See: MathCaliper
+		// See: SetOperationBenchmark
 		if (a.size() < b.size()) {
 			return Multisets.intersection(a, b);
 		}
@@ -92,7 +92,7 @@ final class Math {
 
 	static <T> Set<T> intersection(Set<T> a, Set<T> b) {
 		// Smaller set first for performance improvement.
-		// See: MathCaliper and note at Sets.intersection
+		// See: SetOperationBenchmark and note at Sets.intersection
 		if (a.size() < b.size()) {
 			return Sets.intersection(a, b);
 		}
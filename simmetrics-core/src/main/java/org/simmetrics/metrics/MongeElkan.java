@@ -21,12 +21,16 @@
 package org.simmetrics.metrics;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.max;
 import static java.lang.Math.sqrt;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.simmetrics.ListMetric;
+import org.simmetrics.PreparedStringMetric;
 import org.simmetrics.StringMetric;
 
 /**
@@ -40,13 +44,30 @@ import org.simmetrics.StringMetric;
  * </code>
  * </p>
  * <p>
+ * Each pair of tokens is compared at most once and used for both directions.
+ * This assumes the metric is symmetric. Pairs that can no longer change
+ * either maximum, because both tokens already have a perfect match, are
+ * skipped. Tokens of {@code a} are prepared once when the metric is a
+ * {@link org.simmetrics.PreparableStringMetric}.
+ * <p>
+ * When constructed with a fork join pool, long lists of tokens are compared
+ * in parallel.
+ * <p>
  * This class is immutable and thread-safe.
  * 
  */
 public final class MongeElkan implements ListMetric<String> {
 
+	// Smallest number of token pairs compared in parallel
+	private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	// Number of token pairs compared by a single task
+	private static final int GRAIN = 1 << 9;
+
 	private final StringMetric metric;
 
+	private final ForkJoinPool pool;
+
 	/**
 	 * Constructs a Monge-Elkan metric with metric.
 	 * 
@@ -55,6 +76,21 @@ public final class MongeElkan implements ListMetric<String> {
 	 */
 	public MongeElkan(final StringMetric metric) {
 		this.metric = metric;
+		this.pool = null;
+	}
+
+	/**
+	 * Constructs a Monge-Elkan metric with metric. Lists of tokens with many
+	 * pairs are compared in parallel in the pool.
+	 * 
+	 * @param metric
+	 *            metric to use
+	 * @param pool
+	 *            pool to compare long lists of tokens in
+	 */
+	public MongeElkan(final StringMetric metric, final ForkJoinPool pool) {
+		this.metric = metric;
+		this.pool = checkNotNull(pool);
 	}
 
 	@Override
@@ -70,22 +106,95 @@ public final class MongeElkan implements ListMetric<String> {
 			return 0.0f;
 		}
 
+		final String[] as = a.toArray(new String[a.size()]);
+		final String[] bs = b.toArray(new String[b.size()]);
+
+		// The best match of each token in a and b
+		final float[] aMax = new float[as.length];
+		final float[] bMax;
+		if (pool != null && (long) as.length * bs.length >= PARALLEL_THRESHOLD) {
+			bMax = pool.invoke(new Rows(as, bs, aMax, 0, as.length));
+		} else {
+			bMax = new float[bs.length];
+			compare(as, bs, 0, as.length, aMax, bMax);
+		}
+
 		// calculates normalized_similarity(a,b)
-		return (float) sqrt(mongeElkan(a, b) * mongeElkan(b, a));
+		return (float) sqrt(average(aMax) * average(bMax));
 	}
 
-	private float mongeElkan(List<String> a, List<String> b) {
+	/*
+	 * Compares the tokens of a from (inclusive) to to (exclusive) with all
+	 * tokens of b. Updates the best matches of the tokens in a and b.
+	 */
+	private void compare(String[] a, String[] b, int from, int to,
+			float[] aMax, float[] bMax) {
+		for (int i = from; i < to; i++) {
+			final PreparedStringMetric prepared = StringMetrics.prepare(metric,
+					a[i]);
+			float max = 0.0f;
+			for (int j = 0; j < b.length; j++) {
+				// Neither best match can improve
+				if (max == 1.0f && bMax[j] == 1.0f) {
+					continue;
+				}
+				final float similarity = prepared.compare(b[j]);
+				max = max(max, similarity);
+				bMax[j] = max(bMax[j], similarity);
+			}
+			aMax[i] = max;
+		}
+	}
+
+	private static float average(float[] max) {
 		// calculates average( for s in a | max( for q in b | metric(s,q))
 		float sum = 0.0f;
+		for (float m : max) {
+			sum += m;
+		}
+		return sum / max.length;
+	}
 
-		for (String s : a) {
-			float max = 0.0f;
-			for (String q : b) {
-				max = max(max, metric.compare(s, q));
+	/*
+	 * Compares the tokens of a from (inclusive) to to (exclusive) with all
+	 * tokens of b. Returns the best matches of the tokens in b.
+	 */
+	private final class Rows extends RecursiveTask<float[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String[] a;
+		private final String[] b;
+		private final float[] aMax;
+		private final int from;
+		private final int to;
+
+		Rows(String[] a, String[] b, float[] aMax, int from, int to) {
+			this.a = a;
+			this.b = b;
+			this.aMax = aMax;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected float[] compute() {
+			if (to - from <= 1 || (long) (to - from) * b.length <= GRAIN) {
+				final float[] bMax = new float[b.length];
+				MongeElkan.this.compare(a, b, from, to, aMax, bMax);
+				return bMax;
+			}
+
+			final int middle = (from + to) >>> 1;
+			final Rows right = new Rows(a, b, aMax, middle, to);
+			right.fork();
+			final float[] bMax = new Rows(a, b, aMax, from, middle).compute();
+			final float[] rightMax = right.join();
+			for (int j = 0; j < bMax.length; j++) {
+				bMax[j] = max(bMax[j], rightMax[j]);
 			}
-			sum += max;
+			return bMax;
 		}
-		return sum / a.size();
 	}
 
 	@Override
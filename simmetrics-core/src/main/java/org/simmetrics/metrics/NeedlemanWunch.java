@@ -22,13 +22,16 @@ package org.simmetrics.metrics;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Float.POSITIVE_INFINITY;
+import static java.lang.Math.abs;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
+import static org.simmetrics.metrics.Levenshtein.BOUND_TOLERANCE;
 import static org.simmetrics.metrics.Math.min;
 
 import java.util.Objects;
 
-import org.simmetrics.StringMetric;
+import org.simmetrics.BoundedStringMetric;
 import org.simmetrics.metrics.functions.MatchMismatch;
 import org.simmetrics.metrics.functions.Substitution;
 
@@ -36,6 +39,15 @@ import org.simmetrics.metrics.functions.Substitution;
  * Applies the Needleman-Wunsch algorithm to calculate the similarity
  * between two strings. This implementation uses linear space.
  * <p>
+ * When the substitution function does not reward matches only the cells of
+ * the dynamic programming matrix near the diagonal are computed. The band
+ * starts narrow and is doubled until the alignment is known to lie inside
+ * it, so similar strings cost time proportional to their length times the
+ * cost of their alignment. The bounded similarity uses a band wide enough for
+ * the bound and stops as soon as the similarity is known to fall below it.
+ * When the substitution function is a {@link MatchMismatch} the scores are
+ * computed inline.
+ * <p>
  * This class is immutable and thread-safe if its substitution function is.
  * 
  * @see SmithWatermanGotoh
@@ -44,15 +56,27 @@ import org.simmetrics.metrics.functions.Substitution;
  *      href="https://en.wikipedia.org/wiki/Needleman%E2%80%93Wunsch_algorithm">Wikipedia
  *      - Needleman-Wunsch algorithm</a>
  */
-public final class NeedlemanWunch implements StringMetric {
+public final class NeedlemanWunch implements BoundedStringMetric {
 
 	private static final Substitution MATCH_0_MISMATCH_1 = new MatchMismatch(
 			0.0f, -1.0f);
 
+	/**
+	 * Steps off the diagonal allowed by the first band tried when the
+	 * similarity is not bounded.
+	 */
+	static final int INITIAL_BAND = 8;
+
 	private final Substitution substitution;
 
 	private final float gapValue;
 
+	// Banding and early termination require all costs to be non-negative and
+	// steps off the diagonal to cost something.
+	private final boolean banded;
+
+	private final boolean matchMismatch;
+
 	/**
 	 * Constructs a new Needleman-Wunch metric. Uses an gap of <code>-2.0</code>
 	 * a <code>-1.0</code> substitution penalty for mismatches, <code>0</code>
@@ -76,6 +100,8 @@ public final class NeedlemanWunch implements StringMetric {
 		checkNotNull(substitution);
 		this.gapValue = gapValue;
 		this.substitution = substitution;
+		this.banded = substitution.max() <= 0.0f && stepCost() > 0.0f;
+		this.matchMismatch = substitution.getClass() == MatchMismatch.class;
 	}
 
 	@Override
@@ -95,6 +121,40 @@ public final class NeedlemanWunch implements StringMetric {
 
 	}
 
+	@Override
+	public float compare(String a, String b, float minSimilarity) {
+		checkArgument(0.0f <= minSimilarity && minSimilarity <= 1.0f);
+
+		if (a.isEmpty() && b.isEmpty()) {
+			return 1.0f;
+		}
+
+		if (!banded) {
+			final float similarity = compare(a, b);
+			return similarity < minSimilarity ? 0.0f : similarity;
+		}
+
+		final float maxDistance = max(a.length(), b.length())
+				* max(substitution.max(), gapValue);
+		final float minDistance = max(a.length(), b.length())
+				* min(substitution.min(), gapValue);
+
+		// similarity >= minSimilarity when the cost of the alignment is at
+		// most maxCost. The bound is widened slightly to absorb rounding
+		// errors. The similarity is checked against minSimilarity afterwards.
+		final float maxCost = (-minDistance - minSimilarity
+				* (maxDistance - minDistance)) * BOUND_TOLERANCE;
+
+		final float cost = needlemanWunch(a, b, maxCost);
+		if (cost == POSITIVE_INFINITY) {
+			return 0.0f;
+		}
+
+		final float similarity = (-cost - minDistance)
+				/ (maxDistance - minDistance);
+		return similarity < minSimilarity ? 0.0f : similarity;
+	}
+
 	private float needlemanWunch(final String s, final String t) {
 
 		if (Objects.equals(s, t)) {
@@ -110,34 +170,191 @@ public final class NeedlemanWunch implements StringMetric {
 		
 		final int n = s.length();
 		final int m = t.length();
+		final int longest = max(n, m);
+
+		if (!banded) {
+			return needlemanWunch(s, t, n + m, POSITIVE_INFINITY);
+		}
+
+		// Widen the band until the alignment is known to lie inside it. The
+		// narrower bands cost at most as much as the final one together.
+		// Dissimilar strings abort early in each band and fall back to the
+		// full matrix once the band is a sizable fraction of it.
+		final float stepCost = stepCost();
+		float maxCost = max(abs(n - m), INITIAL_BAND) * stepCost;
+		while (maxCost / stepCost < longest / 4) {
+			final float cost = needlemanWunch(s, t, reach(s, t, maxCost),
+					maxCost);
+			if (cost != POSITIVE_INFINITY) {
+				return cost;
+			}
+			maxCost *= 2;
+		}
+		return needlemanWunch(s, t, n + m, POSITIVE_INFINITY);
+	}
+
+	private float needlemanWunch(final String s, final String t,
+			final float maxCost) {
+
+		if (Objects.equals(s, t) || s.isEmpty() || t.isEmpty()) {
+			final float cost = needlemanWunch(s, t);
+			return cost > maxCost ? POSITIVE_INFINITY : cost;
+		}
+
+		// The difference in length must be bridged by gaps at least
+		if (abs(s.length() - t.length()) * stepCost() > maxCost) {
+			return POSITIVE_INFINITY;
+		}
+
+		return needlemanWunch(s, t, reach(s, t, maxCost), maxCost);
+	}
+
+	private int reach(String s, String t, float maxCost) {
+		// The number of steps off the diagonal affordable with maxCost
+		return (int) min(s.length() + t.length(), maxCost / stepCost());
+	}
+
+	private float needlemanWunch(final String s, final String t,
+			final int reach, final float maxCost) {
+		final int m = t.length();
+		final Workspace workspace = Workspace.acquire();
+		try {
+			if (matchMismatch) {
+				final char[] charsT = workspace.chars(0, m);
+				t.getChars(0, m, charsT, 0);
+				return needlemanWunch(s, charsT, m, -substitution.max(),
+						-substitution.min(), reach, maxCost,
+						workspace.floats(0, m + 1), workspace.floats(1, m + 1));
+			}
+			return needlemanWunch(s, t, reach, maxCost,
+					workspace.floats(0, m + 1), workspace.floats(1, m + 1));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/*
+	 * Computes the cells of the diagonals that can be part of an alignment
+	 * with at most reach steps off the diagonal. When reach is n + m and
+	 * maxCost is infinite this is the full Needleman-Wunsch algorithm.
+	 * Otherwise costs must be non-negative.
+	 */
+	private float needlemanWunch(final String s, final String t,
+			final int reach, final float maxCost, float[] v0, float[] v1) {
+		final int n = s.length();
+		final int m = t.length();
+		final int low = lowestDiagonal(n, m, reach);
+		final int high = highestDiagonal(n, m, reach);
+		final boolean bounded = maxCost != POSITIVE_INFINITY;
 
 		// We're only interested in the alignment penalty between s and t
 		// and not their actual alignment. This means we don't have to backtrack
 		// through the n-by-m matrix and can safe some space by reusing v0 for
 		// row i-1.
-		float[] v0 = new float[m + 1];
-		float[] v1 = new float[m + 1];
-
 		for (int j = 0; j <= m; j++) {
 			v0[j] = j;
 		}
 
 		for (int i = 1; i <= n; i++) {
-			v1[0] = i;
+			// Compute cells from + 1 through to of row i
+			final int from = max(0, i + low - 1);
+			final int to = min(m, i + high);
+
+			// The cell left of the band is either in the first column or
+			// unreachable.
+			v1[from] = from == 0 ? i : POSITIVE_INFINITY;
 
-			for (int j = 1; j <= m; j++) {
+			for (int j = from + 1; j <= to; j++) {
 				v1[j] = min(
 						v0[j]     - gapValue, 
 						v1[j - 1] - gapValue, 
 						v0[j - 1] - substitution.compare(s, i - 1, t, j - 1));
 			}
-			
-			final float[] swap = v0; v0 = v1; v1 = swap;
 
+			// The cell right of the band is unreachable from the next row
+			if (to < m) {
+				v1[to + 1] = POSITIVE_INFINITY;
+			}
+
+			// Costs are non-negative so all paths through this row cost more
+			if (bounded && rowMin(v1, from, to) > maxCost) {
+				return POSITIVE_INFINITY;
+			}
+
+			final float[] swap = v0; v0 = v1; v1 = swap;
 		}
-		
+
 		// Because we swapped the results are in v0.
-		return v0[m];
+		return v0[m] > maxCost ? POSITIVE_INFINITY : v0[m];
+	}
+
+	/*
+	 * Equivalent of needlemanWunch for a MatchMismatch substitution.
+	 */
+	private float needlemanWunch(final String s, final char[] t, final int m,
+			final float match, final float mismatch, final int reach,
+			final float maxCost, float[] v0, float[] v1) {
+		final int n = s.length();
+		final int low = lowestDiagonal(n, m, reach);
+		final int high = highestDiagonal(n, m, reach);
+		final boolean bounded = maxCost != POSITIVE_INFINITY;
+		final float gap = -gapValue;
+
+		for (int j = 0; j <= m; j++) {
+			v0[j] = j;
+		}
+
+		for (int i = 1; i <= n; i++) {
+			final char c = s.charAt(i - 1);
+			final int from = max(0, i + low - 1);
+			final int to = min(m, i + high);
+
+			v1[from] = from == 0 ? i : POSITIVE_INFINITY;
+
+			for (int j = from + 1; j <= to; j++) {
+				v1[j] = min(v0[j] + gap, v1[j - 1] + gap,
+						v0[j - 1] + (t[j - 1] == c ? match : mismatch));
+			}
+
+			if (to < m) {
+				v1[to + 1] = POSITIVE_INFINITY;
+			}
+
+			if (bounded && rowMin(v1, from, to) > maxCost) {
+				return POSITIVE_INFINITY;
+			}
+
+			final float[] swap = v0; v0 = v1; v1 = swap;
+		}
+
+		return v0[m] > maxCost ? POSITIVE_INFINITY : v0[m];
+	}
+
+	private static float rowMin(float[] row, int from, int to) {
+		float rowMin = row[from];
+		for (int j = from + 1; j <= to; j++) {
+			rowMin = min(rowMin, row[j]);
+		}
+		return rowMin;
+	}
+
+	/*
+	 * A path through diagonal d = j - i takes at least |d| steps off the
+	 * diagonal to get there and |m - n - d| more to reach the last cell. Only
+	 * diagonals where the sum is at most reach are computed. One extra
+	 * diagonal on either side guards against rounding.
+	 */
+	private static int lowestDiagonal(int n, int m, int reach) {
+		return ((m - n - reach) >> 1) - 1;
+	}
+
+	private static int highestDiagonal(int n, int m, int reach) {
+		return ((m - n + reach + 1) >> 1) + 1;
+	}
+
+	private float stepCost() {
+		// The first row and column cost 1.0 per step, other gaps -gapValue.
+		return min(1.0f, -gapValue);
 	}
 
 	@Override
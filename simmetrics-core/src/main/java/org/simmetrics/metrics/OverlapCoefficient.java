@@ -79,8 +79,12 @@ public final class OverlapCoefficient<T> implements SetMetric<T>, SetDistance<T>
 			return 0.0f;
 		}
 
+		return compare(a.size(), b.size(), intersection(a, b).size());
+	}
+
+	static float compare(int a, int b, int intersection) {
 		// ∣q ∩ r∣ / min{∣q∣, ∣r∣}
-		return intersection(a, b).size() / (float) min(a.size(), b.size());
+		return intersection / (float) min(a, b);
 	}
 
 	@Override
@@ -0,0 +1,938 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Float.floatToIntBits;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.util.Arrays.sort;
+import static org.simmetrics.metrics.Levenshtein.BOUND_TOLERANCE;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.simmetrics.BoundedStringMetric;
+import org.simmetrics.Metric;
+import org.simmetrics.PreparedStringMetric;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.StringMetrics.ForMultiset;
+import org.simmetrics.metrics.StringMetrics.ForMultisetWithSimplifier;
+import org.simmetrics.metrics.StringMetrics.ForSet;
+import org.simmetrics.metrics.StringMetrics.ForSetWithSimplifier;
+import org.simmetrics.metrics.StringMetrics.ForString;
+import org.simmetrics.metrics.StringMetrics.ForStringWithSimplifier;
+import org.simmetrics.simplifiers.Simplifier;
+import org.simmetrics.tokenizers.Tokenizer;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Index of a dictionary of strings that finds the entries most similar to a
+ * query (top-k search). The dictionary is indexed once. Rather then comparing
+ * the query with every entry, entries are visited in order of an upper bound
+ * on their similarity. The search stops once no remaining entry can be more
+ * similar then the k-th most similar entry found so far.
+ * <ul>
+ * <li>Metrics created by
+ * {@link org.simmetrics.builders.StringMetricBuilder StringMetricBuilder} with
+ * {@link Jaccard}, {@link Dice}, {@link OverlapCoefficient},
+ * {@link TanimotoCoefficient} or {@link CosineSimilarity} use an inverted
+ * index of the tokens, e.g. q-grams.</li>
+ * <li>{@link Levenshtein} and {@link DamerauLevenshtein} use an inverted index
+ * of bigrams. The number of common bigrams bounds the distance.</li>
+ * <li>{@link Jaro} and {@link JaroWinkler} use buckets of strings of equal
+ * length.</li>
+ * <li>Other metrics compare all entries.</li>
+ * </ul>
+ * Simplifiers of metrics created by the builder are applied to the dictionary
+ * once. The similarity of a match is
+ * {@code metric.compare(query, entry)}.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @see SimilarityJoin
+ * @see <a href="http://dx.doi.org/10.1007/3-540-56024-6_19">Ukkonen, E.
+ *      (1992). Approximate string-matching with q-grams and maximal
+ *      matches</a>
+ */
+public final class SimilarityIndex {
+
+	/**
+	 * An entry of the dictionary and its similarity to a query.
+	 */
+	public static final class Match {
+
+		private final int index;
+		private final String string;
+		private final float similarity;
+
+		Match(int index, String string, float similarity) {
+			this.index = index;
+			this.string = string;
+			this.similarity = similarity;
+		}
+
+		/**
+		 * Returns the position of the entry in the dictionary.
+		 *
+		 * @return the position of the entry in the dictionary
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Returns the entry.
+		 *
+		 * @return the entry
+		 */
+		public String getString() {
+			return string;
+		}
+
+		/**
+		 * Returns the similarity between the query and the entry.
+		 *
+		 * @return the similarity between the query and the entry
+		 */
+		public float getSimilarity() {
+			return similarity;
+		}
+
+		@Override
+		public String toString() {
+			return "Match [index=" + index + ", string=" + string
+					+ ", similarity=" + similarity + "]";
+		}
+	}
+
+	private final List<String> dictionary;
+	private final Searcher searcher;
+
+	/**
+	 * Constructs a new index of the dictionary.
+	 *
+	 * @param metric
+	 *            metric to compare strings with
+	 * @param dictionary
+	 *            strings to index
+	 *
+	 * @throws NullPointerException
+	 *             when the metric, dictionary or any string in the dictionary
+	 *             is null
+	 */
+	public SimilarityIndex(StringMetric metric, List<String> dictionary) {
+		checkNotNull(metric);
+		checkNotNull(dictionary);
+		for (String string : dictionary) {
+			checkNotNull(string);
+		}
+
+		this.dictionary = new ArrayList<>(dictionary);
+		this.searcher = searcher(metric, this.dictionary);
+	}
+
+	/**
+	 * Finds the {@code k} entries most similar to the query. Entries with a
+	 * similarity of 0 are not included. Entries with an equal similarity are
+	 * ordered by their position in the dictionary.
+	 *
+	 * @param query
+	 *            string to search for
+	 * @param k
+	 *            maximum number of matches
+	 * @return at most k matches ordered by decreasing similarity
+	 *
+	 * @throws NullPointerException
+	 *             when the query is null
+	 * @throws IllegalArgumentException
+	 *             when k is not positive
+	 */
+	public List<Match> search(String query, int k) {
+		checkNotNull(query);
+		checkArgument(k > 0, "k must be positive");
+
+		final TopK topK = new TopK(k, dictionary);
+		searcher.search(query, topK);
+		return topK.matches();
+	}
+
+	/**
+	 * Returns the number of entries in the dictionary.
+	 *
+	 * @return the number of entries in the dictionary
+	 */
+	public int size() {
+		return dictionary.size();
+	}
+
+	private static Searcher searcher(StringMetric metric, List<String> strings) {
+		if (metric instanceof ForSet) {
+			final ForSet forSet = (ForSet) metric;
+			final TokenBounds bounds = TokenBounds.forSet(forSet.getMetric());
+			if (bounds != null) {
+				return new TokenIndex(metric, bounds, null,
+						forSet.getTokenizer(), strings);
+			}
+		} else if (metric instanceof ForSetWithSimplifier) {
+			final ForSetWithSimplifier forSet = (ForSetWithSimplifier) metric;
+			final TokenBounds bounds = TokenBounds.forSet(forSet.getMetric());
+			if (bounds != null) {
+				return new TokenIndex(metric, bounds, forSet.getSimplifier(),
+						forSet.getTokenizer(), strings);
+			}
+		} else if (metric instanceof ForMultiset) {
+			final ForMultiset forMultiset = (ForMultiset) metric;
+			final TokenBounds bounds = TokenBounds.forMultiset(forMultiset
+					.getMetric());
+			if (bounds != null) {
+				return new TokenIndex(metric, bounds, null,
+						forMultiset.getTokenizer(), strings);
+			}
+		} else if (metric instanceof ForMultisetWithSimplifier) {
+			final ForMultisetWithSimplifier forMultiset = (ForMultisetWithSimplifier) metric;
+			final TokenBounds bounds = TokenBounds.forMultiset(forMultiset
+					.getMetric());
+			if (bounds != null) {
+				return new TokenIndex(metric, bounds,
+						forMultiset.getSimplifier(),
+						forMultiset.getTokenizer(), strings);
+			}
+		} else if (metric instanceof ForString) {
+			final Metric<String> inner = ((ForString) metric).getMetric();
+			if (inner instanceof StringMetric) {
+				return searcher((StringMetric) inner, strings);
+			}
+		} else if (metric instanceof ForStringWithSimplifier) {
+			final ForStringWithSimplifier forString = (ForStringWithSimplifier) metric;
+			if (forString.getMetric() instanceof StringMetric) {
+				final Simplifier simplifier = forString.getSimplifier();
+				final List<String> simplified = new ArrayList<>(strings.size());
+				for (String string : strings) {
+					simplified.add(simplifier.simplify(string));
+				}
+				return new SimplifyingSearcher(simplifier, searcher(
+						(StringMetric) forString.getMetric(), simplified));
+			}
+		} else if (metric instanceof Levenshtein) {
+			return new BigramIndex((Levenshtein) metric, strings);
+		} else if (metric instanceof DamerauLevenshtein) {
+			return new BigramIndex((DamerauLevenshtein) metric, strings);
+		} else if (metric instanceof Jaro) {
+			return new LengthBuckets(metric, jaroBound(), strings);
+		} else if (metric instanceof JaroWinkler) {
+			return new LengthBuckets(metric,
+					jaroWinklerBound((JaroWinkler) metric), strings);
+		}
+
+		return new LengthBuckets(metric, null, strings);
+	}
+
+	private interface Searcher {
+
+		/*
+		 * Offers the entries that may be among the top k to topK.
+		 */
+		void search(String query, TopK topK);
+	}
+
+	/*
+	 * Collects the k most similar entries. Entries with an equal similarity
+	 * are ordered by their position in the dictionary.
+	 */
+	private static final class TopK {
+
+		private static final Comparator<Match> WORST_FIRST = new Comparator<Match>() {
+			@Override
+			public int compare(Match o1, Match o2) {
+				final int c = Float.compare(o1.similarity, o2.similarity);
+				return c != 0 ? c : Integer.compare(o2.index, o1.index);
+			}
+		};
+
+		private final int k;
+		private final List<String> dictionary;
+		private final PriorityQueue<Match> worstFirst;
+
+		TopK(int k, List<String> dictionary) {
+			this.k = k;
+			this.dictionary = dictionary;
+			this.worstFirst = new PriorityQueue<>(java.lang.Math.min(k, 1024),
+					WORST_FIRST);
+		}
+
+		/*
+		 * Returns the similarity an entry must at least have to be included.
+		 */
+		float min() {
+			return worstFirst.size() < k ? 0.0f : worstFirst.peek().similarity;
+		}
+
+		/*
+		 * Returns true when an entry with a similarity of at most bound may
+		 * be included.
+		 */
+		boolean accepts(float bound) {
+			if (worstFirst.size() < k) {
+				return bound > 0.0f;
+			}
+			return bound >= worstFirst.peek().similarity;
+		}
+
+		void offer(int index, float similarity) {
+			if (!(similarity > 0.0f)) {
+				return;
+			}
+
+			if (worstFirst.size() < k) {
+				worstFirst.add(new Match(index, dictionary.get(index),
+						similarity));
+				return;
+			}
+
+			final Match worst = worstFirst.peek();
+			if (similarity > worst.similarity
+					|| (similarity == worst.similarity && index < worst.index)) {
+				worstFirst.poll();
+				worstFirst.add(new Match(index, dictionary.get(index),
+						similarity));
+			}
+		}
+
+		List<Match> matches() {
+			final List<Match> matches = new ArrayList<>(worstFirst);
+			Collections.sort(matches, Collections.reverseOrder(WORST_FIRST));
+			return matches;
+		}
+	}
+
+	/*
+	 * Searches the simplified dictionary with the simplified query.
+	 */
+	private static final class SimplifyingSearcher implements Searcher {
+
+		private final Simplifier simplifier;
+		private final Searcher searcher;
+
+		SimplifyingSearcher(Simplifier simplifier, Searcher searcher) {
+			this.simplifier = simplifier;
+			this.searcher = searcher;
+		}
+
+		@Override
+		public void search(String query, TopK topK) {
+			searcher.search(simplifier.simplify(query), topK);
+		}
+	}
+
+	/*
+	 * Upper bound on the similarity of two strings of length a and b.
+	 */
+	private interface LengthBound {
+		double similarity(int a, int b);
+	}
+
+	/*
+	 * At most min(a, b) characters are in common.
+	 */
+	private static LengthBound jaroBound() {
+		return new LengthBound() {
+			@Override
+			public double similarity(int a, int b) {
+				if (a == 0 || b == 0) {
+					return a == b ? 1.0 : 0.0;
+				}
+				final double common = min(a, b);
+				return (common / a + common / b + 1.0) / 3.0;
+			}
+		};
+	}
+
+	/*
+	 * The boost for a common prefix is largest for the largest Jaro
+	 * similarity unless the boost itself is larger then 1.
+	 */
+	private static LengthBound jaroWinklerBound(final JaroWinkler metric) {
+		final LengthBound jaroBound = jaroBound();
+		final double boostThreshold = metric.getBoostThreshold();
+		final double prefixScale = metric.getPrefixScale();
+		final int maxPrefixLength = metric.getMaxPrefixLength();
+		return new LengthBound() {
+			@Override
+			public double similarity(int a, int b) {
+				final double jaro = jaroBound.similarity(a, b);
+				if (jaro < boostThreshold) {
+					return jaro;
+				}
+				final double boost = min(maxPrefixLength, min(a, b))
+						* prefixScale;
+				final double boosted = boost <= 1.0 ? jaro : boostThreshold;
+				return boosted + boost * (1.0 - boosted);
+			}
+		};
+	}
+
+	/*
+	 * Groups the entries by length. Buckets are compared in order of
+	 * decreasing bound until no bucket can contain a top k entry. Without a
+	 * bound all entries are compared.
+	 */
+	private static final class LengthBuckets implements Searcher {
+
+		private final StringMetric metric;
+		private final LengthBound bound;
+		private final List<String> strings;
+		private final int[] lengths;
+		private final int[][] buckets;
+
+		LengthBuckets(StringMetric metric, LengthBound bound,
+				List<String> strings) {
+			this.metric = metric;
+			this.bound = bound;
+			this.strings = strings;
+
+			final Map<Integer, List<Integer>> byLength = new HashMap<>();
+			for (int i = 0; i < strings.size(); i++) {
+				final Integer length = CodePoints.length(strings.get(i));
+				List<Integer> bucket = byLength.get(length);
+				if (bucket == null) {
+					bucket = new ArrayList<>();
+					byLength.put(length, bucket);
+				}
+				bucket.add(i);
+			}
+
+			lengths = new int[byLength.size()];
+			buckets = new int[byLength.size()][];
+			int b = 0;
+			for (Map.Entry<Integer, List<Integer>> entry : byLength.entrySet()) {
+				lengths[b] = entry.getKey();
+				buckets[b] = toArray(entry.getValue());
+				b++;
+			}
+		}
+
+		@Override
+		public void search(String query, TopK topK) {
+			final int length = CodePoints.length(query);
+			final long[] keys = new long[lengths.length];
+			for (int b = 0; b < lengths.length; b++) {
+				final float similarity = bound == null ? 1.0f
+						: (float) max(0.0, bound.similarity(length,
+								lengths[b]) * BOUND_TOLERANCE);
+				keys[b] = ((long) floatToIntBits(similarity) << 32) | b;
+			}
+			sort(keys);
+
+			final PreparedStringMetric prepared = metric instanceof BoundedStringMetric ? null
+					: StringMetrics.prepare(metric, query);
+
+			for (int k = keys.length - 1; k >= 0; k--) {
+				if (!topK.accepts(intBitsToFloat((int) (keys[k] >>> 32)))) {
+					return;
+				}
+				for (int i : buckets[(int) keys[k]]) {
+					final String string = strings.get(i);
+					if (prepared != null) {
+						topK.offer(i, prepared.compare(string));
+					} else {
+						topK.offer(i, ((BoundedStringMetric) metric).compare(
+								query, string, topK.min()));
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Upper bounds on the similarity of two token collections of size a and
+	 * b with an overlap. For multisets the size is the squared norm and the
+	 * overlap is the dot product of the token counts.
+	 */
+	enum TokenBounds {
+		JACCARD(false) {
+			@Override
+			double similarity(double overlap, double a, double b) {
+				return overlap / (a + b - overlap);
+			}
+		},
+		DICE(false) {
+			@Override
+			double similarity(double overlap, double a, double b) {
+				return 2.0 * overlap / (a + b);
+			}
+		},
+		OVERLAP_COEFFICIENT(false) {
+			@Override
+			double similarity(double overlap, double a, double b) {
+				return overlap / min(a, b);
+			}
+		},
+		TANIMOTO_COEFFICIENT(false) {
+			@Override
+			double similarity(double overlap, double a, double b) {
+				return overlap / sqrt(a * b);
+			}
+		},
+		COSINE_SIMILARITY(true) {
+			@Override
+			double similarity(double overlap, double a, double b) {
+				return overlap / sqrt(a * b);
+			}
+		};
+
+		final boolean counts;
+
+		private TokenBounds(boolean counts) {
+			this.counts = counts;
+		}
+
+		abstract double similarity(double overlap, double a, double b);
+
+		static TokenBounds forSet(Metric<?> metric) {
+			if (metric instanceof Jaccard) {
+				return JACCARD;
+			} else if (metric instanceof Dice) {
+				return DICE;
+			} else if (metric instanceof OverlapCoefficient) {
+				return OVERLAP_COEFFICIENT;
+			} else if (metric instanceof TanimotoCoefficient) {
+				return TANIMOTO_COEFFICIENT;
+			}
+			return null;
+		}
+
+		static TokenBounds forMultiset(Metric<?> metric) {
+			if (metric instanceof CosineSimilarity) {
+				return COSINE_SIMILARITY;
+			}
+			return null;
+		}
+	}
+
+	/*
+	 * Inverted index from tokens to the entries that contain them. The
+	 * overlap of the query with each entry that shares a token is
+	 * accumulated from the inverted lists. Entries are compared in order of
+	 * decreasing bound. Entries without common tokens have a similarity of 0
+	 * unless both are empty.
+	 */
+	private static final class TokenIndex implements Searcher {
+
+		private final StringMetric metric;
+		private final TokenBounds bounds;
+		private final Simplifier simplifier;
+		private final Tokenizer tokenizer;
+		private final List<String> strings;
+
+		private final Map<String, Integer> ids = new HashMap<>();
+		private final int[][] entries;
+		private final int[][] counts;
+		private final double[] sizes;
+		private final int[] empty;
+		private final ThreadLocal<Accumulator> accumulators;
+
+		TokenIndex(StringMetric metric, TokenBounds bounds,
+				Simplifier simplifier, Tokenizer tokenizer,
+				List<String> strings) {
+			this.metric = metric;
+			this.bounds = bounds;
+			this.simplifier = simplifier;
+			this.tokenizer = tokenizer;
+			this.strings = strings;
+			this.sizes = new double[strings.size()];
+			this.accumulators = Accumulator.perThread(strings.size());
+
+			final int[][] tokens = new int[strings.size()][];
+			final int[][] tokenCounts = new int[strings.size()][];
+			final List<Integer> listSizes = new ArrayList<>();
+			final List<Integer> empty = new ArrayList<>();
+			for (int i = 0; i < strings.size(); i++) {
+				final Multiset<String> multiset = tokenize(strings.get(i));
+				tokens[i] = new int[multiset.elementSet().size()];
+				tokenCounts[i] = new int[tokens[i].length];
+				int k = 0;
+				for (Multiset.Entry<String> entry : multiset.entrySet()) {
+					Integer id = ids.get(entry.getElement());
+					if (id == null) {
+						id = ids.size();
+						ids.put(entry.getElement(), id);
+						listSizes.add(0);
+					}
+					listSizes.set(id, listSizes.get(id) + 1);
+
+					final int count = bounds.counts ? entry.getCount() : 1;
+					tokens[i][k] = id;
+					tokenCounts[i][k] = count;
+					sizes[i] += (double) count * count;
+					k++;
+				}
+				if (k == 0) {
+					empty.add(i);
+				}
+			}
+			this.empty = toArray(empty);
+
+			entries = new int[ids.size()][];
+			counts = new int[ids.size()][];
+			for (int id = 0; id < entries.length; id++) {
+				entries[id] = new int[listSizes.get(id)];
+				counts[id] = new int[listSizes.get(id)];
+			}
+			final int[] positions = new int[ids.size()];
+			for (int i = 0; i < tokens.length; i++) {
+				for (int k = 0; k < tokens[i].length; k++) {
+					final int id = tokens[i][k];
+					entries[id][positions[id]] = i;
+					counts[id][positions[id]] = tokenCounts[i][k];
+					positions[id]++;
+				}
+			}
+		}
+
+		private Multiset<String> tokenize(String string) {
+			return tokenizer.tokenizeToMultiset(simplifier == null ? string
+					: simplifier.simplify(string));
+		}
+
+		@Override
+		public void search(String query, TopK topK) {
+			final PreparedStringMetric prepared = StringMetrics.prepare(
+					metric, query);
+			final Multiset<String> tokens = tokenize(query);
+
+			if (tokens.isEmpty()) {
+				for (int i : empty) {
+					topK.offer(i, prepared.compare(strings.get(i)));
+				}
+				return;
+			}
+
+			final long[] keys;
+			final Accumulator accumulator = accumulators.get();
+			try {
+				double size = 0;
+				for (Multiset.Entry<String> entry : tokens.entrySet()) {
+					final int count = bounds.counts ? entry.getCount() : 1;
+					size += (double) count * count;
+
+					final Integer id = ids.get(entry.getElement());
+					if (id == null) {
+						continue;
+					}
+					final int[] list = entries[id];
+					final int[] listCounts = counts[id];
+					for (int e = 0; e < list.length; e++) {
+						accumulator.add(list[e], count * listCounts[e]);
+					}
+				}
+
+				keys = new long[accumulator.size];
+				for (int c = 0; c < accumulator.size; c++) {
+					final int candidate = accumulator.candidates[c];
+					final float bound = (float) (bounds.similarity(
+							accumulator.overlaps[candidate], size,
+							sizes[candidate]) * BOUND_TOLERANCE);
+					keys[c] = ((long) floatToIntBits(bound) << 32) | candidate;
+				}
+			} finally {
+				accumulator.clear();
+			}
+			sort(keys);
+
+			for (int k = keys.length - 1; k >= 0; k--) {
+				if (!topK.accepts(intBitsToFloat((int) (keys[k] >>> 32)))) {
+					return;
+				}
+				final int candidate = (int) keys[k];
+				topK.offer(candidate, prepared.compare(strings.get(candidate)));
+			}
+		}
+	}
+
+	/*
+	 * Per thread scratch space to accumulate the overlap between a query and
+	 * the entries.
+	 */
+	private static final class Accumulator {
+
+		final int[] overlaps;
+		final int[] candidates;
+		int size;
+
+		Accumulator(int length) {
+			this.overlaps = new int[length];
+			this.candidates = new int[length];
+		}
+
+		static ThreadLocal<Accumulator> perThread(final int length) {
+			return new ThreadLocal<Accumulator>() {
+				@Override
+				protected Accumulator initialValue() {
+					return new Accumulator(length);
+				}
+			};
+		}
+
+		void add(int candidate, int overlap) {
+			if (overlaps[candidate] == 0) {
+				candidates[size++] = candidate;
+			}
+			overlaps[candidate] += overlap;
+		}
+
+		void clear() {
+			for (int i = 0; i < size; i++) {
+				overlaps[candidates[i]] = 0;
+			}
+			size = 0;
+		}
+	}
+
+	/*
+	 * Inverted index of the bigrams of the entries for Levenshtein and
+	 * Damerau-Levenshtein. A string of length n has n - 1 bigrams. An insert,
+	 * delete or substitute operation changes at most two bigrams, a
+	 * transposition at most three. So strings within k operations share at
+	 * least max(n, m) - 1 - 2k (or 3k) bigrams. Conversely the number of
+	 * common bigrams bounds the number of operations and thus the distance.
+	 * 
+	 * Entries that share a bigram with the query are compared in order of
+	 * decreasing bound. Entries without common bigrams are compared per
+	 * length when their bound permits.
+	 */
+	private static final class BigramIndex implements Searcher {
+
+		private final BoundedStringMetric metric;
+		private final double insertDelete;
+		private final double minCost;
+		private final double maxCost;
+		private final int bigramsPerOperation;
+		private final List<String> strings;
+
+		private final Map<Long, Integer> ids = new HashMap<>();
+		private final int[][] entries;
+		private final int[][] counts;
+		private final int[] stringLengths;
+		private final int[] lengths;
+		private final int[][] byLength;
+		private final ThreadLocal<Accumulator> accumulators;
+
+		BigramIndex(Levenshtein metric, List<String> strings) {
+			this(metric, metric.getInsertDelete(), min(
+					metric.getInsertDelete(), metric.getSubstitute()), max(
+					metric.getInsertDelete(), metric.getSubstitute()), 2,
+					strings);
+		}
+
+		BigramIndex(DamerauLevenshtein metric, List<String> strings) {
+			this(metric, metric.getInsertDelete(), metric.getMinCost(),
+					metric.getMaxCost(), 3, strings);
+		}
+
+		private BigramIndex(BoundedStringMetric metric, double insertDelete,
+				double minCost, double maxCost, int bigramsPerOperation,
+				List<String> strings) {
+			this.metric = metric;
+			this.insertDelete = insertDelete;
+			this.minCost = minCost;
+			this.maxCost = maxCost;
+			this.bigramsPerOperation = bigramsPerOperation;
+			this.strings = strings;
+			this.accumulators = Accumulator.perThread(strings.size());
+
+			this.stringLengths = new int[strings.size()];
+
+			final int[][] grams = new int[strings.size()][];
+			final int[][] gramCounts = new int[strings.size()][];
+			final List<Integer> listSizes = new ArrayList<>();
+			final Map<Integer, List<Integer>> groups = new HashMap<>();
+			for (int i = 0; i < strings.size(); i++) {
+				final String string = strings.get(i);
+				final long[] bigrams = CodePoints.bigrams(string);
+				stringLengths[i] = CodePoints.length(string);
+				final int distinct = distinct(bigrams);
+				grams[i] = new int[distinct];
+				gramCounts[i] = new int[distinct];
+				for (int k = 0, d = -1; k < bigrams.length; k++) {
+					if (k == 0 || bigrams[k] != bigrams[k - 1]) {
+						Integer id = ids.get(bigrams[k]);
+						if (id == null) {
+							id = ids.size();
+							ids.put(bigrams[k], id);
+							listSizes.add(0);
+						}
+						listSizes.set(id, listSizes.get(id) + 1);
+						grams[i][++d] = id;
+					}
+					gramCounts[i][d]++;
+				}
+
+				List<Integer> group = groups.get(stringLengths[i]);
+				if (group == null) {
+					group = new ArrayList<>();
+					groups.put(stringLengths[i], group);
+				}
+				group.add(i);
+			}
+
+			entries = new int[ids.size()][];
+			counts = new int[ids.size()][];
+			for (int id = 0; id < entries.length; id++) {
+				entries[id] = new int[listSizes.get(id)];
+				counts[id] = new int[listSizes.get(id)];
+			}
+			final int[] positions = new int[ids.size()];
+			for (int i = 0; i < grams.length; i++) {
+				for (int k = 0; k < grams[i].length; k++) {
+					final int id = grams[i][k];
+					entries[id][positions[id]] = i;
+					counts[id][positions[id]] = gramCounts[i][k];
+					positions[id]++;
+				}
+			}
+
+			lengths = new int[groups.size()];
+			byLength = new int[groups.size()][];
+			int g = 0;
+			for (Map.Entry<Integer, List<Integer>> group : groups.entrySet()) {
+				lengths[g] = group.getKey();
+				byLength[g] = toArray(group.getValue());
+				g++;
+			}
+		}
+
+		private static int distinct(long[] sorted) {
+			int distinct = 0;
+			for (int k = 0; k < sorted.length; k++) {
+				if (k == 0 || sorted[k] != sorted[k - 1]) {
+					distinct++;
+				}
+			}
+			return distinct;
+		}
+
+		/*
+		 * Upper bound on the similarity between strings of length a and b
+		 * with common bigrams in common.
+		 */
+		private float bound(int a, int b, int common) {
+			if (a == 0 && b == 0) {
+				return 1.0f;
+			}
+
+			final int longest = max(a, b);
+			final int operations = max(0, longest - 1 - common
+					+ bigramsPerOperation - 1)
+					/ bigramsPerOperation;
+			final double distance = max(operations * minCost, abs(a - b)
+					* insertDelete)
+					/ BOUND_TOLERANCE;
+			return (float) (1.0 - distance / (maxCost * longest));
+		}
+
+		@Override
+		public void search(String query, TopK topK) {
+			final int length = CodePoints.length(query);
+			final int size = strings.size();
+			final Accumulator accumulator = accumulators.get();
+			try {
+				final long[] bigrams = CodePoints.bigrams(query);
+				for (int k = 0; k < bigrams.length;) {
+					final long bigram = bigrams[k];
+					int count = 0;
+					for (; k < bigrams.length && bigrams[k] == bigram; k++) {
+						count++;
+					}
+
+					final Integer id = ids.get(bigram);
+					if (id == null) {
+						continue;
+					}
+					final int[] list = entries[id];
+					final int[] listCounts = counts[id];
+					for (int e = 0; e < list.length; e++) {
+						accumulator.add(list[e], min(count, listCounts[e]));
+					}
+				}
+
+				// Entries with common bigrams are keyed by their index,
+				// entries without by the index of their length after all
+				// entries.
+				final long[] keys = new long[accumulator.size + lengths.length];
+				for (int c = 0; c < accumulator.size; c++) {
+					final int candidate = accumulator.candidates[c];
+					final float bound = bound(length,
+							stringLengths[candidate],
+							accumulator.overlaps[candidate]);
+					keys[c] = ((long) floatToIntBits(max(0.0f, bound)) << 32)
+							| candidate;
+				}
+				for (int g = 0; g < lengths.length; g++) {
+					final float bound = bound(length, lengths[g], 0);
+					keys[accumulator.size + g] = ((long) floatToIntBits(max(
+							0.0f, bound)) << 32)
+							| (size + g);
+				}
+				sort(keys);
+
+				for (int k = keys.length - 1; k >= 0; k--) {
+					if (!topK.accepts(intBitsToFloat((int) (keys[k] >>> 32)))) {
+						return;
+					}
+					final int key = (int) keys[k];
+					if (key < size) {
+						topK.offer(key, metric.compare(query,
+								strings.get(key), topK.min()));
+						continue;
+					}
+					for (int i : byLength[key - size]) {
+						if (accumulator.overlaps[i] == 0) {
+							topK.offer(i, metric.compare(query,
+									strings.get(i), topK.min()));
+						}
+					}
+				}
+			} finally {
+				accumulator.clear();
+			}
+		}
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		final int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+}
@@ -0,0 +1,1245 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.ceil;
+import static java.lang.Math.floor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.sort;
+import static org.simmetrics.metrics.Levenshtein.BOUND_TOLERANCE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.simmetrics.BoundedStringMetric;
+import org.simmetrics.Metric;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.StringMetrics.ForMultiset;
+import org.simmetrics.metrics.StringMetrics.ForMultisetWithSimplifier;
+import org.simmetrics.metrics.StringMetrics.ForSet;
+import org.simmetrics.metrics.StringMetrics.ForSetWithSimplifier;
+import org.simmetrics.metrics.StringMetrics.ForString;
+import org.simmetrics.metrics.StringMetrics.ForStringWithSimplifier;
+import org.simmetrics.simplifiers.Simplifier;
+import org.simmetrics.tokenizers.Tokenizer;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Finds all pairs of elements in a list with a similarity of at least a
+ * threshold (all-pairs similarity join). Rather then comparing all pairs,
+ * candidate pairs are generated with filters that depend on the metric and
+ * verified with the metric.
+ * <ul>
+ * <li>{@link Jaccard}, {@link Dice} and {@link OverlapCoefficient} use prefix,
+ * length and positional filtering (PPJoin).</li>
+ * <li>{@link CosineSimilarity} uses prefix filtering on the token counts.</li>
+ * <li>{@link Levenshtein} uses length and bigram count filtering.</li>
+ * <li>Other metrics compare all pairs.</li>
+ * </ul>
+ * Metrics created by {@link org.simmetrics.builders.StringMetricBuilder} are
+ * unwrapped such that the strings are simplified and tokenized once and joined
+ * with the set or multiset metric.
+ * <p>
+ * Work is divided over a fork join pool. Pairs are passed to the listener as
+ * soon as they are found, possibly concurrently by multiple threads and in no
+ * particular order. The similarity of a pair {@code (a, b)} is
+ * {@code metric.compare(elements.get(a), elements.get(b))}.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @see <a href="http://dx.doi.org/10.1145/1242572.1242591">Bayardo, R. J., Ma,
+ *      Y., Srikant, R. (2007). Scaling up all pairs similarity search</a>
+ * @see <a href="http://dx.doi.org/10.1145/1367497.1367516">Xiao, C., Wang, W.,
+ *      Lin, X., Yu, J. X. (2008). Efficient similarity joins for near
+ *      duplicate detection</a>
+ * @see <a href="http://dx.doi.org/10.1007/3-540-56024-6_19">Ukkonen, E.
+ *      (1992). Approximate string-matching with q-grams and maximal
+ *      matches</a>
+ */
+public final class SimilarityJoin {
+
+	/**
+	 * Receives the pairs found by a similarity join. Must be thread-safe.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called for each pair of elements with a similarity of at least the
+		 * threshold. May be called concurrently by multiple threads.
+		 * 
+		 * @param a
+		 *            index of the first element
+		 * @param b
+		 *            index of the second element, larger then a
+		 * @param similarity
+		 *            similarity between the elements
+		 */
+		void similar(int a, int b, float similarity);
+	}
+
+	/**
+	 * Finds all pairs of strings with a similarity of at least
+	 * {@code threshold}. Uses a new fork join pool with a parallelism equal to
+	 * the number of available processors.
+	 * 
+	 * @param metric
+	 *            metric to compare strings with
+	 * @param threshold
+	 *            minimum similarity, larger then 0 and at most 1
+	 * @param strings
+	 *            strings to join
+	 * @param listener
+	 *            receives the similar pairs
+	 * 
+	 * @throws NullPointerException
+	 *             when the metric, strings, any string or the listener is
+	 *             null
+	 * @throws IllegalArgumentException
+	 *             when the threshold is not larger then 0 and at most 1
+	 */
+	public static void join(StringMetric metric, float threshold,
+			List<String> strings, Listener listener) {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			join(metric, threshold, strings, listener, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Finds all pairs of strings with a similarity of at least
+	 * {@code threshold}.
+	 * 
+	 * @param metric
+	 *            metric to compare strings with
+	 * @param threshold
+	 *            minimum similarity, larger then 0 and at most 1
+	 * @param strings
+	 *            strings to join
+	 * @param listener
+	 *            receives the similar pairs
+	 * @param pool
+	 *            pool to execute the join in
+	 * 
+	 * @throws NullPointerException
+	 *             when the metric, strings, any string, the listener or pool
+	 *             is null
+	 * @throws IllegalArgumentException
+	 *             when the threshold is not larger then 0 and at most 1
+	 */
+	public static void join(StringMetric metric, float threshold,
+			List<String> strings, Listener listener, ForkJoinPool pool) {
+		checkArguments(metric, threshold, strings, listener, pool);
+		join(metric, threshold, strings.toArray(new String[strings.size()]),
+				listener, pool);
+	}
+
+	/**
+	 * Finds all pairs of sets with a similarity of at least {@code threshold}.
+	 * Uses a new fork join pool with a parallelism equal to the number of
+	 * available processors.
+	 * 
+	 * @param metric
+	 *            metric to compare sets with
+	 * @param threshold
+	 *            minimum similarity, larger then 0 and at most 1
+	 * @param sets
+	 *            sets to join
+	 * @param listener
+	 *            receives the similar pairs
+	 * @param <T>
+	 *            type of the tokens
+	 * 
+	 * @throws NullPointerException
+	 *             when the metric, sets, any set or the listener is null
+	 * @throws IllegalArgumentException
+	 *             when the threshold is not larger then 0 and at most 1
+	 */
+	public static <T> void joinSets(Metric<Set<T>> metric, float threshold,
+			List<? extends Set<T>> sets, Listener listener) {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			joinSets(metric, threshold, sets, listener, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Finds all pairs of sets with a similarity of at least {@code threshold}.
+	 * 
+	 * @param metric
+	 *            metric to compare sets with
+	 * @param threshold
+	 *            minimum similarity, larger then 0 and at most 1
+	 * @param sets
+	 *            sets to join
+	 * @param listener
+	 *            receives the similar pairs
+	 * @param pool
+	 *            pool to execute the join in
+	 * @param <T>
+	 *            type of the tokens
+	 * 
+	 * @throws NullPointerException
+	 *             when the metric, sets, any set, the listener or pool is null
+	 * @throws IllegalArgumentException
+	 *             when the threshold is not larger then 0 and at most 1
+	 */
+	public static <T> void joinSets(Metric<Set<T>> metric, float threshold,
+			List<? extends Set<T>> sets, Listener listener, ForkJoinPool pool) {
+		checkArguments(metric, threshold, sets, listener, pool);
+
+		final SetBounds bounds = SetBounds.of(metric);
+		if (bounds == null) {
+			new NestedLoopJoin<Set<T>>(metric, threshold, sets, listener)
+					.join(pool);
+			return;
+		}
+		new SetJoin<>(metric, bounds, threshold, sets, listener).join(pool);
+	}
+
+	/**
+	 * Finds all pairs of multisets with a similarity of at least
+	 * {@code threshold}. Uses a new fork join pool with a parallelism equal to
+	 * the number of available processors.
+	 * 
+	 * @param metric
+	 *            metric to compare multisets with
+	 * @param threshold
+	 *            minimum similarity, larger then 0 and at most 1
+	 * @param multisets
+	 *            multisets to join
+	 * @param listener
+	 *            receives the similar pairs
+	 * @param <T>
+	 *            type of the tokens
+	 * 
+	 * @throws NullPointerException
+	 *             when the metric, multisets, any multiset or the listener is
+	 *             null
+	 * @throws IllegalArgumentException
+	 *             when the threshold is not larger then 0 and at most 1
+	 */
+	public static <T> void joinMultisets(Metric<Multiset<T>> metric,
+			float threshold, List<? extends Multiset<T>> multisets,
+			Listener listener) {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			joinMultisets(metric, threshold, multisets, listener, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Finds all pairs of multisets with a similarity of at least
+	 * {@code threshold}.
+	 * 
+	 * @param metric
+	 *            metric to compare multisets with
+	 * @param threshold
+	 *            minimum similarity, larger then 0 and at most 1
+	 * @param multisets
+	 *            multisets to join
+	 * @param listener
+	 *            receives the similar pairs
+	 * @param pool
+	 *            pool to execute the join in
+	 * @param <T>
+	 *            type of the tokens
+	 * 
+	 * @throws NullPointerException
+	 *             when the metric, multisets, any multiset, the listener or
+	 *             pool is null
+	 * @throws IllegalArgumentException
+	 *             when the threshold is not larger then 0 and at most 1
+	 */
+	public static <T> void joinMultisets(Metric<Multiset<T>> metric,
+			float threshold, List<? extends Multiset<T>> multisets,
+			Listener listener, ForkJoinPool pool) {
+		checkArguments(metric, threshold, multisets, listener, pool);
+
+		if (!(metric instanceof CosineSimilarity)) {
+			new NestedLoopJoin<Multiset<T>>(metric, threshold, multisets,
+					listener).join(pool);
+			return;
+		}
+		new CosineJoin<>(metric, threshold, multisets, listener).join(pool);
+	}
+
+	private static void checkArguments(Metric<?> metric, float threshold,
+			List<?> elements, Listener listener, ForkJoinPool pool) {
+		checkNotNull(metric);
+		checkArgument(0.0f < threshold && threshold <= 1.0f,
+				"threshold must be larger then 0 and at most 1");
+		checkNotNull(elements);
+		checkNotNull(listener);
+		checkNotNull(pool);
+	}
+
+	private static void join(StringMetric metric, float threshold,
+			String[] strings, Listener listener, ForkJoinPool pool) {
+
+		if (metric instanceof ForSet) {
+			final ForSet forSet = (ForSet) metric;
+			joinSets(forSet.getMetric(), threshold,
+					tokenizeToSets(strings, null, forSet.getTokenizer(), pool),
+					listener, pool);
+		} else if (metric instanceof ForSetWithSimplifier) {
+			final ForSetWithSimplifier forSet = (ForSetWithSimplifier) metric;
+			joinSets(forSet.getMetric(), threshold,
+					tokenizeToSets(strings, forSet.getSimplifier(),
+							forSet.getTokenizer(), pool), listener, pool);
+		} else if (metric instanceof ForMultiset) {
+			final ForMultiset forMultiset = (ForMultiset) metric;
+			joinMultisets(forMultiset.getMetric(), threshold,
+					tokenizeToMultisets(strings, null,
+							forMultiset.getTokenizer(), pool), listener, pool);
+		} else if (metric instanceof ForMultisetWithSimplifier) {
+			final ForMultisetWithSimplifier forMultiset = (ForMultisetWithSimplifier) metric;
+			joinMultisets(forMultiset.getMetric(), threshold,
+					tokenizeToMultisets(strings, forMultiset.getSimplifier(),
+							forMultiset.getTokenizer(), pool), listener, pool);
+		} else if (metric instanceof ForString) {
+			join(((ForString) metric).getMetric(), threshold, strings,
+					listener, pool);
+		} else if (metric instanceof ForStringWithSimplifier) {
+			final ForStringWithSimplifier forString = (ForStringWithSimplifier) metric;
+			join(forString.getMetric(), threshold,
+					simplify(strings, forString.getSimplifier(), pool),
+					listener, pool);
+		} else if (metric instanceof Levenshtein
+				&& ((Levenshtein) metric).getSubstitute() > 0.0f) {
+			new LevenshteinJoin((Levenshtein) metric, threshold, strings,
+					listener).join(pool);
+		} else {
+			new NestedLoopJoin<>(metric, threshold, asList(strings), listener)
+					.join(pool);
+		}
+	}
+
+	private static void join(Metric<String> metric, float threshold,
+			String[] strings, Listener listener, ForkJoinPool pool) {
+		if (metric instanceof StringMetric) {
+			join((StringMetric) metric, threshold, strings, listener, pool);
+			return;
+		}
+		new NestedLoopJoin<>(metric, threshold, asList(strings), listener)
+				.join(pool);
+	}
+
+	private static String[] simplify(final String[] strings,
+			final Simplifier simplifier, ForkJoinPool pool) {
+		final String[] simplified = new String[strings.length];
+		new ParallelLoop() {
+			@Override
+			void run(int i) {
+				simplified[i] = simplifier.simplify(strings[i]);
+			}
+		}.invoke(pool, strings.length);
+		return simplified;
+	}
+
+	private static List<Set<String>> tokenizeToSets(final String[] strings,
+			final Simplifier simplifier, final Tokenizer tokenizer,
+			ForkJoinPool pool) {
+		final List<Set<String>> sets = new ArrayList<>(
+				Collections.<Set<String>> nCopies(strings.length, null));
+		new ParallelLoop() {
+			@Override
+			void run(int i) {
+				sets.set(i, tokenizer.tokenizeToSet(simplifier == null ? strings[i]
+						: simplifier.simplify(strings[i])));
+			}
+		}.invoke(pool, strings.length);
+		return sets;
+	}
+
+	private static List<Multiset<String>> tokenizeToMultisets(
+			final String[] strings, final Simplifier simplifier,
+			final Tokenizer tokenizer, ForkJoinPool pool) {
+		final List<Multiset<String>> multisets = new ArrayList<>(
+				Collections.<Multiset<String>> nCopies(strings.length, null));
+		new ParallelLoop() {
+			@Override
+			void run(int i) {
+				multisets.set(i, tokenizer
+						.tokenizeToMultiset(simplifier == null ? strings[i]
+								: simplifier.simplify(strings[i])));
+			}
+		}.invoke(pool, strings.length);
+		return multisets;
+	}
+
+	/*
+	 * Runs a loop body for each index in a fork join pool.
+	 */
+	private static abstract class ParallelLoop {
+
+		private static final int GRAIN = 32;
+
+		abstract void run(int i);
+
+		final void invoke(ForkJoinPool pool, int length) {
+			pool.invoke(new Task(0, length));
+		}
+
+		private final class Task extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			private final int from;
+			private final int to;
+
+			Task(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from <= GRAIN) {
+					for (int i = from; i < to; i++) {
+						run(i);
+					}
+					return;
+				}
+
+				final int middle = (from + to) >>> 1;
+				invokeAll(new Task(from, middle), new Task(middle, to));
+			}
+		}
+	}
+
+	/*
+	 * Per thread scratch space to count the overlap between a probing record
+	 * and its candidates.
+	 */
+	private static final class Overlaps {
+
+		final int[] counts;
+		final int[] candidates;
+		int size;
+
+		Overlaps(int length) {
+			this.counts = new int[length];
+			this.candidates = new int[length];
+		}
+
+		static ThreadLocal<Overlaps> perThread(final int length) {
+			return new ThreadLocal<Overlaps>() {
+				@Override
+				protected Overlaps initialValue() {
+					return new Overlaps(length);
+				}
+			};
+		}
+
+		void add(int candidate, int count) {
+			if (counts[candidate] == 0) {
+				candidates[size++] = candidate;
+			}
+			counts[candidate] += count;
+		}
+
+		void clear() {
+			for (int i = 0; i < size; i++) {
+				counts[candidates[i]] = 0;
+			}
+			size = 0;
+		}
+	}
+
+	/*
+	 * Maps tokens to ids in order of increasing document frequency. Rare
+	 * tokens come first so prefixes select few candidates.
+	 */
+	private static <T> Map<T, Integer> tokenIds(
+			Collection<? extends Collection<T>> collections) {
+		final Map<T, Integer> ids = new HashMap<>();
+		for (Collection<T> collection : collections) {
+			for (T token : collection) {
+				final Integer frequency = ids.get(token);
+				ids.put(token, frequency == null ? 1 : frequency + 1);
+			}
+		}
+
+		final List<Entry<T, Integer>> entries = new ArrayList<>(ids.entrySet());
+		Collections.sort(entries, new Comparator<Entry<T, Integer>>() {
+			@Override
+			public int compare(Entry<T, Integer> o1, Entry<T, Integer> o2) {
+				return Integer.compare(o1.getValue(), o2.getValue());
+			}
+		});
+
+		int id = 0;
+		for (Entry<T, Integer> entry : entries) {
+			entry.setValue(id++);
+		}
+		return ids;
+	}
+
+	/*
+	 * Returns the indices of the records ordered by size, excluding empty
+	 * records.
+	 */
+	private static int[] orderBySize(int[] sizes) {
+		int nonEmpty = 0;
+		for (int size : sizes) {
+			if (size > 0) {
+				nonEmpty++;
+			}
+		}
+
+		final long[] keys = new long[nonEmpty];
+		for (int i = 0, k = 0; i < sizes.length; i++) {
+			if (sizes[i] > 0) {
+				keys[k++] = ((long) sizes[i] << 32) | i;
+			}
+		}
+		sort(keys);
+
+		final int[] order = new int[nonEmpty];
+		for (int k = 0; k < nonEmpty; k++) {
+			order[k] = (int) keys[k];
+		}
+		return order;
+	}
+
+	/*
+	 * Returns for each size the first position in order of a record of at
+	 * least that size.
+	 */
+	private static int[] firstPositions(int[] sizes, int[] order) {
+		final int maxSize = order.length == 0 ? 0
+				: sizes[order[order.length - 1]];
+		final int[] first = new int[maxSize + 2];
+		int position = 0;
+		for (int size = 0; size < first.length; size++) {
+			while (position < order.length && sizes[order[position]] < size) {
+				position++;
+			}
+			first[size] = position;
+		}
+		return first;
+	}
+
+	/*
+	 * Inverted lists of (position, value) pairs per token. Lists are ordered
+	 * by position.
+	 */
+	private static final class InvertedIndex {
+
+		private final int[][] lists;
+
+		InvertedIndex(int[] listSizes) {
+			lists = new int[listSizes.length][];
+			for (int token = 0; token < listSizes.length; token++) {
+				lists[token] = new int[listSizes[token] * 2];
+				listSizes[token] = 0;
+			}
+			this.sizes = listSizes;
+		}
+
+		private final int[] sizes;
+
+		void add(int token, int position, int value) {
+			final int[] list = lists[token];
+			final int i = sizes[token]++ * 2;
+			list[i] = position;
+			list[i + 1] = value;
+		}
+
+		int[] get(int token) {
+			return lists[token];
+		}
+
+		/*
+		 * Returns the offset of the first entry in the list at or after
+		 * position.
+		 */
+		static int seek(int[] list, int position) {
+			int low = 0;
+			int high = list.length / 2;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (list[middle * 2] < position) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low * 2;
+		}
+	}
+
+	/*
+	 * Bounds on the overlap of two sets x and y with |y| <= |x| for set
+	 * metrics with a similarity of at least t.
+	 */
+	enum SetBounds {
+		JACCARD {
+			@Override
+			int minSize(double t, int x) {
+				return roundUp(t * x);
+			}
+
+			@Override
+			int minOverlap(double t, int x, int y) {
+				return roundUp(t / (1.0 + t) * (x + y));
+			}
+
+			@Override
+			int minIndexOverlap(double t, int y) {
+				return roundUp(2.0 * t / (1.0 + t) * y);
+			}
+		},
+		DICE {
+			@Override
+			int minSize(double t, int x) {
+				return roundUp(t / (2.0 - t) * x);
+			}
+
+			@Override
+			int minOverlap(double t, int x, int y) {
+				return roundUp(t * (x + y) / 2.0);
+			}
+
+			@Override
+			int minIndexOverlap(double t, int y) {
+				return roundUp(t * y);
+			}
+		},
+		OVERLAP_COEFFICIENT {
+			@Override
+			int minSize(double t, int x) {
+				return 1;
+			}
+
+			@Override
+			int minOverlap(double t, int x, int y) {
+				return roundUp(t * y);
+			}
+
+			@Override
+			int minIndexOverlap(double t, int y) {
+				return roundUp(t * y);
+			}
+		};
+
+		/*
+		 * Minimum size of y. Also the minimum overlap of x with any y.
+		 */
+		abstract int minSize(double t, int x);
+
+		/*
+		 * Minimum overlap of x and y.
+		 */
+		abstract int minOverlap(double t, int x, int y);
+
+		/*
+		 * Minimum overlap of y with any x.
+		 */
+		abstract int minIndexOverlap(double t, int y);
+
+		int probePrefix(double t, int x) {
+			return prefix(x, minSize(t, x));
+		}
+
+		int indexPrefix(double t, int y) {
+			return prefix(y, minIndexOverlap(t, y));
+		}
+
+		private static int prefix(int size, int minOverlap) {
+			return max(1, min(size, size - minOverlap + 1));
+		}
+
+		static SetBounds of(Metric<?> metric) {
+			if (metric instanceof Jaccard) {
+				return JACCARD;
+			} else if (metric instanceof Dice) {
+				return DICE;
+			} else if (metric instanceof OverlapCoefficient) {
+				return OVERLAP_COEFFICIENT;
+			}
+			return null;
+		}
+	}
+
+	static int roundUp(double value) {
+		return max(1, (int) ceil(value));
+	}
+
+	/*
+	 * Filter threshold. Slightly lower then the threshold to absorb rounding
+	 * errors in the similarity. Candidates are verified against the threshold.
+	 */
+	private static double filterThreshold(float threshold) {
+		return threshold / (double) BOUND_TOLERANCE;
+	}
+
+	/*
+	 * Prefix, length and positional filtering for set metrics.
+	 */
+	private static final class SetJoin<T> {
+
+		private final Metric<Set<T>> metric;
+		private final SetBounds bounds;
+		private final float threshold;
+		private final double t;
+		private final List<? extends Set<T>> sets;
+		private final Listener listener;
+
+		private int[][] records;
+		private int[] sizes;
+		private int[] order;
+		private int[] firstPositions;
+		private InvertedIndex index;
+
+		SetJoin(Metric<Set<T>> metric, SetBounds bounds, float threshold,
+				List<? extends Set<T>> sets, Listener listener) {
+			this.metric = metric;
+			this.bounds = bounds;
+			this.threshold = threshold;
+			this.t = filterThreshold(threshold);
+			this.sets = sets;
+			this.listener = listener;
+		}
+
+		void join(ForkJoinPool pool) {
+			final Map<T, Integer> ids = tokenIds(sets);
+
+			records = new int[sets.size()][];
+			sizes = new int[sets.size()];
+			new ParallelLoop() {
+				@Override
+				void run(int i) {
+					final Set<T> set = sets.get(i);
+					final int[] record = new int[set.size()];
+					int k = 0;
+					for (T token : set) {
+						record[k++] = ids.get(token);
+					}
+					sort(record);
+					records[i] = record;
+					sizes[i] = record.length;
+				}
+			}.invoke(pool, records.length);
+
+			joinEmpty(metric, threshold, sets, sizes, listener);
+
+			order = orderBySize(sizes);
+			firstPositions = firstPositions(sizes, order);
+
+			final int[] listSizes = new int[ids.size()];
+			for (int position = 0; position < order.length; position++) {
+				final int[] record = records[order[position]];
+				final int prefix = bounds.indexPrefix(t, record.length);
+				for (int k = 0; k < prefix; k++) {
+					listSizes[record[k]]++;
+				}
+			}
+			index = new InvertedIndex(listSizes);
+			for (int position = 0; position < order.length; position++) {
+				final int[] record = records[order[position]];
+				final int prefix = bounds.indexPrefix(t, record.length);
+				for (int k = 0; k < prefix; k++) {
+					index.add(record[k], position, k);
+				}
+			}
+
+			final ThreadLocal<Overlaps> overlaps = Overlaps.perThread(order.length);
+			new ParallelLoop() {
+				@Override
+				void run(int position) {
+					probe(position, overlaps.get());
+				}
+			}.invoke(pool, order.length);
+		}
+
+		private void probe(int position, Overlaps overlaps) {
+			final int[] x = records[order[position]];
+			final int sizeX = x.length;
+			final int minPosition = firstPositions[bounds.minSize(t, sizeX)];
+			final int prefix = bounds.probePrefix(t, sizeX);
+			final int[] counts = overlaps.counts;
+
+			for (int k = 0; k < prefix; k++) {
+				final int[] list = index.get(x[k]);
+				for (int e = InvertedIndex.seek(list, minPosition); e < list.length; e += 2) {
+					final int candidate = list[e];
+					if (candidate >= position) {
+						break;
+					}
+					final int count = counts[candidate];
+					if (count < 0) {
+						continue;
+					}
+
+					// Positional filter: the remaining tokens of both records
+					// bound the overlap.
+					final int j = list[e + 1];
+					final int sizeY = sizes[order[candidate]];
+					final int bound = count + 1
+							+ min(sizeX - k - 1, sizeY - j - 1);
+					if (bound >= bounds.minOverlap(t, sizeX, sizeY)) {
+						overlaps.add(candidate, 1);
+					} else {
+						// Prune, count is negative from here on
+						overlaps.add(candidate, Integer.MIN_VALUE / 2 - count);
+					}
+				}
+			}
+
+			for (int i = 0; i < overlaps.size; i++) {
+				final int candidate = overlaps.candidates[i];
+				if (counts[candidate] > 0) {
+					verify(position, candidate);
+				}
+			}
+			overlaps.clear();
+		}
+
+		private void verify(int position, int candidate) {
+			final int[] x = records[order[position]];
+			final int[] y = records[order[candidate]];
+			if (!overlaps(x, y, bounds.minOverlap(t, x.length, y.length))) {
+				return;
+			}
+
+			final int a = min(order[position], order[candidate]);
+			final int b = max(order[position], order[candidate]);
+			final float similarity = metric.compare(sets.get(a), sets.get(b));
+			if (similarity >= threshold) {
+				listener.similar(a, b, similarity);
+			}
+		}
+
+		/*
+		 * Merges x and y until they are known to have less then minOverlap
+		 * tokens in common.
+		 */
+		private static boolean overlaps(int[] x, int[] y, int minOverlap) {
+			int overlap = 0;
+			for (int i = 0, j = 0; i < x.length && j < y.length;) {
+				if (overlap + min(x.length - i, y.length - j) < minOverlap) {
+					return false;
+				}
+				if (x[i] < y[j]) {
+					i++;
+				} else if (x[i] > y[j]) {
+					j++;
+				} else {
+					overlap++;
+					i++;
+					j++;
+				}
+			}
+			return overlap >= minOverlap;
+		}
+	}
+
+	/*
+	 * Empty records are not indexed. Compares them with each other instead.
+	 */
+	private static <T> void joinEmpty(Metric<T> metric, float threshold,
+			List<? extends T> elements, int[] sizes, Listener listener) {
+		final List<Integer> empty = new ArrayList<>();
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i] == 0) {
+				empty.add(i);
+			}
+		}
+		for (int j = 1; j < empty.size(); j++) {
+			for (int i = 0; i < j; i++) {
+				final int a = empty.get(i);
+				final int b = empty.get(j);
+				final float similarity = metric.compare(elements.get(a),
+						elements.get(b));
+				if (similarity >= threshold) {
+					listener.similar(a, b, similarity);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Prefix filtering for cosine similarity over multisets. Records are
+	 * vectors of token counts. The prefix of a record is chosen such that the
+	 * norm of the remaining suffix is less then the threshold times the norm
+	 * of the record. By Cauchy-Schwarz two records with a similarity of at
+	 * least the threshold have their first common token in both prefixes.
+	 */
+	private static final class CosineJoin<T> {
+
+		private final Metric<Multiset<T>> metric;
+		private final float threshold;
+		private final double t;
+		private final List<? extends Multiset<T>> multisets;
+		private final Listener listener;
+
+		private int[][] records;
+		private int[] prefixes;
+		private int[] order;
+		private InvertedIndex index;
+
+		CosineJoin(Metric<Multiset<T>> metric, float threshold,
+				List<? extends Multiset<T>> multisets, Listener listener) {
+			this.metric = metric;
+			this.threshold = threshold;
+			this.t = filterThreshold(threshold);
+			this.multisets = multisets;
+			this.listener = listener;
+		}
+
+		void join(ForkJoinPool pool) {
+			final List<Set<T>> elementSets = new ArrayList<>(multisets.size());
+			for (Multiset<T> multiset : multisets) {
+				elementSets.add(multiset.elementSet());
+			}
+			final Map<T, Integer> ids = tokenIds(elementSets);
+
+			records = new int[multisets.size()][];
+			prefixes = new int[multisets.size()];
+			final int[] sizes = new int[multisets.size()];
+			new ParallelLoop() {
+				@Override
+				void run(int i) {
+					final Multiset<T> multiset = multisets.get(i);
+					final Set<Multiset.Entry<T>> entries = multiset.entrySet();
+					final long[] record = new long[entries.size()];
+					int k = 0;
+					for (Multiset.Entry<T> entry : entries) {
+						record[k++] = ((long) ids.get(entry.getElement()) << 32)
+								| entry.getCount();
+					}
+					sort(record);
+
+					final int[] tokens = new int[record.length];
+					double normSquared = 0;
+					for (k = 0; k < record.length; k++) {
+						tokens[k] = (int) (record[k] >>> 32);
+						final double count = (int) record[k];
+						normSquared += count * count;
+					}
+
+					// Grow the suffix from the end while its norm stays
+					// below the threshold.
+					final double bound = t * t * normSquared;
+					double suffixSquared = 0;
+					int prefix = record.length;
+					while (prefix > 1) {
+						final double count = (int) record[prefix - 1];
+						if (suffixSquared + count * count >= bound) {
+							break;
+						}
+						suffixSquared += count * count;
+						prefix--;
+					}
+
+					records[i] = tokens;
+					prefixes[i] = prefix;
+					sizes[i] = tokens.length;
+				}
+			}.invoke(pool, records.length);
+
+			joinEmpty(metric, threshold, multisets, sizes, listener);
+
+			order = orderBySize(sizes);
+
+			final int[] listSizes = new int[ids.size()];
+			for (int position = 0; position < order.length; position++) {
+				final int[] record = records[order[position]];
+				for (int k = 0; k < prefixes[order[position]]; k++) {
+					listSizes[record[k]]++;
+				}
+			}
+			index = new InvertedIndex(listSizes);
+			for (int position = 0; position < order.length; position++) {
+				final int[] record = records[order[position]];
+				for (int k = 0; k < prefixes[order[position]]; k++) {
+					index.add(record[k], position, k);
+				}
+			}
+
+			final ThreadLocal<Overlaps> overlaps = Overlaps.perThread(order.length);
+			new ParallelLoop() {
+				@Override
+				void run(int position) {
+					probe(position, overlaps.get());
+				}
+			}.invoke(pool, order.length);
+		}
+
+		private void probe(int position, Overlaps overlaps) {
+			final int[] x = records[order[position]];
+			final int prefix = prefixes[order[position]];
+
+			for (int k = 0; k < prefix; k++) {
+				final int[] list = index.get(x[k]);
+				for (int e = 0; e < list.length; e += 2) {
+					final int candidate = list[e];
+					if (candidate >= position) {
+						break;
+					}
+					overlaps.add(candidate, 1);
+				}
+			}
+
+			for (int i = 0; i < overlaps.size; i++) {
+				verify(position, overlaps.candidates[i]);
+			}
+			overlaps.clear();
+		}
+
+		private void verify(int position, int candidate) {
+			final int a = min(order[position], order[candidate]);
+			final int b = max(order[position], order[candidate]);
+			final float similarity = metric.compare(multisets.get(a),
+					multisets.get(b));
+			if (similarity >= threshold) {
+				listener.similar(a, b, similarity);
+			}
+		}
+	}
+
+	/*
+	 * Length and bigram count filtering for Levenshtein. A string of length n
+	 * contains n - 1 bigrams. Each edit operation affects at most two bigrams
+	 * so strings within k operations share at least max(n, m) - 1 - 2k
+	 * bigrams.
+	 */
+	private static final class LevenshteinJoin {
+
+		private final Levenshtein metric;
+		private final float threshold;
+		private final double t;
+		private final String[] strings;
+		private final Listener listener;
+
+		private int[] lengths;
+		private int[][] grams;
+		private int[][] counts;
+		private int[] order;
+		private int[] firstPositions;
+		private InvertedIndex index;
+
+		LevenshteinJoin(Levenshtein metric, float threshold, String[] strings,
+				Listener listener) {
+			this.metric = metric;
+			this.threshold = threshold;
+			this.t = filterThreshold(threshold);
+			this.strings = strings;
+			this.listener = listener;
+		}
+
+		void join(ForkJoinPool pool) {
+			lengths = new int[strings.length];
+			final long[] keys = new long[strings.length];
+			for (int i = 0; i < strings.length; i++) {
+				lengths[i] = CodePoints.length(strings[i]);
+				keys[i] = ((long) lengths[i] << 32) | i;
+			}
+			sort(keys);
+			order = new int[strings.length];
+			for (int k = 0; k < keys.length; k++) {
+				order[k] = (int) keys[k];
+			}
+			firstPositions = firstPositions(lengths, order);
+
+			final long[][] bigrams = new long[strings.length][];
+			new ParallelLoop() {
+				@Override
+				void run(int i) {
+					bigrams[i] = CodePoints.bigrams(strings[i]);
+				}
+			}.invoke(pool, strings.length);
+
+			final Map<Long, Integer> ids = new HashMap<>();
+			grams = new int[strings.length][];
+			counts = new int[strings.length][];
+			for (int i = 0; i < strings.length; i++) {
+				final long[] bigram = bigrams[i];
+				int distinct = 0;
+				for (int k = 0; k < bigram.length; k++) {
+					if (k == 0 || bigram[k] != bigram[k - 1]) {
+						distinct++;
+					}
+				}
+				grams[i] = new int[distinct];
+				counts[i] = new int[distinct];
+				for (int k = 0, d = -1; k < bigram.length; k++) {
+					if (k == 0 || bigram[k] != bigram[k - 1]) {
+						Integer id = ids.get(bigram[k]);
+						if (id == null) {
+							id = ids.size();
+							ids.put(bigram[k], id);
+						}
+						grams[i][++d] = id;
+					}
+					counts[i][d]++;
+				}
+				bigrams[i] = null;
+			}
+
+			final int[] listSizes = new int[ids.size()];
+			for (int position = 0; position < order.length; position++) {
+				for (int gram : grams[order[position]]) {
+					listSizes[gram]++;
+				}
+			}
+			index = new InvertedIndex(listSizes);
+			for (int position = 0; position < order.length; position++) {
+				final int i = order[position];
+				for (int k = 0; k < grams[i].length; k++) {
+					index.add(grams[i][k], position, counts[i][k]);
+				}
+			}
+
+			final ThreadLocal<Overlaps> overlaps = Overlaps.perThread(order.length);
+			new ParallelLoop() {
+				@Override
+				void run(int position) {
+					probe(position, overlaps.get());
+				}
+			}.invoke(pool, order.length);
+		}
+
+		private void probe(int position, Overlaps overlaps) {
+			final int i = order[position];
+			final int length = lengths[i];
+
+			// Strings are ordered by length so length is the longest. The
+			// distance may be at most maxDistance.
+			final float insertDelete = metric.getInsertDelete();
+			final float substitute = metric.getSubstitute();
+			final double maxDistance = (1.0 - t)
+					* max(insertDelete, substitute) * length;
+			final int operations = (int) floor(maxDistance
+					/ min(insertDelete, substitute));
+			final int minLength = max(0,
+					length - (int) floor(maxDistance / insertDelete));
+			final int minPosition = firstPositions[minLength];
+			final int minCommon = length - 1 - 2 * operations;
+
+			if (minCommon <= 0) {
+				for (int candidate = minPosition; candidate < position; candidate++) {
+					verify(position, candidate);
+				}
+				return;
+			}
+
+			final int[] counts = overlaps.counts;
+			for (int k = 0; k < grams[i].length; k++) {
+				final int count = this.counts[i][k];
+				final int[] list = index.get(grams[i][k]);
+				for (int e = InvertedIndex.seek(list, minPosition); e < list.length; e += 2) {
+					final int candidate = list[e];
+					if (candidate >= position) {
+						break;
+					}
+					overlaps.add(candidate, min(count, list[e + 1]));
+				}
+			}
+
+			for (int k = 0; k < overlaps.size; k++) {
+				final int candidate = overlaps.candidates[k];
+				if (counts[candidate] >= minCommon) {
+					verify(position, candidate);
+				}
+			}
+			overlaps.clear();
+		}
+
+		private void verify(int position, int candidate) {
+			final int a = min(order[position], order[candidate]);
+			final int b = max(order[position], order[candidate]);
+			final float similarity = metric.compare(strings[a], strings[b],
+					threshold);
+			if (similarity >= threshold) {
+				listener.similar(a, b, similarity);
+			}
+		}
+	}
+
+	/*
+	 * Compares all pairs. Uses the bounded similarity when available.
+	 */
+	private static final class NestedLoopJoin<T> {
+
+		private final Metric<T> metric;
+		private final float threshold;
+		private final List<? extends T> elements;
+		private final Listener listener;
+
+		NestedLoopJoin(Metric<T> metric, float threshold,
+				List<? extends T> elements, Listener listener) {
+			this.metric = metric;
+			this.threshold = threshold;
+			this.elements = elements;
+			this.listener = listener;
+		}
+
+		void join(ForkJoinPool pool) {
+			new ParallelLoop() {
+				@Override
+				void run(int b) {
+					for (int a = 0; a < b; a++) {
+						final float similarity = compare(elements.get(a),
+								elements.get(b));
+						if (similarity >= threshold) {
+							listener.similar(a, b, similarity);
+						}
+					}
+				}
+			}.invoke(pool, elements.size());
+		}
+
+		private float compare(T a, T b) {
+			if (metric instanceof BoundedStringMetric) {
+				return ((BoundedStringMetric) metric).compare((String) a,
+						(String) b, threshold);
+			}
+			return metric.compare(a, b);
+		}
+	}
+
+	private SimilarityJoin() {
+		// Utility class.
+	}
+
+}
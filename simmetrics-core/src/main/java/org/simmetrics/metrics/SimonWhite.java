@@ -86,9 +86,12 @@ public final class SimonWhite<T> implements MultisetMetric<T>, MultisetDistance<
 			return 0.0f;
 		}
 
-		// 2 * ∣a ∩ b∣ / (∣a∣ + ∣b∣)
-		return (2.0f * intersection(a, b).size()) / (a.size() + b.size());
+		return compare(a.size(), b.size(), intersection(a, b).size());
+	}
 
+	static float compare(int a, int b, int intersection) {
+		// 2 * ∣a ∩ b∣ / (∣a∣ + ∣b∣)
+		return (2.0f * intersection) / (a + b);
 	}
 	
 	@Override
@@ -23,19 +23,33 @@ package org.simmetrics.metrics;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.max;
+import static java.lang.Float.NEGATIVE_INFINITY;
 import static java.lang.Math.min;
 import static org.simmetrics.metrics.Math.max;
 
 import org.simmetrics.StringMetric;
 import org.simmetrics.metrics.functions.AffineGap;
+import org.simmetrics.metrics.functions.ConstantGap;
 import org.simmetrics.metrics.functions.Gap;
+import org.simmetrics.metrics.functions.LinearGap;
 import org.simmetrics.metrics.functions.MatchMismatch;
 import org.simmetrics.metrics.functions.Substitution;
 
 /**
  * Applies the Smith-Waterman algorithm to calculate the similarity between two
- * strings. Implementation uses the implementation as described by Smith and
- * Waterman. This implementation uses quadratic space and cubic time.
+ * strings.
+ * <p>
+ * When the gap function is an {@link AffineGap}, {@link LinearGap} or
+ * {@link ConstantGap} the best gap ending in a cell is extended from the best
+ * gap ending in the previous cell as described by Osamu Gotoh (1982). This
+ * uses linear space and quadratic time. For other gap functions every gap
+ * length is considered for every cell as described by Smith and Waterman.
+ * This uses quadratic space and cubic time.
+ * <p>
+ * Each row is filled in two passes. The first
+ * handles deletions and substitutions, neither depends on the row itself. The
+ * second carries insertions from left to right. When the substitution
+ * function is a {@link MatchMismatch} the scores are computed inline.
  * <p>
  * This class is immutable and thread-safe if its substitution and gap functions
  * are.
@@ -51,6 +65,11 @@ public final class SmithWaterman implements StringMetric {
 	private final Substitution substitution;
 	private final int windowSize;
 
+	private final boolean affineGap;
+	private final float gapStart;
+	private final float gapExtend;
+	private final boolean matchMismatch;
+
 	/**
 	 * Constructs a new Smith Waterman metric. Uses an affine gap of
 	 * <code>-5.0 - gapLength</code> a <code>-3.0</code> substitution penalty
@@ -79,6 +98,27 @@ public final class SmithWaterman implements StringMetric {
 		this.gap = gap;
 		this.substitution = substitution;
 		this.windowSize = windowSize;
+
+		// The gap value of a gap of length k is gapStart + gapExtend * (k - 1)
+		if (gap instanceof AffineGap) {
+			this.affineGap = true;
+			this.gapStart = ((AffineGap) gap).getStartValue();
+			this.gapExtend = ((AffineGap) gap).getGapValue();
+		} else if (gap instanceof LinearGap) {
+			this.affineGap = true;
+			this.gapStart = 0.0f;
+			this.gapExtend = ((LinearGap) gap).getGapValue();
+		} else if (gap instanceof ConstantGap) {
+			this.affineGap = true;
+			this.gapStart = ((ConstantGap) gap).getGapValue();
+			this.gapExtend = 0.0f;
+		} else {
+			this.affineGap = false;
+			this.gapStart = 0.0f;
+			this.gapExtend = 0.0f;
+		}
+		// Subclasses may override compare
+		this.matchMismatch = substitution.getClass() == MatchMismatch.class;
 	}
 
 	@Override
@@ -92,10 +132,108 @@ public final class SmithWaterman implements StringMetric {
 		}
 		float maxDistance = min(a.length(), b.length())
 				* max(substitution.max(), gap.min());
+		if (affineGap) {
+			return smithWatermanGotoh(a, b) / maxDistance;
+		}
 		return smithWaterman(a, b) / maxDistance;
 
 	}
 
+	private float smithWatermanGotoh(String a, String b) {
+		final int m = b.length();
+		final Workspace workspace = Workspace.acquire();
+		try {
+			final char[] charsB = workspace.chars(0, m);
+			b.getChars(0, m, charsB, 0);
+			return smithWatermanGotoh(a, b, charsB, workspace.floats(0, m),
+					workspace.floats(1, m), workspace.floats(2, m));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/*
+	 * Equivalent of smithWaterman for affine gaps. A gap may start after any
+	 * row or column from 1 up to and including the window size. Row d0 holds
+	 * the previous row, d1 the current row. The best deletion ending in each
+	 * column is kept in e, the best insertion ending in the current cell in
+	 * f.
+	 */
+	private float smithWatermanGotoh(String a, String b, char[] charsB,
+			float[] d0, float[] d1, float[] e) {
+		final int n = a.length();
+		final int m = b.length();
+		final float start = gapStart;
+		final float extend = gapExtend;
+		final float match = substitution.max();
+		final float mismatch = substitution.min();
+
+		// First row, there are no deletions
+		float max = 0;
+		float f = NEGATIVE_INFINITY;
+		char c = a.charAt(0);
+		for (int j = 0; j < m; j++) {
+			f = startsGap(j - 1) ? max(f + extend, d0[j - 1] + start)
+					: f + extend;
+			final float substitute = matchMismatch ? (charsB[j] == c ? match
+					: mismatch) : substitution.compare(a, 0, b, j);
+			d0[j] = max(0, f, substitute);
+			e[j] = NEGATIVE_INFINITY;
+			max = max(max, d0[j]);
+		}
+
+		for (int i = 1; i < n; i++) {
+			c = a.charAt(i);
+
+			// Deletions and substitutions only depend on the previous row
+			if (startsGap(i - 1)) {
+				for (int j = 0; j < m; j++) {
+					e[j] = max(e[j] + extend, d0[j] + start);
+				}
+			} else {
+				for (int j = 0; j < m; j++) {
+					e[j] += extend;
+				}
+			}
+
+			d1[0] = max(0, e[0], matchMismatch ? (charsB[0] == c ? match
+					: mismatch) : substitution.compare(a, i, b, 0));
+			if (matchMismatch) {
+				for (int j = 1; j < m; j++) {
+					d1[j] = max(0, e[j], d0[j - 1]
+							+ (charsB[j] == c ? match : mismatch));
+				}
+			} else {
+				for (int j = 1; j < m; j++) {
+					d1[j] = max(0, e[j],
+							d0[j - 1] + substitution.compare(a, i, b, j));
+				}
+			}
+
+			// Insertions depend on the cell to the left
+			max = max(max, d1[0]);
+			f = NEGATIVE_INFINITY;
+			for (int j = 1; j < m; j++) {
+				f = startsGap(j - 1) ? max(f + extend, d1[j - 1] + start)
+						: f + extend;
+				d1[j] = max(d1[j], f);
+				max = max(max, d1[j]);
+			}
+
+			final float[] swap = d0; d0 = d1; d1 = swap;
+		}
+
+		return max;
+	}
+
+	/*
+	 * A gap may start after row or column index unless it is the first or
+	 * outside the window.
+	 */
+	private boolean startsGap(int index) {
+		return 1 <= index && index <= windowSize;
+	}
+
 	private float smithWaterman(String a, String b) {
 		final int n = a.length();
 		final int m = b.length();
@@ -36,6 +36,11 @@ import org.simmetrics.metrics.functions.Substitution;
  * strings. This implementation uses optimizations described in Osamu Gotoh
  * (1982). "An improved algorithm for matching biological sequences". Journal of
  * molecular biology 162: 705" and uses constant space and quadratic time.
+ * <p>
+ * When the substitution function is a {@link MatchMismatch} the scores are
+ * computed inline. Each row is filled in two passes. The first takes the
+ * maximum of the cell above and the diagonal, neither depends on the row
+ * itself. The second carries gaps from left to right.
  * 
  * <p>
  * This class is immutable and thread-safe if its substitution functions are.
@@ -56,6 +61,8 @@ public final class SmithWatermanGotoh implements StringMetric {
 
 	private Substitution substitution;
 
+	private final boolean matchMismatch;
+
 	/**
 	 * Constructs a new Smith Waterman metric. Gap penalty is -0.5, mismatch
 	 * penalty -2.0 and a matching score 1.0.
@@ -78,6 +85,8 @@ public final class SmithWatermanGotoh implements StringMetric {
 		checkNotNull(substitution);
 		this.gapValue = gapValue;
 		this.substitution = substitution;
+		// Subclasses may override compare
+		this.matchMismatch = substitution.getClass() == MatchMismatch.class;
 	}
 
 	@Override
@@ -97,13 +106,30 @@ public final class SmithWatermanGotoh implements StringMetric {
 	}
 
 	private float smithWatermanGotoh(final String s, final String t) {
-		
-		float[] v0 = new float[t.length()];
-		float[] v1 = new float[t.length()];
+		final Workspace workspace = Workspace.acquire();
+		try {
+			if (matchMismatch) {
+				final char[] charsT = workspace.chars(0, t.length());
+				t.getChars(0, t.length(), charsT, 0);
+				return smithWatermanGotoh(s, charsT, t.length(),
+						substitution.max(), substitution.min(),
+						workspace.floats(0, t.length()),
+						workspace.floats(1, t.length()));
+			}
+			return smithWatermanGotoh(s, t, workspace.floats(0, t.length()),
+					workspace.floats(1, t.length()));
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private float smithWatermanGotoh(final String s, final String t,
+			float[] v0, float[] v1) {
+		final int n = t.length();
 
 		float max = v0[0] = max(0, gapValue, substitution.compare(s, 0, t, 0));
 
-		for (int j = 1; j < v0.length; j++) {
+		for (int j = 1; j < n; j++) {
 			v0[j] = max(0, v0[j - 1] + gapValue,
 					substitution.compare(s, 0, t, j));
 
@@ -116,16 +142,53 @@ public final class SmithWatermanGotoh implements StringMetric {
 
 			max = max(max, v1[0]);
 
-			for (int j = 1; j < v0.length; j++) {
+			for (int j = 1; j < n; j++) {
 				v1[j] = max(0, v0[j] + gapValue, v1[j - 1] + gapValue,
 						v0[j - 1] + substitution.compare(s, i, t, j));
 
 				max = max(max, v1[j]);
 			}
 
-			for (int j = 0; j < v0.length; j++) {
-				v0[j] = v1[j];
+			final float[] swap = v0; v0 = v1; v1 = swap;
+		}
+
+		return max;
+	}
+
+	/*
+	 * Equivalent of smithWatermanGotoh for a MatchMismatch substitution.
+	 */
+	private float smithWatermanGotoh(final String s, final char[] t,
+			final int n, final float match, final float mismatch, float[] v0,
+			float[] v1) {
+		final float gap = gapValue;
+
+		char c = s.charAt(0);
+		float max = v0[0] = max(0, gap, t[0] == c ? match : mismatch);
+
+		for (int j = 1; j < n; j++) {
+			v0[j] = max(0, v0[j - 1] + gap, t[j] == c ? match : mismatch);
+			max = max(max, v0[j]);
+		}
+
+		for (int i = 1; i < s.length(); i++) {
+			c = s.charAt(i);
+
+			// Deletions and substitutions only depend on the previous row
+			v1[0] = max(0, v0[0] + gap, t[0] == c ? match : mismatch);
+			for (int j = 1; j < n; j++) {
+				v1[j] = max(0, v0[j] + gap,
+						v0[j - 1] + (t[j] == c ? match : mismatch));
+			}
+
+			// Insertions depend on the cell to the left
+			max = max(max, v1[0]);
+			for (int j = 1; j < n; j++) {
+				v1[j] = max(v1[j], v1[j - 1] + gap);
+				max = max(max, v1[j]);
 			}
+
+			final float[] swap = v0; v0 = v1; v1 = swap;
 		}
 
 		return max;
@@ -0,0 +1,189 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.util.Arrays.binarySearch;
+
+import org.simmetrics.MultisetMetric;
+import org.simmetrics.StringMetric;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Calculates the soft TF-IDF similarity over two multisets. Like the
+ * {@link TfIdfCosine} but tokens need not be equal to match. Each token in
+ * {@code a} is matched with the most similar token in {@code b} according to
+ * a secondary string metric. Matches below a threshold are ignored.
+ * <p>
+ * Soft TF-IDF is not symmetric. Like the {@link MongeElkan} metric the
+ * geometric mean of both directions is used.
+ * <p>
+ * <code>
+ * similarity(a,b) = sqrt(soft-tf-idf(a,b) * soft-tf-idf(b,a))
+ * <br>
+ * soft-tf-idf(a,b) = sum( for s in a | weight(s,a) * weight(q,b) * metric(s,q) )
+ * <br>
+ * q = argmax( for q in b | metric(s,q) ) where metric(s,q) &gt;= threshold
+ * </code>
+ * <p>
+ * The weights are normalized TF-IDF weights.
+ * <p>
+ * Composite metrics created by the {@code StringMetricBuilder} cache the
+ * normalized vector of each string they compare, as described for
+ * {@link TfIdfCosine}.
+ * <p>
+ * This class is immutable and thread-safe.
+ * 
+ * @see CorpusStatistics
+ * @see <a href="http://www.cs.cmu.edu/~wcohen/postscript/ijcai-ws-2003.pdf">A
+ *      Comparison of String Distance Metrics for Name-Matching Tasks</a>
+ */
+public final class SoftTfIdf implements MultisetMetric<String> {
+
+	private final CorpusStatistics statistics;
+	private final StringMetric metric;
+	private final float threshold;
+	private final int cacheSize;
+
+	/**
+	 * Constructs a soft TF-IDF metric that matches tokens with a Jaro-Winkler
+	 * similarity of at least 0.9. Composite metrics cache vectors of up to
+	 * 65536 terms in total.
+	 * 
+	 * @param statistics
+	 *            the corpus to weigh tokens by
+	 */
+	public SoftTfIdf(CorpusStatistics statistics) {
+		this(statistics, new JaroWinkler(), 0.9f);
+	}
+
+	/**
+	 * Constructs a soft TF-IDF metric. Composite metrics cache vectors of up
+	 * to 65536 terms in total.
+	 * 
+	 * @param statistics
+	 *            the corpus to weigh tokens by
+	 * @param metric
+	 *            the metric to match tokens with
+	 * @param threshold
+	 *            the minimum similarity of two matching tokens, between 0.0
+	 *            and 1.0 inclusive
+	 */
+	public SoftTfIdf(CorpusStatistics statistics, StringMetric metric,
+			float threshold) {
+		this(statistics, metric, threshold, TfIdfVectors.DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Constructs a soft TF-IDF metric.
+	 * 
+	 * @param statistics
+	 *            the corpus to weigh tokens by
+	 * @param metric
+	 *            the metric to match tokens with
+	 * @param threshold
+	 *            the minimum similarity of two matching tokens, between 0.0
+	 *            and 1.0 inclusive
+	 * @param cacheSize
+	 *            the maximum number of terms in the vectors cached by
+	 *            composite metrics, 0 to disable the cache
+	 */
+	public SoftTfIdf(CorpusStatistics statistics, StringMetric metric,
+			float threshold, int cacheSize) {
+		checkNotNull(statistics);
+		checkNotNull(metric);
+		checkArgument(0.0f <= threshold && threshold <= 1.0f,
+				"threshold must be in range [0.0, 1.0]");
+		checkArgument(cacheSize >= 0, "cacheSize may not be negative");
+
+		this.statistics = statistics;
+		this.metric = metric;
+		this.threshold = threshold;
+		this.cacheSize = cacheSize;
+	}
+
+	@Override
+	public float compare(Multiset<String> a, Multiset<String> b) {
+		checkArgument(!a.contains(null), "a may not contain null");
+		checkArgument(!b.contains(null), "b may not contain null");
+
+		return compare(vector(a), vector(b));
+	}
+
+	int getCacheSize() {
+		return cacheSize;
+	}
+
+	TfIdfVector vector(Multiset<String> tokens) {
+		return TfIdfVector.of(tokens, statistics);
+	}
+
+	float compare(TfIdfVector a, TfIdfVector b) {
+		if (a.isEmpty() && b.isEmpty()) {
+			return 1.0f;
+		}
+
+		if (a.isEmpty() || b.isEmpty()) {
+			return 0.0f;
+		}
+
+		// calculates normalized_similarity(a,b)
+		return (float) sqrt(softTfIdf(a, b) * softTfIdf(b, a));
+	}
+
+	private float softTfIdf(TfIdfVector a, TfIdfVector b) {
+		float similarity = 0.0f;
+		for (int i = 0; i < a.terms.length; i++) {
+			final String s = a.terms[i];
+
+			int closest = binarySearch(b.terms, s);
+			float max = 1.0f;
+			if (closest < 0) {
+				max = -1.0f;
+				for (int j = 0; j < b.terms.length; j++) {
+					final float score = metric.compare(s, b.terms[j]);
+					if (score > max) {
+						max = score;
+						closest = j;
+					}
+				}
+			}
+
+			if (max >= threshold) {
+				similarity += a.weights[i] * b.weights[closest] * max;
+			}
+		}
+		// A token in b may be the closest match of several tokens in a
+		return min(1.0f, similarity);
+	}
+
+	@Override
+	public String toString() {
+		return "SoftTfIdf [statistics=" + statistics + ", metric=" + metric
+				+ ", threshold=" + threshold + ", cacheSize=" + cacheSize + "]";
+	}
+
+}
@@ -20,6 +20,7 @@
 
 package org.simmetrics.metrics;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.simmetrics.builders.StringMetricBuilder.with;
 import static org.simmetrics.simplifiers.Simplifiers.chain;
@@ -30,7 +31,10 @@ import static org.simmetrics.tokenizers.Tokenizers.whitespace;
 import java.util.List;
 import java.util.Set;
 
+import org.simmetrics.BatchStringMetric;
 import org.simmetrics.Metric;
+import org.simmetrics.PreparableStringMetric;
+import org.simmetrics.PreparedStringMetric;
 import org.simmetrics.StringMetric;
 import org.simmetrics.builders.StringMetricBuilder;
 import org.simmetrics.simplifiers.Simplifier;
@@ -46,6 +50,10 @@ import com.google.common.collect.Multiset;
  * similarity metrics from list- or set metrics. All metrics are setup with
  * sensible defaults, to customize metrics use {@link StringMetricBuilder}.
  * <p>
+ * The composite metrics created by this class and the builder implement
+ * {@link BatchStringMetric} and {@link PreparableStringMetric}. They simplify
+ * and tokenize a query only once when it is compared against many candidates.
+ * <p>
  * The created similarity metrics are immutable and thread-safe provided all their
  * components are also immutable and thread-safe.
  */
@@ -326,6 +334,70 @@ public final class StringMetrics {
 		return new LongestCommonSubstring();
 	}
 
+	/**
+	 * Measures the similarity between the query and each candidate. The
+	 * similarity between the query and the candidate at index {@code i} is
+	 * stored in {@code similarities[i]}. When the metric is a
+	 * {@link BatchStringMetric} or {@link PreparableStringMetric} the query is
+	 * preprocessed once for all candidates.
+	 * 
+	 * @param metric
+	 *            the metric to compare with
+	 * @param query
+	 *            string to compare against each candidate
+	 * @param candidates
+	 *            strings to compare
+	 * @param similarities
+	 *            array to store the similarities in, at least as long as the
+	 *            list of candidates
+	 * @throws NullPointerException
+	 *             when the metric, query, candidates, any candidate or
+	 *             similarities is null
+	 * @throws IllegalArgumentException
+	 *             when similarities is shorter then the list of candidates
+	 */
+	public static void compare(StringMetric metric, String query,
+			List<String> candidates, float[] similarities) {
+		checkNotNull(metric);
+		if (metric instanceof BatchStringMetric) {
+			((BatchStringMetric) metric).compare(query, candidates,
+					similarities);
+			return;
+		}
+
+		compareAll(prepare(metric, query), candidates, similarities);
+	}
+
+	/**
+	 * Prepares a query for repeated comparisons. When the metric is a
+	 * {@link PreparableStringMetric} the query is preprocessed once. Otherwise
+	 * each comparison is delegated to the metric.
+	 * 
+	 * @param metric
+	 *            the metric to compare with
+	 * @param query
+	 *            the query to prepare
+	 * @return a prepared query
+	 * @throws NullPointerException
+	 *             when the metric or query is null
+	 */
+	public static PreparedStringMetric prepare(StringMetric metric,
+			String query) {
+		checkNotNull(metric);
+		return prepare(metric, metric, query);
+	}
+
+	static void compareAll(PreparedStringMetric prepared,
+			List<String> candidates, float[] similarities) {
+		checkArgument(similarities.length >= candidates.size(),
+				"similarities must be at least as long as candidates");
+
+		int i = 0;
+		for (String candidate : candidates) {
+			similarities[i++] = prepared.compare(candidate);
+		}
+	}
+
 	/**
 	 * Either constructs a new string similarity metric or returns the original
 	 * metric.
@@ -550,7 +622,8 @@ public final class StringMetrics {
 		return new ForMultiset(metric, tokenizer);
 	}
 
-	static final class ForList implements StringMetric {
+	static final class ForList implements BatchStringMetric,
+			PreparableStringMetric {
 		private final Metric<List<String>> metric;
 		private final Tokenizer tokenizer;
 
@@ -569,6 +642,30 @@ public final class StringMetrics {
 					tokenizer.tokenizeToList(b));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(String query) {
+			final List<String> tokens = tokenizer.tokenizeToList(query);
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return metric.compare(tokens,
+							tokenizer.tokenizeToList(b));
+				}
+
+				@Override
+				public String toString() {
+					return ForList.this + " " + tokens;
+				}
+			};
+		}
+
 		Metric<List<String>> getMetric() {
 			return metric;
 		}
@@ -583,7 +680,8 @@ public final class StringMetrics {
 		}
 	}
 
-	static final class ForListWithSimplifier implements StringMetric {
+	static final class ForListWithSimplifier implements BatchStringMetric,
+			PreparableStringMetric {
 		private final Metric<List<String>> metric;
 		private final Simplifier simplifier;
 		private final Tokenizer tokenizer;
@@ -607,6 +705,31 @@ public final class StringMetrics {
 					tokenizer.tokenizeToList(simplifier.simplify(b)));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(String query) {
+			final List<String> tokens = tokenizer.tokenizeToList(simplifier
+					.simplify(query));
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return metric.compare(tokens,
+							tokenizer.tokenizeToList(simplifier.simplify(b)));
+				}
+
+				@Override
+				public String toString() {
+					return ForListWithSimplifier.this + " " + tokens;
+				}
+			};
+		}
+
 		Metric<List<String>> getMetric() {
 			return metric;
 		}
@@ -625,10 +748,12 @@ public final class StringMetrics {
 		}
 	}
 
-	static final class ForSet implements StringMetric {
+	static final class ForSet implements BatchStringMetric,
+			PreparableStringMetric {
 
 		private final Metric<Set<String>> metric;
 		private final Tokenizer tokenizer;
+		private final TokenHashes hashes;
 
 		ForSet(Metric<Set<String>> metric, Tokenizer tokenizer) {
 			checkNotNull(metric);
@@ -636,14 +761,60 @@ public final class StringMetrics {
 
 			this.metric = metric;
 			this.tokenizer = tokenizer;
+			this.hashes = TokenHashes.forSet(metric, tokenizer);
 		}
 
 		@Override
 		public float compare(String a, String b) {
+			if (hashes != null) {
+				return hashes.compare(a, b);
+			}
+
 			return metric.compare(tokenizer.tokenizeToSet(a),
 					tokenizer.tokenizeToSet(b));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(final String query) {
+			if (hashes != null) {
+				final long[] tokens = hashes.hashes(query);
+				return new PreparedStringMetric() {
+
+					@Override
+					public float compare(String b) {
+						return hashes.compare(tokens,
+								hashes.hashes(b));
+					}
+
+					@Override
+					public String toString() {
+						return ForSet.this + " [" + query + "]";
+					}
+				};
+			}
+
+			final Set<String> tokens = tokenizer.tokenizeToSet(query);
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return metric.compare(tokens,
+							tokenizer.tokenizeToSet(b));
+				}
+
+				@Override
+				public String toString() {
+					return ForSet.this + " " + tokens;
+				}
+			};
+		}
+
 		Metric<Set<String>> getMetric() {
 			return metric;
 		}
@@ -659,11 +830,13 @@ public final class StringMetrics {
 
 	}
 
-	static final class ForSetWithSimplifier implements StringMetric {
+	static final class ForSetWithSimplifier implements BatchStringMetric,
+			PreparableStringMetric {
 
 		private final Metric<Set<String>> metric;
 		private final Simplifier simplifier;
 		private final Tokenizer tokenizer;
+		private final TokenHashes hashes;
 
 		ForSetWithSimplifier(Metric<Set<String>> metric, Simplifier simplifier,
 				Tokenizer tokenizer) {
@@ -674,15 +847,63 @@ public final class StringMetrics {
 			this.metric = metric;
 			this.simplifier = simplifier;
 			this.tokenizer = tokenizer;
+			this.hashes = TokenHashes.forSet(metric, tokenizer);
 		}
 
 		@Override
 		public float compare(String a, String b) {
+			if (hashes != null) {
+				return hashes.compare(simplifier.simplify(a),
+						simplifier.simplify(b));
+			}
+
 			return metric.compare(
 					tokenizer.tokenizeToSet(simplifier.simplify(a)),
 					tokenizer.tokenizeToSet(simplifier.simplify(b)));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(final String query) {
+			if (hashes != null) {
+				final long[] tokens = hashes.hashes(simplifier.simplify(query));
+				return new PreparedStringMetric() {
+
+					@Override
+					public float compare(String b) {
+						return hashes.compare(tokens,
+								hashes.hashes(simplifier.simplify(b)));
+					}
+
+					@Override
+					public String toString() {
+						return ForSetWithSimplifier.this + " [" + query + "]";
+					}
+				};
+			}
+
+			final Set<String> tokens = tokenizer.tokenizeToSet(simplifier
+					.simplify(query));
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return metric.compare(tokens,
+							tokenizer.tokenizeToSet(simplifier.simplify(b)));
+				}
+
+				@Override
+				public String toString() {
+					return ForSetWithSimplifier.this + " " + tokens;
+				}
+			};
+		}
+
 		Metric<Set<String>> getMetric() {
 			return metric;
 		}
@@ -702,10 +923,13 @@ public final class StringMetrics {
 
 	}
 
-	static final class ForMultiset implements StringMetric {
+	static final class ForMultiset implements BatchStringMetric,
+			PreparableStringMetric {
 
 		private final Metric<Multiset<String>> metric;
 		private final Tokenizer tokenizer;
+		private final TokenHashes hashes;
+		private final TfIdfVectors vectors;
 
 		ForMultiset(Metric<Multiset<String>> metric, Tokenizer tokenizer) {
 			checkNotNull(metric);
@@ -713,14 +937,80 @@ public final class StringMetrics {
 
 			this.metric = metric;
 			this.tokenizer = tokenizer;
+			this.hashes = TokenHashes.forMultiset(metric, tokenizer);
+			this.vectors = TfIdfVectors.forMultiset(metric, null, tokenizer);
 		}
 
 		@Override
 		public float compare(String a, String b) {
+			if (hashes != null) {
+				return hashes.compare(a, b);
+			}
+			if (vectors != null) {
+				return vectors.compare(a, b);
+			}
+
 			return metric.compare(tokenizer.tokenizeToMultiset(a),
 					tokenizer.tokenizeToMultiset(b));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(final String query) {
+			if (hashes != null) {
+				final long[] tokens = hashes.hashes(query);
+				return new PreparedStringMetric() {
+
+					@Override
+					public float compare(String b) {
+						return hashes.compare(tokens,
+								hashes.hashes(b));
+					}
+
+					@Override
+					public String toString() {
+						return ForMultiset.this + " [" + query + "]";
+					}
+				};
+			}
+
+			if (vectors != null) {
+				final TfIdfVector vector = vectors.vector(query);
+				return new PreparedStringMetric() {
+
+					@Override
+					public float compare(String b) {
+						return vectors.compare(vector, vectors.vector(b));
+					}
+
+					@Override
+					public String toString() {
+						return ForMultiset.this + " [" + query + "]";
+					}
+				};
+			}
+
+			final Multiset<String> tokens = tokenizer.tokenizeToMultiset(query);
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return metric.compare(tokens,
+							tokenizer.tokenizeToMultiset(b));
+				}
+
+				@Override
+				public String toString() {
+					return ForMultiset.this + " " + tokens;
+				}
+			};
+		}
+
 		Metric<Multiset<String>> getMetric() {
 			return metric;
 		}
@@ -736,11 +1026,14 @@ public final class StringMetrics {
 
 	}
 
-	static final class ForMultisetWithSimplifier implements StringMetric {
+	static final class ForMultisetWithSimplifier implements BatchStringMetric,
+			PreparableStringMetric {
 
 		private final Metric<Multiset<String>> metric;
 		private final Simplifier simplifier;
 		private final Tokenizer tokenizer;
+		private final TokenHashes hashes;
+		private final TfIdfVectors vectors;
 
 		ForMultisetWithSimplifier(Metric<Multiset<String>> metric,
 				Simplifier simplifier, Tokenizer tokenizer) {
@@ -751,15 +1044,84 @@ public final class StringMetrics {
 			this.metric = metric;
 			this.simplifier = simplifier;
 			this.tokenizer = tokenizer;
+			this.hashes = TokenHashes.forMultiset(metric, tokenizer);
+			this.vectors = TfIdfVectors.forMultiset(metric, simplifier,
+					tokenizer);
 		}
 
 		@Override
 		public float compare(String a, String b) {
+			if (hashes != null) {
+				return hashes.compare(simplifier.simplify(a),
+						simplifier.simplify(b));
+			}
+			if (vectors != null) {
+				return vectors.compare(a, b);
+			}
+
 			return metric.compare(
 					tokenizer.tokenizeToMultiset(simplifier.simplify(a)),
 					tokenizer.tokenizeToMultiset(simplifier.simplify(b)));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(final String query) {
+			if (hashes != null) {
+				final long[] tokens = hashes.hashes(simplifier.simplify(query));
+				return new PreparedStringMetric() {
+
+					@Override
+					public float compare(String b) {
+						return hashes.compare(tokens,
+								hashes.hashes(simplifier.simplify(b)));
+					}
+
+					@Override
+					public String toString() {
+						return ForMultisetWithSimplifier.this + " [" + query + "]";
+					}
+				};
+			}
+
+			if (vectors != null) {
+				final TfIdfVector vector = vectors.vector(query);
+				return new PreparedStringMetric() {
+
+					@Override
+					public float compare(String b) {
+						return vectors.compare(vector, vectors.vector(b));
+					}
+
+					@Override
+					public String toString() {
+						return ForMultisetWithSimplifier.this + " [" + query + "]";
+					}
+				};
+			}
+
+			final Multiset<String> tokens = tokenizer.tokenizeToMultiset(simplifier
+					.simplify(query));
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return metric.compare(tokens,
+							tokenizer.tokenizeToMultiset(simplifier.simplify(b)));
+				}
+
+				@Override
+				public String toString() {
+					return ForMultisetWithSimplifier.this + " " + tokens;
+				}
+			};
+		}
+
 		Metric<Multiset<String>> getMetric() {
 			return metric;
 		}
@@ -779,7 +1141,8 @@ public final class StringMetrics {
 
 	}
 
-	static final class ForString implements StringMetric {
+	static final class ForString implements BatchStringMetric,
+			PreparableStringMetric {
 		private final Metric<String> metric;
 
 		ForString(Metric<String> metric) {
@@ -791,6 +1154,23 @@ public final class StringMetrics {
 			return metric.compare(a, b);
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			if (metric instanceof BatchStringMetric) {
+				((BatchStringMetric) metric).compare(query, candidates,
+						similarities);
+				return;
+			}
+
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(String query) {
+			return StringMetrics.prepare(this, metric, query);
+		}
+
 		@Override
 		public String toString() {
 			return metric.toString();
@@ -802,7 +1182,8 @@ public final class StringMetrics {
 
 	}
 
-	static final class ForStringWithSimplifier implements StringMetric {
+	static final class ForStringWithSimplifier implements BatchStringMetric,
+			PreparableStringMetric {
 
 		private final Metric<String> metric;
 
@@ -822,6 +1203,30 @@ public final class StringMetrics {
 					simplifier.simplify(b));
 		}
 
+		@Override
+		public void compare(String query, List<String> candidates,
+				float[] similarities) {
+			compareAll(prepare(query), candidates, similarities);
+		}
+
+		@Override
+		public PreparedStringMetric prepare(String query) {
+			final PreparedStringMetric prepared = StringMetrics.prepare(this,
+					metric, simplifier.simplify(query));
+			return new PreparedStringMetric() {
+
+				@Override
+				public float compare(String b) {
+					return prepared.compare(simplifier.simplify(b));
+				}
+
+				@Override
+				public String toString() {
+					return prepared.toString();
+				}
+			};
+		}
+
 		Metric<String> getMetric() {
 			return metric;
 		}
@@ -837,6 +1242,31 @@ public final class StringMetrics {
 
 	}
 
+	/*
+	 * Prepares the query with the metric when possible. Otherwise the metric
+	 * is used to compare the query with each string.
+	 */
+	private static PreparedStringMetric prepare(final StringMetric wrapper,
+			final Metric<String> metric, final String query) {
+		if (metric instanceof PreparableStringMetric) {
+			return ((PreparableStringMetric) metric).prepare(query);
+		}
+
+		checkNotNull(query);
+		return new PreparedStringMetric() {
+
+			@Override
+			public float compare(String b) {
+				return metric.compare(query, b);
+			}
+
+			@Override
+			public String toString() {
+				return wrapper + " [" + query + "]";
+			}
+		};
+	}
+
 	private StringMetrics() {
 		// Utility class.
 	}
@@ -0,0 +1,198 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.lang.Character.charCount;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+
+/**
+ * The suffix automaton of a string. The automaton accepts every substring of
+ * the string and is built in linear time. Walking another string through the
+ * automaton finds the longest common substring of both in time linear in the
+ * length of the other string.
+ * <p>
+ * The automaton is built over code points. A string of {@code m} code points
+ * has at most {@code 2m} states and {@code 3m} transitions. Transitions are
+ * kept in an open addressing table keyed by their source state and code point,
+ * and each state links its outgoing transitions so they can be copied when a
+ * state is cloned.
+ * <p>
+ * This class is immutable and thread-safe once built.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Suffix_automaton">Wikipedia -
+ *      Suffix automaton</a>
+ */
+final class SuffixAutomaton {
+
+	private static final int NONE = -1;
+
+	// Per state
+	private final int[] length;
+	private final int[] link;
+	private final int[] firstEdge;
+	private int states;
+
+	// Per transition
+	private final int[] edgeSource;
+	private final int[] edgeLabel;
+	private final int[] edgeTarget;
+	private final int[] nextEdge;
+	private int edges;
+
+	// Transition index + 1, 0 when empty
+	private final int[] table;
+
+	SuffixAutomaton(String string) {
+		final int m = max(1, CodePoints.length(string));
+
+		length = new int[2 * m];
+		link = new int[2 * m];
+		firstEdge = new int[2 * m];
+
+		edgeSource = new int[3 * m];
+		edgeLabel = new int[3 * m];
+		edgeTarget = new int[3 * m];
+		nextEdge = new int[3 * m];
+
+		// At most half full
+		table = new int[highestOneBit(3 * m) << 2];
+
+		int last = addState(0, NONE);
+		for (int i = 0; i < string.length();) {
+			final int c = string.codePointAt(i);
+			last = extend(last, c);
+			i += charCount(c);
+		}
+	}
+
+	private int addState(int len, int suffixLink) {
+		final int state = states++;
+		length[state] = len;
+		link[state] = suffixLink;
+		firstEdge[state] = NONE;
+		return state;
+	}
+
+	private int extend(int last, int c) {
+		final int current = addState(length[last] + 1, 0);
+
+		int p = last;
+		while (p != NONE && edge(p, c) == NONE) {
+			addEdge(p, c, current);
+			p = link[p];
+		}
+		if (p == NONE) {
+			return current;
+		}
+
+		final int pEdge = edge(p, c);
+		final int q = edgeTarget[pEdge];
+		if (length[p] + 1 == length[q]) {
+			link[current] = q;
+			return current;
+		}
+
+		final int clone = addState(length[p] + 1, link[q]);
+		for (int e = firstEdge[q]; e != NONE; e = nextEdge[e]) {
+			addEdge(clone, edgeLabel[e], edgeTarget[e]);
+		}
+		for (int e = pEdge; e != NONE && edgeTarget[e] == q; e = edge(p, c)) {
+			edgeTarget[e] = clone;
+			p = link[p];
+			if (p == NONE) {
+				break;
+			}
+		}
+		link[q] = clone;
+		link[current] = clone;
+		return current;
+	}
+
+	private void addEdge(int state, int c, int target) {
+		final int e = edges++;
+		edgeSource[e] = state;
+		edgeLabel[e] = c;
+		edgeTarget[e] = target;
+		nextEdge[e] = firstEdge[state];
+		firstEdge[state] = e;
+
+		int slot = slot(state, c);
+		while (table[slot] != 0) {
+			slot = (slot + 1) & (table.length - 1);
+		}
+		table[slot] = e + 1;
+	}
+
+	private int edge(int state, int c) {
+		for (int slot = slot(state, c);; slot = (slot + 1) & (table.length - 1)) {
+			final int e = table[slot] - 1;
+			if (e == NONE) {
+				return NONE;
+			}
+			if (edgeSource[e] == state && edgeLabel[e] == c) {
+				return e;
+			}
+		}
+	}
+
+	private int slot(int state, int c) {
+		// Spread the bits of the key over the table
+		final int hash = (state * 0x9E3779B9) ^ (c * 0x85EBCA6B);
+		return (hash ^ (hash >>> 16)) & (table.length - 1);
+	}
+
+	/**
+	 * Returns the length of the longest common substring of the string this
+	 * automaton was built from and another string.
+	 *
+	 * @param text
+	 *            the other string
+	 * @return the length of the longest common substring in code points
+	 */
+	int longestCommonSubstring(String text) {
+		int state = 0;
+		int current = 0;
+		int longest = 0;
+		for (int i = 0; i < text.length();) {
+			final int c = text.codePointAt(i);
+			i += charCount(c);
+
+			int e = edge(state, c);
+			while (e == NONE && state != 0) {
+				state = link[state];
+				current = length[state];
+				e = edge(state, c);
+			}
+			if (e == NONE) {
+				current = 0;
+			} else {
+				state = edgeTarget[e];
+				current++;
+				if (current > longest) {
+					longest = current;
+				}
+			}
+		}
+		return longest;
+	}
+
+}
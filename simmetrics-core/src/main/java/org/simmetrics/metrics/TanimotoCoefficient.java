@@ -64,10 +64,14 @@ public final class TanimotoCoefficient<T> implements SetMetric<T> {
 			return 0.0f;
 		}
 
+		return compare(a.size(), b.size(), intersection(a, b).size());
+	}
+
+	static float compare(int a, int b, int intersection) {
 		// a·b / (||a|| * ||b||)
 		// Dot product of two binary vectors is the intersection of two sets
 		// Magnitude of a binary vectors is square root of its size.
-		return (float) (intersection(a, b).size() / (sqrt(a.size()) * sqrt(b.size())));
+		return (float) (intersection / (sqrt(a) * sqrt(b)));
 	}
 
 	@Override
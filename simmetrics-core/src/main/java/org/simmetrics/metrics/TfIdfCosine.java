@@ -0,0 +1,135 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.min;
+
+import org.simmetrics.MultisetDistance;
+import org.simmetrics.MultisetMetric;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Calculates the cosine similarity over two multisets weighted by TF-IDF. Like
+ * the {@link CosineSimilarity} but the count of each token is multiplied by
+ * its inverse document frequency in a corpus. Tokens that occur in many
+ * documents contribute little to the similarity.
+ * <p>
+ * <code>
+ * weight(token, a) = count(token, a) * idf(token)
+ * <br>
+ * similarity(a,b) = a·b / (||a|| * ||b||)
+ * <br>
+ * distance(a,b) = 1 - similarity(a,b)
+ * </code>
+ * <p>
+ * Composite metrics created by the {@code StringMetricBuilder} cache the
+ * normalized vector of each string they compare. Comparing two cached strings
+ * is then a single sparse dot product. Each composite metric holds its own
+ * cache. The cache is bounded by the total number of terms in the cached
+ * vectors, 65536 by default, and evicts rarely used vectors first. A cache
+ * size of zero disables the cache, for example when the tokens are already
+ * cached by the builder.
+ * <p>
+ * This class is immutable and thread-safe.
+ * 
+ * @see CorpusStatistics
+ * @see <a href="https://en.wikipedia.org/wiki/Tf%E2%80%93idf">Wikipedia
+ *      tf-idf</a>
+ */
+public final class TfIdfCosine implements MultisetMetric<String>,
+		MultisetDistance<String> {
+
+	private final CorpusStatistics statistics;
+	private final int cacheSize;
+
+	/**
+	 * Constructs a TF-IDF cosine similarity. Composite metrics cache vectors
+	 * of up to 65536 terms in total.
+	 * 
+	 * @param statistics
+	 *            the corpus to weigh tokens by
+	 */
+	public TfIdfCosine(CorpusStatistics statistics) {
+		this(statistics, TfIdfVectors.DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Constructs a TF-IDF cosine similarity.
+	 * 
+	 * @param statistics
+	 *            the corpus to weigh tokens by
+	 * @param cacheSize
+	 *            the maximum number of terms in the vectors cached by
+	 *            composite metrics, 0 to disable the cache
+	 */
+	public TfIdfCosine(CorpusStatistics statistics, int cacheSize) {
+		checkNotNull(statistics);
+		checkArgument(cacheSize >= 0, "cacheSize may not be negative");
+
+		this.statistics = statistics;
+		this.cacheSize = cacheSize;
+	}
+
+	@Override
+	public float compare(Multiset<String> a, Multiset<String> b) {
+		checkArgument(!a.contains(null), "a may not contain null");
+		checkArgument(!b.contains(null), "b may not contain null");
+
+		return compare(vector(a), vector(b));
+	}
+
+	int getCacheSize() {
+		return cacheSize;
+	}
+
+	TfIdfVector vector(Multiset<String> tokens) {
+		return TfIdfVector.of(tokens, statistics);
+	}
+
+	float compare(TfIdfVector a, TfIdfVector b) {
+		if (a.isEmpty() && b.isEmpty()) {
+			return 1.0f;
+		}
+
+		if (a.isEmpty() || b.isEmpty()) {
+			return 0.0f;
+		}
+
+		// Rounding may push the product of equal vectors past one
+		return min(1.0f, a.dot(b));
+	}
+
+	@Override
+	public float distance(Multiset<String> a, Multiset<String> b) {
+		return 1.0f - compare(a, b);
+	}
+
+	@Override
+	public String toString() {
+		return "TfIdfCosine [statistics=" + statistics + ", cacheSize="
+				+ cacheSize + "]";
+	}
+
+}
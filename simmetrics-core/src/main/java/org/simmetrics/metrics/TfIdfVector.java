@@ -0,0 +1,123 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.lang.Math.sqrt;
+import static java.util.Arrays.binarySearch;
+import static java.util.Arrays.sort;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * A sparse vector of TF-IDF weights with a length of one. The terms are sorted
+ * so the dot product of two vectors is computed by merging them.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class TfIdfVector {
+
+	final String[] terms;
+	final float[] weights;
+
+	private TfIdfVector(String[] terms, float[] weights) {
+		this.terms = terms;
+		this.weights = weights;
+	}
+
+	/**
+	 * Creates the normalized vector of a multiset of tokens. The weight of a
+	 * token is its count times its inverse document frequency.
+	 *
+	 * @param tokens
+	 *            the tokens
+	 * @param statistics
+	 *            corpus to weigh tokens by
+	 * @return a vector with a length of one, or no terms when tokens is empty
+	 */
+	static TfIdfVector of(Multiset<String> tokens, CorpusStatistics statistics) {
+		final String[] terms = tokens.elementSet().toArray(
+				new String[tokens.elementSet().size()]);
+		sort(terms);
+
+		final float[] weights = new float[terms.length];
+		double norm = 0.0;
+		for (int i = 0; i < terms.length; i++) {
+			final float weight = tokens.count(terms[i])
+					* statistics.idf(terms[i]);
+			weights[i] = weight;
+			norm += (double) weight * weight;
+		}
+
+		final float length = (float) sqrt(norm);
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] /= length;
+		}
+		return new TfIdfVector(terms, weights);
+	}
+
+	boolean isEmpty() {
+		return terms.length == 0;
+	}
+
+	/**
+	 * Returns the weight of a term or 0 when the term is not in the vector.
+	 *
+	 * @param term
+	 *            a term
+	 * @return the weight of the term
+	 */
+	float weight(String term) {
+		final int i = binarySearch(terms, term);
+		return i < 0 ? 0.0f : weights[i];
+	}
+
+	/**
+	 * Returns the dot product of two vectors. Because both have a length of
+	 * one this is the cosine of the angle between them.
+	 *
+	 * @param other
+	 *            another vector
+	 * @return the dot product
+	 */
+	float dot(TfIdfVector other) {
+		final String[] a = terms;
+		final String[] b = other.terms;
+		float dot = 0.0f;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			final int c = a[i].compareTo(b[j]);
+			if (c < 0) {
+				i++;
+			} else if (c > 0) {
+				j++;
+			} else {
+				dot += weights[i++] * other.weights[j++];
+			}
+		}
+		return dot;
+	}
+
+	int size() {
+		return terms.length;
+	}
+
+}
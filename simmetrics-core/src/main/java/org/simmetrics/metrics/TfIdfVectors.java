@@ -0,0 +1,144 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+package org.simmetrics.metrics;
+
+import org.simmetrics.Metric;
+import org.simmetrics.builders.StringCache;
+import org.simmetrics.simplifiers.Simplifier;
+import org.simmetrics.tokenizers.Tokenizer;
+
+import com.google.common.base.Function;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Multiset;
+
+/**
+ * Compares strings with a TF-IDF metric over cached vectors. The normalized
+ * vector of each string is computed once and kept in a cache bounded by the
+ * cache size of the metric, so comparing two cached strings does not tokenize
+ * either. A cache size of zero disables the cache.
+ * <p>
+ * This class is thread-safe.
+ */
+abstract class TfIdfVectors {
+
+	/**
+	 * Default maximum number of terms in the cached vectors.
+	 */
+	static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+	private static final Weigher<String, TfIdfVector> WEIGHER =
+			new Weigher<String, TfIdfVector>() {
+				@Override
+				public int weigh(String key, TfIdfVector value) {
+					return value.size() + 1;
+				}
+			};
+
+	/**
+	 * Returns a cached equivalent of the multiset metric or null when the
+	 * metric is not a TF-IDF metric.
+	 * 
+	 * @param metric
+	 *            a multiset metric
+	 * @param simplifier
+	 *            a simplifier or null
+	 * @param tokenizer
+	 *            a tokenizer
+	 * @return a cached equivalent or null
+	 */
+	static TfIdfVectors forMultiset(Metric<Multiset<String>> metric,
+			Simplifier simplifier, Tokenizer tokenizer) {
+		if (metric instanceof TfIdfCosine) {
+			final TfIdfCosine cosine = (TfIdfCosine) metric;
+			return new TfIdfVectors(simplifier, tokenizer,
+					cosine.getCacheSize()) {
+				@Override
+				TfIdfVector vector(Multiset<String> tokens) {
+					return cosine.vector(tokens);
+				}
+
+				@Override
+				float compare(TfIdfVector a, TfIdfVector b) {
+					return cosine.compare(a, b);
+				}
+			};
+		} else if (metric instanceof SoftTfIdf) {
+			final SoftTfIdf soft = (SoftTfIdf) metric;
+			return new TfIdfVectors(simplifier, tokenizer,
+					soft.getCacheSize()) {
+				@Override
+				TfIdfVector vector(Multiset<String> tokens) {
+					return soft.vector(tokens);
+				}
+
+				@Override
+				float compare(TfIdfVector a, TfIdfVector b) {
+					return soft.compare(a, b);
+				}
+			};
+		}
+		return null;
+	}
+
+	private final StringCache<TfIdfVector> cache;
+	private final Simplifier simplifier;
+	private final Tokenizer tokenizer;
+	private final Function<String, TfIdfVector> loader =
+			new Function<String, TfIdfVector>() {
+				@Override
+				public TfIdfVector apply(String string) {
+					final String simplified = simplifier == null ? string
+							: simplifier.simplify(string);
+					return vector(tokenizer.tokenizeToMultiset(simplified));
+				}
+			};
+
+	TfIdfVectors(Simplifier simplifier, Tokenizer tokenizer, int cacheSize) {
+		this.simplifier = simplifier;
+		this.tokenizer = tokenizer;
+		this.cache = cacheSize == 0 ? null : StringCache.<TfIdfVector> create(
+				cacheSize, WEIGHER);
+	}
+
+	abstract TfIdfVector vector(Multiset<String> tokens);
+
+	abstract float compare(TfIdfVector a, TfIdfVector b);
+
+	/**
+	 * Returns the vector of a string, from the cache when possible.
+	 * 
+	 * @param string
+	 *            the string to vectorize
+	 * @return the vector of the string
+	 */
+	TfIdfVector vector(String string) {
+		if (cache == null) {
+			return loader.apply(string);
+		}
+		return cache.getOrLoad(string, loader);
+	}
+
+	float compare(String a, String b) {
+		return compare(vector(a), vector(b));
+	}
+
+}
@@ -0,0 +1,362 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.util.Arrays.sort;
+
+import java.util.Set;
+
+import org.simmetrics.Metric;
+import org.simmetrics.tokenizers.HashingTokenizer;
+import org.simmetrics.tokenizers.Tokenizer;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Compares strings with a set or multiset metric over the hashes of their
+ * tokens. The hashes are sorted into primitive arrays and intersected by
+ * merging. This avoids creating a string for each token and a collection for
+ * each string.
+ * <p>
+ * The similarity is equal to the similarity of the metric over the tokens
+ * provided distinct tokens have distinct hashes.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+abstract class TokenHashes {
+
+	/**
+	 * Returns a hashed equivalent of the set metric or null when either the
+	 * metric or the tokenizer is not supported.
+	 * 
+	 * @param metric
+	 *            a set metric
+	 * @param tokenizer
+	 *            a tokenizer
+	 * @return a hashed equivalent or null
+	 */
+	static TokenHashes forSet(Metric<Set<String>> metric, Tokenizer tokenizer) {
+		if (!(tokenizer instanceof HashingTokenizer)) {
+			return null;
+		}
+
+		final HashingTokenizer hashing = (HashingTokenizer) tokenizer;
+		if (metric instanceof Jaccard) {
+			return new ForSet(hashing) {
+				@Override
+				float compare(int a, int b, int intersection) {
+					return Jaccard.compare(a, b, intersection);
+				}
+			};
+		} else if (metric instanceof Dice) {
+			return new ForSet(hashing) {
+				@Override
+				float compare(int a, int b, int intersection) {
+					return Dice.compare(a, b, intersection);
+				}
+			};
+		} else if (metric instanceof OverlapCoefficient) {
+			return new ForSet(hashing) {
+				@Override
+				float compare(int a, int b, int intersection) {
+					return OverlapCoefficient.compare(a, b, intersection);
+				}
+			};
+		} else if (metric instanceof TanimotoCoefficient) {
+			return new ForSet(hashing) {
+				@Override
+				float compare(int a, int b, int intersection) {
+					return TanimotoCoefficient.compare(a, b, intersection);
+				}
+			};
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a hashed equivalent of the multiset metric or null when either
+	 * the metric or the tokenizer is not supported.
+	 * 
+	 * @param metric
+	 *            a multiset metric
+	 * @param tokenizer
+	 *            a tokenizer
+	 * @return a hashed equivalent or null
+	 */
+	static TokenHashes forMultiset(Metric<Multiset<String>> metric,
+			Tokenizer tokenizer) {
+		if (!(tokenizer instanceof HashingTokenizer)) {
+			return null;
+		}
+
+		final HashingTokenizer hashing = (HashingTokenizer) tokenizer;
+		if (metric instanceof CosineSimilarity) {
+			return new ForMultiset(hashing) {
+				@Override
+				float compare(Counts counts) {
+					return CosineSimilarity.compare(counts.dotProduct,
+							counts.magnitudeA, counts.magnitudeB);
+				}
+			};
+		} else if (metric instanceof SimonWhite) {
+			return new ForMultiset(hashing) {
+				@Override
+				float compare(Counts counts) {
+					return SimonWhite.compare(counts.sizeA, counts.sizeB,
+							counts.intersection);
+				}
+			};
+		} else if (metric instanceof GeneralizedJaccard) {
+			return new ForMultiset(hashing) {
+				@Override
+				float compare(Counts counts) {
+					return GeneralizedJaccard.compare(counts.sizeA,
+							counts.sizeB, counts.intersection);
+				}
+			};
+		} else if (metric instanceof GeneralizedOverlapCoefficient) {
+			return new ForMultiset(hashing) {
+				@Override
+				float compare(Counts counts) {
+					return GeneralizedOverlapCoefficient.compare(counts.sizeA,
+							counts.sizeB, counts.intersection);
+				}
+			};
+		} else if (metric instanceof BlockDistance) {
+			return new ForMultiset(hashing) {
+				@Override
+				float compare(Counts counts) {
+					return BlockDistance.compare(counts.sizeA, counts.sizeB,
+							counts.blockDistance);
+				}
+			};
+		} else if (metric instanceof EuclideanDistance) {
+			return new ForMultiset(hashing) {
+				@Override
+				float compareOneEmpty(long[] a, long[] b) {
+					// Unlike the others the distance to an empty multiset
+					// depends on the counts of the tokens.
+					return compareHashes(a, b);
+				}
+
+				@Override
+				float compare(Counts counts) {
+					return EuclideanDistance.compare(counts.sizeA,
+							counts.sizeB,
+							(float) sqrt(counts.squaredDistance));
+				}
+			};
+		}
+		return null;
+	}
+
+	private final HashingTokenizer tokenizer;
+
+	TokenHashes(HashingTokenizer tokenizer) {
+		this.tokenizer = tokenizer;
+	}
+
+	/*
+	 * Compares two sorted arrays of hashes. Only one may be empty.
+	 */
+	abstract float compareHashes(long[] a, long[] b);
+
+	/**
+	 * Returns the sorted hashes of the tokens in a string.
+	 * 
+	 * @param string
+	 *            the string to tokenize
+	 * @return the sorted hashes of the tokens
+	 */
+	long[] hashes(String string) {
+		final long[] hashes = tokenizer.tokenizeToHashes(string);
+		sort(hashes);
+		return hashes;
+	}
+
+	/**
+	 * Compares the sorted hashes of two strings.
+	 * 
+	 * @param a
+	 *            the sorted hashes of the first string
+	 * @param b
+	 *            the sorted hashes of the second string
+	 * @return the similarity of the tokens of both strings
+	 */
+	float compare(long[] a, long[] b) {
+		// Same as the set and multiset metrics
+		if (a.length == 0 && b.length == 0) {
+			return 1.0f;
+		}
+
+		if (a.length == 0 || b.length == 0) {
+			return compareOneEmpty(a, b);
+		}
+
+		return compareHashes(a, b);
+	}
+
+	/*
+	 * Compares two sorted arrays of hashes. Exactly one is empty.
+	 */
+	float compareOneEmpty(long[] a, long[] b) {
+		return 0.0f;
+	}
+
+	float compare(String a, String b) {
+		return compare(hashes(a), hashes(b));
+	}
+
+	private static abstract class ForSet extends TokenHashes {
+
+		ForSet(HashingTokenizer tokenizer) {
+			super(tokenizer);
+		}
+
+		abstract float compare(int a, int b, int intersection);
+
+		@Override
+		float compareHashes(long[] a, long[] b) {
+			int sizeA = 0;
+			int sizeB = 0;
+			int intersection = 0;
+
+			// Merge the sorted arrays, counting each run of equal hashes once
+			int i = 0;
+			int j = 0;
+			while (i < a.length && j < b.length) {
+				if (a[i] < b[j]) {
+					sizeA++;
+					i = skip(a, i);
+				} else if (a[i] > b[j]) {
+					sizeB++;
+					j = skip(b, j);
+				} else {
+					sizeA++;
+					sizeB++;
+					intersection++;
+					i = skip(a, i);
+					j = skip(b, j);
+				}
+			}
+			for (; i < a.length; i = skip(a, i)) {
+				sizeA++;
+			}
+			for (; j < b.length; j = skip(b, j)) {
+				sizeB++;
+			}
+
+			return compare(sizeA, sizeB, intersection);
+		}
+	}
+
+	/*
+	 * Token counts of two multisets. The floats are sums of integers and exact
+	 * as long as they remain below 2^24.
+	 */
+	static final class Counts {
+		int sizeA;
+		int sizeB;
+		int intersection;
+		float dotProduct;
+		float magnitudeA;
+		float magnitudeB;
+		float blockDistance;
+		float squaredDistance;
+
+		void add(int aCount, int bCount) {
+			sizeA += aCount;
+			sizeB += bCount;
+			intersection += min(aCount, bCount);
+
+			final float a = aCount;
+			final float b = bCount;
+			dotProduct += a * b;
+			magnitudeA += a * a;
+			magnitudeB += b * b;
+			blockDistance += abs(a - b);
+			squaredDistance += (a - b) * (a - b);
+		}
+	}
+
+	private static abstract class ForMultiset extends TokenHashes {
+
+		ForMultiset(HashingTokenizer tokenizer) {
+			super(tokenizer);
+		}
+
+		abstract float compare(Counts counts);
+
+		@Override
+		float compareHashes(long[] a, long[] b) {
+			final Counts counts = new Counts();
+
+			// Merge the sorted arrays. The length of a run of equal hashes is
+			// the count of the token.
+			int i = 0;
+			int j = 0;
+			while (i < a.length && j < b.length) {
+				if (a[i] < b[j]) {
+					final int next = skip(a, i);
+					counts.add(next - i, 0);
+					i = next;
+				} else if (a[i] > b[j]) {
+					final int next = skip(b, j);
+					counts.add(0, next - j);
+					j = next;
+				} else {
+					final int nextA = skip(a, i);
+					final int nextB = skip(b, j);
+					counts.add(nextA - i, nextB - j);
+					i = nextA;
+					j = nextB;
+				}
+			}
+			while (i < a.length) {
+				final int next = skip(a, i);
+				counts.add(next - i, 0);
+				i = next;
+			}
+			while (j < b.length) {
+				final int next = skip(b, j);
+				counts.add(0, next - j);
+				j = next;
+			}
+
+			return compare(counts);
+		}
+	}
+
+	/*
+	 * Returns the index of the first hash after the run of equal hashes at i.
+	 */
+	static int skip(long[] hashes, int i) {
+		final long hash = hashes[i];
+		do {
+			i++;
+		} while (i < hashes.length && hashes[i] == hash);
+		return i;
+	}
+
+}
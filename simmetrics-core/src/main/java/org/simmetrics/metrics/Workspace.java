@@ -0,0 +1,233 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.fill;
+
+/**
+ * Scratch buffers for the dynamic programming metrics. Reusing buffers avoids
+ * allocating new arrays for every comparison.
+ * <p>
+ * A workspace is acquired from the current thread and must be released when
+ * the computation is done. When the workspace of the current thread is already
+ * in use, e.g. because a substitution function calls another metric, a
+ * temporary workspace is provided instead.
+ * 
+ * <pre>
+ * <code>
+ * final Workspace workspace = Workspace.acquire();
+ * try {
+ *     float[] v0 = workspace.floats(0, length);
+ *     ...
+ * } finally {
+ *     workspace.release();
+ * }
+ * </code>
+ * </pre>
+ * <p>
+ * Buffers grow to the next power of two of the requested length. Buffers
+ * larger then {@value #MAX_RETAINED_LENGTH} elements are not retained so a
+ * single long input does not pin memory for the lifetime of a thread.
+ * Buffers may be longer then requested and contain data from previous
+ * computations.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class Workspace {
+
+	static final int MAX_RETAINED_LENGTH = 1 << 16;
+
+	private static final int BUFFERS = 3;
+
+	private static final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace(true);
+		}
+	};
+
+	private final boolean retain;
+	private boolean inUse;
+
+	private final float[][] floats = new float[BUFFERS][];
+	private final int[][] ints = new int[BUFFERS][];
+	private final long[][] longs = new long[BUFFERS][];
+	private final char[][] chars = new char[BUFFERS][];
+	private final boolean[][] booleans = new boolean[BUFFERS][];
+	private final CharBitmasks[] bitmasks = new CharBitmasks[BUFFERS];
+
+	private Workspace(boolean retain) {
+		this.retain = retain;
+	}
+
+	/**
+	 * Acquires the workspace of the current thread. If that workspace is in use
+	 * a temporary workspace is returned.
+	 * 
+	 * @return a workspace
+	 */
+	static Workspace acquire() {
+		final Workspace workspace = workspaces.get();
+		if (workspace.inUse) {
+			return new Workspace(false);
+		}
+		workspace.inUse = true;
+		return workspace;
+	}
+
+	/**
+	 * Releases this workspace for reuse by the current thread.
+	 */
+	void release() {
+		inUse = false;
+	}
+
+	private boolean retain(int length) {
+		return retain && length <= MAX_RETAINED_LENGTH;
+	}
+
+	private static int capacity(int length) {
+		// Grow to the next power of two to amortize growth
+		return length <= 1 ? 1 : Integer.highestOneBit(length - 1) << 1;
+	}
+
+	/**
+	 * Returns a float buffer of at least {@code length} elements.
+	 * 
+	 * @param buffer
+	 *            index of the buffer, less then {@value #BUFFERS}
+	 * @param length
+	 *            minimum length of the buffer
+	 * @return a float buffer
+	 */
+	float[] floats(int buffer, int length) {
+		final float[] current = floats[buffer];
+		if (current != null && current.length >= length) {
+			return current;
+		}
+		if (!retain(length)) {
+			return new float[length];
+		}
+		return floats[buffer] = new float[capacity(length)];
+	}
+
+	/**
+	 * Returns an int buffer of at least {@code length} elements.
+	 * 
+	 * @param buffer
+	 *            index of the buffer, less then {@value #BUFFERS}
+	 * @param length
+	 *            minimum length of the buffer
+	 * @return an int buffer
+	 */
+	int[] ints(int buffer, int length) {
+		final int[] current = ints[buffer];
+		if (current != null && current.length >= length) {
+			return current;
+		}
+		if (!retain(length)) {
+			return new int[length];
+		}
+		return ints[buffer] = new int[capacity(length)];
+	}
+
+	/**
+	 * Returns a long buffer of at least {@code length} elements.
+	 * 
+	 * @param buffer
+	 *            index of the buffer, less then {@value #BUFFERS}
+	 * @param length
+	 *            minimum length of the buffer
+	 * @return a long buffer
+	 */
+	long[] longs(int buffer, int length) {
+		final long[] current = longs[buffer];
+		if (current != null && current.length >= length) {
+			return current;
+		}
+		if (!retain(length)) {
+			return new long[length];
+		}
+		return longs[buffer] = new long[capacity(length)];
+	}
+
+	/**
+	 * Returns a char buffer of at least {@code length} elements.
+	 * 
+	 * @param buffer
+	 *            index of the buffer, less then {@value #BUFFERS}
+	 * @param length
+	 *            minimum length of the buffer
+	 * @return a char buffer
+	 */
+	char[] chars(int buffer, int length) {
+		final char[] current = chars[buffer];
+		if (current != null && current.length >= length) {
+			return current;
+		}
+		if (!retain(length)) {
+			return new char[length];
+		}
+		return chars[buffer] = new char[capacity(length)];
+	}
+
+	/**
+	 * Returns a boolean buffer of at least {@code length} elements. Unlike the
+	 * other buffers the first {@code length} elements are cleared.
+	 * 
+	 * @param buffer
+	 *            index of the buffer, less then {@value #BUFFERS}
+	 * @param length
+	 *            minimum length of the buffer
+	 * @return a cleared boolean buffer
+	 */
+	boolean[] booleans(int buffer, int length) {
+		final boolean[] current = booleans[buffer];
+		if (current != null && current.length >= length) {
+			fill(current, 0, length, false);
+			return current;
+		}
+		if (!retain(length)) {
+			return new boolean[length];
+		}
+		return booleans[buffer] = new boolean[capacity(length)];
+	}
+
+	/**
+	 * Returns the bitmasks of the characters in {@code pattern}.
+	 * 
+	 * @param buffer
+	 *            index of the buffer, less then {@value #BUFFERS}
+	 * @param pattern
+	 *            the pattern to create bitmasks for
+	 * @return the bitmasks of the pattern
+	 */
+	CharBitmasks bitmasks(int buffer, CharSequence pattern) {
+		if (!retain(pattern.length())) {
+			return new CharBitmasks(pattern);
+		}
+		if (bitmasks[buffer] == null) {
+			bitmasks[buffer] = new CharBitmasks();
+		}
+		return bitmasks[buffer].set(pattern);
+	}
+
+}
@@ -72,6 +72,24 @@ public final class AffineGap implements Gap {
 		return Float.NEGATIVE_INFINITY;
 	}
 
+	/**
+	 * Returns the penalty for creating a gap.
+	 * 
+	 * @return the penalty for creating a gap
+	 */
+	public float getStartValue() {
+		return startValue;
+	}
+
+	/**
+	 * Returns the penalty for each entry in a gap after the first.
+	 * 
+	 * @return the penalty for extending a gap
+	 */
+	public float getGapValue() {
+		return gapValue;
+	}
+
 	@Override
 	public String toString() {
 		return "AffineGap [startValue=" + startValue + ", gapValue=" + gapValue
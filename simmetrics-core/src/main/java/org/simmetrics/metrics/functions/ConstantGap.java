@@ -65,6 +65,15 @@ public final class ConstantGap implements Gap {
 		return gapValue;
 	}
 
+	/**
+	 * Returns the penalty for a gap.
+	 * 
+	 * @return the penalty for a gap
+	 */
+	public float getGapValue() {
+		return gapValue;
+	}
+
 	@Override
 	public String toString() {
 		return "ConstantGap [gapValue=" + gapValue + "]";
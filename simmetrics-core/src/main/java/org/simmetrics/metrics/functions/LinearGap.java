@@ -66,6 +66,15 @@ public final class LinearGap implements Gap {
 		return Float.NEGATIVE_INFINITY;
 	}
 
+	/**
+	 * Returns the penalty for each entry in a gap after the first.
+	 * 
+	 * @return the penalty for extending a gap
+	 */
+	public float getGapValue() {
+		return gapValue;
+	}
+
 	@Override
 	public String toString() {
 		return "LinearGap [gapValue=" + gapValue + "]";
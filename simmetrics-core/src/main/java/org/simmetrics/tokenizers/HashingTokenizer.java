@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.tokenizers;
+
+/**
+ * A tokenizer that can represent its tokens as 64-bit hashes. Set and multiset
+ * metrics can compare the hashes of two strings without creating a string for
+ * each token or a collection for each string.
+ * <p>
+ * Equal tokens must have equal hashes. Distinct tokens should have distinct
+ * hashes. When distinct tokens collide they are treated as equal.
+ */
+public interface HashingTokenizer extends Tokenizer {
+
+	/**
+	 * Return tokenized version of a string as the hashes of its tokens. The
+	 * hashes are in the same order as the tokens in
+	 * {@link #tokenizeToList(String)}.
+	 * 
+	 * @param input
+	 *            input string to tokenize
+	 * @return hashes of the tokens
+	 */
+	public long[] tokenizeToHashes(String input);
+
+}
@@ -0,0 +1,183 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.tokenizers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.copyOf;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps tokens to dense integer ids. The first token added is assigned
+ * {@code 0}, the next {@code 1} and so on. Ids are never reassigned, so a
+ * token and its id can be used interchangeably for as long as the dictionary
+ * exists.
+ * <p>
+ * A dictionary may be bounded. Once a bounded dictionary is full new tokens
+ * are not assigned an id.
+ * <p>
+ * Looking up a token or id does not block. Adding a token does.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Tokenizers#interning(Tokenizer, TokenDictionary)
+ */
+public final class TokenDictionary {
+
+	/**
+	 * Returned by {@link #id(String)} when a token could not be added.
+	 */
+	public static final int ABSENT = -1;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Creates an unbounded dictionary.
+	 *
+	 * @return a new dictionary
+	 */
+	public static TokenDictionary create() {
+		return new TokenDictionary(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a dictionary that holds at most {@code maximumSize} tokens.
+	 *
+	 * @param maximumSize
+	 *            the maximum number of tokens
+	 * @return a new dictionary
+	 *
+	 * @throws IllegalArgumentException
+	 *             when maximumSize is negative
+	 */
+	public static TokenDictionary create(int maximumSize) {
+		checkArgument(maximumSize >= 0, "maximumSize may not be negative");
+		return new TokenDictionary(maximumSize);
+	}
+
+	private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+	private final int maximumSize;
+
+	private volatile String[] tokens;
+
+	// Guarded by this
+	private int size;
+
+	private TokenDictionary(int maximumSize) {
+		this.maximumSize = maximumSize;
+		this.tokens = new String[min(INITIAL_CAPACITY, maximumSize)];
+	}
+
+	/**
+	 * Returns the id of a token. Tokens not yet in the dictionary are added.
+	 *
+	 * @param token
+	 *            the token to look up
+	 * @return the id of the token or {@link #ABSENT} when the dictionary is
+	 *         full
+	 */
+	public int id(String token) {
+		final Integer id = ids.get(token);
+		if (id != null) {
+			return id;
+		}
+		return add(token);
+	}
+
+	/**
+	 * Returns the id of a token without adding it.
+	 *
+	 * @param token
+	 *            the token to look up
+	 * @return the id of the token or {@link #ABSENT} when the token is not in
+	 *         the dictionary
+	 */
+	public int find(String token) {
+		final Integer id = ids.get(checkNotNull(token));
+		return id == null ? ABSENT : id;
+	}
+
+	private synchronized int add(String token) {
+		final Integer existing = ids.get(token);
+		if (existing != null) {
+			return existing;
+		}
+		if (size == maximumSize) {
+			return ABSENT;
+		}
+
+		final int id = size;
+		String[] tokens = this.tokens;
+		if (id == tokens.length) {
+			tokens = copyOf(tokens, (int) min(maximumSize, max(
+					INITIAL_CAPACITY, 2L * tokens.length)));
+		}
+		tokens[id] = token;
+		// Publish the token before its id becomes visible
+		this.tokens = tokens;
+		ids.put(token, id);
+		size++;
+		return id;
+	}
+
+	/**
+	 * Returns the token with the given id. The same instance is returned for
+	 * each call.
+	 *
+	 * @param id
+	 *            an id returned by this dictionary
+	 * @return the token with the id
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             when the id was not assigned by this dictionary
+	 */
+	public String token(int id) {
+		final String[] tokens = this.tokens;
+		checkElementIndex(id, tokens.length);
+		final String token = tokens[id];
+		if (token == null) {
+			throw new IndexOutOfBoundsException("id " + id + " is not assigned");
+		}
+		return token;
+	}
+
+	/**
+	 * Returns the number of tokens in the dictionary.
+	 *
+	 * @return the number of tokens
+	 */
+	public int size() {
+		return ids.size();
+	}
+
+	@Override
+	public String toString() {
+		return "TokenDictionary [size=" + size() + ", maximumSize="
+				+ maximumSize + "]";
+	}
+
+}
@@ -21,6 +21,7 @@ package org.simmetrics.tokenizers;
 
 import static com.google.common.base.Functions.compose;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Strings.repeat;
@@ -32,10 +33,16 @@ import static java.util.Arrays.copyOfRange;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 
+import java.util.AbstractList;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -46,10 +53,13 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Multisets;
 import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
 
 /**
  * Construct simple tokenizers, chains multiple tokenizers into a single
@@ -186,6 +196,55 @@ public final class Tokenizers {
 		return new Whitespace();
 	}
 	
+	/**
+	 * Constructs a new hashing tokenizer. The tokenizer returns the same tokens
+	 * as its delegate and can also return their 64-bit hashes. Set and multiset
+	 * metrics compare the hashes rather then the tokens. Tokens of up to three
+	 * characters never collide. Longer tokens that collide are treated as
+	 * equal.
+	 * <p>
+	 * If the tokenizer is already a hashing tokenizer, that tokenizer is
+	 * returned.
+	 * 
+	 * @param tokenizer
+	 *            delegate tokenizer
+	 * @return a new hashing tokenizer
+	 */
+	public static HashingTokenizer hashing(Tokenizer tokenizer) {
+		checkNotNull(tokenizer);
+
+		if (tokenizer instanceof HashingTokenizer) {
+			return (HashingTokenizer) tokenizer;
+		}
+
+		return new Hashing(tokenizer);
+	}
+
+	/**
+	 * Constructs a new interning tokenizer. The tokenizer returns the same
+	 * tokens as its delegate but stores them as the ids of a token dictionary.
+	 * Tokens are shared between all collections returned by the tokenizer.
+	 * Lists and sets hold only an array of ids. This reduces the memory used
+	 * by cached tokens considerably.
+	 * <p>
+	 * Set and multiset metrics compare the ids of the tokens rather then the
+	 * tokens. Tokens that do not fit in a bounded dictionary are kept as is
+	 * and compared by their hashes.
+	 * 
+	 * @param tokenizer
+	 *            delegate tokenizer
+	 * @param dictionary
+	 *            dictionary to store tokens in, may be shared between
+	 *            tokenizers
+	 * @return a new interning tokenizer
+	 */
+	public static HashingTokenizer interning(Tokenizer tokenizer,
+			TokenDictionary dictionary) {
+		checkNotNull(tokenizer);
+		checkNotNull(dictionary);
+		return new Interning(tokenizer, dictionary);
+	}
+
 	/**
 	 * Constructs a new transforming tokenizer. After tokenization, all tokens
 	 * are transformed by the function.
@@ -515,6 +574,242 @@ public final class Tokenizers {
 
 	}
 
+	static final class Hashing implements HashingTokenizer {
+
+		private final Tokenizer tokenizer;
+
+		Hashing(Tokenizer tokenizer) {
+			this.tokenizer = tokenizer;
+		}
+
+		Tokenizer getTokenizer() {
+			return tokenizer;
+		}
+
+		@Override
+		public List<String> tokenizeToList(String input) {
+			return tokenizer.tokenizeToList(input);
+		}
+
+		@Override
+		public Set<String> tokenizeToSet(String input) {
+			return tokenizer.tokenizeToSet(input);
+		}
+
+		@Override
+		public Multiset<String> tokenizeToMultiset(String input) {
+			return tokenizer.tokenizeToMultiset(input);
+		}
+
+		@Override
+		public long[] tokenizeToHashes(String input) {
+			final List<String> tokens = tokenizer.tokenizeToList(input);
+			final long[] hashes = new long[tokens.size()];
+			for (int i = 0; i < hashes.length; i++) {
+				hashes[i] = hash(tokens.get(i));
+			}
+			return hashes;
+		}
+
+		/*
+		 * Tokens of at most three characters are packed into a long behind a
+		 * sentinel bit and never collide. Longer tokens are hashed.
+		 */
+		static long hash(String token) {
+			long hash = 1;
+			if (token.length() <= 3) {
+				for (int i = 0; i < token.length(); i++) {
+					hash = (hash << 16) | token.charAt(i);
+				}
+				return hash;
+			}
+
+			for (int i = 0; i < token.length(); i++) {
+				hash = (hash ^ token.charAt(i)) * 0x9E3779B97F4A7C15L;
+				hash ^= hash >>> 29;
+			}
+			return mix(hash);
+		}
+
+		@Override
+		public String toString() {
+			return "Hashing [" + tokenizer + "]";
+		}
+	}
+
+	static final class Interning implements HashingTokenizer {
+
+		// Tokens without an id are hashed. The hashes are kept apart from
+		// the ids, which are never negative.
+		private static final long NOT_INTERNED = Long.MIN_VALUE;
+
+		private final Tokenizer tokenizer;
+		private final TokenDictionary dictionary;
+
+		Interning(Tokenizer tokenizer, TokenDictionary dictionary) {
+			this.tokenizer = tokenizer;
+			this.dictionary = dictionary;
+		}
+
+		Tokenizer getTokenizer() {
+			return tokenizer;
+		}
+
+		TokenDictionary getDictionary() {
+			return dictionary;
+		}
+
+		@Override
+		public List<String> tokenizeToList(String input) {
+			final List<String> tokens = tokenizer.tokenizeToList(input);
+			final int[] ids = ids(tokens);
+			if (ids == null) {
+				return intern(tokens);
+			}
+			return new TokenList(dictionary, ids);
+		}
+
+		@Override
+		public Set<String> tokenizeToSet(String input) {
+			final Set<String> tokens = tokenizer.tokenizeToSet(input);
+			final int[] ids = ids(tokens);
+			if (ids == null) {
+				return ImmutableSet.copyOf(intern(tokens));
+			}
+			Arrays.sort(ids);
+			return new TokenSet(dictionary, ids);
+		}
+
+		@Override
+		public Multiset<String> tokenizeToMultiset(String input) {
+			return ImmutableMultiset.copyOf(intern(tokenizer
+					.tokenizeToList(input)));
+		}
+
+		@Override
+		public long[] tokenizeToHashes(String input) {
+			final List<String> tokens = tokenizer.tokenizeToList(input);
+			final long[] hashes = new long[tokens.size()];
+			for (int i = 0; i < hashes.length; i++) {
+				final String token = tokens.get(i);
+				final int id = dictionary.id(token);
+				hashes[i] = id == TokenDictionary.ABSENT ? NOT_INTERNED
+						| Hashing.hash(token) : id;
+			}
+			return hashes;
+		}
+
+		/*
+		 * Returns the ids of the tokens or null when a token could not be
+		 * added to the dictionary.
+		 */
+		private int[] ids(Collection<String> tokens) {
+			final int[] ids = new int[tokens.size()];
+			int i = 0;
+			for (String token : tokens) {
+				final int id = dictionary.id(token);
+				if (id == TokenDictionary.ABSENT) {
+					return null;
+				}
+				ids[i++] = id;
+			}
+			return ids;
+		}
+
+		/*
+		 * Replaces tokens with the instances in the dictionary where possible.
+		 */
+		private List<String> intern(Collection<String> tokens) {
+			final Builder<String> interned = ImmutableList.builder();
+			for (String token : tokens) {
+				final int id = dictionary.id(token);
+				interned.add(id == TokenDictionary.ABSENT ? token : dictionary
+						.token(id));
+			}
+			return interned.build();
+		}
+
+		@Override
+		public String toString() {
+			return "Interning [" + tokenizer + ", " + dictionary + "]";
+		}
+	}
+
+	/*
+	 * List of tokens stored as their ids.
+	 */
+	static final class TokenList extends AbstractList<String> implements
+			RandomAccess {
+
+		private final TokenDictionary dictionary;
+		private final int[] ids;
+
+		TokenList(TokenDictionary dictionary, int[] ids) {
+			this.dictionary = dictionary;
+			this.ids = ids;
+		}
+
+		@Override
+		public String get(int index) {
+			checkElementIndex(index, ids.length);
+			return dictionary.token(ids[index]);
+		}
+
+		@Override
+		public int size() {
+			return ids.length;
+		}
+	}
+
+	/*
+	 * Set of tokens stored as their sorted ids.
+	 */
+	static final class TokenSet extends AbstractSet<String> {
+
+		private final TokenDictionary dictionary;
+		private final int[] ids;
+
+		TokenSet(TokenDictionary dictionary, int[] ids) {
+			this.dictionary = dictionary;
+			this.ids = ids;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof String)) {
+				return false;
+			}
+			final int id = dictionary.find((String) o);
+			return id != TokenDictionary.ABSENT
+					&& Arrays.binarySearch(ids, id) >= 0;
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new UnmodifiableIterator<String>() {
+				private int index;
+
+				@Override
+				public boolean hasNext() {
+					return index < ids.length;
+				}
+
+				@Override
+				public String next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return dictionary.token(ids[index++]);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ids.length;
+		}
+	}
+
 	static final class Split extends AbstractTokenizer {
 
 		private final Pattern pattern;
@@ -714,7 +1009,7 @@ public final class Tokenizers {
 	 * This class is immutable and thread-safe.
 	 *
 	 */
-	static class QGram extends AbstractTokenizer {
+	static class QGram extends AbstractTokenizer implements HashingTokenizer {
 
 		private final int q;
 		private final boolean filter;
@@ -753,13 +1048,9 @@ public final class Tokenizers {
 			}
 
 			// To create a q-gram set of tokens we move a q-codepoints-wide
-			// sliding windows across the string. So the final index of the left
-			// side of the window lies q code points to the left of end of the
-			// string
-			final int lastQGramStart;
-			try {
-				lastQGramStart = input.offsetByCodePoints(input.length(), -q);
-			} catch (IndexOutOfBoundsException e) {
+			// sliding windows across the string.
+			final int codePoints = input.codePointCount(0, input.length());
+			if (codePoints < q) {
 				// When the window doesn't fit act according to the filter
 				// setting.
 				if (filter) {
@@ -768,16 +1059,77 @@ public final class Tokenizers {
 				return singletonList(input);
 			}
 
-			final List<String> ret = new ArrayList<>(input.length());
-			for (int qGramStart = 0; 
-					 qGramStart <= lastQGramStart; 
-					 qGramStart = input.offsetByCodePoints(qGramStart,1)) {
-				ret.add(input.substring(qGramStart, input.offsetByCodePoints(qGramStart, q)));
+			final List<String> ret = new ArrayList<>(codePoints - q + 1);
+
+			// Without surrogate pairs each character is a code point
+			if (codePoints == input.length()) {
+				for (int i = 0; i + q <= codePoints; i++) {
+					ret.add(input.substring(i, i + q));
+				}
+				return ret;
+			}
+
+			// Decode the offsets of the code points once rather then
+			// stepping over q code points for every q-gram.
+			final int[] offsets = new int[codePoints + 1];
+			for (int i = 0, offset = 0; i < codePoints; i++) {
+				offsets[i] = offset;
+				offset += Character.charCount(input.codePointAt(offset));
 			}
+			offsets[codePoints] = input.length();
 
+			for (int i = 0; i + q <= codePoints; i++) {
+				ret.add(input.substring(offsets[i], offsets[i + q]));
+			}
 			return ret;
 		}
 
+		@Override
+		public long[] tokenizeToHashes(final String input) {
+			if (input.isEmpty()) {
+				return new long[0];
+			}
+
+			final int[] codePoints = new int[input.codePointCount(0,
+					input.length())];
+			for (int i = 0, offset = 0; i < codePoints.length; i++) {
+				codePoints[i] = input.codePointAt(offset);
+				offset += Character.charCount(codePoints[i]);
+			}
+
+			// Same as tokenizeToList when the window doesn't fit
+			if (codePoints.length < q) {
+				return filter ? new long[0] : new long[] { hash(codePoints, 0,
+						codePoints.length) };
+			}
+
+			final long[] hashes = new long[codePoints.length - q + 1];
+			for (int i = 0; i < hashes.length; i++) {
+				hashes[i] = hash(codePoints, i, i + q);
+			}
+			return hashes;
+		}
+
+		/*
+		 * Tokens of at most three code points are packed into a long behind a
+		 * sentinel bit and never collide. Longer tokens are hashed.
+		 */
+		private static long hash(int[] codePoints, int from, int to) {
+			long hash = 1;
+			if (to - from <= 3) {
+				for (int i = from; i < to; i++) {
+					hash = (hash << 21) | codePoints[i];
+				}
+				return hash;
+			}
+
+			for (int i = from; i < to; i++) {
+				hash = (hash ^ codePoints[i]) * 0x9E3779B97F4A7C15L;
+				hash ^= hash >>> 29;
+			}
+			return mix(hash);
+		}
+
 		@Override
 		public String toString() {
 			return "QGram [q=" + q + "]";
@@ -799,7 +1151,8 @@ public final class Tokenizers {
 	 * This class is immutable and thread-safe.
 	 * 
 	 */
-	static class QGramExtended extends AbstractTokenizer {
+	static class QGramExtended extends AbstractTokenizer implements
+			HashingTokenizer {
 
 		private final static String DEFAULT_START_PADDING = "#";
 		private final static String DEFAULT_END_PADDING = "#";
@@ -848,6 +1201,15 @@ public final class Tokenizers {
 			return tokenizer.tokenizeToList(startPadding + input + endPadding);
 		}
 
+		@Override
+		public long[] tokenizeToHashes(String input) {
+			if (input.isEmpty()) {
+				return new long[0];
+			}
+
+			return tokenizer.tokenizeToHashes(startPadding + input + endPadding);
+		}
+
 		@Override
 		public String toString() {
 			return "QGramExtended [startPadding=" + startPadding
@@ -869,6 +1231,17 @@ public final class Tokenizers {
 
 	}
 
+	/*
+	 * Finalizer of MurmurHash3. Spreads the bits of a hash over all 64 bits.
+	 */
+	static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+
 	private Tokenizers() {
 		// Utility class
 	}
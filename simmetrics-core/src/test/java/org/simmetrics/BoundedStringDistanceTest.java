@@ -0,0 +1,77 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics;
+
+import static java.lang.Float.POSITIVE_INFINITY;
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public abstract class BoundedStringDistanceTest extends StringDistanceTest {
+
+	@Override
+	protected abstract BoundedStringDistance getMetric();
+
+	private static float[] bounds(float distance) {
+		return new float[] { 0.0f, distance / 2.0f, distance - 0.5f,
+				distance, distance + 0.5f, distance * 2.0f, Float.MAX_VALUE };
+	}
+
+	@Test
+	public final void boundedDistance() {
+		final BoundedStringDistance metric = getMetric();
+		for (T t : getTests()) {
+			final float distance = metric.distance(t.a, t.b);
+			for (float maxDistance : bounds(distance)) {
+				if (maxDistance < 0.0f) {
+					continue;
+				}
+				final float expected = distance <= maxDistance ? distance
+						: POSITIVE_INFINITY;
+				assertEquals(
+						format("\"%s\" vs \"%s\" within %f", t.a, t.b, maxDistance),
+						expected, metric.distance(t.a, t.b, maxDistance), 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public final void boundedDistanceIsSymmetric() {
+		final BoundedStringDistance metric = getMetric();
+		for (T t : getTests()) {
+			final float distance = metric.distance(t.a, t.b);
+			for (float maxDistance : bounds(distance)) {
+				if (maxDistance < 0.0f) {
+					continue;
+				}
+				assertEquals(metric.distance(t.a, t.b, maxDistance),
+						metric.distance(t.b, t.a, maxDistance), 0.0f);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void negativeBound() {
+		getMetric().distance("a", "b", -1.0f);
+	}
+
+}
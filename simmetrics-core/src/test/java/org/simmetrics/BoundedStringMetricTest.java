@@ -0,0 +1,66 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public abstract class BoundedStringMetricTest extends StringMetricTest {
+
+	@Override
+	protected abstract BoundedStringMetric getMetric();
+
+	private static float[] bounds(float similarity) {
+		return new float[] { 0.0f, similarity / 2.0f, similarity - 0.01f,
+				similarity, similarity + 0.01f, 1.0f };
+	}
+
+	@Test
+	public final void boundedSimilarity() {
+		final BoundedStringMetric metric = getMetric();
+		for (T t : getTests()) {
+			final float similarity = metric.compare(t.a, t.b);
+			for (float minSimilarity : bounds(similarity)) {
+				if (minSimilarity < 0.0f || minSimilarity > 1.0f) {
+					continue;
+				}
+				final float expected = similarity >= minSimilarity ? similarity
+						: 0.0f;
+				assertEquals(format("\"%s\" vs \"%s\" at least %f", t.a, t.b,
+						minSimilarity), expected,
+						metric.compare(t.a, t.b, minSimilarity), 0.0f);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void negativeBound() {
+		getMetric().compare("a", "b", -0.1f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void boundLargerThenOne() {
+		getMetric().compare("a", "b", 1.1f);
+	}
+
+}
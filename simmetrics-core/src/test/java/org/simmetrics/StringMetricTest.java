@@ -20,6 +20,14 @@
 
 package org.simmetrics;
 
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.simmetrics.metrics.StringMetrics;
+
 @SuppressWarnings("javadoc")
 public abstract class StringMetricTest extends MetricTest<String> {
 
@@ -37,4 +45,42 @@ public abstract class StringMetricTest extends MetricTest<String> {
 		return "";
 	}
 
+	@Test
+	public final void batchSimilarity() {
+		if (!(metric instanceof StringMetric)) {
+			return;
+		}
+
+		final StringMetric stringMetric = (StringMetric) metric;
+		for (T t : getTests()) {
+			final List<String> candidates = asList(t.b, t.a, getEmpty(), t.b);
+			final float[] similarities = new float[candidates.size()];
+			StringMetrics.compare(stringMetric, t.a, candidates, similarities);
+
+			for (int i = 0; i < similarities.length; i++) {
+				assertEquals(stringMetric.compare(t.a, candidates.get(i)),
+						similarities[i], 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public final void preparedSimilarity() {
+		if (!(metric instanceof StringMetric)) {
+			return;
+		}
+
+		final StringMetric stringMetric = (StringMetric) metric;
+		for (T t : getTests()) {
+			final PreparedStringMetric prepared = StringMetrics.prepare(
+					stringMetric, t.a);
+			assertEquals(stringMetric.compare(t.a, t.b), prepared.compare(t.b),
+					0.0f);
+			assertEquals(stringMetric.compare(t.a, t.a), prepared.compare(t.a),
+					0.0f);
+			assertEquals(stringMetric.compare(t.a, getEmpty()),
+					prepared.compare(getEmpty()), 0.0f);
+		}
+	}
+
 }
@@ -0,0 +1,323 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.builders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.nCopies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.Jaccard;
+
+import com.google.common.base.Function;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+@SuppressWarnings("javadoc")
+public class StringCacheTest {
+
+	private static final class CountingLoader implements
+			Function<String, String> {
+
+		final AtomicInteger loads = new AtomicInteger();
+
+		@Override
+		public String apply(String input) {
+			loads.incrementAndGet();
+			return input.toLowerCase();
+		}
+	}
+
+	@Test
+	public void getOrLoad() {
+		final StringCache<String> cache = StringCache.create(10);
+		final CountingLoader loader = new CountingLoader();
+
+		assertEquals("abc", cache.getOrLoad("ABC", loader));
+		assertEquals("abc", cache.getOrLoad("ABC", loader));
+		assertEquals("def", cache.getOrLoad("DEF", loader));
+		assertEquals(2, loader.loads.get());
+		assertEquals(2, cache.size());
+		assertEquals("abc", cache.getIfPresent("ABC"));
+	}
+
+	@Test
+	public void stats() {
+		final StringCache<String> cache = StringCache.create(10);
+		final CountingLoader loader = new CountingLoader();
+		for (int i = 0; i < 20; i++) {
+			cache.getOrLoad("a" + i, loader);
+			cache.getOrLoad("a" + i, loader);
+		}
+
+		final CacheStats stats = cache.stats();
+		assertEquals(20, stats.hitCount());
+		assertEquals(20, stats.missCount());
+		assertEquals(20, stats.loadSuccessCount());
+		assertEquals(0, stats.loadExceptionCount());
+		assertEquals(10, stats.evictionCount());
+		assertEquals(10, cache.size());
+	}
+
+	@Test
+	public void bounded() {
+		final StringCache<String> cache = StringCache.create(100);
+		final CountingLoader loader = new CountingLoader();
+		for (int i = 0; i < 10000; i++) {
+			cache.getOrLoad("a" + i, loader);
+			assertTrue(cache.size() <= 100);
+		}
+		assertEquals(100, cache.size());
+		assertEquals(9900, cache.stats().evictionCount());
+	}
+
+	@Test
+	public void weighsTokens() {
+		final StringCache<Set<String>> cache = StringCache.create(20);
+		for (int i = 0; i < 100; i++) {
+			cache.put("a" + i, ImmutableSet.of("a", "b", "c", "d", "e"));
+			assertTrue(cache.size() <= 4);
+		}
+
+		cache.put("b", ImmutableSet.<String> of());
+		assertNotNull(cache.getIfPresent("b"));
+
+		// Heavier then the whole cache
+		cache.put("c", ImmutableSet.of("1", "2", "3", "4", "5", "6", "7",
+				"8", "9", "10", "11", "12", "13", "14", "15", "16", "17",
+				"18", "19", "20", "21"));
+		assertNull(cache.getIfPresent("c"));
+	}
+
+	@Test
+	public void keepsFrequentEntries() {
+		final StringCache<String> cache = StringCache.create(200);
+		final CountingLoader loader = new CountingLoader();
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 100; i++) {
+				cache.getOrLoad("frequent" + i, loader);
+			}
+		}
+
+		// A scan of entries that are looked up once
+		for (int i = 0; i < 1000; i++) {
+			cache.getOrLoad("scan" + i, loader);
+		}
+
+		int present = 0;
+		for (int i = 0; i < 100; i++) {
+			if (cache.getIfPresent("frequent" + i) != null) {
+				present++;
+			}
+		}
+		assertEquals(100, present);
+	}
+
+	@Test
+	public void putAndInvalidate() {
+		final StringCache<String> cache = StringCache.create(10);
+		cache.put("a", "1");
+		cache.put("a", "2");
+		assertEquals("2", cache.getIfPresent("a"));
+		assertEquals(1, cache.size());
+
+		cache.invalidate("a");
+		assertNull(cache.getIfPresent("a"));
+		assertEquals(0, cache.size());
+
+		for (int i = 0; i < 1000; i++) {
+			cache.put("b" + i, "1");
+			cache.invalidate("b" + i);
+		}
+		cache.put("c", "1");
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void admitsWhenMainHoldsOnlyRemovedEntries() {
+		final StringCache<List<String>> cache = StringCache.create(100);
+		cache.put("a", asList("x"));
+		cache.put("b", asList("x"));
+		cache.invalidate("a");
+		cache.invalidate("b");
+
+		// Heavier then the main region
+		cache.put("big", nCopies(100, "x"));
+		assertNull(cache.getIfPresent("big"));
+		assertEquals(0, cache.size());
+
+		cache.put("c", nCopies(50, "x"));
+		cache.put("d", asList("x"));
+		assertNotNull(cache.getIfPresent("c"));
+		assertNotNull(cache.getIfPresent("d"));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void concurrentPutsAndInvalidations() throws InterruptedException {
+		final StringCache<List<String>> cache = StringCache.create(5);
+		final List<Thread> threads = new ArrayList<>();
+		final AtomicInteger failures = new AtomicInteger();
+		for (int t = 0; t < 16; t++) {
+			final int seed = t;
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < 20000; i++) {
+							final String key = "K" + ((i * 31 + seed) % 20);
+							switch ((i + seed) % 3) {
+							case 0:
+								cache.put(key, nCopies(1 + i % 6, "x"));
+								break;
+							case 1:
+								cache.invalidate(key);
+								break;
+							default:
+								cache.getIfPresent(key);
+							}
+						}
+					} catch (RuntimeException e) {
+						failures.incrementAndGet();
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, failures.get());
+		assertTrue(cache.size() <= 5);
+	}
+
+	@Test
+	public void getWithCallable() throws ExecutionException {
+		final StringCache<String> cache = StringCache.create(10);
+		assertEquals("a", cache.get("a", new Callable<String>() {
+			@Override
+			public String call() {
+				return "a";
+			}
+		}));
+
+		try {
+			cache.get("b", new Callable<String>() {
+				@Override
+				public String call() throws IOException {
+					throw new IOException();
+				}
+			});
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+
+		try {
+			cache.get("c", new Callable<String>() {
+				@Override
+				public String call() {
+					throw new IllegalStateException();
+				}
+			});
+			fail();
+		} catch (UncheckedExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+
+		assertEquals(2, cache.stats().loadExceptionCount());
+	}
+
+	@Test
+	public void concurrentLookups() throws InterruptedException {
+		final StringCache<String> cache = StringCache.create(50);
+		final CountingLoader loader = new CountingLoader();
+		final List<Thread> threads = new ArrayList<>();
+		final AtomicInteger failures = new AtomicInteger();
+		for (int t = 0; t < 8; t++) {
+			final int seed = t;
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 20000; i++) {
+						final String key = "K" + ((i * 31 + seed) % 200);
+						if (!key.toLowerCase().equals(
+								cache.getOrLoad(key, loader))) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, failures.get());
+		assertTrue(cache.size() <= 50);
+		final CacheStats stats = cache.stats();
+		assertEquals(8 * 20000, stats.requestCount());
+	}
+
+	@Test
+	public void builder() {
+		final StringMetric cached = with(new Jaccard<String>())
+				.tokenize(qGram(2))
+				.cacheTokens(StringCache.<Set<String>> create(100))
+				.build();
+		final StringMetric uncached = with(new Jaccard<String>())
+				.tokenize(qGram(2))
+				.build();
+
+		final String[] strings = { "Healed", "Sealed", "Healthy", "Heard",
+				"Herded", "Help", "Sold" };
+		for (String a : strings) {
+			for (String b : strings) {
+				assertEquals(uncached.compare(a, b), cached.compare(a, b),
+						0.0f);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.simmetrics.StringDistance;
+import org.simmetrics.StringMetric;
+
+import com.google.common.base.Strings;
+
+@SuppressWarnings("javadoc")
+public class BatchScorerTest {
+
+	private static List<String> a;
+	private static List<String> b;
+	private static ForkJoinPool pool;
+
+	@BeforeClass
+	public static void setUp() {
+		final RandomStrings strings = new RandomStrings();
+		a = new ArrayList<>();
+		b = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			// A few long strings between many short ones
+			final int length = i % 500 == 0 ? 2000 : strings.nextInt(20);
+			a.add(strings.next(length, "abcde"));
+			b.add(strings.next(length + strings.nextInt(3), "abcde"));
+		}
+		a.add("");
+		b.add("");
+		a.add(Strings.repeat("a", 5000));
+		b.add("");
+		pool = new ForkJoinPool(3);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void compare() {
+		for (StringMetric metric : asList(new Levenshtein(),
+				StringMetrics.qGramsDistance(), new Jaro())) {
+			final float[] similarities = new float[a.size()];
+			BatchScorer.compare(metric, a, b, similarities, pool);
+			for (int i = 0; i < a.size(); i++) {
+				assertEquals(metric.compare(a.get(i), b.get(i)),
+						similarities[i], 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void compareInNewPool() {
+		final StringMetric metric = new Levenshtein();
+		final float[] similarities = new float[a.size() + 1];
+		similarities[a.size()] = -1.0f;
+		BatchScorer.compare(metric, a, b, similarities);
+		for (int i = 0; i < a.size(); i++) {
+			assertEquals(metric.compare(a.get(i), b.get(i)), similarities[i],
+					0.0f);
+		}
+		assertEquals(-1.0f, similarities[a.size()], 0.0f);
+	}
+
+	@Test
+	public void distance() {
+		final StringDistance distance = new Levenshtein();
+		final float[] distances = new float[a.size()];
+		BatchScorer.distance(distance, a, b, distances, pool);
+		for (int i = 0; i < a.size(); i++) {
+			assertEquals(distance.distance(a.get(i), b.get(i)), distances[i],
+					0.0f);
+		}
+	}
+
+	@Test
+	public void empty() {
+		BatchScorer.compare(new Levenshtein(), Collections.<String> emptyList(),
+				Collections.<String> emptyList(), new float[0], pool);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void differentSizes() {
+		BatchScorer.compare(new Levenshtein(), asList("a", "b"), asList("a"),
+				new float[2], pool);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void similaritiesTooShort() {
+		BatchScorer.compare(new Levenshtein(), asList("a", "b"),
+				asList("a", "b"), new float[1], pool);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullString() {
+		BatchScorer.compare(new Levenshtein(), asList("a", null),
+				asList("a", "b"), new float[2], pool);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullMetric() {
+		BatchScorer.compare(null, asList("a"), asList("a"), new float[1], pool);
+	}
+
+}
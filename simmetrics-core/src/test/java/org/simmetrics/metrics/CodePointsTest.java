@@ -0,0 +1,160 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.simmetrics.metrics.CodePoints.decode;
+import static org.simmetrics.metrics.CodePoints.encode;
+import static org.simmetrics.metrics.CodePoints.hasSurrogatePairs;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+import static org.simmetrics.tokenizers.Tokenizers.qGramWithFilter;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CodePointsTest {
+
+	private static final float DELTA = 0.0001f;
+
+	private static final String[][] pairs = { { "😀", "😁" },
+			{ "😀a", "a😀" }, { "a😀b", "a😁b" }, { "\uD83Dx", "😀x" },
+			{ "\uDE00\uD83D", "😀" }, { "😀", "😀" },
+			{ "😀😀😁", "😁😀😀" } };
+
+	@Test
+	public void surrogatePairs() {
+		assertFalse(hasSurrogatePairs(""));
+		assertFalse(hasSurrogatePairs("abc"));
+		assertFalse(hasSurrogatePairs("\uD83D"));
+		assertFalse(hasSurrogatePairs("\uDE00\uD83D"));
+		assertTrue(hasSurrogatePairs("😀"));
+		assertTrue(hasSurrogatePairs("a😀b"));
+		assertTrue(hasSurrogatePairs("abc", "😀"));
+	}
+
+	@Test
+	public void encodePreservesCodePoints() {
+		for (String[] pair : pairs) {
+			final String[] encoded = encode(pair[0], pair[1]);
+			assertFalse(hasSurrogatePairs(encoded[0], encoded[1]));
+
+			final int[] a = decode(pair[0]);
+			final int[] b = decode(pair[1]);
+			assertEquals(a.length, encoded[0].length());
+			assertEquals(b.length, encoded[1].length());
+			for (int i = 0; i < a.length; i++) {
+				for (int j = 0; j < b.length; j++) {
+					assertEquals(a[i] == b[j],
+							encoded[0].charAt(i) == encoded[1].charAt(j));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void encodeLeavesBasicPlaneAsIs() {
+		final String[] encoded = encode("ab\uD83D", "cd");
+		assertArrayEquals(new String[] { "ab\uD83D", "cd" }, encoded);
+	}
+
+	@Test
+	public void bigrams() {
+		assertEquals(0, CodePoints.bigrams("😀").length);
+		assertEquals(1, CodePoints.bigrams("😀😁").length);
+		assertEquals(2, CodePoints.bigrams("a😀a").length);
+	}
+
+	@Test
+	public void levenshtein() {
+		final Levenshtein metric = new Levenshtein();
+		assertEquals(1.0f, metric.distance("😀", "😁"), DELTA);
+		assertEquals(0.0f, metric.compare("😀", "😁"), DELTA);
+		assertEquals(0.5f, metric.compare("😀a", "a"), DELTA);
+		assertEquals(0.5f, metric.compare("😀a", "a", 0.5f), DELTA);
+		assertEquals(1.0f, metric.distance("😀😁", "😀", 1.0f), DELTA);
+		assertEquals(0.5f, metric.prepare("😀a").compare("a"), DELTA);
+		assertEquals(0.5f, metric.prepare("a").compare("😀a"), DELTA);
+	}
+
+	@Test
+	public void levenshteinWeighted() {
+		final Levenshtein metric = new Levenshtein(2.0f, 1.0f);
+		assertEquals(1.0f, metric.distance("😀", "😁"), DELTA);
+		assertEquals(2.0f, metric.distance("😀a", "a"), DELTA);
+	}
+
+	@Test
+	public void damerauLevenshtein() {
+		final DamerauLevenshtein metric = new DamerauLevenshtein();
+		assertEquals(1.0f, metric.distance("😀😁", "😁😀"), DELTA);
+		assertEquals(0.5f, metric.compare("😀😁", "😁😀"), DELTA);
+		assertEquals(0.5f, metric.compare("😀😁", "😁😀", 0.5f), DELTA);
+		assertEquals(1.0f, metric.distance("😀😁", "😁😀", 1.0f), DELTA);
+	}
+
+	@Test
+	public void longestCommonSubsequence() {
+		final LongestCommonSubsequence metric = new LongestCommonSubsequence();
+		assertEquals(1.0f / 3.0f, metric.compare("😀a😁", "😁a😀"), DELTA);
+		assertEquals(4.0f, metric.distance("😀a😁", "😁a😀"), DELTA);
+	}
+
+	@Test
+	public void longestCommonSubstring() {
+		final LongestCommonSubstring metric = new LongestCommonSubstring();
+		assertEquals(2.0f / 3.0f, metric.compare("😀😁a", "b😀😁"), DELTA);
+		assertEquals(2.0f, metric.distance("😀😁a", "b😀😁"), DELTA);
+	}
+
+	@Test
+	public void jaro() {
+		final Jaro metric = new Jaro();
+		assertEquals(0.0f, metric.compare("😀", "😁"), DELTA);
+		assertEquals(1.0f, metric.compare("😀😁", "😀😁"), DELTA);
+		assertEquals(metric.compare("ab", "ba"),
+				metric.compare("😀😁", "😁😀"), DELTA);
+		assertEquals(metric.compare("ab", "ba"),
+				metric.prepare("😀😁").compare("😁😀"), DELTA);
+		assertEquals(metric.compare("ab", "ba"),
+				metric.prepare("ab").compare("ba"), DELTA);
+	}
+
+	@Test
+	public void jaroWinkler() {
+		final JaroWinkler metric = new JaroWinkler();
+		assertEquals(metric.compare("abac", "abad"),
+				metric.compare("😀😁😀c", "😀😁😀d"), DELTA);
+		assertEquals(metric.compare("abac", "abad"),
+				metric.prepare("😀😁😀c").compare("😀😁😀d"), DELTA);
+	}
+
+	@Test
+	public void qGramTokenizer() {
+		assertEquals(asList("😀a", "a😁"), qGram(2).tokenizeToList("😀a😁"));
+		assertEquals(asList("ab", "bc"), qGram(2).tokenizeToList("abc"));
+		assertEquals(asList("😀a😁"), qGram(4).tokenizeToList("😀a😁"));
+		assertEquals(0, qGramWithFilter(4).tokenizeToList("😀a😁").size());
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.simmetrics.MultisetMetric;
+import org.simmetrics.PreparedStringMetric;
+import org.simmetrics.StringMetric;
+import org.simmetrics.simplifiers.Simplifiers;
+
+@SuppressWarnings("javadoc")
+public class CorpusStatisticsTest {
+
+	static final CorpusStatistics COMPANIES = CorpusStatistics.collect(
+			whitespace(), asList("Acme Inc", "Acme Ltd", "Apex Inc",
+					"Apex Ltd", "Globex Inc", "Initech Ltd", "Umbrella Inc",
+					"Hooli Inc", "Hooli Ltd", "Acme Widgets Inc"));
+
+	private static final List<String> STRINGS = asList("Acme Inc", "Acme Ltd",
+			"ACME Inc", "Apex Inc", "Acme Inc Inc", "", "Acme Widgets",
+			"Acme Widgets Inc", "Hooli", "Hooli Inc", "Globex Corp", "Acmee",
+			"Inetech Ltd", "Umbrela Inc", "Foo Inc");
+
+	@Test
+	public void frequencies() {
+		assertEquals(10, COMPANIES.documents());
+		assertEquals(9, COMPANIES.size());
+		assertEquals(6, COMPANIES.frequency("Inc"));
+		assertEquals(4, COMPANIES.frequency("Ltd"));
+		assertEquals(3, COMPANIES.frequency("Acme"));
+		assertEquals(1, COMPANIES.frequency("Widgets"));
+		assertEquals(0, COMPANIES.frequency("Corp"));
+	}
+
+	@Test
+	public void countsTokensOncePerDocument() {
+		final CorpusStatistics statistics = CorpusStatistics.collect(
+				whitespace(), asList("a a a", "a b"));
+		assertEquals(2, statistics.frequency("a"));
+		assertEquals(1, statistics.frequency("b"));
+	}
+
+	@Test
+	public void idf() {
+		assertTrue(COMPANIES.idf("Inc") < COMPANIES.idf("Ltd"));
+		assertTrue(COMPANIES.idf("Ltd") < COMPANIES.idf("Widgets"));
+		assertTrue(COMPANIES.idf("Widgets") < COMPANIES.idf("Corp"));
+		assertEquals(java.lang.Math.log(11.0 / 7.0) + 1.0, COMPANIES.idf("Inc"), 1e-6);
+		assertEquals(java.lang.Math.log(11.0) + 1.0, COMPANIES.idf("Corp"), 1e-6);
+	}
+
+	@Test
+	public void emptyCorpus() {
+		final CorpusStatistics statistics = CorpusStatistics.collect(
+				whitespace(), Collections.<String> emptyList());
+		assertEquals(0, statistics.documents());
+		assertEquals(0, statistics.size());
+		assertEquals(0, statistics.frequency("a"));
+		assertEquals(1.0f, statistics.idf("a"), 0.0f);
+	}
+
+	@Test
+	public void manyTokens() {
+		final List<String> corpus = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			corpus.add("t" + i + " t" + (i / 2) + " common");
+		}
+		final CorpusStatistics statistics = CorpusStatistics.collect(
+				whitespace(), corpus);
+		assertEquals(1001, statistics.size());
+		assertEquals(1000, statistics.frequency("common"));
+		assertEquals(3, statistics.frequency("t2"));
+		assertEquals(1, statistics.frequency("t999"));
+	}
+
+	@Test
+	public void serializable() throws IOException, ClassNotFoundException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(COMPANIES);
+		}
+		final CorpusStatistics copy;
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (CorpusStatistics) in.readObject();
+		}
+
+		assertEquals(COMPANIES.documents(), copy.documents());
+		assertEquals(COMPANIES.size(), copy.size());
+		for (String token : asList("Inc", "Ltd", "Acme", "Corp")) {
+			assertEquals(COMPANIES.frequency(token), copy.frequency(token));
+		}
+	}
+
+	@Test
+	public void supportedMetrics() {
+		assertNotNull(TfIdfVectors.forMultiset(new TfIdfCosine(COMPANIES),
+				null, whitespace()));
+		assertNotNull(TfIdfVectors.forMultiset(new SoftTfIdf(COMPANIES),
+				null, whitespace()));
+		assertNull(TfIdfVectors.forMultiset(new CosineSimilarity<String>(),
+				null, whitespace()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeCacheSize() {
+		new TfIdfCosine(COMPANIES, -1);
+	}
+
+	@Test
+	public void builderCachesVectors() {
+		final List<MultisetMetric<String>> metrics = new ArrayList<>();
+		metrics.add(new TfIdfCosine(COMPANIES));
+		metrics.add(new SoftTfIdf(COMPANIES));
+		// Evicts vectors
+		metrics.add(new TfIdfCosine(COMPANIES, 4));
+		metrics.add(new SoftTfIdf(COMPANIES, new JaroWinkler(), 0.9f, 4));
+		// Without a cache
+		metrics.add(new TfIdfCosine(COMPANIES, 0));
+		metrics.add(new SoftTfIdf(COMPANIES, new JaroWinkler(), 0.9f, 0));
+		for (MultisetMetric<String> metric : metrics) {
+			final StringMetric composite = with(metric)
+					.tokenize(whitespace())
+					.build();
+			final StringMetric simplified = with(metric)
+					.simplify(Simplifiers.toLowerCase())
+					.tokenize(whitespace())
+					.build();
+			assertTrue(composite.toString().contains("cacheSize="));
+
+			for (String a : STRINGS) {
+				final PreparedStringMetric prepared = StringMetrics.prepare(
+						composite, a);
+				for (String b : STRINGS) {
+					final float expected = metric.compare(
+							whitespace().tokenizeToMultiset(a),
+							whitespace().tokenizeToMultiset(b));
+					assertEquals(expected, composite.compare(a, b), 0.0f);
+					assertEquals(expected, composite.compare(a, b), 0.0f);
+					assertEquals(expected, prepared.compare(b), 0.0f);
+					assertEquals(metric.compare(
+							whitespace().tokenizeToMultiset(a.toLowerCase()),
+							whitespace().tokenizeToMultiset(b.toLowerCase())),
+							simplified.compare(a, b), 0.0f);
+				}
+			}
+		}
+	}
+
+}
@@ -20,14 +20,17 @@
 
 package org.simmetrics.metrics;
 
+import static org.junit.Assert.assertEquals;
+import static org.simmetrics.metrics.RandomStrings.assertSameDistance;
+
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
-import org.simmetrics.Metric;
+import org.simmetrics.BoundedStringDistance;
+import org.simmetrics.BoundedStringDistanceTest;
+import org.simmetrics.BoundedStringMetric;
+import org.simmetrics.BoundedStringMetricTest;
 import org.simmetrics.StringDistance;
-import org.simmetrics.StringDistanceTest;
-import org.simmetrics.StringMetric;
-import org.simmetrics.StringMetricTest;
 
 @SuppressWarnings({ "javadoc", "static-method" })
 @RunWith(Enclosed.class)
@@ -58,10 +61,10 @@ public class DamerauLevenshteinTest {
 	@RunWith(Enclosed.class)
 	public static final class DistanceString {
 
-		public static final class UnitCost extends StringDistanceTest {
+		public static final class UnitCost extends BoundedStringDistanceTest {
 
 			@Override
-			protected StringDistance getMetric() {
+			protected BoundedStringDistance getMetric() {
 				return new DamerauLevenshtein();
 			}
 
@@ -140,10 +143,10 @@ public class DamerauLevenshteinTest {
 	@RunWith(Enclosed.class)
 	public static final class MetricStringTest {
 
-		public static final class UnitCost extends StringMetricTest {
+		public static final class UnitCost extends BoundedStringMetricTest {
 
 			@Override
-			protected StringMetric getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new DamerauLevenshtein();
 			}
 
@@ -224,10 +227,10 @@ public class DamerauLevenshteinTest {
 
 		}
 
-		public static final class InsertDeleteCost extends StringMetricTest {
+		public static final class InsertDeleteCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new DamerauLevenshtein(0.1f, 1.0f, 1.0f);
 			}
 
@@ -252,9 +255,9 @@ public class DamerauLevenshteinTest {
 			}
 		}
 
-		public static final class NoSubstituteCost extends StringMetricTest {
+		public static final class NoSubstituteCost extends BoundedStringMetricTest {
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new DamerauLevenshtein(1.0f, 0.0f, 1.0f);
 			}
 
@@ -280,10 +283,10 @@ public class DamerauLevenshteinTest {
 
 		}
 
-		public static final class LowSubstituteCost extends StringMetricTest {
+		public static final class LowSubstituteCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new DamerauLevenshtein(1.0f, 0.2f, 1.0f);
 			}
 
@@ -312,10 +315,10 @@ public class DamerauLevenshteinTest {
 			}
 		}
 
-		public static final class NoTransposeCost extends StringMetricTest {
+		public static final class NoTransposeCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new DamerauLevenshtein(1.0f, 1.0f, 0.0f);
 			}
 
@@ -340,10 +343,10 @@ public class DamerauLevenshteinTest {
 
 		}
 
-		public static final class LowTransposeCost extends StringMetricTest {
+		public static final class LowTransposeCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new DamerauLevenshtein(1.0f, 1.0f, 0.1f);
 			}
 
@@ -367,4 +370,100 @@ public class DamerauLevenshteinTest {
 			}
 		}
 	}
+
+	public static final class BitParallel {
+
+		private final RandomStrings strings = new RandomStrings();
+
+		private final DamerauLevenshtein damerauLevenshtein = new DamerauLevenshtein();
+
+		private final StringDistance dynamicProgramming = new StringDistance() {
+
+			@Override
+			public float distance(String s, String t) {
+				float[][] d = new float[s.length() + 1][t.length() + 1];
+				for (int i = 0; i <= s.length(); i++) {
+					d[i][0] = i;
+				}
+				for (int j = 0; j <= t.length(); j++) {
+					d[0][j] = j;
+				}
+				for (int i = 1; i <= s.length(); i++) {
+					for (int j = 1; j <= t.length(); j++) {
+						d[i][j] = Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1,
+								d[i - 1][j - 1]
+										+ (s.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1));
+						if (i > 1 && j > 1 && s.charAt(i - 1) == t.charAt(j - 2)
+								&& s.charAt(i - 2) == t.charAt(j - 1)) {
+							d[i][j] = java.lang.Math.min(d[i][j], d[i - 2][j - 2] + 1);
+						}
+					}
+				}
+				return d[s.length()][t.length()];
+			}
+		};
+
+		private String transpose(String s, int transpositions) {
+			char[] chars = s.toCharArray();
+			for (int i = 0; i < transpositions && chars.length > 1; i++) {
+				int p = strings.nextInt(chars.length - 1);
+				char swap = chars[p]; chars[p] = chars[p + 1]; chars[p + 1] = swap;
+			}
+			return new String(chars);
+		}
+
+		private void assertSameAsDynamicProgramming(int maxLength) {
+			strings.assertSameDistance(dynamicProgramming, damerauLevenshtein,
+					maxLength);
+			for (int i = 0; i < 500; i++) {
+				String a = strings.next(strings.nextInt(maxLength));
+				assertSameDistance(dynamicProgramming, damerauLevenshtein, a,
+						transpose(a, strings.nextInt(10)));
+			}
+		}
+
+		@Test
+		public void singleWord() {
+			assertSameAsDynamicProgramming(65);
+		}
+
+		@Test
+		public void multiWord() {
+			assertSameAsDynamicProgramming(300);
+		}
+
+		@Test
+		public void wordBoundaries() {
+			strings.assertSameDistanceAtWordBoundaries(dynamicProgramming,
+					damerauLevenshtein);
+		}
+
+		@Test
+		public void transpositionsAtWordBoundaries() {
+			for (int length : RandomStrings.WORD_BOUNDARIES) {
+				String a = strings.next(length);
+				assertSameDistance(dynamicProgramming, damerauLevenshtein, a,
+						transpose(a, 5));
+				// Transposition across the boundary of a word
+				for (int p = 62; p < java.lang.Math.min(65, length - 1); p++) {
+					assertSameDistance(dynamicProgramming, damerauLevenshtein, a,
+							a.substring(0, p) + a.charAt(p + 1) + a.charAt(p)
+									+ a.substring(p + 2));
+				}
+			}
+		}
+
+		@Test
+		public void bounded() {
+			for (int i = 0; i < 500; i++) {
+				String a = strings.next(strings.nextInt(200));
+				String b = transpose(a, strings.nextInt(20));
+				float expected = dynamicProgramming.distance(a, b);
+				float maxDistance = strings.nextInt(10);
+				assertEquals(expected > maxDistance ? Float.POSITIVE_INFINITY
+						: expected, damerauLevenshtein.distance(a, b,
+						maxDistance), 0.0f);
+			}
+		}
+	}
 }
@@ -21,7 +21,9 @@
 package org.simmetrics.metrics;
 
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
 
+import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Test;
@@ -61,6 +63,13 @@ public final class HammingDistanceTest {
 			getMetric().distance(asList("test", "string1"), asList("test"));
 		}
 
+		@Test
+		public void linkedList() {
+			assertEquals(2.0f, getMetric().distance(
+					new LinkedList<>(asList("a", "b", "c", null)),
+					asList("a", "b", "e", "f")), 0.0f);
+		}
+
 	}
 
 	public final static class DistanceString extends StringDistanceTest {
@@ -87,4 +96,35 @@ public final class HammingDistanceTest {
 
 	}
 
+	public final static class Bits {
+
+		@Test
+		public void words() {
+			assertEquals(0, HammingDistance.distance(0L, 0L));
+			assertEquals(1, HammingDistance.distance(0L, 1L));
+			assertEquals(64, HammingDistance.distance(0L, -1L));
+			assertEquals(2, HammingDistance.distance(Long.MIN_VALUE, 1L));
+		}
+
+		@Test
+		public void signatures() {
+			assertEquals(0, HammingDistance.distance(new long[0], new long[0]));
+			assertEquals(73, HammingDistance.distance(
+					new long[] { 0L, -1L, 0xF0L },
+					new long[] { 1L, 0L, 0x0FL }));
+			assertEquals(73.0f, HammingDistance.forBits().distance(
+					new long[] { 0L, -1L, 0xF0L },
+					new long[] { 1L, 0L, 0x0FL }), 0.0f);
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void shouldThrowForDifferentLength() {
+			HammingDistance.forBits().distance(new long[2], new long[1]);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void shouldThrowForNull() {
+			HammingDistance.forBits().distance(null, new long[1]);
+		}
+	}
 }
@@ -0,0 +1,168 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.simmetrics.PreparedStringMetric;
+
+import com.google.common.base.Strings;
+
+/**
+ * Compares the bitmask engine of {@link Jaro} with a straightforward
+ * implementation over code points. The results must be identical.
+ */
+@SuppressWarnings("javadoc")
+public class JaroBitmasksTest {
+
+	private static List<String> strings;
+
+	@BeforeClass
+	public static void setUp() {
+		final RandomStrings randomStrings = new RandomStrings();
+		strings = new ArrayList<>();
+		strings.add("");
+		strings.add("a");
+		strings.add("\u0000ab\u0000");
+		strings.add("😀a😀");
+		strings.add("😀b😁");
+		strings.add("\uD83Da\uDE00");
+		strings.add("a\uD83D");
+		strings.add(Strings.repeat("ab", 32));
+		strings.add(Strings.repeat("ab", 32) + "a");
+		strings.add(Strings.repeat("ba", 32));
+		for (int i = 0; i < 200; i++) {
+			final String alphabet = i % 2 == 0 ? "ab" : "abcdef😀";
+			strings.add(randomStrings.next(
+					randomStrings.nextInt(i % 4 == 0 ? 70 : 12), alphabet));
+		}
+	}
+
+	@Test
+	public void compare() {
+		final Jaro jaro = new Jaro();
+		for (String a : strings) {
+			for (String b : strings) {
+				assertEquals(a + " " + b, jaro(a, b), jaro.compare(a, b), 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void prepare() {
+		final Jaro jaro = new Jaro();
+		for (String a : strings) {
+			final PreparedStringMetric prepared = jaro.prepare(a);
+			for (String b : strings) {
+				assertEquals(a + " " + b, jaro(a, b), prepared.compare(b), 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void jaroWinkler() {
+		final JaroWinkler jaroWinkler = new JaroWinkler(0.0f, 0.25f, 3);
+		for (String a : strings) {
+			final PreparedStringMetric prepared = jaroWinkler.prepare(a);
+			for (String b : strings) {
+				final float expected = jaroWinkler(a, b, 0.25f, 3);
+				assertEquals(a + " " + b, expected, jaroWinkler.compare(a, b),
+						0.0f);
+				assertEquals(a + " " + b, expected, prepared.compare(b), 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void jaroWinklerSurrogatePrefix() {
+		final JaroWinkler jaroWinkler = new JaroWinkler(0.0f, 0.1f, 2);
+		for (String[] pair : new String[][] { { "a😀", "a😁" },
+				{ "😀", "😁" }, { "a😀", "a😀" }, { "ab😀", "ab😀" } }) {
+			assertEquals(jaroWinkler(pair[0], pair[1], 0.1f, 2),
+					jaroWinkler.compare(pair[0], pair[1]), 0.0f);
+		}
+	}
+
+	private static float jaroWinkler(String a, String b, float prefixScale,
+			int maxPrefixLength) {
+		final float jaroScore = jaro(a, b);
+		final String prefix = Strings.commonPrefix(a, b);
+		final int prefixLength = min(
+				prefix.codePointCount(0, prefix.length()), maxPrefixLength);
+		return jaroScore + (prefixLength * prefixScale * (1.0f - jaroScore));
+	}
+
+	private static float jaro(String stringA, String stringB) {
+		final int[] a = CodePoints.decode(stringA);
+		final int[] b = CodePoints.decode(stringB);
+		if (a.length == 0 && b.length == 0) {
+			return 1.0f;
+		}
+
+		if (a.length == 0 || b.length == 0) {
+			return 0.0f;
+		}
+
+		final int halfLength = max(0, max(a.length, b.length) / 2 - 1);
+		final List<Integer> commonA = common(a, b, halfLength);
+		final List<Integer> commonB = common(b, a, halfLength);
+
+		if (commonA.isEmpty()) {
+			return 0.0f;
+		}
+
+		float transpositions = 0;
+		for (int i = 0; i < commonA.size(); i++) {
+			if (!commonA.get(i).equals(commonB.get(i))) {
+				transpositions++;
+			}
+		}
+
+		final int common = commonA.size();
+		float aCommonRatio = common / (float) a.length;
+		float bCommonRatio = common / (float) b.length;
+		float transpositionRatio = (common - transpositions / 2.0f) / common;
+		return (aCommonRatio + bCommonRatio + transpositionRatio) / 3.0f;
+	}
+
+	private static List<Integer> common(int[] a, int[] b, int separation) {
+		final List<Integer> common = new ArrayList<>();
+		final boolean[] matched = new boolean[b.length];
+		for (int i = 0; i < a.length; i++) {
+			for (int j = max(0, i - separation); j < min(i + separation + 1,
+					b.length); j++) {
+				if (b[j] == a[i] && !matched[j]) {
+					matched[j] = true;
+					common.add(a[i]);
+					break;
+				}
+			}
+		}
+		return common;
+	}
+
+}
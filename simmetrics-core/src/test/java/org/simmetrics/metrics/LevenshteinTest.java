@@ -20,13 +20,14 @@
 
 package org.simmetrics.metrics;
 
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
-import org.simmetrics.Metric;
+import org.simmetrics.BoundedStringDistance;
+import org.simmetrics.BoundedStringDistanceTest;
+import org.simmetrics.BoundedStringMetric;
+import org.simmetrics.BoundedStringMetricTest;
 import org.simmetrics.StringDistance;
-import org.simmetrics.StringDistanceTest;
-import org.simmetrics.StringMetric;
-import org.simmetrics.StringMetricTest;
 
 @SuppressWarnings("javadoc")
 @RunWith(Enclosed.class)
@@ -35,10 +36,10 @@ public final class LevenshteinTest {
 	@RunWith(Enclosed.class)
 	public static final class DistanceString {
 
-		public static final class UnitCost extends StringDistanceTest {
+		public static final class UnitCost extends BoundedStringDistanceTest {
 
 			@Override
-			protected StringDistance getMetric() {
+			protected BoundedStringDistance getMetric() {
 				return new Levenshtein();
 			}
 
@@ -110,10 +111,10 @@ public final class LevenshteinTest {
 	@RunWith(Enclosed.class)
 	public static final class MetricString {
 
-		public static final class UnitCost extends StringMetricTest {
+		public static final class UnitCost extends BoundedStringMetricTest {
 
 			@Override
-			protected StringMetric getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new Levenshtein();
 			}
 
@@ -184,10 +185,10 @@ public final class LevenshteinTest {
 			}
 		}
 
-		public static final class InsertDeleteCost extends StringMetricTest {
+		public static final class InsertDeleteCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new Levenshtein(0.1f, 1.0f);
 			}
 
@@ -212,10 +213,10 @@ public final class LevenshteinTest {
 			}
 		}
 
-		public static final class NoSubstituteCost extends StringMetricTest {
+		public static final class NoSubstituteCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new Levenshtein(1.0f, 0.0f);
 			}
 
@@ -249,10 +250,10 @@ public final class LevenshteinTest {
 			}
 		}
 
-		public static final class LowSubstituteCost extends StringMetricTest {
+		public static final class LowSubstituteCost extends BoundedStringMetricTest {
 
 			@Override
-			protected Metric<String> getMetric() {
+			protected BoundedStringMetric getMetric() {
 				return new Levenshtein(1.0f, 0.1f);
 			}
 
@@ -279,4 +280,48 @@ public final class LevenshteinTest {
 			}
 		}
 	}
+
+	public static final class BitParallel {
+
+		private final RandomStrings strings = new RandomStrings();
+
+		private final Levenshtein levenshtein = new Levenshtein();
+
+		private final StringDistance dynamicProgramming = new StringDistance() {
+
+			@Override
+			public float distance(String s, String t) {
+				float[] v0 = new float[t.length() + 1];
+				float[] v1 = new float[t.length() + 1];
+				for (int j = 0; j <= t.length(); j++) {
+					v0[j] = j;
+				}
+				for (int i = 0; i < s.length(); i++) {
+					v1[0] = i + 1;
+					for (int j = 0; j < t.length(); j++) {
+						v1[j + 1] = Math.min(v1[j] + 1, v0[j + 1] + 1, v0[j]
+								+ (s.charAt(i) == t.charAt(j) ? 0 : 1));
+					}
+					float[] swap = v0; v0 = v1; v1 = swap;
+				}
+				return v0[t.length()];
+			}
+		};
+
+		@Test
+		public void singleWord() {
+			strings.assertSameDistance(dynamicProgramming, levenshtein, 65);
+		}
+
+		@Test
+		public void multiWord() {
+			strings.assertSameDistance(dynamicProgramming, levenshtein, 300);
+		}
+
+		@Test
+		public void wordBoundaries() {
+			strings.assertSameDistanceAtWordBoundaries(dynamicProgramming,
+					levenshtein);
+		}
+	}
 }
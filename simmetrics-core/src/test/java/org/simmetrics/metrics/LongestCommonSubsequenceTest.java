@@ -20,6 +20,7 @@
 
 package org.simmetrics.metrics;
 
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.simmetrics.StringDistance;
@@ -159,4 +160,46 @@ public final class LongestCommonSubsequenceTest   {
 
 	
 	
+	public static final class BitParallel {
+
+		private final RandomStrings strings = new RandomStrings();
+
+		private final LongestCommonSubsequence lcs = new LongestCommonSubsequence();
+
+		private final StringDistance dynamicProgramming = new StringDistance() {
+
+			@Override
+			public float distance(String s, String t) {
+				int[] v0 = new int[t.length() + 1];
+				int[] v1 = new int[t.length() + 1];
+				for (int i = 0; i < s.length(); i++) {
+					for (int j = 0; j < t.length(); j++) {
+						if (s.charAt(i) == t.charAt(j)) {
+							v1[j + 1] = v0[j] + 1;
+						} else {
+							v1[j + 1] = java.lang.Math.max(v1[j], v0[j + 1]);
+						}
+					}
+					int[] swap = v0; v0 = v1; v1 = swap;
+				}
+				return s.length() + t.length() - 2 * v0[t.length()];
+			}
+		};
+
+		@Test
+		public void singleWord() {
+			strings.assertSameDistance(dynamicProgramming, lcs, 65);
+		}
+
+		@Test
+		public void multiWord() {
+			strings.assertSameDistance(dynamicProgramming, lcs, 500);
+		}
+
+		@Test
+		public void wordBoundaries() {
+			strings.assertSameDistanceAtWordBoundaries(dynamicProgramming, lcs);
+		}
+	}
+
 }
@@ -20,6 +20,9 @@
 
 package org.simmetrics.metrics;
 
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.simmetrics.StringDistance;
@@ -30,6 +33,97 @@ import org.simmetrics.StringMetricTest;
 @SuppressWarnings("javadoc")
 @RunWith(Enclosed.class)
 public final class LongestCommonSubstringTest   {
+
+	public static final class Automaton {
+
+		private final RandomStrings strings = new RandomStrings();
+
+		private final LongestCommonSubstring lcs = new LongestCommonSubstring();
+
+		private final StringMetric prepared = new StringMetric() {
+
+			@Override
+			public float compare(String a, String b) {
+				return lcs.prepare(a).compare(b);
+			}
+		};
+
+		private final StringDistance distance = new StringDistance() {
+
+			@Override
+			public float distance(String a, String b) {
+				return a.length() + b.length() - 2 * dynamicProgramming(a, b);
+			}
+		};
+
+		private final StringMetric similarity = new StringMetric() {
+
+			@Override
+			public float compare(String a, String b) {
+				if (a.isEmpty() && b.isEmpty()) {
+					return 1.0f;
+				}
+				return dynamicProgramming(a, b)
+						/ (float) java.lang.Math.max(a.length(), b.length());
+			}
+		};
+
+		private static int dynamicProgramming(String s, String t) {
+			int[] v0 = new int[t.length() + 1];
+			int[] v1 = new int[t.length() + 1];
+			int z = 0;
+			for (int i = 0; i < s.length(); i++) {
+				for (int j = 0; j < t.length(); j++) {
+					v1[j + 1] = s.charAt(i) == t.charAt(j) ? v0[j] + 1 : 0;
+					z = java.lang.Math.max(z, v1[j + 1]);
+				}
+				int[] swap = v0; v0 = v1; v1 = swap;
+			}
+			return z;
+		}
+
+		private void assertSameAsDynamicProgramming(int maxLength) {
+			strings.assertSameDistance(distance, lcs, maxLength);
+			strings.assertSameSimilarity(similarity, lcs, maxLength);
+			strings.assertSameSimilarity(similarity, prepared, maxLength);
+		}
+
+		@Test
+		public void shortStrings() {
+			assertSameAsDynamicProgramming(LongestCommonSubstring.MIN_AUTOMATON_LENGTH);
+		}
+
+		@Test
+		public void longStrings() {
+			assertSameAsDynamicProgramming(500);
+		}
+
+		@Test
+		public void longDocuments() {
+			final String a = strings.next(20000);
+			final String b = strings.next(5000) + a.substring(7000, 7321)
+					+ strings.next(5000);
+			assertEquals(321 / 20000.0f, lcs.compare(a, b), 0.0001f);
+			assertEquals(1.0f, lcs.compare(a, a), 0.0f);
+			assertEquals(1.0f, lcs.prepare(a).compare(a), 0.0f);
+		}
+
+		@Test
+		public void surrogatePairs() {
+			final String smiley = "\uD83D\uDE00";
+			final String frown = "\uD83D\uDE41";
+			final StringBuilder a = new StringBuilder();
+			final StringBuilder b = new StringBuilder();
+			for (int i = 0; i < 100; i++) {
+				a.append(i % 3 == 0 ? smiley : "a");
+				b.append(i % 3 == 0 ? frown : "a");
+			}
+			// Substrings of "aa" only, pairs do not match on the high surrogate
+			assertEquals(2 / 100.0f, lcs.compare(a.toString(), b.toString()), 0.0f);
+			assertEquals(2 / 100.0f, lcs.prepare(a.toString()).compare(b.toString()), 0.0f);
+			assertEquals(1.0f, lcs.prepare(a.toString()).compare(a.toString()), 0.0f);
+		}
+	}
 	
 	public static final class DistanceTest extends StringDistanceTest {
 		@Override
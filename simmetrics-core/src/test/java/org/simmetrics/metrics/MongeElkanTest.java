@@ -20,6 +20,15 @@
 
 package org.simmetrics.metrics;
 
+import static org.junit.Assert.assertEquals;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
 import org.simmetrics.ListMetric;
 import org.simmetrics.ListMetricTest;
 import org.simmetrics.StringMetric;
@@ -70,4 +79,66 @@ public final class MongeElkanTest extends ListMetricTest {
 		};
 	}
 
+	private static final class CountingMetric implements StringMetric {
+
+		final AtomicInteger comparisons = new AtomicInteger();
+
+		private final StringMetric metric = new Levenshtein();
+
+		@Override
+		public float compare(String a, String b) {
+			comparisons.incrementAndGet();
+			return metric.compare(a, b);
+		}
+
+		@Override
+		public String toString() {
+			return "CountingMetric";
+		}
+	}
+
+	@Test
+	public void comparesEachPairOnce() {
+		final CountingMetric counting = new CountingMetric();
+		final List<String> a = whitespace().tokenizeToList("aaa bbb ccc ddd");
+		final List<String> b = whitespace().tokenizeToList("aab bbb ccd");
+		new MongeElkan(counting).compare(a, b);
+		assertEquals(12, counting.comparisons.get());
+	}
+
+	@Test
+	public void skipsPairsOfPerfectMatches() {
+		final CountingMetric counting = new CountingMetric();
+		final List<String> a = whitespace().tokenizeToList("aaa aaa aaa");
+		new MongeElkan(counting).compare(a, a);
+		// After the first row every token in b has a perfect match
+		assertEquals(5, counting.comparisons.get());
+	}
+
+	@Test
+	public void parallel() {
+		final RandomStrings strings = new RandomStrings();
+		final List<String> a = new ArrayList<>();
+		final List<String> b = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			a.add(strings.next(1 + strings.nextInt(3), "0123456789"));
+			b.add(strings.next(1 + strings.nextInt(3), "0123456789"));
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			final StringMetric levenshtein = new Levenshtein();
+			final MongeElkan sequential = new MongeElkan(levenshtein);
+			final MongeElkan parallel = new MongeElkan(levenshtein, pool);
+			assertEquals(sequential.compare(a, b), parallel.compare(a, b),
+					0.0f);
+			assertEquals(sequential.compare(a, a), parallel.compare(a, a),
+					0.0f);
+			assertEquals(sequential.compare(a.subList(0, 3), b),
+					parallel.compare(a.subList(0, 3), b), 0.0f);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 }
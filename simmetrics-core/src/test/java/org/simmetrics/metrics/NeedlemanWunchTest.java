@@ -20,20 +20,133 @@
 
 package org.simmetrics.metrics;
 
+import static org.simmetrics.metrics.RandomStrings.assertSameSimilarity;
+
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
+import org.simmetrics.BoundedStringMetric;
+import org.simmetrics.BoundedStringMetricTest;
 import org.simmetrics.StringMetric;
-import org.simmetrics.StringMetricTest;
 import org.simmetrics.metrics.functions.MatchMismatch;
+import org.simmetrics.metrics.functions.Substitution;
 
 @SuppressWarnings("javadoc")
 @RunWith(Enclosed.class)
 public class NeedlemanWunchTest {
 
-	public static final class Default extends StringMetricTest {
+	public static final class Banded {
+
+		private final RandomStrings strings = new RandomStrings();
+
+		private static float fullMatrix(String s, String t, float gapValue,
+				Substitution substitution) {
+			if (s.equals(t)) {
+				return 0.0f;
+			}
+			if (s.isEmpty() || t.isEmpty()) {
+				return -gapValue * java.lang.Math.max(s.length(), t.length());
+			}
+			float[] v0 = new float[t.length() + 1];
+			float[] v1 = new float[t.length() + 1];
+			for (int j = 0; j <= t.length(); j++) {
+				v0[j] = j;
+			}
+			for (int i = 1; i <= s.length(); i++) {
+				v1[0] = i;
+				for (int j = 1; j <= t.length(); j++) {
+					v1[j] = Math.min(v0[j] - gapValue, v1[j - 1] - gapValue,
+							v0[j - 1] - substitution.compare(s, i - 1, t, j - 1));
+				}
+				float[] swap = v0; v0 = v1; v1 = swap;
+			}
+			return v0[t.length()];
+		}
+
+		private static StringMetric fullMatrix(final float gapValue,
+				final Substitution substitution) {
+			return new StringMetric() {
+
+				@Override
+				public float compare(String a, String b) {
+					if (a.isEmpty() && b.isEmpty()) {
+						return 1.0f;
+					}
+					final int longest = java.lang.Math.max(a.length(), b.length());
+					final float maxDistance = longest
+							* java.lang.Math.max(substitution.max(), gapValue);
+					final float minDistance = longest
+							* java.lang.Math.min(substitution.min(), gapValue);
+					return (-fullMatrix(a, b, gapValue, substitution) - minDistance)
+							/ (maxDistance - minDistance);
+				}
+			};
+		}
+
+		private String mutate(String s, int edits) {
+			StringBuilder sb = new StringBuilder(s);
+			for (int i = 0; i < edits && sb.length() > 0; i++) {
+				int p = strings.nextInt(sb.length());
+				switch (strings.nextInt(3)) {
+				case 0:
+					sb.deleteCharAt(p);
+					break;
+				case 1:
+					sb.insert(p, strings.next(1));
+					break;
+				default:
+					sb.replace(p, p + 1, strings.next(1));
+				}
+			}
+			return sb.toString();
+		}
+
+		private void assertSameAsFullMatrix(float gapValue,
+				Substitution substitution) {
+			final StringMetric expected = fullMatrix(gapValue, substitution);
+			final NeedlemanWunch metric = new NeedlemanWunch(gapValue,
+					substitution);
+			for (int i = 0; i < 300; i++) {
+				final String a = strings.next(strings.nextInt(300));
+				final String b = strings.nextInt(2) == 0 ? mutate(a,
+						strings.nextInt(40)) : strings.next(strings.nextInt(300));
+				assertSameSimilarity(expected, metric, a, b);
+			}
+		}
+
+		@Test
+		public void matchMismatch() {
+			for (float gapValue : new float[] { -2.0f, -1.0f, -0.1f, 0.0f }) {
+				assertSameAsFullMatrix(gapValue, new MatchMismatch(0.0f, -1.0f));
+				assertSameAsFullMatrix(gapValue, new MatchMismatch(1.0f, -1.0f));
+			}
+		}
+
+		@Test
+		public void otherSubstitution() {
+			for (float gapValue : new float[] { -2.0f, -0.5f, 0.0f }) {
+				assertSameAsFullMatrix(gapValue, new MatchMismatch(0.0f, -1.0f) {
+					// Not inlined
+				});
+			}
+		}
+
+		@Test
+		public void longStrings() {
+			final StringMetric expected = fullMatrix(-2.0f, new MatchMismatch(
+					0.0f, -1.0f));
+			final NeedlemanWunch metric = new NeedlemanWunch();
+			final String a = strings.next(3000);
+			for (int edits : new int[] { 1, 10, 100, 1000 }) {
+				assertSameSimilarity(expected, metric, a, mutate(a, edits));
+			}
+		}
+	}
+
+	public static final class Default extends BoundedStringMetricTest {
 
 		@Override
-		protected StringMetric getMetric() {
+		protected BoundedStringMetric getMetric() {
 			return new NeedlemanWunch();
 		}
 
@@ -99,10 +212,10 @@ public class NeedlemanWunchTest {
 		}
 	}
 
-	public static final class NoGapValue extends StringMetricTest {
+	public static final class NoGapValue extends BoundedStringMetricTest {
 
 		@Override
-		protected StringMetric getMetric() {
+		protected BoundedStringMetric getMetric() {
 			return new NeedlemanWunch(0.0f, new MatchMismatch(0.0f, -1.0f));
 		}
 
@@ -140,10 +253,10 @@ public class NeedlemanWunchTest {
 		}
 	}
 
-	public static final class LowGapValue extends StringMetricTest {
+	public static final class LowGapValue extends BoundedStringMetricTest {
 
 		@Override
-		protected StringMetric getMetric() {
+		protected BoundedStringMetric getMetric() {
 			return new NeedlemanWunch(-0.1f, new MatchMismatch(0.0f, -1.0f));
 		}
 
@@ -0,0 +1,215 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.simmetrics.StringDistance;
+import org.simmetrics.StringMetric;
+
+/**
+ * Random strings from a fixed seed for tests that compare an optimized
+ * implementation with a straightforward reference implementation.
+ */
+final class RandomStrings {
+
+	/**
+	 * Few characters so random strings share many of them. Includes the null
+	 * character and characters outside of ASCII and Latin-1.
+	 */
+	static final String ALPHABET = "abcd\u0000\u00e9\u4e2d";
+
+	/**
+	 * Lengths around the ends of the first and second 64 bit word of
+	 * bit-parallel implementations.
+	 */
+	static final int[] WORD_BOUNDARIES = { 63, 64, 65, 127, 128, 129 };
+
+	private final Random random = new Random(1234);
+
+	int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	/**
+	 * Returns a random string of characters from {@link #ALPHABET}.
+	 *
+	 * @param length
+	 *            the length of the string
+	 * @return a random string
+	 */
+	String next(int length) {
+		return next(length, ALPHABET);
+	}
+
+	/**
+	 * Returns a random string of code points from an alphabet.
+	 *
+	 * @param length
+	 *            the length of the string in code points
+	 * @param alphabet
+	 *            the code points to draw from
+	 * @return a random string
+	 */
+	String next(int length, String alphabet) {
+		final int size = alphabet.codePointCount(0, alphabet.length());
+		final StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.appendCodePoint(alphabet.codePointAt(alphabet
+					.offsetByCodePoints(0, random.nextInt(size))));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns a random word of at most 19 characters. Words consist of five
+	 * letters and spaces so they share many tokens.
+	 *
+	 * @return a random word
+	 */
+	String word() {
+		return next(random.nextInt(20), "abcde ");
+	}
+
+	/**
+	 * Returns random words and near duplicates of these words in random order.
+	 * A third as many words as requested have a letter replaced and a sixth
+	 * end in a character outside the basic multilingual plane.
+	 *
+	 * @param count
+	 *            the number of random words
+	 * @param include
+	 *            strings to include as well
+	 * @return a shuffled list of words
+	 */
+	List<String> words(int count, String... include) {
+		final List<String> words = new ArrayList<>(asList(include));
+		for (int i = 0; i < count; i++) {
+			words.add(word());
+		}
+		for (int i = 0; i < count / 3; i++) {
+			final StringBuilder builder = new StringBuilder(
+					words.get(random.nextInt(words.size())));
+			if (builder.length() > 0) {
+				builder.setCharAt(random.nextInt(builder.length()), 'E');
+			}
+			words.add(builder.toString());
+		}
+		// Surrogate pairs are a single code point
+		for (int i = 0; i < count / 6; i++) {
+			words.add(words.get(random.nextInt(words.size()))
+					+ (random.nextBoolean() ? "😀" : "😁"));
+		}
+		Collections.shuffle(words, random);
+		return words;
+	}
+
+	/**
+	 * Asserts that the distance between 500 pairs of random strings shorter
+	 * than {@code maxLength} is the same for both distances. The strings of a
+	 * pair are drawn from the first few characters of {@link #ALPHABET} so
+	 * pairs with long common parts are generated as well.
+	 *
+	 * @param expected
+	 *            the reference implementation
+	 * @param actual
+	 *            the implementation under test
+	 * @param maxLength
+	 *            the bound on the length of the strings
+	 */
+	void assertSameDistance(StringDistance expected, StringDistance actual,
+			int maxLength) {
+		for (int i = 0; i < 500; i++) {
+			final String alphabet = nextAlphabet();
+			assertSameDistance(expected, actual,
+					next(random.nextInt(maxLength), alphabet),
+					next(random.nextInt(maxLength), alphabet));
+		}
+	}
+
+	static void assertSameDistance(StringDistance expected,
+			StringDistance actual, String a, String b) {
+		assertEquals(a + " vs " + b, expected.distance(a, b),
+				actual.distance(a, b), 0.0f);
+	}
+
+	/**
+	 * Asserts that the distance is the same for both distances for random
+	 * strings with a length in {@link #WORD_BOUNDARIES}. Each string is
+	 * compared with a random string of the same length and of three times its
+	 * length, with itself and with the empty string.
+	 *
+	 * @param expected
+	 *            the reference implementation
+	 * @param actual
+	 *            the implementation under test
+	 */
+	void assertSameDistanceAtWordBoundaries(StringDistance expected,
+			StringDistance actual) {
+		for (int length : WORD_BOUNDARIES) {
+			final String a = next(length);
+			assertSameDistance(expected, actual, a, next(length));
+			assertSameDistance(expected, actual, a, next(3 * length));
+			assertSameDistance(expected, actual, a, a);
+			assertSameDistance(expected, actual, a, "");
+			assertSameDistance(expected, actual, "", a);
+		}
+	}
+
+	/**
+	 * Asserts that the similarity of 500 pairs of random strings shorter than
+	 * {@code maxLength} is the same for both metrics. The pairs are generated
+	 * as in {@link #assertSameDistance(StringDistance, StringDistance, int)}.
+	 *
+	 * @param expected
+	 *            the reference implementation
+	 * @param actual
+	 *            the implementation under test
+	 * @param maxLength
+	 *            the bound on the length of the strings
+	 */
+	void assertSameSimilarity(StringMetric expected, StringMetric actual,
+			int maxLength) {
+		for (int i = 0; i < 500; i++) {
+			final String alphabet = nextAlphabet();
+			assertSameSimilarity(expected, actual,
+					next(random.nextInt(maxLength), alphabet),
+					next(random.nextInt(maxLength), alphabet));
+		}
+	}
+
+	static void assertSameSimilarity(StringMetric expected,
+			StringMetric actual, String a, String b) {
+		assertEquals(a + " vs " + b, expected.compare(a, b),
+				actual.compare(a, b), 0.0f);
+	}
+
+	private String nextAlphabet() {
+		return ALPHABET.substring(0, 1 + random.nextInt(ALPHABET.length()));
+	}
+
+}
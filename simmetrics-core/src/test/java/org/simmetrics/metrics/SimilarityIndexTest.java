@@ -0,0 +1,197 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static java.lang.Math.min;
+import static org.junit.Assert.assertEquals;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.simplifiers.Simplifiers.toLowerCase;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.SimilarityIndex.Match;
+
+@SuppressWarnings("javadoc")
+public class SimilarityIndexTest {
+
+	private static final int[] ks = { 1, 3, 10, 1000 };
+
+	private static List<String> dictionary;
+
+	private static List<String> queries;
+
+	@BeforeClass
+	public static void setUp() {
+		final RandomStrings strings = new RandomStrings();
+		dictionary = strings.words(300, "", "a", "a", "aaaaaaaaa😀",
+				"aaaaaaaaa");
+
+		queries = new ArrayList<>();
+		queries.add("");
+		queries.add("a");
+		queries.add("zzz");
+		queries.add("aaaaaaaaa");
+		queries.add("aaaaaaaaa😀");
+		queries.add("😀");
+		for (int i = 0; i < 20; i++) {
+			queries.add(strings.word());
+			queries.add(dictionary.get(strings.nextInt(dictionary.size())));
+		}
+	}
+
+	private static List<String> bruteForce(StringMetric metric, String query,
+			int k) {
+		final List<Match> matches = new ArrayList<>();
+		for (int i = 0; i < dictionary.size(); i++) {
+			final float similarity = metric.compare(query, dictionary.get(i));
+			if (similarity > 0.0f) {
+				matches.add(new Match(i, dictionary.get(i), similarity));
+			}
+		}
+		// Stable sort keeps entries with equal similarity in order
+		Collections.sort(matches, new Comparator<Match>() {
+			@Override
+			public int compare(Match o1, Match o2) {
+				return Float.compare(o2.getSimilarity(), o1.getSimilarity());
+			}
+		});
+		return toStrings(matches.subList(0, min(k, matches.size())));
+	}
+
+	private static List<String> toStrings(List<Match> matches) {
+		final List<String> strings = new ArrayList<>();
+		for (Match match : matches) {
+			strings.add(match.getIndex() + " " + match.getString() + " "
+					+ match.getSimilarity());
+		}
+		return strings;
+	}
+
+	private static void assertSearch(StringMetric metric) {
+		final SimilarityIndex index = new SimilarityIndex(metric, dictionary);
+		for (String query : queries) {
+			for (int k : ks) {
+				assertEquals(metric + " " + query + " " + k,
+						bruteForce(metric, query, k),
+						toStrings(index.search(query, k)));
+			}
+		}
+	}
+
+	@Test
+	public void jaccard() {
+		assertSearch(with(new Jaccard<String>()).tokenize(qGram(2)).build());
+	}
+
+	@Test
+	public void jaccardWithSimplifier() {
+		assertSearch(with(new Jaccard<String>()).simplify(toLowerCase())
+				.tokenize(whitespace()).build());
+	}
+
+	@Test
+	public void dice() {
+		assertSearch(with(new Dice<String>()).tokenize(qGram(2)).build());
+	}
+
+	@Test
+	public void overlapCoefficient() {
+		assertSearch(with(new OverlapCoefficient<String>()).tokenize(qGram(3))
+				.build());
+	}
+
+	@Test
+	public void tanimotoCoefficient() {
+		assertSearch(with(new TanimotoCoefficient<String>()).tokenize(
+				qGram(2)).build());
+	}
+
+	@Test
+	public void cosineSimilarity() {
+		assertSearch(with(new CosineSimilarity<String>()).tokenize(qGram(2))
+				.build());
+	}
+
+	@Test
+	public void levenshtein() {
+		assertSearch(new Levenshtein());
+	}
+
+	@Test
+	public void levenshteinWithWeights() {
+		assertSearch(new Levenshtein(0.5f, 1.0f));
+		assertSearch(new Levenshtein(1.0f, 0.3f));
+		assertSearch(new Levenshtein(1.0f, 0.0f));
+	}
+
+	@Test
+	public void levenshteinWithSimplifier() {
+		assertSearch(with(new Levenshtein()).simplify(toLowerCase()).build());
+	}
+
+	@Test
+	public void damerauLevenshtein() {
+		assertSearch(new DamerauLevenshtein());
+		assertSearch(new DamerauLevenshtein(0.5f, 1.0f, 0.7f));
+	}
+
+	@Test
+	public void jaro() {
+		assertSearch(new Jaro());
+	}
+
+	@Test
+	public void jaroWinkler() {
+		assertSearch(new JaroWinkler());
+		assertSearch(JaroWinkler.createWithBoostThreshold());
+		assertSearch(new JaroWinkler(0.5f, 0.4f, 4));
+	}
+
+	@Test
+	public void smithWaterman() {
+		assertSearch(new SmithWaterman());
+	}
+
+	@Test
+	public void emptyDictionary() {
+		final SimilarityIndex index = new SimilarityIndex(new Levenshtein(),
+				new ArrayList<String>());
+		assertEquals(0, index.search("a", 10).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroK() {
+		new SimilarityIndex(new Levenshtein(), dictionary).search("a", 0);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullQuery() {
+		new SimilarityIndex(new Levenshtein(), dictionary).search(null, 1);
+	}
+
+}
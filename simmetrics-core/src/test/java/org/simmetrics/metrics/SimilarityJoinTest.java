@@ -0,0 +1,233 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.simplifiers.Simplifiers.toLowerCase;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.simmetrics.Metric;
+import org.simmetrics.StringMetric;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+@SuppressWarnings("javadoc")
+public class SimilarityJoinTest {
+
+	private static final float[] thresholds = { 0.1f, 0.3f, 0.5f, 0.7f, 0.8f,
+			0.9f, 1.0f };
+
+	private static ForkJoinPool pool;
+
+	private static List<String> strings;
+
+	@BeforeClass
+	public static void setUp() {
+		pool = new ForkJoinPool(4);
+
+		// Small alphabet and near duplicates produce many similar pairs
+		strings = new RandomStrings().words(300, "", "", "a", "aaaaaaaaa😀",
+				"aaaaaaaaa");
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		pool.shutdown();
+	}
+
+	private static final class Collector implements SimilarityJoin.Listener {
+
+		final Map<List<Integer>, Float> pairs = new ConcurrentHashMap<>();
+
+		@Override
+		public void similar(int a, int b, float similarity) {
+			final Float previous = pairs.put(asList(a, b), similarity);
+			assertEquals(null, previous);
+		}
+	}
+
+	private static <T> Map<List<Integer>, Float> bruteForce(Metric<T> metric,
+			float threshold, List<T> elements) {
+		final Collector collector = new Collector();
+		for (int b = 0; b < elements.size(); b++) {
+			for (int a = 0; a < b; a++) {
+				final float similarity = metric.compare(elements.get(a),
+						elements.get(b));
+				if (similarity >= threshold) {
+					collector.similar(a, b, similarity);
+				}
+			}
+		}
+		return collector.pairs;
+	}
+
+	private static void assertJoin(StringMetric metric) {
+		for (float threshold : thresholds) {
+			final Collector collector = new Collector();
+			SimilarityJoin.join(metric, threshold, strings, collector, pool);
+			assertEquals(metric + " " + threshold,
+					bruteForce(metric, threshold, strings), collector.pairs);
+		}
+	}
+
+	private static List<Set<String>> sets() {
+		final List<Set<String>> sets = new ArrayList<>();
+		for (String string : strings) {
+			sets.add(new HashSet<>(qGram(2).tokenizeToList(string)));
+		}
+		return sets;
+	}
+
+	private static List<Multiset<String>> multisets() {
+		final List<Multiset<String>> multisets = new ArrayList<>();
+		for (String string : strings) {
+			multisets.add(HashMultiset.create(qGram(2).tokenizeToList(string)));
+		}
+		return multisets;
+	}
+
+	@Test
+	public void jaccard() {
+		assertJoin(with(new Jaccard<String>()).tokenize(qGram(2)).build());
+	}
+
+	@Test
+	public void jaccardWithSimplifier() {
+		assertJoin(with(new Jaccard<String>()).simplify(toLowerCase())
+				.tokenize(whitespace()).build());
+	}
+
+	@Test
+	public void dice() {
+		assertJoin(with(new Dice<String>()).tokenize(qGram(2)).build());
+	}
+
+	@Test
+	public void overlapCoefficient() {
+		assertJoin(with(new OverlapCoefficient<String>()).tokenize(qGram(2))
+				.build());
+	}
+
+	@Test
+	public void cosineSimilarity() {
+		assertJoin(with(new CosineSimilarity<String>()).tokenize(qGram(2))
+				.build());
+	}
+
+	@Test
+	public void cosineSimilarityWithSimplifier() {
+		assertJoin(with(new CosineSimilarity<String>())
+				.simplify(toLowerCase()).tokenize(qGram(3)).build());
+	}
+
+	@Test
+	public void levenshtein() {
+		assertJoin(new Levenshtein());
+	}
+
+	@Test
+	public void levenshteinWithWeights() {
+		assertJoin(new Levenshtein(0.5f, 1.0f));
+		assertJoin(new Levenshtein(1.0f, 0.5f));
+	}
+
+	@Test
+	public void levenshteinWithSimplifier() {
+		assertJoin(with(new Levenshtein()).simplify(toLowerCase()).build());
+	}
+
+	@Test
+	public void levenshteinWithoutSubstitute() {
+		assertJoin(new Levenshtein(1.0f, 0.0f));
+	}
+
+	@Test
+	public void jaroWinkler() {
+		assertJoin(new JaroWinkler());
+	}
+
+	@Test
+	public void joinSets() {
+		final List<Set<String>> sets = sets();
+		for (float threshold : thresholds) {
+			final Collector collector = new Collector();
+			SimilarityJoin.joinSets(new Jaccard<String>(), threshold, sets,
+					collector, pool);
+			assertEquals(bruteForce(new Jaccard<String>(), threshold, sets),
+					collector.pairs);
+		}
+	}
+
+	@Test
+	public void joinMultisetsWithoutFilter() {
+		final List<Multiset<String>> multisets = multisets();
+		final Collector collector = new Collector();
+		SimilarityJoin.joinMultisets(new SimonWhite<String>(), 0.5f,
+				multisets, collector, pool);
+		assertEquals(bruteForce(new SimonWhite<String>(), 0.5f, multisets),
+				collector.pairs);
+	}
+
+	@Test
+	public void joinMultisets() {
+		final List<Multiset<String>> multisets = multisets();
+		for (float threshold : thresholds) {
+			final Collector collector = new Collector();
+			SimilarityJoin.joinMultisets(new CosineSimilarity<String>(),
+					threshold, multisets, collector);
+			assertEquals(bruteForce(new CosineSimilarity<String>(), threshold,
+					multisets), collector.pairs);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroThreshold() {
+		SimilarityJoin.join(new Levenshtein(), 0.0f, strings, new Collector(),
+				pool);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void thresholdLargerThenOne() {
+		SimilarityJoin.join(new Levenshtein(), 1.1f, strings, new Collector(),
+				pool);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullListener() {
+		SimilarityJoin.join(new Levenshtein(), 0.5f, strings, null, pool);
+	}
+
+}
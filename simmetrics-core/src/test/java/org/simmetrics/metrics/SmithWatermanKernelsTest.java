@@ -0,0 +1,173 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.functions.AffineGap;
+import org.simmetrics.metrics.functions.ConstantGap;
+import org.simmetrics.metrics.functions.Gap;
+import org.simmetrics.metrics.functions.LinearGap;
+import org.simmetrics.metrics.functions.MatchMismatch;
+import org.simmetrics.metrics.functions.Substitution;
+
+import com.google.common.base.Strings;
+
+/**
+ * Compares the specialized kernels of {@link SmithWaterman} and
+ * {@link SmithWatermanGotoh} with the generic implementations. The generic
+ * implementations are used when the gap and substitution functions are
+ * wrapped.
+ */
+@SuppressWarnings("javadoc")
+public class SmithWatermanKernelsTest {
+
+	private static List<String> strings;
+
+	@BeforeClass
+	public static void setUp() {
+		final RandomStrings randomStrings = new RandomStrings();
+		strings = new ArrayList<>();
+		strings.add("a");
+		strings.add("ab");
+		strings.add("Healed");
+		strings.add("Sealed");
+		strings.add("Web Database Applications");
+		strings.add("Building Web Database Applications with Visual Studio 6");
+		for (int i = 0; i < 40; i++) {
+			strings.add(randomStrings.next(1 + randomStrings.nextInt(20),
+					"abcd"));
+		}
+	}
+
+	@Test
+	public void smithWatermanGotoh() {
+		final MatchMismatch substitution = new MatchMismatch(1.0f, -2.0f);
+		assertEqual(new SmithWatermanGotoh(-0.5f, substitution),
+				new SmithWatermanGotoh(-0.5f, wrap(substitution)), 0.0f);
+
+		final MatchMismatch fractions = new MatchMismatch(0.7f, -0.3f);
+		assertEqual(new SmithWatermanGotoh(-0.1f, fractions),
+				new SmithWatermanGotoh(-0.1f, wrap(fractions)), 0.0f);
+	}
+
+	@Test
+	public void smithWaterman() {
+		final MatchMismatch substitution = new MatchMismatch(5.0f, -3.0f);
+		final Gap[] gaps = { new AffineGap(-5.0f, -1.0f),
+				new LinearGap(-2.0f), new ConstantGap(-3.0f) };
+		for (Gap gap : gaps) {
+			for (int windowSize : new int[] { 0, 1, 2, 3, 5,
+					Integer.MAX_VALUE }) {
+				final StringMetric expected = new SmithWaterman(wrap(gap),
+						wrap(substitution), windowSize);
+				assertEqual(new SmithWaterman(gap, substitution, windowSize),
+						expected, 0.0f);
+				assertEqual(new SmithWaterman(gap, wrap(substitution),
+						windowSize), expected, 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void smithWatermanFractions() {
+		// Gaps are extended by repeated addition rather then multiplication
+		final MatchMismatch substitution = new MatchMismatch(0.7f, -0.3f);
+		final Gap gap = new AffineGap(-0.3f, -0.1f);
+		assertEqual(new SmithWaterman(gap, substitution, Integer.MAX_VALUE),
+				new SmithWaterman(wrap(gap), wrap(substitution),
+						Integer.MAX_VALUE), 0.0001f);
+	}
+
+	@Test
+	public void smithWatermanLongStrings() {
+		final RandomStrings randomStrings = new RandomStrings();
+		final String a = randomStrings.next(300, "abcd");
+		final String b = randomStrings.next(300, "abcd");
+
+		final MatchMismatch substitution = new MatchMismatch(5.0f, -3.0f);
+		final Gap gap = new AffineGap(-5.0f, -1.0f);
+		assertEquals(new SmithWaterman(wrap(gap), substitution,
+				Integer.MAX_VALUE).compare(a, b),
+				new SmithWaterman(gap, substitution, Integer.MAX_VALUE)
+						.compare(a, b), 0.0f);
+
+		// Cubic time would take minutes
+		final String c = Strings.repeat("Web Database Applications ", 400);
+		assertEquals(1.0f, new SmithWaterman().compare(c, c), 0.0f);
+	}
+
+	private static void assertEqual(StringMetric actual,
+			StringMetric expected, float delta) {
+		for (String a : strings) {
+			for (String b : strings) {
+				assertEquals(a + " " + b, expected.compare(a, b),
+						actual.compare(a, b), delta);
+			}
+		}
+	}
+
+	private static Gap wrap(final Gap gap) {
+		return new Gap() {
+
+			@Override
+			public float value(int fromIndex, int toIndex) {
+				return gap.value(fromIndex, toIndex);
+			}
+
+			@Override
+			public float max() {
+				return gap.max();
+			}
+
+			@Override
+			public float min() {
+				return gap.min();
+			}
+		};
+	}
+
+	private static Substitution wrap(final Substitution substitution) {
+		return new Substitution() {
+
+			@Override
+			public float compare(String a, int aIndex, String b, int bIndex) {
+				return substitution.compare(a, aIndex, b, bIndex);
+			}
+
+			@Override
+			public float max() {
+				return substitution.max();
+			}
+
+			@Override
+			public float min() {
+				return substitution.min();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static org.simmetrics.metrics.CorpusStatisticsTest.COMPANIES;
+
+import org.simmetrics.Metric;
+import org.simmetrics.MultisetMetricTest;
+
+import com.google.common.collect.Multiset;
+
+@SuppressWarnings("javadoc")
+public final class SoftTfIdfTest extends MultisetMetricTest {
+
+	@Override
+	protected boolean supportsNullValues() {
+		return false;
+	}
+
+	@Override
+	protected boolean satisfiesSubadditivity() {
+		return false;
+	}
+
+	@Override
+	protected Metric<Multiset<String>> getMetric() {
+		return new SoftTfIdf(COMPANIES);
+	}
+
+	@Override
+	protected T[] getTests() {
+		return new T[] {
+				new T(0.6060f, "Acme Inc", "Acme Ltd"),
+				new T(0.3125f, "Acme Inc", "Apex Inc"),
+				new T(0.9428f, "Acme Inc", "Acme Inc Inc"),
+				new T(0.0000f, "Acme Inc", ""),
+				new T(0.9600f, "Acme", "Acmee"),
+				new T(0.2569f, "Initech Ltd", "Inetech Ltd"),
+				new T(0.8966f, "Umbrella", "Umbrela Inc"),
+				new T(0.1544f, "Foo Inc", "Bar Inc"),
+				new T(0.7500f, "a b c d", "a b c e") };
+	}
+
+}
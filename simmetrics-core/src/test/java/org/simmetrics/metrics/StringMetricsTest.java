@@ -20,6 +20,7 @@
 
 package org.simmetrics.metrics;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
@@ -35,6 +36,7 @@ import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.simmetrics.Metric;
+import org.simmetrics.PreparedStringMetric;
 import org.simmetrics.StringMetric;
 import org.simmetrics.StringMetricTest;
 import org.simmetrics.metrics.Identity;
@@ -155,6 +157,72 @@ public class StringMetricsTest {
 
 	}
 
+	public static class Compare {
+
+		private final List<String> candidates = asList("To", "repeat",
+				"repeat", "is", "to", "", "repeat");
+
+		@Test(expected = IllegalArgumentException.class)
+		public void shouldThrowWhenSimilaritiesTooShort() {
+			StringMetrics.compare(new Levenshtein(), "repeat", candidates,
+					new float[candidates.size() - 1]);
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void shouldThrowWhenSimilaritiesTooShortForNonBatchMetric() {
+			StringMetrics.compare(new LongestCommonSubstring(), "repeat",
+					candidates, new float[candidates.size() - 1]);
+		}
+
+		@Test
+		public void shouldCompareAgainstEachCandidate() {
+			final StringMetric metric = new LongestCommonSubstring();
+			assertBatchEquals(metric, "repeat");
+		}
+
+		@Test
+		public void shouldSimplifyBeforeBatchMetric() {
+			final StringMetric metric = new ForStringWithSimplifier(
+					new Levenshtein(), toLowerCase());
+			assertBatchEquals(metric, "Repeat");
+		}
+
+		@Test
+		public void shouldDelegateToBatchMetric() {
+			final StringMetric metric = new ForString(new Jaro());
+			assertBatchEquals(metric, "Repeat");
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void shouldThrowWhenPreparingNull() {
+			StringMetrics.prepare(new LongestCommonSubstring(), null);
+		}
+
+		@Test
+		public void shouldPrepareWithWrappedMetric() {
+			final StringMetric metric = new ForStringWithSimplifier(
+					new JaroWinkler(), toLowerCase());
+			final PreparedStringMetric prepared = StringMetrics.prepare(
+					metric, "Repeat");
+			for (String candidate : candidates) {
+				assertEquals(metric.compare("Repeat", candidate),
+						prepared.compare(candidate), 0.0f);
+			}
+		}
+
+		private void assertBatchEquals(StringMetric metric, String query) {
+			final float[] similarities = new float[candidates.size() + 1];
+			similarities[candidates.size()] = -1.0f;
+			StringMetrics.compare(metric, query, candidates, similarities);
+
+			for (int i = 0; i < candidates.size(); i++) {
+				assertEquals(metric.compare(query, candidates.get(i)),
+						similarities[i], 0.0f);
+			}
+			assertEquals(-1.0f, similarities[candidates.size()], 0.0f);
+		}
+	}
+
 	public static class CreateForList {
 
 		private Metric<List<String>> metric = new Identity<>();
@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.tokenizers.Tokenizers.hashing;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+import static org.simmetrics.tokenizers.Tokenizers.qGramWithFilter;
+import static org.simmetrics.tokenizers.Tokenizers.qGramWithPadding;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.simmetrics.Metric;
+import org.simmetrics.StringMetric;
+import org.simmetrics.tokenizers.HashingTokenizer;
+import org.simmetrics.tokenizers.Tokenizer;
+
+import com.google.common.collect.Multiset;
+
+@SuppressWarnings("javadoc")
+public class TokenHashesTest {
+
+	private static final float DELTA = 0.0f;
+
+	private static List<String> strings;
+
+	private static List<Tokenizer> tokenizers;
+
+	@BeforeClass
+	public static void setUp() {
+		final RandomStrings randomStrings = new RandomStrings();
+		strings = new ArrayList<>();
+		strings.add("");
+		strings.add("a");
+		strings.add("aa");
+		strings.add("aaaaaa");
+		strings.add("😀");
+		strings.add("😀😀a");
+		strings.add("\uD83D");
+		strings.add("a b a");
+		strings.add("abcd abcd ab");
+		for (int i = 0; i < 60; i++) {
+			strings.add(randomStrings.next(randomStrings.nextInt(12),
+					"abc é😀😁 "));
+		}
+
+		tokenizers = new ArrayList<>();
+		for (int q = 1; q <= 5; q++) {
+			tokenizers.add(qGram(q));
+			tokenizers.add(qGramWithFilter(q));
+			tokenizers.add(qGramWithPadding(q));
+		}
+		tokenizers.add(qGramWithPadding(3, "😀"));
+		tokenizers.add(hashing(whitespace()));
+	}
+
+	@Test
+	public void unsupportedTokenizer() {
+		assertNull(TokenHashes.forSet(new Jaccard<String>(), whitespace()));
+		assertNull(TokenHashes.forMultiset(new CosineSimilarity<String>(),
+				whitespace()));
+	}
+
+	@Test
+	public void hashingReturnsHashingTokenizer() {
+		final Tokenizer tokenizer = qGram(2);
+		assertSame(tokenizer, hashing(tokenizer));
+	}
+
+	@Test
+	public void builderHashesTokens() {
+		final StringMetric metric = with(new Jaccard<String>())
+				.tokenize(whitespace())
+				.build();
+		final StringMetric hashed = with(new Jaccard<String>())
+				.tokenize(whitespace())
+				.hashTokens()
+				.build();
+		for (String a : strings) {
+			for (String b : strings) {
+				assertEquals(metric.compare(a, b), hashed.compare(a, b), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void hashesMatchTokens() {
+		for (Tokenizer tokenizer : tokenizers) {
+			final HashingTokenizer hashing = (HashingTokenizer) tokenizer;
+			for (String string : strings) {
+				final List<String> tokens = tokenizer.tokenizeToList(string);
+				final long[] hashes = hashing.tokenizeToHashes(string);
+				assertEquals(tokenizer + " " + string, tokens.size(),
+						hashes.length);
+
+				// Equal tokens have equal hashes, distinct tokens don't
+				for (int i = 0; i < hashes.length; i++) {
+					for (int j = 0; j < hashes.length; j++) {
+						assertEquals(tokenizer + " " + string,
+								tokens.get(i).equals(tokens.get(j)),
+								hashes[i] == hashes[j]);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shortTokensDoNotCollide() {
+		final HashingTokenizer tokenizer = (HashingTokenizer) qGram(3);
+		final Set<Long> hashes = new HashSet<>();
+		final Set<String> tokens = new HashSet<>();
+		for (String string : strings) {
+			for (long hash : tokenizer.tokenizeToHashes(string)) {
+				hashes.add(hash);
+			}
+			tokens.addAll(qGram(3).tokenizeToSet(string));
+		}
+		assertEquals(tokens.size(), hashes.size());
+	}
+
+	@Test
+	public void jaccard() {
+		testSet(new Jaccard<String>());
+	}
+
+	@Test
+	public void dice() {
+		testSet(new Dice<String>());
+	}
+
+	@Test
+	public void overlapCoefficient() {
+		testSet(new OverlapCoefficient<String>());
+	}
+
+	@Test
+	public void tanimotoCoefficient() {
+		testSet(new TanimotoCoefficient<String>());
+	}
+
+	@Test
+	public void cosineSimilarity() {
+		testMultiset(new CosineSimilarity<String>());
+	}
+
+	@Test
+	public void simonWhite() {
+		testMultiset(new SimonWhite<String>());
+	}
+
+	@Test
+	public void generalizedJaccard() {
+		testMultiset(new GeneralizedJaccard<String>());
+	}
+
+	@Test
+	public void generalizedOverlapCoefficient() {
+		testMultiset(new GeneralizedOverlapCoefficient<String>());
+	}
+
+	@Test
+	public void blockDistance() {
+		testMultiset(new BlockDistance<String>());
+	}
+
+	@Test
+	public void euclideanDistance() {
+		testMultiset(new EuclideanDistance<String>());
+	}
+
+	private static void testMultiset(Metric<Multiset<String>> metric) {
+		for (Tokenizer tokenizer : tokenizers) {
+			final TokenHashes hashes = TokenHashes.forMultiset(metric,
+					tokenizer);
+			assertNotNull(hashes);
+			for (String a : strings) {
+				for (String b : strings) {
+					assertEquals(tokenizer + " " + a + " " + b,
+							metric.compare(tokenizer.tokenizeToMultiset(a),
+									tokenizer.tokenizeToMultiset(b)),
+							hashes.compare(a, b), DELTA);
+				}
+			}
+		}
+	}
+
+	private static void testSet(Metric<Set<String>> metric) {
+		for (Tokenizer tokenizer : tokenizers) {
+			final TokenHashes hashes = TokenHashes.forSet(metric, tokenizer);
+			assertNotNull(hashes);
+			for (String a : strings) {
+				for (String b : strings) {
+					assertEquals(tokenizer + " " + a + " " + b,
+							metric.compare(tokenizer.tokenizeToSet(a),
+									tokenizer.tokenizeToSet(b)),
+							hashes.compare(a, b), DELTA);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.metrics;
+
+import static com.google.common.base.Strings.repeat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class WorkspaceTest {
+
+	private Workspace workspace;
+
+	@Before
+	public void setUp() {
+		workspace = Workspace.acquire();
+	}
+
+	@After
+	public void tearDown() {
+		workspace.release();
+	}
+
+	@Test
+	public void reusesWorkspaceAfterRelease() {
+		workspace.release();
+		final Workspace reacquired = Workspace.acquire();
+		assertSame(workspace, reacquired);
+	}
+
+	@Test
+	public void nestedWorkspaceIsTemporary() {
+		final Workspace nested = Workspace.acquire();
+		try {
+			assertNotSame(workspace, nested);
+			assertNotSame(workspace.floats(0, 10), nested.floats(0, 10));
+			assertNotSame(nested.floats(0, 10), nested.floats(0, 10));
+		} finally {
+			nested.release();
+		}
+	}
+
+	@Test
+	public void reusesBuffers() {
+		final float[] floats = workspace.floats(0, 10);
+		assertSame(floats, workspace.floats(0, 5));
+		assertSame(floats, workspace.floats(0, 10));
+		assertNotSame(floats, workspace.floats(1, 10));
+	}
+
+	@Test
+	public void growsToPowerOfTwo() {
+		assertEquals(16, workspace.ints(2, 10).length);
+		assertEquals(64, workspace.ints(2, 33).length);
+		assertEquals(64, workspace.ints(2, 64).length);
+		assertEquals(128, workspace.longs(2, 65).length);
+		assertEquals(1, workspace.chars(2, 0).length);
+	}
+
+	@Test
+	public void doesNotRetainLargeBuffers() {
+		final int length = Workspace.MAX_RETAINED_LENGTH + 1;
+		final float[] floats = workspace.floats(2, length);
+		assertEquals(length, floats.length);
+		assertNotSame(floats, workspace.floats(2, length));
+	}
+
+	@Test
+	public void clearsBooleans() {
+		final boolean[] booleans = workspace.booleans(0, 10);
+		booleans[3] = true;
+		booleans[9] = true;
+		assertSame(booleans, workspace.booleans(0, 4));
+		assertFalse(booleans[3]);
+		assertTrue(booleans[9]);
+	}
+
+	@Test
+	public void reusesBitmasks() {
+		final CharBitmasks bitmasks = workspace.bitmasks(0, "abcab");
+		assertEquals(0b01001L, bitmasks.get('a'));
+		assertSame(bitmasks, workspace.bitmasks(0, "bx"));
+		assertEquals(0b01L, bitmasks.get('b'));
+		assertEquals(0b10L, bitmasks.get('x'));
+		assertEquals(0L, bitmasks.get('a'));
+		assertEquals(0L, bitmasks.get('c'));
+	}
+
+	@Test
+	public void bitmaskBuffersAreIndependent() {
+		final CharBitmasks first = workspace.bitmasks(0, "ab");
+		final CharBitmasks second = workspace.bitmasks(1, "ba");
+		assertNotSame(first, second);
+		assertEquals(0b01L, first.get('a'));
+		assertEquals(0b10L, second.get('a'));
+	}
+
+	@Test
+	public void reusedBitmasksMatchNewBitmasks() {
+		final String[] patterns = { "", "a", "hello world", "\u0000ab\u0000",
+				repeat("ab", 70), "ab" };
+		for (String pattern : patterns) {
+			final CharBitmasks reused = workspace.bitmasks(0, pattern);
+			final CharBitmasks fresh = new CharBitmasks(pattern);
+			assertEquals(fresh.words(), reused.words());
+			final char[] chars = "abdehlorw \u0000".toCharArray();
+			for (char c : chars) {
+				final long[] expected = new long[fresh.words()];
+				final long[] actual = new long[reused.words()];
+				for (int w = 0; w < expected.length; w++) {
+					expected[w] = fresh.get(fresh.offset(c), w);
+					actual[w] = reused.get(reused.offset(c), w);
+				}
+				assertArrayEquals(expected, actual);
+			}
+		}
+	}
+}
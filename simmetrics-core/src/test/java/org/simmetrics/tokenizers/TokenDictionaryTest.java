@@ -0,0 +1,196 @@
+/*
+ * #%L
+ * Simmetrics Core
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.tokenizers;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.simmetrics.builders.StringMetricBuilder.with;
+import static org.simmetrics.tokenizers.Tokenizers.interning;
+import static org.simmetrics.tokenizers.Tokenizers.qGram;
+import static org.simmetrics.tokenizers.Tokenizers.whitespace;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.simmetrics.StringMetric;
+import org.simmetrics.builders.StringCache;
+import org.simmetrics.metrics.Jaccard;
+
+import com.google.common.collect.HashMultiset;
+
+@SuppressWarnings("javadoc")
+public class TokenDictionaryTest {
+
+	@Test
+	public void assignsDenseIds() {
+		final TokenDictionary dictionary = TokenDictionary.create();
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, dictionary.id("t" + i));
+		}
+		assertEquals(42, dictionary.id("t42"));
+		assertEquals(42, dictionary.find("t42"));
+		assertEquals(TokenDictionary.ABSENT, dictionary.find("absent"));
+		assertEquals("t42", dictionary.token(42));
+		assertEquals(100, dictionary.size());
+	}
+
+	@Test
+	public void returnsSameInstance() {
+		final TokenDictionary dictionary = TokenDictionary.create();
+		final String token = new String("token");
+		dictionary.id(token);
+		assertSame(token, dictionary.token(dictionary.id(new String("token"))));
+	}
+
+	@Test
+	public void bounded() {
+		final TokenDictionary dictionary = TokenDictionary.create(2);
+		assertEquals(0, dictionary.id("a"));
+		assertEquals(1, dictionary.id("b"));
+		assertEquals(TokenDictionary.ABSENT, dictionary.id("c"));
+		assertEquals(1, dictionary.id("b"));
+		assertEquals(2, dictionary.size());
+
+		assertEquals(TokenDictionary.ABSENT, TokenDictionary.create(0).id("a"));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void unassignedId() {
+		final TokenDictionary dictionary = TokenDictionary.create();
+		dictionary.id("a");
+		dictionary.token(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeSize() {
+		TokenDictionary.create(-1);
+	}
+
+	@Test
+	public void concurrentIds() throws InterruptedException {
+		final TokenDictionary dictionary = TokenDictionary.create();
+		final AtomicInteger failures = new AtomicInteger();
+		final List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			final int seed = t;
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						final String token = "t" + ((i * 7 + seed) % 5000);
+						if (!token.equals(dictionary.token(dictionary
+								.id(token)))) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, failures.get());
+		assertEquals(5000, dictionary.size());
+	}
+
+	@Test
+	public void interningTokenizer() {
+		final TokenDictionary dictionary = TokenDictionary.create();
+		final Tokenizer tokenizer = whitespace();
+		final HashingTokenizer interning = interning(tokenizer, dictionary);
+		final String input = "to be or not to be";
+
+		assertEquals(tokenizer.tokenizeToList(input),
+				interning.tokenizeToList(input));
+		assertEquals(tokenizer.tokenizeToSet(input),
+				interning.tokenizeToSet(input));
+		assertEquals(tokenizer.tokenizeToMultiset(input),
+				interning.tokenizeToMultiset(input));
+		assertArrayEquals(new long[] { 0, 1, 2, 3, 0, 1 },
+				interning.tokenizeToHashes(input));
+
+		final Set<String> set = interning.tokenizeToSet(input);
+		assertTrue(set.contains("not"));
+		assertFalse(set.contains("question"));
+		assertFalse(set.contains(1));
+		assertEquals(new HashSet<>(asList("to", "be", "or", "not")), set);
+	}
+
+	@Test
+	public void interningTokenizerWhenFull() {
+		final TokenDictionary dictionary = TokenDictionary.create(2);
+		final Tokenizer tokenizer = whitespace();
+		final HashingTokenizer interning = interning(tokenizer, dictionary);
+		final String input = "to be or not to be";
+
+		assertEquals(tokenizer.tokenizeToList(input),
+				interning.tokenizeToList(input));
+		assertEquals(tokenizer.tokenizeToSet(input),
+				interning.tokenizeToSet(input));
+		assertEquals(HashMultiset.create(tokenizer.tokenizeToList(input)),
+				interning.tokenizeToMultiset(input));
+
+		final long[] hashes = interning.tokenizeToHashes(input);
+		assertEquals(0, hashes[0]);
+		assertEquals(1, hashes[1]);
+		assertTrue(hashes[2] < 0);
+		assertTrue(hashes[3] < 0);
+		assertTrue(hashes[2] != hashes[3]);
+	}
+
+	@Test
+	public void interningMetric() {
+		final TokenDictionary dictionary = TokenDictionary.create();
+		final StringMetric interned = with(new Jaccard<String>())
+				.tokenize(qGram(2))
+				.internTokens(dictionary)
+				.build();
+		final StringMetric cached = with(new Jaccard<String>())
+				.tokenize(qGram(2))
+				.internTokens(dictionary)
+				.cacheTokens(StringCache.<Set<String>> create(100))
+				.build();
+		final StringMetric plain = with(new Jaccard<String>())
+				.tokenize(qGram(2))
+				.build();
+
+		final String[] strings = { "Healed", "Sealed", "Healthy", "Heard",
+				"Herded", "Help", "Sold", "" };
+		for (String a : strings) {
+			for (String b : strings) {
+				assertEquals(plain.compare(a, b), interned.compare(a, b), 0.0f);
+				assertEquals(plain.compare(a, b), cached.compare(a, b), 0.0f);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,676 @@
+/*
+ * #%L
+ * Simmetrics Examples
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.simmetrics.example;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.simmetrics.PreparedStringMetric;
+import org.simmetrics.StringMetric;
+import org.simmetrics.builders.StringMetricBuilder;
+import org.simmetrics.metrics.CosineSimilarity;
+import org.simmetrics.metrics.StringMetrics;
+import org.simmetrics.simplifiers.Simplifiers;
+import org.simmetrics.tokenizers.Tokenizers;
+
+/**
+ * Matches the records of two delimited files, or of one file against itself,
+ * and writes the pairs with a similarity of at least a threshold.
+ * <p>
+ * The first file is read in chunks. Each record in a chunk is prepared once
+ * with {@link StringMetrics#prepare(StringMetric, String)}, so a metric built
+ * by the {@code StringMetricBuilder} simplifies and tokenizes it only once.
+ * The second file is then streamed past the chunk in batches.
+ * <p>
+ * A reader, a pool of scorers and a writer are connected by bounded queues. A
+ * stage that runs ahead blocks until the next stage catches up. Memory use
+ * depends on the chunk size, batch size and number of threads but not on the
+ * size of the files.
+ * <p>
+ * Each line is a record. Fields are separated by the delimiter and may be
+ * quoted with double quotes. Quoted fields may not span multiple lines.
+ * Records without the matched column are skipped. Each pair is written as a
+ * tab separated line with the line numbers of both records, their similarity
+ * and the matched fields. Pairs are written in no particular order.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * FileMatcher [--header] threshold column left.csv [right.csv] matches.tsv
+ * </pre>
+ *
+ * The delimiter is chosen for each file. Files ending in {@code .tsv} are tab
+ * separated, other files comma separated. With {@code --header} the first line
+ * of each file is skipped.
+ */
+public final class FileMatcher {
+
+	/**
+	 * Builds a file matcher.
+	 */
+	public static final class Builder {
+
+		private final StringMetric metric;
+		private float threshold = 1.0f;
+		private int column = 0;
+		private char delimiter = ',';
+		private boolean header = false;
+		private int chunkSize = 1 << 14;
+		private int batchSize = 1 << 8;
+		private int threads = Runtime.getRuntime().availableProcessors();
+
+		Builder(StringMetric metric) {
+			this.metric = checkNotNull(metric);
+		}
+
+		/**
+		 * Sets the minimum similarity of a pair. Defaults to 1.
+		 *
+		 * @param threshold
+		 *            minimum similarity, larger then 0 and at most 1
+		 * @return this builder
+		 */
+		public Builder threshold(float threshold) {
+			checkArgument(0.0f < threshold && threshold <= 1.0f,
+					"threshold must be larger then 0 and at most 1");
+			this.threshold = threshold;
+			return this;
+		}
+
+		/**
+		 * Sets the index of the column to match on. Defaults to 0.
+		 *
+		 * @param column
+		 *            index of the column, at least 0
+		 * @return this builder
+		 */
+		public Builder column(int column) {
+			checkArgument(column >= 0, "column may not be negative");
+			this.column = column;
+			return this;
+		}
+
+		/**
+		 * Sets the field delimiter. Defaults to a comma.
+		 *
+		 * @param delimiter
+		 *            the field delimiter
+		 * @return this builder
+		 */
+		public Builder delimiter(char delimiter) {
+			checkArgument(delimiter != '"' && delimiter != '\n'
+					&& delimiter != '\r', "invalid delimiter");
+			this.delimiter = delimiter;
+			return this;
+		}
+
+		/**
+		 * Skips the first line of each file. Defaults to false.
+		 *
+		 * @param header
+		 *            true when the files have a header
+		 * @return this builder
+		 */
+		public Builder header(boolean header) {
+			this.header = header;
+			return this;
+		}
+
+		/**
+		 * Sets the number of records of the first file that are prepared and
+		 * kept in memory at once. The second file is read once for each
+		 * chunk. Defaults to 16384.
+		 *
+		 * @param chunkSize
+		 *            number of records in a chunk, larger then 0
+		 * @return this builder
+		 */
+		public Builder chunkSize(int chunkSize) {
+			checkArgument(chunkSize > 0, "chunkSize must be larger then 0");
+			this.chunkSize = chunkSize;
+			return this;
+		}
+
+		/**
+		 * Sets the number of records of the second file handed to a scorer at
+		 * once. Defaults to 256.
+		 *
+		 * @param batchSize
+		 *            number of records in a batch, larger then 0
+		 * @return this builder
+		 */
+		public Builder batchSize(int batchSize) {
+			checkArgument(batchSize > 0, "batchSize must be larger then 0");
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets the number of scorer threads. Defaults to the number of
+		 * available processors.
+		 *
+		 * @param threads
+		 *            number of scorer threads, larger then 0
+		 * @return this builder
+		 */
+		public Builder threads(int threads) {
+			checkArgument(threads > 0, "threads must be larger then 0");
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * Builds the file matcher.
+		 *
+		 * @return a new file matcher
+		 */
+		public FileMatcher build() {
+			return new FileMatcher(this);
+		}
+	}
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final Batch END_OF_BATCHES = new Batch(null, 0);
+
+	private static final List<Match> END_OF_MATCHES = new ArrayList<>(0);
+
+	/**
+	 * Starts building a file matcher that compares records with the given
+	 * metric.
+	 *
+	 * @param metric
+	 *            metric to compare records with
+	 * @return a builder
+	 */
+	public static Builder with(StringMetric metric) {
+		return new Builder(metric);
+	}
+
+	/**
+	 * Matches the lower cased 3-grams of a column with the cosine similarity.
+	 *
+	 * @param args
+	 *            optional header flag, threshold, column, first file,
+	 *            optional second file and output file
+	 * @throws IOException
+	 *             when a file could not be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		final boolean header = args.length > 0 && args[0].equals("--header");
+		final String[] operands = header ? Arrays.copyOfRange(args, 1,
+				args.length) : args;
+		if (operands.length != 4 && operands.length != 5) {
+			System.err.println("Usage: FileMatcher [--header] threshold column "
+					+ "left.csv [right.csv] matches.tsv");
+			System.exit(1);
+		}
+
+		final StringMetric metric =
+				StringMetricBuilder.with(new CosineSimilarity<String>())
+				.simplify(Simplifiers.toLowerCase())
+				.tokenize(Tokenizers.qGram(3))
+				.build();
+
+		final FileMatcher matcher = with(metric)
+				.threshold(Float.parseFloat(operands[0]))
+				.column(Integer.parseInt(operands[1]))
+				.header(header)
+				.build();
+
+		final Path left = Paths.get(operands[2]);
+		if (operands.length == 4) {
+			matcher.match(left, delimiter(left), left, delimiter(left), true,
+					Paths.get(operands[3]));
+		} else {
+			final Path right = Paths.get(operands[3]);
+			matcher.match(left, delimiter(left), right, delimiter(right),
+					false, Paths.get(operands[4]));
+		}
+	}
+
+	private static char delimiter(Path file) {
+		return file.toString().endsWith(".tsv") ? '\t' : ',';
+	}
+
+	private final StringMetric metric;
+	private final float threshold;
+	private final int column;
+	private final char delimiter;
+	private final boolean header;
+	private final int chunkSize;
+	private final int batchSize;
+	private final int threads;
+
+	private FileMatcher(Builder builder) {
+		this.metric = builder.metric;
+		this.threshold = builder.threshold;
+		this.column = builder.column;
+		this.delimiter = builder.delimiter;
+		this.header = builder.header;
+		this.chunkSize = builder.chunkSize;
+		this.batchSize = builder.batchSize;
+		this.threads = builder.threads;
+	}
+
+	/**
+	 * Matches the records of a file against each other. Each pair is written
+	 * once and records are not matched with themselves.
+	 *
+	 * @param file
+	 *            the file to match
+	 * @param output
+	 *            the file to write the pairs to
+	 * @throws IOException
+	 *             when a file could not be read or written
+	 */
+	public void match(Path file, Path output) throws IOException {
+		match(file, delimiter, file, delimiter, true, output);
+	}
+
+	/**
+	 * Matches the records of one file against the records of another.
+	 *
+	 * @param left
+	 *            the file to read in chunks
+	 * @param right
+	 *            the file to stream past each chunk
+	 * @param output
+	 *            the file to write the pairs to
+	 * @throws IOException
+	 *             when a file could not be read or written
+	 */
+	public void match(Path left, Path right, Path output) throws IOException {
+		match(left, delimiter, right, delimiter, false, output);
+	}
+
+	private void match(Path left, char leftDelimiter, Path right,
+			char rightDelimiter, boolean self, Path output) throws IOException {
+		checkNotNull(left);
+		checkNotNull(right);
+		checkNotNull(output);
+
+		final BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(
+				2 * threads);
+		final BlockingQueue<List<Match>> matches = new ArrayBlockingQueue<>(
+				2 * threads);
+
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(threads + 1);
+		try (BufferedReader leftReader = Files.newBufferedReader(left, UTF_8);
+				BufferedWriter writer = Files.newBufferedWriter(output, UTF_8)) {
+
+			final List<Future<?>> stages = new ArrayList<>(threads + 1);
+			final Future<?> writerStage = executor.submit(new MatchWriter(
+					matches, writer, threads));
+			stages.add(writerStage);
+			for (int i = 0; i < threads; i++) {
+				stages.add(executor.submit(new Scorer(batches, matches,
+						writerStage, self)));
+			}
+
+			final Records leftRecords = new Records(leftReader, leftDelimiter);
+			Chunk chunk;
+			while ((chunk = readChunk(leftRecords)) != null) {
+				try (BufferedReader rightReader = Files.newBufferedReader(
+						right, UTF_8)) {
+					stream(chunk, new Records(rightReader, rightDelimiter),
+							self, batches, stages);
+				}
+			}
+
+			for (int i = 0; i < threads; i++) {
+				put(batches, END_OF_BATCHES, stages);
+			}
+			// The writer only ends after every scorer has ended. Await the
+			// scorers first so a failed scorer can not block this forever.
+			for (Future<?> stage : stages.subList(1, stages.size())) {
+				await(stage);
+			}
+			await(writerStage);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Chunk readChunk(Records records) throws IOException {
+		final Chunk chunk = new Chunk(chunkSize);
+		while (chunk.size < chunkSize && records.next()) {
+			chunk.lines[chunk.size] = records.line;
+			chunk.values[chunk.size] = records.value;
+			chunk.prepared[chunk.size] = StringMetrics.prepare(metric,
+					records.value);
+			chunk.size++;
+		}
+		return chunk.size == 0 ? null : chunk;
+	}
+
+	private void stream(Chunk chunk, Records records, boolean self,
+			BlockingQueue<Batch> batches, Collection<Future<?>> stages)
+			throws IOException {
+		// When matching a file with itself each record of the chunk is only
+		// compared with later records
+		final long first = self ? chunk.lines[0] : 0;
+
+		Batch batch = new Batch(chunk, batchSize);
+		while (records.next()) {
+			if (records.line <= first) {
+				continue;
+			}
+
+			batch.lines[batch.size] = records.line;
+			batch.values[batch.size] = records.value;
+			batch.size++;
+
+			if (batch.size == batchSize) {
+				put(batches, batch, stages);
+				batch = new Batch(chunk, batchSize);
+			}
+		}
+
+		if (batch.size > 0) {
+			put(batches, batch, stages);
+		}
+	}
+
+	/*
+	 * Puts an element in a queue. While the queue is full the stages that
+	 * take from it are checked for failures so a failed stage can not block
+	 * the stages before it forever.
+	 */
+	private static <T> void put(BlockingQueue<T> queue, T element,
+			Collection<Future<?>> stages) throws IOException {
+		try {
+			while (!queue.offer(element, 100, MILLISECONDS)) {
+				for (Future<?> stage : stages) {
+					if (stage.isDone()) {
+						await(stage);
+						throw new IllegalStateException("stage stopped early");
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+	}
+
+	private static void await(Future<?> stage) throws IOException {
+		try {
+			stage.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Reads the matched column of each record.
+	 */
+	private final class Records {
+
+		private final BufferedReader reader;
+		private final char delimiter;
+		private long lineNumber;
+
+		long line;
+		String value;
+
+		Records(BufferedReader reader, char delimiter) {
+			this.reader = reader;
+			this.delimiter = delimiter;
+		}
+
+		boolean next() throws IOException {
+			String text;
+			while ((text = reader.readLine()) != null) {
+				lineNumber++;
+				if (header && lineNumber == 1) {
+					continue;
+				}
+
+				value = field(text, delimiter, column);
+				if (value != null) {
+					line = lineNumber;
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns a field of a delimited line or null when the line has too few
+	 * fields. Quoted fields are unquoted.
+	 */
+	static String field(String line, char delimiter, int column) {
+		int start = 0;
+		for (int i = 0; i < column; i++) {
+			start = endOfField(line, delimiter, start) + 1;
+			if (start > line.length()) {
+				return null;
+			}
+		}
+
+		final int end = endOfField(line, delimiter, start);
+		if (start == end || line.charAt(start) != '"') {
+			return line.substring(start, end);
+		}
+
+		final StringBuilder builder = new StringBuilder(end - start);
+		for (int i = start + 1; i < end; i++) {
+			final char c = line.charAt(i);
+			if (c == '"') {
+				// Either an escaped quote or the closing quote
+				i++;
+				if (i < end && line.charAt(i) == '"') {
+					builder.append('"');
+				}
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static int endOfField(String line, char delimiter, int start) {
+		boolean quoted = false;
+		for (int i = start; i < line.length(); i++) {
+			final char c = line.charAt(i);
+			if (c == '"') {
+				quoted = !quoted;
+			} else if (c == delimiter && !quoted) {
+				return i;
+			}
+		}
+		return line.length();
+	}
+
+	private static final class Chunk {
+		final long[] lines;
+		final String[] values;
+		final PreparedStringMetric[] prepared;
+		int size;
+
+		Chunk(int capacity) {
+			lines = new long[capacity];
+			values = new String[capacity];
+			prepared = new PreparedStringMetric[capacity];
+		}
+	}
+
+	private static final class Batch {
+		final Chunk chunk;
+		final long[] lines;
+		final String[] values;
+		int size;
+
+		Batch(Chunk chunk, int capacity) {
+			this.chunk = chunk;
+			lines = new long[capacity];
+			values = new String[capacity];
+		}
+	}
+
+	private static final class Match {
+		final long leftLine;
+		final long rightLine;
+		final float similarity;
+		final String left;
+		final String right;
+
+		Match(long leftLine, long rightLine, float similarity, String left,
+				String right) {
+			this.leftLine = leftLine;
+			this.rightLine = rightLine;
+			this.similarity = similarity;
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	private final class Scorer implements Callable<Void> {
+
+		private final BlockingQueue<Batch> batches;
+		private final BlockingQueue<List<Match>> matches;
+		private final Collection<Future<?>> writer;
+		private final boolean self;
+
+		Scorer(BlockingQueue<Batch> batches,
+				BlockingQueue<List<Match>> matches, Future<?> writer,
+				boolean self) {
+			this.batches = batches;
+			this.matches = matches;
+			this.writer = Collections.<Future<?>> singletonList(writer);
+			this.self = self;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			Batch batch;
+			while ((batch = batches.take()) != END_OF_BATCHES) {
+				final List<Match> found = score(batch);
+				if (!found.isEmpty()) {
+					put(matches, found, writer);
+				}
+			}
+			put(matches, END_OF_MATCHES, writer);
+			return null;
+		}
+
+		private List<Match> score(Batch batch) {
+			final Chunk chunk = batch.chunk;
+			final List<Match> found = new ArrayList<>();
+			for (int j = 0; j < batch.size; j++) {
+				final String value = batch.values[j];
+				for (int i = 0; i < chunk.size; i++) {
+					if (self && chunk.lines[i] >= batch.lines[j]) {
+						break;
+					}
+
+					final float similarity = chunk.prepared[i].compare(value);
+					if (similarity >= threshold) {
+						found.add(new Match(chunk.lines[i], batch.lines[j],
+								similarity, chunk.values[i], value));
+					}
+				}
+			}
+			return found;
+		}
+	}
+
+	private static final class MatchWriter implements Callable<Void> {
+
+		private final BlockingQueue<List<Match>> matches;
+		private final Writer writer;
+		private final int scorers;
+
+		MatchWriter(BlockingQueue<List<Match>> matches, Writer writer,
+				int scorers) {
+			this.matches = matches;
+			this.writer = writer;
+			this.scorers = scorers;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			int remaining = scorers;
+			while (remaining > 0) {
+				final List<Match> found = matches.take();
+				if (found == END_OF_MATCHES) {
+					remaining--;
+					continue;
+				}
+
+				for (Match match : found) {
+					writer.append(Long.toString(match.leftLine)).append('\t')
+							.append(Long.toString(match.rightLine))
+							.append('\t')
+							.append(Float.toString(match.similarity))
+							.append('\t').append(escape(match.left))
+							.append('\t').append(escape(match.right))
+							.append('\n');
+				}
+			}
+			writer.flush();
+			return null;
+		}
+
+		private static String escape(String field) {
+			return field.replace('\t', ' ');
+		}
+	}
+}
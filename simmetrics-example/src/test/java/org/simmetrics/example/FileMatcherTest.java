@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * Simmetrics Examples
+ * %%
+ * Copyright (C) 2014 - 2016 Simmetrics Authors
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.simmetrics.example;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.simmetrics.example.FileMatcher.field;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.Levenshtein;
+
+@SuppressWarnings("javadoc")
+public class FileMatcherTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final StringMetric metric = new Levenshtein();
+
+	private Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("simmetrics");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		for (Path file : Files.newDirectoryStream(directory)) {
+			Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	@Test
+	public void fields() {
+		assertEquals("a", field("a,b,c", ',', 0));
+		assertEquals("b", field("a,b,c", ',', 1));
+		assertEquals("c", field("a,b,c", ',', 2));
+		assertEquals("", field("a,,c", ',', 1));
+		assertEquals("", field("a,b,", ',', 2));
+		assertNull(field("a,b", ',', 2));
+		assertEquals("b,c", field("a,\"b,c\",d", ',', 1));
+		assertEquals("d", field("a,\"b,c\",d", ',', 2));
+		assertEquals("say \"hi\"", field("\"say \"\"hi\"\"\"", ',', 0));
+		assertEquals("b", field("a\tb", '\t', 1));
+	}
+
+	@Test
+	public void matchTwoFiles() throws IOException {
+		final Path left = write("left.csv", "id,name", "1,Healed",
+				"2,Sealed", "3,Web Database");
+		final Path right = write("right.csv", "id,name", "1,Heeled",
+				"2,Database", "3,Web Databases", "4");
+		final Path output = directory.resolve("matches.tsv");
+
+		FileMatcher.with(metric).threshold(0.8f).column(1).header(true)
+				.chunkSize(2).batchSize(1).threads(2).build()
+				.match(left, right, output);
+
+		assertEquals(asList("2\t2\t0.8333333\tHealed\tHeeled",
+				"4\t4\t0.9230769\tWeb Database\tWeb Databases"), read(output));
+	}
+
+	@Test
+	public void matchFileWithItself() throws IOException {
+		final Path file = write("names.tsv", "Healed", "Sealed", "Healed",
+				"Web Database");
+		final Path output = directory.resolve("matches.tsv");
+
+		FileMatcher.with(metric).threshold(0.8f).delimiter('\t')
+				.chunkSize(1).batchSize(2).threads(3).build()
+				.match(file, output);
+
+		assertEquals(asList("1\t2\t0.8333333\tHealed\tSealed",
+				"1\t3\t1.0\tHealed\tHealed",
+				"2\t3\t0.8333333\tSealed\tHealed"), read(output));
+	}
+
+	@Test
+	public void matchManyRecords() throws IOException {
+		final List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			lines.add("record " + i);
+		}
+		final Path file = Files.write(directory.resolve("records.csv"),
+				lines, UTF_8);
+		final Path output = directory.resolve("matches.tsv");
+
+		FileMatcher.with(metric).threshold(0.99f).chunkSize(100)
+				.batchSize(7).threads(4).build().match(file, file, output);
+
+		final List<String> matches = read(output);
+		assertEquals(1000, matches.size());
+		for (String match : matches) {
+			final String[] fields = match.split("\t");
+			assertEquals(fields[0], fields[1]);
+		}
+	}
+
+	@Test
+	public void mainChoosesDelimiterPerFile() throws IOException {
+		final Path left = write("left.csv", "id,name", "1,Healed",
+				"2,\"Web, Database\"");
+		final Path right = write("right.tsv", "id\tname", "1\tWeb, Database",
+				"2\tHealed");
+		final Path output = directory.resolve("matches.tsv");
+
+		FileMatcher.main(new String[] { "--header", "1.0", "1",
+				left.toString(), right.toString(), output.toString() });
+
+		assertEquals(asList("2\t3\t1.0\tHealed\tHealed",
+				"3\t2\t1.0\tWeb, Database\tWeb, Database"), read(output));
+	}
+
+	@Test(expected = IllegalStateException.class, timeout = 10000)
+	public void failingMetric() throws IOException {
+		final List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			lines.add("record " + i);
+		}
+		final Path file = Files.write(directory.resolve("records.csv"),
+				lines, UTF_8);
+		final Path output = directory.resolve("matches.tsv");
+
+		final StringMetric failing = new StringMetric() {
+
+			@Override
+			public float compare(String a, String b) {
+				if (b.equals("record 42")) {
+					throw new IllegalStateException();
+				}
+				return metric.compare(a, b);
+			}
+		};
+
+		FileMatcher.with(failing).threshold(0.99f).batchSize(4).threads(2)
+				.build().match(file, file, output);
+	}
+
+	private Path write(String name, String... lines) throws IOException {
+		return Files.write(directory.resolve(name), asList(lines), UTF_8);
+	}
+
+	private static List<String> read(Path file) throws IOException {
+		final List<String> lines = new ArrayList<>(Files.readAllLines(file,
+				UTF_8));
+		Collections.sort(lines);
+		return lines;
+	}
+
+}